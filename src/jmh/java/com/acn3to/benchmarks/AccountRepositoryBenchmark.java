@@ -0,0 +1,51 @@
+package com.acn3to.benchmarks;
+
+import com.acn3to.core.entities.Account;
+import com.acn3to.core.repositories.AccountRepository;
+import com.acn3to.core.repositories.memory.InMemoryAccountRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the per-call cost of AccountRepository.save and findById on the in-memory storage backend.
+ * The MongoDB repository's mapping cost is measured by {@link EntityMappingBenchmark}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AccountRepositoryBenchmark {
+    private AccountRepository accountRepository;
+    private Account account;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        accountRepository = new InMemoryAccountRepository();
+        account = new Account(150_000, 1, "Holder 1", "Savings", "Active", new Date());
+        accountRepository.save(account);
+    }
+
+    @Benchmark
+    public void save() {
+        accountRepository.save(account);
+    }
+
+    @Benchmark
+    public Account findById() {
+        return accountRepository.findById(1);
+    }
+}
@@ -0,0 +1,138 @@
+package com.acn3to.benchmarks;
+
+import com.acn3to.core.entities.Account;
+import com.acn3to.core.repositories.memory.InMemoryAccountRepository;
+import com.acn3to.core.repositories.memory.InMemoryTransactionRepository;
+import com.acn3to.core.services.AccountLedger;
+import com.acn3to.core.services.AccountService;
+import com.acn3to.core.services.TransactionLogger;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Measures AccountService operations against the in-memory storage backend.
+ * <p>
+ * With the {@code contended} distribution every thread operates on account 1; with {@code uncontended}
+ * each thread gets an account of its own. Transfers go between a thread's account and a counterparty,
+ * alternating direction: account 2 for {@code contended}, so all threads move money both ways over one hot
+ * pair, and the next account for {@code uncontended}. Batches hold {@value #BATCH_SIZE} deposits and withdrawals
+ * on account 1 for {@code contended} and on random accounts for {@code uncontended}; their scores are per operation.
+ * </p>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AccountServiceBenchmark {
+    private static final int ACCOUNTS = 1024;
+    private static final int BATCH_SIZE = 1000;
+
+    @State(Scope.Benchmark)
+    public static class ServiceState {
+        @Param({"repository", "ledger"})
+        public String mode;
+
+        @Param({"contended", "uncontended"})
+        public String distribution;
+
+        AccountService accountService;
+        AccountLedger accountLedger;
+        final AtomicInteger nextThread = new AtomicInteger();
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            InMemoryAccountRepository accountRepository = new InMemoryAccountRepository();
+            for (int i = 1; i <= ACCOUNTS; i++) {
+                accountRepository.save(new Account(100_000_000_000L, i, "Holder " + i, "Savings", "Active", new Date()));
+            }
+            TransactionLogger transactionLogger = new TransactionLogger(new InMemoryTransactionRepository());
+            if (mode.equals("ledger")) {
+                accountLedger = new AccountLedger(accountRepository, 60_000);
+                accountLedger.load();
+            }
+            accountService = new AccountService(accountRepository, transactionLogger, accountLedger);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            if (accountLedger != null) {
+                accountLedger.close();
+            }
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class CustomerState {
+        int accountId;
+        int counterpartyAccountId;
+        boolean reverse;
+        List<AccountService.Operation> batch;
+
+        @Setup(Level.Trial)
+        public void setUp(ServiceState service) {
+            int thread = service.nextThread.getAndIncrement();
+            accountId = service.distribution.equals("contended") ? 1 : (thread % ACCOUNTS) + 1;
+            counterpartyAccountId = (accountId % ACCOUNTS) + 1;
+
+            SplittableRandom random = new SplittableRandom(thread);
+            batch = new ArrayList<>(BATCH_SIZE);
+            for (int i = 0; i < BATCH_SIZE; i++) {
+                int batchAccountId = service.distribution.equals("contended") ? 1 : random.nextInt(ACCOUNTS) + 1;
+                batch.add(i % 2 == 0
+                        ? AccountService.Operation.deposit(batchAccountId, 1_000)
+                        : AccountService.Operation.withdrawal(batchAccountId, 1_000));
+            }
+        }
+    }
+
+    @Benchmark
+    public void deposit(ServiceState service, CustomerState customer) {
+        service.accountService.deposit(customer.accountId, 1_000);
+    }
+
+    @Benchmark
+    public void withdraw(ServiceState service, CustomerState customer) {
+        service.accountService.withdraw(customer.accountId, 1_000);
+    }
+
+    @Benchmark
+    public void transfer(ServiceState service, CustomerState customer) {
+        customer.reverse = !customer.reverse;
+        if (customer.reverse) {
+            service.accountService.transfer(customer.counterpartyAccountId, customer.accountId, 1_000);
+        } else {
+            service.accountService.transfer(customer.accountId, customer.counterpartyAccountId, 1_000);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public long[] applyBatch(ServiceState service, CustomerState customer) {
+        return service.accountService.applyBatch(customer.batch);
+    }
+
+    @Benchmark
+    public long getAccountBalance(ServiceState service, CustomerState customer) {
+        return service.accountService.getAccountBalance(customer.accountId);
+    }
+}
@@ -0,0 +1,81 @@
+package com.acn3to.benchmarks;
+
+import com.acn3to.core.entities.BankAgency;
+import com.acn3to.core.repositories.memory.InMemoryBankAgencyRepository;
+import com.acn3to.core.utils.AgencyIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Date;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares finding the 5 nearest open agencies with a linear scan of the in-memory repository and with an
+ * {@link AgencyIndex}, over agencies spread across Salvador.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AgencyLookupBenchmark {
+    private static final int NEAREST = 5;
+    private static final int QUERIES = 1024;
+
+    @Param({"1000", "50000"})
+    public int agencies;
+
+    private InMemoryBankAgencyRepository repository;
+    private AgencyIndex index;
+    private final double[] latitudes = new double[QUERIES];
+    private final double[] longitudes = new double[QUERIES];
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        repository = new InMemoryBankAgencyRepository();
+        for (int i = 1; i <= agencies; i++) {
+            repository.save(new BankAgency("AG" + i, randomLatitude(random), randomLongitude(random), "Address " + i,
+                    "555-0100", "Manager " + i, new Date(), random.nextBoolean() ? BankAgency.STATUS_OPEN : "Closed"));
+        }
+        index = new AgencyIndex(repository.findAll());
+        for (int i = 0; i < QUERIES; i++) {
+            latitudes[i] = randomLatitude(random);
+            longitudes[i] = randomLongitude(random);
+        }
+    }
+
+    @Benchmark
+    public List<BankAgency> linearScan() {
+        int query = next++ & (QUERIES - 1);
+        return repository.findNearest(latitudes[query], longitudes[query], NEAREST, true);
+    }
+
+    @Benchmark
+    public List<BankAgency> index() {
+        int query = next++ & (QUERIES - 1);
+        return index.findNearest(latitudes[query], longitudes[query], NEAREST, true);
+    }
+
+    private static double randomLatitude(SplittableRandom random) {
+        return -13.05 + random.nextDouble() * 0.1;
+    }
+
+    private static double randomLongitude(SplittableRandom random) {
+        return -38.6 + random.nextDouble() * 0.2;
+    }
+}
@@ -0,0 +1,40 @@
+package com.acn3to.benchmarks;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.File;
+
+/**
+ * Runs the benchmarks once per thread count (1, 8 and 64) and writes one JSON result file per run.
+ * <p>
+ * Any regular JMH command line options, such as a benchmark name filter or {@code -prof gc},
+ * are passed through. Results go to {@code target/jmh/results-t<threads>.json}.
+ * </p>
+ */
+public class BenchmarkRunner {
+    private static final int[] THREAD_COUNTS = {1, 8, 64};
+
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+        File resultDirectory = new File("target/jmh");
+        if (!resultDirectory.isDirectory() && !resultDirectory.mkdirs()) {
+            throw new IllegalStateException("Cannot create " + resultDirectory);
+        }
+
+        for (int threads : THREAD_COUNTS) {
+            Options options = new OptionsBuilder()
+                    .parent(commandLine)
+                    .threads(threads)
+                    .resultFormat(ResultFormatType.JSON)
+                    .result(new File(resultDirectory, "results-t" + threads + ".json").getPath())
+                    .build();
+            new Runner(options).run();
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.acn3to.benchmarks;
+
+import com.acn3to.core.entities.Account;
+import com.acn3to.core.repositories.mongo.codecs.AccountCodec;
+import com.acn3to.core.utils.Money;
+import org.bson.BsonBinaryReader;
+import org.bson.BsonBinaryWriter;
+import org.bson.Document;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.DocumentCodec;
+import org.bson.codecs.EncoderContext;
+import org.bson.io.BasicOutputBuffer;
+import org.bson.types.Decimal128;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.ByteBuffer;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares mapping an Account to and from BSON through an intermediate Document, as the MongoDB
+ * repositories used to, with the direct {@link AccountCodec}.
+ * <p>
+ * Run with {@code -prof gc} to see the allocation per operation ({@code gc.alloc.rate.norm}).
+ * </p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class EntityMappingBenchmark {
+    @Param({"document", "codec"})
+    public String mapping;
+
+    private final DocumentCodec documentCodec = new DocumentCodec();
+    private final AccountCodec accountCodec = new AccountCodec();
+    private final BasicOutputBuffer buffer = new BasicOutputBuffer();
+    private Account account;
+    private byte[] encoded;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        account = new Account(150_000, 1, "Holder 1", "Savings", "Active", new Date());
+        encodeAccount();
+        encoded = buffer.toByteArray();
+    }
+
+    @Benchmark
+    public int encode() {
+        return encodeAccount();
+    }
+
+    @Benchmark
+    public Account decode() {
+        try (BsonBinaryReader reader = new BsonBinaryReader(ByteBuffer.wrap(encoded))) {
+            if (mapping.equals("codec")) {
+                return accountCodec.decode(reader, DecoderContext.builder().build());
+            }
+            Document document = documentCodec.decode(reader, DecoderContext.builder().build());
+            return new Account(
+                    Money.ofUnits(document.get("balance", Decimal128.class)),
+                    document.getInteger("accountId"),
+                    document.getString("accountHolderName"),
+                    document.getString("accountType"),
+                    document.getString("accountStatus"),
+                    document.getDate("creationDate")
+            );
+        }
+    }
+
+    private int encodeAccount() {
+        buffer.truncateToPosition(0);
+        try (BsonBinaryWriter writer = new BsonBinaryWriter(buffer)) {
+            if (mapping.equals("codec")) {
+                accountCodec.encode(writer, account, EncoderContext.builder().build());
+            } else {
+                Document document = new Document("accountId", account.getAccountId())
+                        .append("accountHolderName", account.getAccountHolderName())
+                        .append("accountType", account.getAccountType())
+                        .append("accountStatus", account.getAccountStatus())
+                        .append("creationDate", account.getCreationDate())
+                        .append("lastUpdatedDate", account.getLastUpdatedDate())
+                        .append("balance", Money.toDecimal128(account.getBalanceCents()));
+                documentCodec.encode(writer, document, EncoderContext.builder().build());
+            }
+        }
+        return buffer.getPosition();
+    }
+}
@@ -0,0 +1,54 @@
+package com.acn3to.benchmarks;
+
+import com.acn3to.core.repositories.memory.InMemoryTransactionRepository;
+import com.acn3to.core.services.AsyncTransactionLogger;
+import com.acn3to.core.services.TransactionLogger;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the caller-side cost of TransactionLogger.logTransaction against the in-memory storage backend.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TransactionLoggerBenchmark {
+    @Param({"sync", "async"})
+    public String mode;
+
+    private TransactionLogger transactionLogger;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        InMemoryTransactionRepository transactionRepository = new InMemoryTransactionRepository();
+        transactionLogger = mode.equals("async")
+                ? new AsyncTransactionLogger(transactionRepository)
+                : new TransactionLogger(transactionRepository);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        transactionLogger.close();
+    }
+
+    @Benchmark
+    public void logTransaction() {
+        transactionLogger.logTransaction(42, "Deposit", 12_345, 678_901, false);
+    }
+}
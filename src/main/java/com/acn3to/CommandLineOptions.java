@@ -0,0 +1,228 @@
+package com.acn3to;
+
+import com.acn3to.core.analytics.TransactionAnalytics;
+import com.acn3to.core.logging.Level;
+import com.acn3to.core.repositories.journal.TransactionJournal;
+
+/**
+ * Options for a run of {@link Main}, parsed from {@code --name=value} command-line arguments.
+ *
+ * @param accounts                the number of accounts to seed
+ * @param agencies                the number of bank agencies to seed
+ * @param customers               the number of simulated customers
+ * @param transactionsPerCustomer the number of operations each customer performs
+ * @param maxThinkTimeMillis      the longest pause between two operations of a customer
+ * @param useAccountLedger        whether balances are kept in memory and checkpointed to the database
+ * @param seedChunkSize           the number of entities written by one bulk write while seeding
+ * @param seedParallelism         the number of chunks generated and written at the same time while seeding
+ * @param seed                    the random seed of the generated dataset
+ * @param seedOnly                whether to stop after seeding instead of running the workload
+ * @param metricsPort             the port serving metrics at {@code /metrics}, or 0 not to serve them
+ * @param metricsFile             the file metrics are dumped to periodically, or null not to dump them
+ * @param metricsIntervalMillis   the time between two metrics dumps
+ * @param logLevel                the least severe event level that is logged
+ * @param logFile                 the file events are appended to, or null to log to standard output
+ * @param accountCacheSize        the maximum number of accounts cached in memory, or 0 not to cache them
+ * @param accountCacheTtlMillis   how long an account stays cached
+ * @param journalDirectory        the directory of the local transaction journal, or null to write transactions
+ *                                straight to the database
+ * @param journalSegmentRecords   the number of transactions in each journal segment file
+ * @param snapshotInterval        the number of transactions of an account between two balance snapshots, or 0
+ *                                not to take snapshots
+ * @param reconcile               whether stored balances are reconciled with the transaction history after the workload
+ * @param reconcileCheckpoint     the file a reconciliation records its progress in and resumes from, or null
+ * @param analytics               whether rolling transaction statistics are kept and saved for every window
+ * @param analyticsWindowMillis   the length of a tumbling analytics window
+ * @param async                   whether the workload runs on the non-blocking account service
+ */
+public record CommandLineOptions(int accounts, int agencies, int customers, int transactionsPerCustomer,
+                                 long maxThinkTimeMillis, boolean useAccountLedger, int seedChunkSize,
+                                 int seedParallelism, long seed, boolean seedOnly, int metricsPort,
+                                 String metricsFile, long metricsIntervalMillis, Level logLevel, String logFile,
+                                 int accountCacheSize, long accountCacheTtlMillis, String journalDirectory,
+                                 int journalSegmentRecords, int snapshotInterval, boolean reconcile,
+                                 String reconcileCheckpoint, boolean analytics, long analyticsWindowMillis,
+                                 boolean async) {
+
+    public static final String USAGE = """
+            Usage: com.acn3to.Main [options]
+              --accounts=N                   accounts to seed (default 100)
+              --agencies=N                   bank agencies to seed (default 5)
+              --customers=N                  simulated customers (default 100)
+              --transactions-per-customer=N  operations per customer (default 10)
+              --max-think-time-ms=N          longest pause between operations (default 2000)
+              --ledger                       keep balances in memory, checkpoint to the database every second
+              --seed-chunk-size=N            entities per bulk write while seeding (default 1000)
+              --seed-parallelism=N           chunks written at the same time (default: available processors)
+              --seed=N                       random seed of the generated dataset (default 42)
+              --seed-only                    seed the database and exit without running the workload
+              --metrics-port=N               serve Prometheus metrics at http://host:N/metrics (default: off)
+              --metrics-file=PATH            dump Prometheus metrics to PATH periodically (default: off)
+              --metrics-interval-ms=N        time between two metrics dumps (default 10000)
+              --log-level=LEVEL              DEBUG, INFO, WARN, ERROR or OFF (default INFO)
+              --log-file=PATH                append events to PATH instead of standard output
+              --account-cache-size=N         cache up to N accounts in memory for balance reads (default: off)
+              --account-cache-ttl-ms=N       how long an account stays cached (default 5000)
+              --journal-dir=PATH             journal transactions durably in PATH and ship them to the database
+                                             in the background (default: off)
+              --journal-segment-records=N    transactions per journal segment file (default 1048576)
+              --snapshot-interval=N          snapshot an account's balance every N of its transactions and check
+                                             the replayed balances after the workload (default: off)
+              --reconcile                    reconcile every balance with the transaction history after the workload
+              --reconcile-checkpoint=PATH    record reconciliation progress in PATH and resume from it (default: off)
+              --analytics                    keep rolling transaction statistics, save them for every window and
+                                             print them after the workload
+              --analytics-window-ms=N        length of an analytics window (default 10000)
+              --async                        run the workload on the non-blocking account service, driven by one
+                                             scheduler thread instead of a thread per customer
+            """;
+
+    /**
+     * Returns the options used when no arguments are given.
+     *
+     * @return the default options
+     */
+    public static CommandLineOptions defaults() {
+        return new CommandLineOptions(100, 5, 100, 10, 2000, false, 1000,
+                Runtime.getRuntime().availableProcessors(), 42, false, 0, null, 10_000, Level.INFO, null, 0, 5000,
+                null, TransactionJournal.DEFAULT_SEGMENT_RECORDS, 0, false, null, false,
+                TransactionAnalytics.DEFAULT_WINDOW_MILLIS, false);
+    }
+
+    /**
+     * Parses command-line arguments, starting from {@link #defaults()}.
+     *
+     * @param args the arguments passed to {@code main}
+     * @return the parsed options
+     * @throws IllegalArgumentException if an argument is unknown or its value is invalid
+     */
+    public static CommandLineOptions parse(String[] args) {
+        CommandLineOptions defaults = defaults();
+        int accounts = defaults.accounts();
+        int agencies = defaults.agencies();
+        int customers = defaults.customers();
+        int transactionsPerCustomer = defaults.transactionsPerCustomer();
+        long maxThinkTimeMillis = defaults.maxThinkTimeMillis();
+        boolean useAccountLedger = defaults.useAccountLedger();
+        int seedChunkSize = defaults.seedChunkSize();
+        int seedParallelism = defaults.seedParallelism();
+        long seed = defaults.seed();
+        boolean seedOnly = defaults.seedOnly();
+        int metricsPort = defaults.metricsPort();
+        String metricsFile = defaults.metricsFile();
+        long metricsIntervalMillis = defaults.metricsIntervalMillis();
+        Level logLevel = defaults.logLevel();
+        String logFile = defaults.logFile();
+        int accountCacheSize = defaults.accountCacheSize();
+        long accountCacheTtlMillis = defaults.accountCacheTtlMillis();
+        String journalDirectory = defaults.journalDirectory();
+        int journalSegmentRecords = defaults.journalSegmentRecords();
+        int snapshotInterval = defaults.snapshotInterval();
+        boolean reconcile = defaults.reconcile();
+        String reconcileCheckpoint = defaults.reconcileCheckpoint();
+        boolean analytics = defaults.analytics();
+        long analyticsWindowMillis = defaults.analyticsWindowMillis();
+        boolean async = defaults.async();
+
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            String name = separator >= 0 ? arg.substring(0, separator) : arg;
+            String value = separator >= 0 ? arg.substring(separator + 1) : null;
+            switch (name) {
+                case "--accounts" -> accounts = parseInt(name, value);
+                case "--agencies" -> agencies = parseInt(name, value);
+                case "--customers" -> customers = parseInt(name, value);
+                case "--transactions-per-customer" -> transactionsPerCustomer = parseInt(name, value);
+                case "--max-think-time-ms" -> maxThinkTimeMillis = parseLong(name, value);
+                case "--ledger" -> useAccountLedger = true;
+                case "--seed-chunk-size" -> seedChunkSize = parseInt(name, value);
+                case "--seed-parallelism" -> seedParallelism = parseInt(name, value);
+                case "--seed" -> seed = parseLong(name, value);
+                case "--seed-only" -> seedOnly = true;
+                case "--metrics-port" -> metricsPort = parseInt(name, value);
+                case "--metrics-file" -> metricsFile = parseString(name, value);
+                case "--metrics-interval-ms" -> metricsIntervalMillis = parseLong(name, value);
+                case "--log-level" -> logLevel = parseLevel(name, value);
+                case "--log-file" -> logFile = parseString(name, value);
+                case "--account-cache-size" -> accountCacheSize = parseInt(name, value);
+                case "--account-cache-ttl-ms" -> accountCacheTtlMillis = parseLong(name, value);
+                case "--journal-dir" -> journalDirectory = parseString(name, value);
+                case "--journal-segment-records" -> journalSegmentRecords = parseInt(name, value);
+                case "--snapshot-interval" -> snapshotInterval = parseInt(name, value);
+                case "--reconcile" -> reconcile = true;
+                case "--reconcile-checkpoint" -> reconcileCheckpoint = parseString(name, value);
+                case "--analytics" -> analytics = true;
+                case "--analytics-window-ms" -> analyticsWindowMillis = parseLong(name, value);
+                case "--async" -> async = true;
+                default -> throw new IllegalArgumentException("Unknown option: " + arg);
+            }
+        }
+        if (accountCacheSize > 0 && accountCacheTtlMillis == 0) {
+            throw new IllegalArgumentException("Value of --account-cache-ttl-ms must be positive when the account cache is on");
+        }
+        if (seedChunkSize == 0) {
+            throw new IllegalArgumentException("Value of --seed-chunk-size must be positive");
+        }
+        if (seedParallelism == 0) {
+            throw new IllegalArgumentException("Value of --seed-parallelism must be positive");
+        }
+        if (journalSegmentRecords == 0) {
+            throw new IllegalArgumentException("Value of --journal-segment-records must be positive");
+        }
+        if (reconcileCheckpoint != null && !reconcile) {
+            throw new IllegalArgumentException("--reconcile-checkpoint requires --reconcile");
+        }
+        if (analyticsWindowMillis == 0) {
+            throw new IllegalArgumentException("Value of --analytics-window-ms must be positive");
+        }
+        if (async && (useAccountLedger || accountCacheSize > 0 || journalDirectory != null || snapshotInterval > 0
+                || analytics)) {
+            // The reactive repositories go straight to the database, past the ledger and the decorators.
+            throw new IllegalArgumentException(
+                    "--async cannot be combined with --ledger, --account-cache-size, --journal-dir, --snapshot-interval or --analytics");
+        }
+        return new CommandLineOptions(accounts, agencies, customers, transactionsPerCustomer, maxThinkTimeMillis,
+                useAccountLedger, seedChunkSize, seedParallelism, seed, seedOnly, metricsPort, metricsFile,
+                metricsIntervalMillis, logLevel, logFile, accountCacheSize, accountCacheTtlMillis, journalDirectory,
+                journalSegmentRecords, snapshotInterval, reconcile, reconcileCheckpoint,
+                analytics, analyticsWindowMillis, async);
+    }
+
+    private static Level parseLevel(String name, String value) {
+        try {
+            return Level.valueOf(parseString(name, value).toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid value for " + name + ": " + value);
+        }
+    }
+
+    private static String parseString(String name, String value) {
+        if (value == null || value.isEmpty()) {
+            throw new IllegalArgumentException("Missing value for " + name);
+        }
+        return value;
+    }
+
+    private static int parseInt(String name, String value) {
+        long parsed = parseLong(name, value);
+        if (parsed > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Value of " + name + " is too large: " + value);
+        }
+        return (int) parsed;
+    }
+
+    private static long parseLong(String name, String value) {
+        if (value == null) {
+            throw new IllegalArgumentException("Missing value for " + name);
+        }
+        try {
+            long parsed = Long.parseLong(value);
+            if (parsed < 0) {
+                throw new IllegalArgumentException("Value of " + name + " must not be negative: " + value);
+            }
+            return parsed;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid value for " + name + ": " + value);
+        }
+    }
+}
@@ -1,107 +1,214 @@
 package com.acn3to;
 
-import java.util.Date;
-import java.util.Random;
-import java.util.concurrent.ThreadLocalRandom;
+import java.nio.file.Path;
+import java.time.Duration;
 
-import com.acn3to.core.entities.Account;
-import com.acn3to.core.entities.BankAgency;
+import com.acn3to.core.analytics.TransactionAnalytics;
+import com.acn3to.core.logging.ConsoleSink;
+import com.acn3to.core.logging.EventLog;
+import com.acn3to.core.logging.FileSink;
+import com.acn3to.core.metrics.MetricsFileReporter;
+import com.acn3to.core.metrics.MetricsHttpServer;
+import com.acn3to.core.metrics.MetricsRegistry;
+import com.acn3to.core.services.AccountLedger;
 import com.acn3to.core.services.AccountService;
+import com.acn3to.core.services.AsyncAccountService;
+import com.acn3to.core.services.AsyncTransactionLogger;
+import com.acn3to.core.services.BalanceReplayer;
 import com.acn3to.core.services.BankService;
+import com.acn3to.core.services.ReconciliationEngine;
 import com.acn3to.core.services.TransactionLogger;
 import com.acn3to.core.repositories.AccountRepository;
+import com.acn3to.core.repositories.AsyncRepositories;
 import com.acn3to.core.repositories.BankAgencyRepository;
+import com.acn3to.core.repositories.Repositories;
+import com.acn3to.core.repositories.StorageBackend;
 import com.acn3to.core.repositories.TransactionRepository;
+import com.acn3to.core.repositories.cached.CachingAccountRepository;
+import com.acn3to.core.repositories.journal.JournaledTransactionRepository;
+import com.acn3to.core.repositories.snapshot.SnapshottingTransactionRepository;
 import com.acn3to.core.utils.MongoDBConnection;
-import com.acn3to.threads.CustomerThread;
-import com.mongodb.client.MongoDatabase;
+import com.acn3to.seeding.DataSeeder;
+import com.acn3to.seeding.SeedConfig;
+import com.acn3to.seeding.SeedReport;
+import com.acn3to.threads.AsyncWorkloadDriver;
+import com.acn3to.threads.ThinkTime;
+import com.acn3to.threads.WorkloadConfig;
+import com.acn3to.threads.WorkloadDriver;
+import com.acn3to.threads.WorkloadReport;
 
 public class Main {
-    private static final int NUMBER_OF_ACCOUNTS = 100;
-    private static final int NUMBER_OF_BANK_AGENCIES = 5;
-    private static final int NUMBER_OF_THREADS = 100;
-    private static final int TRANSACTIONS_PER_THREAD = 10;
-
-    // Coordinates range for Salvador
-    private static final double MIN_LATITUDE = -13.0500;
-    private static final double MAX_LATITUDE = -12.9500;
-    private static final double MIN_LONGITUDE = -38.6000;
-    private static final double MAX_LONGITUDE = -38.4000;
 
     public static void main(String[] args) {
-        MongoDatabase database = null;
+        CommandLineOptions options;
         try {
-            database = MongoDBConnection.getDatabase();
-            Random random = new Random();
-
-            AccountRepository accountRepository = new AccountRepository(database);
-            TransactionRepository transactionRepository = new TransactionRepository(database);
-            BankAgencyRepository bankAgencyRepository = new BankAgencyRepository(database);
+            options = CommandLineOptions.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.print(CommandLineOptions.USAGE);
+            System.exit(2);
+            return;
+        }
 
-            TransactionLogger transactionLogger = new TransactionLogger(transactionRepository);
-            AccountService accountService = new AccountService(accountRepository, transactionLogger);
-            BankService bankService = new BankService(accountRepository, bankAgencyRepository);
+        TransactionLogger transactionLogger = null;
+        TransactionAnalytics analytics = null;
+        JournaledTransactionRepository transactionJournal = null;
+        SnapshottingTransactionRepository balanceSnapshotter = null;
+        AccountLedger accountLedger = null;
+        MetricsHttpServer metricsServer = null;
+        MetricsFileReporter metricsReporter = null;
+        EventLog eventLog = null;
+        try {
+            eventLog = new EventLog(options.logLevel(),
+                    options.logFile() != null ? new FileSink(Path.of(options.logFile())) : new ConsoleSink());
 
-            for (int i = 0; i < NUMBER_OF_BANK_AGENCIES; i++) {
-                String agencyId = "Agency-" + (i + 1);
-                double randomLatitude = MIN_LATITUDE + (random.nextDouble() * (MAX_LATITUDE - MIN_LATITUDE));
-                double randomLongitude = MIN_LONGITUDE + (random.nextDouble() * (MAX_LONGITUDE - MIN_LONGITUDE));
-                Date randomDate = generateRandomDate(random);
-                String agencyStatus = random.nextBoolean() ? "Open" : "Closed";
-                BankAgency agency = new BankAgency(
-                        agencyId,
-                        randomLatitude,
-                        randomLongitude,
-                        "Address " + (i + 1),
-                        "Phone " + (i + 1),
-                        "Manager " + (i + 1),
-                        randomDate,
-                        agencyStatus
-                );
-                bankService.addBankAgency(agency);
+            MetricsRegistry metrics = MetricsRegistry.getDefault();
+            if (options.metricsPort() > 0) {
+                metricsServer = new MetricsHttpServer(metrics, options.metricsPort());
+                System.out.printf("Serving metrics at http://localhost:%d/metrics%n", metricsServer.getPort());
+            }
+            if (options.metricsFile() != null) {
+                metricsReporter = new MetricsFileReporter(metrics, Path.of(options.metricsFile()), options.metricsIntervalMillis());
             }
 
-            for (int i = 0; i < NUMBER_OF_ACCOUNTS; i++) {
-                String accountStatus = random.nextBoolean() ? "Active" : "Inactive";
-                Date creationDate = generateRandomDate(random);
-
-                Account account = new Account(
-                        500.0 + random.nextDouble() * 1500.0,
-                        i + 1,
-                        "Account Holder " + (i + 1),
-                        "Savings",
-                        accountStatus,
-                        creationDate
-                );
-                bankService.addAccount(account);
+            StorageBackend backend = StorageBackend.fromEnvironment();
+            Repositories repositories = backend.open().instrumented(metrics);
+            if (options.accountCacheSize() > 0) {
+                repositories = repositories.withAccountCache(metrics, options.accountCacheSize(),
+                        Duration.ofMillis(options.accountCacheTtlMillis()));
+            }
+            if (options.journalDirectory() != null) {
+                repositories = repositories.withTransactionJournal(metrics, Path.of(options.journalDirectory()),
+                        options.journalSegmentRecords());
+                transactionJournal = (JournaledTransactionRepository) repositories.transactions();
             }
+            if (options.snapshotInterval() > 0) {
+                repositories = repositories.withBalanceSnapshots(metrics, options.snapshotInterval());
+                balanceSnapshotter = (SnapshottingTransactionRepository) repositories.transactions();
+            }
+            AccountRepository accountRepository = repositories.accounts();
+            TransactionRepository transactionRepository = repositories.transactions();
+            BankAgencyRepository bankAgencyRepository = repositories.bankAgencies();
 
-            Thread[] threads = new Thread[NUMBER_OF_THREADS];
-            for (int i = 0; i < NUMBER_OF_THREADS; i++) {
-                threads[i] = new CustomerThread((i % NUMBER_OF_ACCOUNTS) + 1, accountService, TRANSACTIONS_PER_THREAD);
-                threads[i].start();
+            // Snapshots and reconciliation both start from the opening balances saved when accounts are added.
+            BankService bankService = new BankService(accountRepository, bankAgencyRepository, true,
+                    balanceSnapshotter != null || options.reconcile() ? repositories.snapshots() : null);
+            SeedConfig seedConfig = new SeedConfig(
+                    options.accounts(),
+                    options.agencies(),
+                    options.seedChunkSize(),
+                    options.seedParallelism(),
+                    options.seed()
+            );
+            SeedReport seedReport = new DataSeeder(bankService).seed(seedConfig);
+            System.out.print(seedReport.format());
+            if (options.seedOnly()) {
+                return;
             }
 
-            for (int i = 0; i < NUMBER_OF_THREADS; i++) {
-                try {
-                    threads[i].join();
-                } catch (InterruptedException e) {
-                    Thread.currentThread().interrupt();
+            WorkloadConfig workload = new WorkloadConfig(
+                    options.customers(),
+                    options.accounts(),
+                    options.transactionsPerCustomer(),
+                    Duration.ZERO,
+                    new ThinkTime(ThinkTime.Distribution.UNIFORM, options.maxThinkTimeMillis()),
+                    0.5,
+                    1.0,
+                    true
+            );
+            WorkloadReport report;
+            if (options.async()) {
+                AsyncRepositories asyncRepositories = backend.openAsync(repositories);
+                AsyncAccountService asyncAccountService = new AsyncAccountService(asyncRepositories.accounts(),
+                        asyncRepositories.transactions());
+                report = new AsyncWorkloadDriver(asyncAccountService, eventLog).run(workload);
+            } else {
+                if (options.analytics()) {
+                    analytics = new TransactionAnalytics(repositories.summaries(), options.analyticsWindowMillis(),
+                            TransactionAnalytics.DEFAULT_WINDOWS, TransactionAnalytics.DEFAULT_TOP_ACCOUNTS);
+                }
+                if (transactionJournal != null) {
+                    // The journal already returns in microseconds and, unlike an in-memory buffer, survives a crash.
+                    transactionLogger = new TransactionLogger(transactionRepository, analytics);
+                } else {
+                    AsyncTransactionLogger asyncLogger = new AsyncTransactionLogger(transactionRepository, analytics, eventLog);
+                    metrics.gauge("banking_transaction_log_queue_depth", "Transactions waiting to be written.",
+                            () -> asyncLogger.getStats().queueDepth());
+                    metrics.gauge("banking_transaction_log_dropped", "Transactions discarded because the buffer was full.",
+                            () -> asyncLogger.getStats().dropped());
+                    metrics.gauge("banking_transaction_log_failed",
+                            "Transactions that could not be written before the logger closed.",
+                            () -> asyncLogger.getStats().failed());
+                    transactionLogger = asyncLogger;
+                }
+                if (options.useAccountLedger()) {
+                    accountLedger = new AccountLedger(accountRepository);
+                    accountLedger.load();
+                }
+                AccountService accountService = new AccountService(accountRepository, transactionLogger, accountLedger);
+                report = new WorkloadDriver(accountService, eventLog).run(workload);
+            }
+            eventLog.flush();
+            System.out.print(report.format());
+            if (analytics != null) {
+                System.out.print(analytics.sliding().format());
+            }
+            if (accountRepository instanceof CachingAccountRepository accountCache) {
+                CachingAccountRepository.Stats cacheStats = accountCache.getStats();
+                System.out.printf("Account cache: %d hits, %d misses (%.1f%% hit rate), %d evictions, %d expirations%n",
+                        cacheStats.hits(), cacheStats.misses(), cacheStats.hitRate() * 100,
+                        cacheStats.evictions(), cacheStats.expirations());
+            }
+            if (transactionLogger != null && (balanceSnapshotter != null || options.reconcile())) {
+                transactionLogger.flush();
+                if (accountLedger != null) {
+                    accountLedger.checkpoint();
                 }
             }
+            if (balanceSnapshotter != null) {
+                BalanceReplayer replayer = new BalanceReplayer(transactionRepository, repositories.snapshots());
+                System.out.print(replayer.verify(accountRepository, 1, options.accounts()).format());
+            }
+            if (options.reconcile()) {
+                ReconciliationEngine reconciliation = new ReconciliationEngine(accountRepository, transactionRepository,
+                        repositories.snapshots(), ReconciliationEngine.DEFAULT_PARTITION_SIZE,
+                        Runtime.getRuntime().availableProcessors());
+                System.out.print(reconciliation.reconcile(1, options.accounts(),
+                        options.reconcileCheckpoint() != null ? Path.of(options.reconcileCheckpoint()) : null).format());
+            }
 
         } catch (Exception e) {
             e.printStackTrace();
         } finally {
-            if (database != null) {
-                MongoDBConnection.close();
+            if (accountLedger != null) {
+                accountLedger.close();
+            }
+            if (transactionLogger != null) {
+                try {
+                    transactionLogger.close();
+                } catch (RuntimeException e) {
+                    e.printStackTrace();
+                }
+            }
+            if (analytics != null) {
+                analytics.close();
             }
+            if (balanceSnapshotter != null) {
+                balanceSnapshotter.close();
+            }
+            if (transactionJournal != null) {
+                transactionJournal.close();
+            }
+            if (eventLog != null) {
+                eventLog.close();
+            }
+            if (metricsReporter != null) {
+                metricsReporter.close();
+            }
+            if (metricsServer != null) {
+                metricsServer.close();
+            }
+            MongoDBConnection.close();
         }
     }
-
-    private static Date generateRandomDate(Random random) {
-        long currentTimeMillis = System.currentTimeMillis();
-        long randomTimeMillis = ThreadLocalRandom.current().nextLong(currentTimeMillis - 31556952000L, currentTimeMillis);
-        return new Date(randomTimeMillis);
-    }
 }
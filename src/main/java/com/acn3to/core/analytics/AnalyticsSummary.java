@@ -0,0 +1,77 @@
+package com.acn3to.core.analytics;
+
+import com.acn3to.core.utils.Money;
+
+import java.util.List;
+
+/**
+ * Statistics of the transactions logged during a period.
+ *
+ * @param fromMillis  the start of the period in epoch milliseconds, inclusive
+ * @param toMillis    the end of the period in epoch milliseconds, exclusive
+ * @param types       the statistics of each transaction type seen in the period
+ * @param topAccounts the accounts with the most transactions in the period, most active first
+ */
+public record AnalyticsSummary(long fromMillis, long toMillis, List<TypeSummary> types, List<AccountActivity> topAccounts) {
+
+    /**
+     * Statistics of one transaction type. Amounts only cover the transactions that succeeded.
+     *
+     * @param type      the transaction type
+     * @param count     the number of transactions attempted
+     * @param failures  the number of transactions that failed, e.g. for insufficient funds
+     * @param sumCents  the total amount of the successful transactions, in cents
+     * @param minCents  the smallest successful amount in cents, or 0 if none succeeded
+     * @param maxCents  the largest successful amount in cents, or 0 if none succeeded
+     * @param p50Cents  the approximate median successful amount, in cents
+     * @param p90Cents  the approximate 90th percentile of the successful amounts, in cents
+     * @param p99Cents  the approximate 99th percentile of the successful amounts, in cents
+     */
+    public record TypeSummary(String type, long count, long failures, long sumCents, long minCents, long maxCents,
+                              long p50Cents, long p90Cents, long p99Cents) {
+
+        /**
+         * Returns the share of attempted transactions that failed.
+         *
+         * @return the failure rate between 0 and 1, or 0 if nothing was attempted
+         */
+        public double failureRate() {
+            return count > 0 ? (double) failures / count : 0;
+        }
+    }
+
+    /**
+     * An account among the most active ones.
+     *
+     * @param accountId      the ID of the account
+     * @param estimatedCount the estimated number of transactions of the account; may overcount slightly
+     */
+    public record AccountActivity(int accountId, long estimatedCount) {
+    }
+
+    /**
+     * Formats the summary as a table of the transaction types followed by the most active accounts.
+     *
+     * @return the formatted summary
+     */
+    public String format() {
+        StringBuilder out = new StringBuilder(String.format("Transactions from %tT to %tT (%.1f s)%n",
+                fromMillis, toMillis, (toMillis - fromMillis) / 1000.0));
+        out.append(String.format("%-12s %10s %8s %14s %10s %10s %10s %10s%n",
+                "type", "count", "failed", "volume", "min", "p50", "p99", "max"));
+        for (TypeSummary type : types) {
+            out.append(String.format("%-12s %10d %7.1f%% %14s %10s %10s %10s %10s%n",
+                    type.type(), type.count(), type.failureRate() * 100, Money.format(type.sumCents()),
+                    Money.format(type.minCents()), Money.format(type.p50Cents()), Money.format(type.p99Cents()),
+                    Money.format(type.maxCents())));
+        }
+        if (!topAccounts.isEmpty()) {
+            out.append("Most active accounts:");
+            for (AccountActivity account : topAccounts) {
+                out.append(' ').append(account.accountId()).append(" (~").append(account.estimatedCount()).append(')');
+            }
+            out.append(System.lineSeparator());
+        }
+        return out.toString();
+    }
+}
@@ -0,0 +1,82 @@
+package com.acn3to.core.analytics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A thread-safe count-min sketch estimating how often each integer key was seen, in fixed memory.
+ * <p>
+ * Each of {@code depth} rows hashes a key to one of {@code width} counters. Adding a key increments one
+ * counter per row and the estimate is the smallest of them, so estimates never undercount and overcount by
+ * at most about {@code e / width} of the total with probability {@code 1 - e^-depth}. Adding is a few atomic
+ * increments and never allocates.
+ * </p>
+ */
+public class CountMinSketch {
+    private static final long[] SEEDS = {
+            0x9E3779B97F4A7C15L, 0xC2B2AE3D27D4EB4FL, 0x165667B19E3779F9L, 0xD6E8FEB86659FD93L,
+            0xFF51AFD7ED558CCDL, 0xC4CEB9FE1A85EC53L, 0x94D049BB133111EBL, 0xBF58476D1CE4E5B9L
+    };
+
+    private final int depth;
+    private final int widthBits;
+    private final AtomicLongArray counts;
+
+    /**
+     * Constructs an empty sketch.
+     *
+     * @param depth the number of rows, between 1 and 8
+     * @param width the number of counters per row, at least 2; rounded up to a power of two
+     * @throws IllegalArgumentException if the depth or width is out of range
+     */
+    public CountMinSketch(int depth, int width) {
+        if (depth < 1 || depth > SEEDS.length || width < 2 || width > 1 << 24) {
+            throw new IllegalArgumentException("Invalid count-min sketch size: " + depth + " x " + width);
+        }
+        this.depth = depth;
+        this.widthBits = 32 - Integer.numberOfLeadingZeros(width - 1);
+        this.counts = new AtomicLongArray(depth << widthBits);
+    }
+
+    /**
+     * Counts one occurrence of a key.
+     *
+     * @param key the key
+     * @return the estimated number of occurrences of the key, including this one
+     */
+    public long add(int key) {
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            estimate = Math.min(estimate, counts.incrementAndGet(index(row, key)));
+        }
+        return estimate;
+    }
+
+    /**
+     * Estimates how often a key was seen.
+     *
+     * @param key the key
+     * @return an upper bound of the number of occurrences of the key
+     */
+    public long estimate(int key) {
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            estimate = Math.min(estimate, counts.get(index(row, key)));
+        }
+        return estimate;
+    }
+
+    /**
+     * Forgets every key.
+     */
+    public void reset() {
+        for (int i = 0; i < counts.length(); i++) {
+            counts.set(i, 0);
+        }
+    }
+
+    private int index(int row, int key) {
+        long hash = (key + 1L) * SEEDS[row];
+        hash ^= hash >>> 29;
+        return (row << widthBits) + (int) ((hash * SEEDS[SEEDS.length - 1 - row]) >>> (64 - widthBits));
+    }
+}
@@ -0,0 +1,363 @@
+package com.acn3to.core.analytics;
+
+import com.acn3to.core.metrics.LatencyHistogram;
+import com.acn3to.core.repositories.SummaryRepository;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Aggregates the logged transactions into rolling statistics, in constant memory.
+ * <p>
+ * Time is cut into tumbling windows of a fixed length, kept in a ring that is reused once it wraps around, so
+ * memory does not grow with the number of transactions or accounts. Each window holds, per transaction type,
+ * the count, failures, sum, minimum and maximum of the amounts and a log-linear histogram for approximate
+ * percentiles, plus a {@link CountMinSketch} of the accounts with a small table of the most active ones.
+ * Recording a transaction is a handful of atomic updates and does not allocate; queries merge the windows
+ * they cover, so a sliding window is simply the last few tumbling ones.
+ * </p>
+ * <p>
+ * Given a summary repository, a background thread saves the summary of every window once it is complete,
+ * and the current partial window when the analytics are closed.
+ * </p>
+ */
+public class TransactionAnalytics implements AutoCloseable {
+    public static final long DEFAULT_WINDOW_MILLIS = 10_000;
+    public static final int DEFAULT_WINDOWS = 30;
+    public static final int DEFAULT_TOP_ACCOUNTS = 10;
+
+    private static final String[] TYPES = {"Deposit", "Withdrawal", "Transfer", "Other"};
+    private static final int SKETCH_DEPTH = 4;
+    private static final int SKETCH_WIDTH = 2048;
+
+    private final long windowMillis;
+    private final int topAccounts;
+    private final Window[] windows;
+    private final SummaryRepository summaryRepository;
+    private final Thread materializer;
+
+    private volatile boolean closing;
+
+    /**
+     * The statistics of one tumbling window. Counters are indexed by transaction type.
+     */
+    private static final class Window {
+        final AtomicLongArray counts = new AtomicLongArray(TYPES.length);
+        final AtomicLongArray failures = new AtomicLongArray(TYPES.length);
+        final AtomicLongArray sums = new AtomicLongArray(TYPES.length);
+        final AtomicLongArray minimums = new AtomicLongArray(TYPES.length);
+        final AtomicLongArray maximums = new AtomicLongArray(TYPES.length);
+        final LatencyHistogram[] amounts = new LatencyHistogram[TYPES.length];
+        final CountMinSketch accounts = new CountMinSketch(SKETCH_DEPTH, SKETCH_WIDTH);
+        // The most active accounts and their estimates, guarded by this window's monitor.
+        final int[] topAccountIds;
+        final long[] topEstimates;
+        int topSize;
+        // Estimate an account must exceed to enter the table; lets most recordings skip the monitor.
+        volatile long topThreshold;
+        volatile long epoch = -1;
+
+        Window(int topAccounts) {
+            for (int type = 0; type < TYPES.length; type++) {
+                amounts[type] = new LatencyHistogram();
+            }
+            topAccountIds = new int[topAccounts];
+            topEstimates = new long[topAccounts];
+        }
+
+        /**
+         * Clears the window for reuse. Must be called while holding this window's monitor.
+         */
+        void reset(long newEpoch) {
+            for (int type = 0; type < TYPES.length; type++) {
+                counts.set(type, 0);
+                failures.set(type, 0);
+                sums.set(type, 0);
+                minimums.set(type, Long.MAX_VALUE);
+                maximums.set(type, Long.MIN_VALUE);
+                amounts[type].reset();
+            }
+            accounts.reset();
+            topSize = 0;
+            topThreshold = 0;
+            epoch = newEpoch;
+        }
+
+        synchronized void offerTop(int accountId, long estimate) {
+            int slot = -1;
+            for (int i = 0; i < topSize; i++) {
+                if (topAccountIds[i] == accountId) {
+                    slot = i;
+                    break;
+                }
+            }
+            if (slot < 0) {
+                if (topSize < topAccountIds.length) {
+                    slot = topSize++;
+                } else {
+                    slot = 0;
+                    for (int i = 1; i < topSize; i++) {
+                        if (topEstimates[i] < topEstimates[slot]) {
+                            slot = i;
+                        }
+                    }
+                    if (topEstimates[slot] >= estimate) {
+                        return;
+                    }
+                }
+                topAccountIds[slot] = accountId;
+            }
+            topEstimates[slot] = estimate;
+            if (topSize == topAccountIds.length) {
+                long minimum = Long.MAX_VALUE;
+                for (int i = 0; i < topSize; i++) {
+                    minimum = Math.min(minimum, topEstimates[i]);
+                }
+                topThreshold = minimum;
+            }
+        }
+
+        synchronized int[] topAccountIds() {
+            return Arrays.copyOf(topAccountIds, topSize);
+        }
+    }
+
+    /**
+     * Constructs analytics with the default windows that are only queried in-process.
+     */
+    public TransactionAnalytics() {
+        this(null, DEFAULT_WINDOW_MILLIS, DEFAULT_WINDOWS, DEFAULT_TOP_ACCOUNTS);
+    }
+
+    /**
+     * Constructs analytics and, given a repository, starts saving the summary of each completed window.
+     *
+     * @param summaryRepository the repository window summaries are saved to, or null not to save them
+     * @param windowMillis      the length of a tumbling window
+     * @param windows           the number of windows kept, which bounds the longest sliding window
+     * @param topAccounts       the number of most active accounts tracked per window
+     * @throws IllegalArgumentException if a size is not positive or fewer than 2 windows are kept
+     */
+    public TransactionAnalytics(SummaryRepository summaryRepository, long windowMillis, int windows, int topAccounts) {
+        if (windowMillis <= 0 || windows < 2 || topAccounts <= 0) {
+            throw new IllegalArgumentException("Invalid analytics windows: " + windows + " x " + windowMillis
+                    + " ms, top " + topAccounts);
+        }
+        this.windowMillis = windowMillis;
+        this.topAccounts = topAccounts;
+        this.windows = new Window[windows];
+        for (int i = 0; i < windows; i++) {
+            this.windows[i] = new Window(topAccounts);
+        }
+        this.summaryRepository = summaryRepository;
+        if (summaryRepository != null) {
+            this.materializer = new Thread(this::runMaterializer, "AnalyticsMaterializer");
+            this.materializer.setDaemon(true);
+            this.materializer.start();
+        } else {
+            this.materializer = null;
+        }
+    }
+
+    /**
+     * Records a transaction, successful or not.
+     *
+     * @param type        the transaction type
+     * @param accountId   the ID of the account that initiated the transaction
+     * @param amountCents the amount of the transaction, in cents
+     * @param failed      whether the transaction failed and moved no money
+     */
+    public void record(String type, int accountId, long amountCents, boolean failed) {
+        Window window = windowFor(System.currentTimeMillis() / windowMillis);
+        int typeIndex = typeIndex(type);
+        window.counts.incrementAndGet(typeIndex);
+        if (failed) {
+            window.failures.incrementAndGet(typeIndex);
+        } else {
+            window.sums.addAndGet(typeIndex, amountCents);
+            window.minimums.accumulateAndGet(typeIndex, amountCents, Math::min);
+            window.maximums.accumulateAndGet(typeIndex, amountCents, Math::max);
+            window.amounts[typeIndex].record(amountCents);
+        }
+        long estimate = window.accounts.add(accountId);
+        if (estimate > window.topThreshold) {
+            window.offerTop(accountId, estimate);
+        }
+    }
+
+    /**
+     * Summarises the last completed tumbling window.
+     *
+     * @return the summary of the window before the current one
+     */
+    public AnalyticsSummary lastWindow() {
+        long current = System.currentTimeMillis() / windowMillis;
+        return summarize(current - 1, current - 1);
+    }
+
+    /**
+     * Summarises a sliding window made of the current tumbling window and the ones before it.
+     *
+     * @param windowCount the number of tumbling windows covered, at most the number kept
+     * @return the summary of the sliding window
+     */
+    public AnalyticsSummary sliding(int windowCount) {
+        long current = System.currentTimeMillis() / windowMillis;
+        return summarize(current - Math.min(windowCount, windows.length) + 1, current);
+    }
+
+    /**
+     * Summarises every window kept, i.e. the longest sliding window available.
+     *
+     * @return the summary of the kept windows
+     */
+    public AnalyticsSummary sliding() {
+        return sliding(windows.length);
+    }
+
+    /**
+     * Saves the current partial window and stops the materializer thread.
+     */
+    @Override
+    public void close() {
+        if (materializer == null) {
+            return;
+        }
+        closing = true;
+        materializer.interrupt();
+        try {
+            materializer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private Window windowFor(long epoch) {
+        Window window = windows[(int) (epoch % windows.length)];
+        if (window.epoch != epoch) {
+            synchronized (window) {
+                if (window.epoch < epoch) {
+                    window.reset(epoch);
+                }
+            }
+        }
+        return window;
+    }
+
+    /**
+     * Merges the windows with epochs in [firstEpoch, lastEpoch] that are still kept.
+     */
+    private AnalyticsSummary summarize(long firstEpoch, long lastEpoch) {
+        long[] counts = new long[TYPES.length];
+        long[] failures = new long[TYPES.length];
+        long[] sums = new long[TYPES.length];
+        long[] minimums = new long[TYPES.length];
+        long[] maximums = new long[TYPES.length];
+        Arrays.fill(minimums, Long.MAX_VALUE);
+        Arrays.fill(maximums, Long.MIN_VALUE);
+        LatencyHistogram[] amounts = new LatencyHistogram[TYPES.length];
+        List<Window> covered = new ArrayList<>();
+        long firstCovered = -1;
+        Set<Integer> candidates = new HashSet<>();
+        for (int type = 0; type < TYPES.length; type++) {
+            amounts[type] = new LatencyHistogram();
+        }
+        for (long epoch = Math.max(firstEpoch, lastEpoch - windows.length + 1); epoch <= lastEpoch; epoch++) {
+            Window window = windows[(int) (epoch % windows.length)];
+            if (window.epoch != epoch) {
+                continue;
+            }
+            if (covered.isEmpty()) {
+                firstCovered = epoch;
+            }
+            covered.add(window);
+            for (int type = 0; type < TYPES.length; type++) {
+                counts[type] += window.counts.get(type);
+                failures[type] += window.failures.get(type);
+                sums[type] += window.sums.get(type);
+                minimums[type] = Math.min(minimums[type], window.minimums.get(type));
+                maximums[type] = Math.max(maximums[type], window.maximums.get(type));
+                amounts[type].add(window.amounts[type]);
+            }
+            for (int accountId : window.topAccountIds()) {
+                candidates.add(accountId);
+            }
+        }
+
+        List<AnalyticsSummary.TypeSummary> types = new ArrayList<>();
+        for (int type = 0; type < TYPES.length; type++) {
+            if (counts[type] == 0) {
+                continue;
+            }
+            boolean anySucceeded = counts[type] > failures[type];
+            long min = anySucceeded ? minimums[type] : 0;
+            long max = anySucceeded ? maximums[type] : 0;
+            // Bucket upper bounds may overshoot the exact extremes tracked alongside them.
+            types.add(new AnalyticsSummary.TypeSummary(TYPES[type], counts[type], failures[type], sums[type], min, max,
+                    Math.clamp(amounts[type].getValueAtPercentile(50), min, max),
+                    Math.clamp(amounts[type].getValueAtPercentile(90), min, max),
+                    Math.clamp(amounts[type].getValueAtPercentile(99), min, max)));
+        }
+        // An account's activity over several windows is the sum of its estimates in each of them.
+        List<AnalyticsSummary.AccountActivity> top = new ArrayList<>(candidates.size());
+        for (int accountId : candidates) {
+            long estimate = 0;
+            for (Window window : covered) {
+                estimate += window.accounts.estimate(accountId);
+            }
+            top.add(new AnalyticsSummary.AccountActivity(accountId, estimate));
+        }
+        top.sort(Comparator.comparingLong(AnalyticsSummary.AccountActivity::estimatedCount).reversed()
+                .thenComparingInt(AnalyticsSummary.AccountActivity::accountId));
+        // The period starts with the oldest window that holds data and ends now if the last window is not over.
+        long from = (firstCovered >= 0 ? firstCovered : firstEpoch) * windowMillis;
+        long to = Math.min((lastEpoch + 1) * windowMillis, System.currentTimeMillis());
+        return new AnalyticsSummary(from, Math.max(from, to), types, List.copyOf(top.subList(0, Math.min(topAccounts, top.size()))));
+    }
+
+    private void runMaterializer() {
+        long next = System.currentTimeMillis() / windowMillis;
+        while (!closing) {
+            long current = System.currentTimeMillis() / windowMillis;
+            for (; next < current; next++) {
+                materialize(next);
+            }
+            try {
+                Thread.sleep(Math.max(1, (current + 1) * windowMillis - System.currentTimeMillis()));
+            } catch (InterruptedException e) {
+                // Interrupted by close(): save what is left below.
+            }
+        }
+        long current = System.currentTimeMillis() / windowMillis;
+        for (; next <= current; next++) {
+            materialize(next);
+        }
+    }
+
+    private void materialize(long epoch) {
+        AnalyticsSummary summary = summarize(epoch, epoch);
+        if (summary.types().isEmpty()) {
+            return;
+        }
+        try {
+            summaryRepository.save(summary);
+        } catch (RuntimeException e) {
+            // A lost summary leaves a gap in the collection; the in-process statistics are unaffected.
+            e.printStackTrace();
+        }
+    }
+
+    private static int typeIndex(String type) {
+        for (int i = 0; i < TYPES.length - 1; i++) {
+            if (TYPES[i].equals(type)) {
+                return i;
+            }
+        }
+        return TYPES.length - 1;
+    }
+}
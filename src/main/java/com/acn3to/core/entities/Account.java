@@ -1,40 +1,76 @@
 package com.acn3to.core.entities;
 
+import com.acn3to.core.utils.Money;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
 import java.util.Date;
 
 /**
  * Represents a bank account with a balance, a unique account ID, and other attributes.
- * Provides thread-safe access to the account balance and includes additional details
- * for better tracking and management.
+ * <p>
+ * The balance is a whole number of cents updated lock-free: {@link #add} and {@link #tryWithdraw} are atomic
+ * and may be called concurrently. Timestamps are kept as epoch milliseconds and only turned into {@link Date}
+ * objects by the Date getters, so updating an account does not allocate.
+ * </p>
  */
 public class Account {
+    /**
+     * Stands for an unknown timestamp, e.g. a creation date missing from a stored document.
+     */
+    public static final long NO_TIMESTAMP = Long.MIN_VALUE;
+
+    private static final VarHandle BALANCE;
+
+    static {
+        try {
+            BALANCE = MethodHandles.lookup().findVarHandle(Account.class, "balanceCents", long.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
     private final int accountId;
     private String accountHolderName;
     private String accountType;
     private String accountStatus;
-    private final Date creationDate;
-    private Date lastUpdatedDate;
-    private double balance;
-    private final Object lock = new Object();
+    private final long creationMillis;
+    private volatile long lastUpdatedMillis;
+    private volatile long balanceCents;
 
     /**
      * Constructs an Account with an initial balance, unique account ID, and additional details.
      *
-     * @param initialBalance   the initial balance of the account
-     * @param accountId        the unique ID of the account
-     * @param accountHolderName the name of the account holder
-     * @param accountType      the type of the account (e.g., Checking, Savings)
-     * @param accountStatus    the status of the account (e.g., Active, Inactive, Closed)
-     * @param creationDate     the creation date of the account
+     * @param initialBalanceCents the initial balance of the account, in cents
+     * @param accountId           the unique ID of the account
+     * @param accountHolderName   the name of the account holder
+     * @param accountType         the type of the account (e.g., Checking, Savings)
+     * @param accountStatus       the status of the account (e.g., Active, Inactive, Closed)
+     * @param creationMillis      the creation time of the account in epoch milliseconds, or {@link #NO_TIMESTAMP}
      */
-    public Account(double initialBalance, int accountId, String accountHolderName, String accountType, String accountStatus, Date creationDate) {
-        this.balance = initialBalance;
+    public Account(long initialBalanceCents, int accountId, String accountHolderName, String accountType, String accountStatus, long creationMillis) {
+        this.balanceCents = initialBalanceCents;
         this.accountId = accountId;
         this.accountHolderName = accountHolderName;
         this.accountType = accountType;
         this.accountStatus = accountStatus;
-        this.creationDate = creationDate;
-        this.lastUpdatedDate = new Date();
+        this.creationMillis = creationMillis;
+        this.lastUpdatedMillis = System.currentTimeMillis();
+    }
+
+    /**
+     * Constructs an Account with an initial balance, unique account ID, and additional details.
+     *
+     * @param initialBalanceCents the initial balance of the account, in cents
+     * @param accountId           the unique ID of the account
+     * @param accountHolderName   the name of the account holder
+     * @param accountType         the type of the account (e.g., Checking, Savings)
+     * @param accountStatus       the status of the account (e.g., Active, Inactive, Closed)
+     * @param creationDate        the creation date of the account, may be null
+     */
+    public Account(long initialBalanceCents, int accountId, String accountHolderName, String accountType, String accountStatus, Date creationDate) {
+        this(initialBalanceCents, accountId, accountHolderName, accountType, accountStatus,
+                creationDate != null ? creationDate.getTime() : NO_TIMESTAMP);
     }
 
     public int getAccountId() {
@@ -47,7 +83,7 @@ public class Account {
 
     public void setAccountHolderName(String accountHolderName) {
         this.accountHolderName = accountHolderName;
-        updateLastUpdatedDate();
+        touch();
     }
 
     public String getAccountType() {
@@ -56,7 +92,7 @@ public class Account {
 
     public void setAccountType(String accountType) {
         this.accountType = accountType;
-        updateLastUpdatedDate();
+        touch();
     }
 
     public String getAccountStatus() {
@@ -65,36 +101,77 @@ public class Account {
 
     public void setAccountStatus(String accountStatus) {
         this.accountStatus = accountStatus;
-        updateLastUpdatedDate();
+        touch();
+    }
+
+    public long getCreationMillis() {
+        return creationMillis;
     }
 
+    public long getLastUpdatedMillis() {
+        return lastUpdatedMillis;
+    }
+
+    /**
+     * Returns the creation date as a new Date object.
+     *
+     * @return the creation date, or null if it is unknown
+     */
     public Date getCreationDate() {
-        return new Date(creationDate.getTime());
+        return creationMillis != NO_TIMESTAMP ? new Date(creationMillis) : null;
     }
 
+    /**
+     * Returns the time of the last update as a new Date object.
+     *
+     * @return the last update date
+     */
     public Date getLastUpdatedDate() {
-        return new Date(lastUpdatedDate.getTime());
+        return new Date(lastUpdatedMillis);
     }
 
-    private void updateLastUpdatedDate() {
-        this.lastUpdatedDate = new Date();
+    public long getBalanceCents() {
+        return balanceCents;
     }
 
-    public double getBalance() {
-        synchronized (lock) {
-            return this.balance;
-        }
+    public void setBalanceCents(long balanceCents) {
+        this.balanceCents = balanceCents;
+        touch();
     }
 
-    public void setBalance(double balance) {
-        synchronized (lock) {
-            this.balance = balance;
-            updateLastUpdatedDate();
+    /**
+     * Atomically adds an amount to the balance.
+     *
+     * @param deltaCents the amount to add in cents; may be negative
+     * @return the new balance in cents
+     */
+    public long add(long deltaCents) {
+        long updated = (long) BALANCE.getAndAdd(this, deltaCents) + deltaCents;
+        touch();
+        return updated;
+    }
+
+    /**
+     * Atomically subtracts an amount from the balance if the balance covers it.
+     *
+     * @param amountCents the amount to withdraw in cents
+     * @return the new balance in cents, or {@link Money#NO_BALANCE} if the balance is lower than the amount
+     */
+    public long tryWithdraw(long amountCents) {
+        long balance = balanceCents;
+        while (balance >= amountCents) {
+            long witness = (long) BALANCE.compareAndExchange(this, balance, balance - amountCents);
+            if (witness == balance) {
+                touch();
+                return balance - amountCents;
+            }
+            balance = witness;
         }
+        return Money.NO_BALANCE;
     }
 
-    public Object getLock() {
-        return lock;
+    private void touch() {
+        this.lastUpdatedMillis = System.currentTimeMillis();
     }
 
     @Override
@@ -106,8 +183,7 @@ public class Account {
                 ", accountStatus='" + getAccountStatus() + '\'' +
                 ", creationDate=" + getCreationDate() +
                 ", lastUpdatedDate=" + getLastUpdatedDate() +
-                ", balance=" + getBalance() +
-                ", lock=" + getLock() +
+                ", balance=" + Money.format(getBalanceCents()) +
                 '}';
     }
 }
@@ -0,0 +1,49 @@
+package com.acn3to.core.entities;
+
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * A checkpoint of an account's balance, from which its balance at later times is replayed.
+ *
+ * @param accountId        the ID of the account
+ * @param asOfMillis       the snapshot covers every transaction of the account dated at or before this time,
+ *                         in epoch milliseconds
+ * @param balanceCents     the balance of the account at that time, in cents
+ * @param transactionCount the number of transactions applied to the account up to that time, counting from
+ *                         its opening balance
+ */
+public record BalanceSnapshot(int accountId, long asOfMillis, long balanceCents, long transactionCount) {
+
+    /**
+     * Returns the opening snapshot of an account: its initial balance as of its creation, before any transaction.
+     *
+     * @param account the newly created account
+     * @return the opening snapshot
+     */
+    public static BalanceSnapshot opening(Account account) {
+        long creationMillis = account.getCreationMillis();
+        return new BalanceSnapshot(account.getAccountId(),
+                creationMillis != Account.NO_TIMESTAMP ? creationMillis : System.currentTimeMillis(),
+                account.getBalanceCents(), 0);
+    }
+
+    /**
+     * Applies the transactions that followed this snapshot and returns the snapshot at a later time.
+     *
+     * @param asOfMillis   the time of the new snapshot, in epoch milliseconds
+     * @param transactions every transaction that changed the account's balance after this snapshot and at or
+     *                     before asOfMillis, as returned by
+     *                     {@link com.acn3to.core.repositories.TransactionRepository#streamAffectingAccount}
+     * @return the snapshot as of asOfMillis
+     */
+    public BalanceSnapshot advance(long asOfMillis, Stream<Transaction> transactions) {
+        long balance = balanceCents;
+        long count = transactionCount;
+        for (Iterator<Transaction> iterator = transactions.iterator(); iterator.hasNext(); ) {
+            balance += iterator.next().balanceDelta(accountId);
+            count++;
+        }
+        return new BalanceSnapshot(accountId, asOfMillis, balance, count);
+    }
+}
@@ -6,6 +6,8 @@ import java.util.Date;
  * Represents a bank agency with a unique agency ID, location, and additional details.
  */
 public class BankAgency {
+    public static final String STATUS_OPEN = "Open";
+
     private String agencyId;
     private double latitude;
     private double longitude;
@@ -102,6 +104,15 @@ public class BankAgency {
         this.status = status;
     }
 
+    /**
+     * Returns whether the agency is open for customers.
+     *
+     * @return true if the status is {@value #STATUS_OPEN}
+     */
+    public boolean isOpen() {
+        return STATUS_OPEN.equals(status);
+    }
+
     @Override
     public String toString() {
         return "BankAgency{" +
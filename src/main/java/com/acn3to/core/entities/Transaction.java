@@ -7,8 +7,66 @@ import java.util.Date;
  *
  * @param accountId the ID of the account involved in the transaction
  * @param date the date and time of the transaction
- * @param type the type of the transaction (e.g., Deposit, Withdrawal)
- * @param amount the amount of money involved in the transaction
- * @param balanceAfterTransaction the balance of the account after the transaction
+ * @param type the type of the transaction (e.g., Deposit, Withdrawal, Transfer)
+ * @param amountCents the amount of money involved in the transaction, in cents
+ * @param balanceAfterTransactionCents the balance of the account after the transaction, in cents
+ * @param counterpartyAccountId for a transfer, the ID of the account that received the money; otherwise 0
+ * @param id the ID the transaction is stored under, as the hex string of a BSON ObjectId, or null to let the
+ *           store assign one. Writers that may send the same transaction twice set it first, so the store
+ *           recognises the second copy.
  */
-public record Transaction(int accountId, Date date, String type, double amount, double balanceAfterTransaction) {}
+public record Transaction(int accountId, Date date, String type, long amountCents, long balanceAfterTransactionCents,
+                          int counterpartyAccountId, String id) {
+
+    /**
+     * Constructs a transaction without an ID, which the store assigns when it saves it.
+     *
+     * @param accountId the ID of the account involved in the transaction
+     * @param date the date and time of the transaction
+     * @param type the type of the transaction (e.g., Deposit, Withdrawal, Transfer)
+     * @param amountCents the amount of money involved in the transaction, in cents
+     * @param balanceAfterTransactionCents the balance of the account after the transaction, in cents
+     * @param counterpartyAccountId for a transfer, the ID of the account that received the money; otherwise 0
+     */
+    public Transaction(int accountId, Date date, String type, long amountCents, long balanceAfterTransactionCents,
+                       int counterpartyAccountId) {
+        this(accountId, date, type, amountCents, balanceAfterTransactionCents, counterpartyAccountId, null);
+    }
+
+    /**
+     * Constructs a single-account transaction, which has no counterparty.
+     *
+     * @param accountId the ID of the account involved in the transaction
+     * @param date the date and time of the transaction
+     * @param type the type of the transaction (e.g., Deposit, Withdrawal)
+     * @param amountCents the amount of money involved in the transaction, in cents
+     * @param balanceAfterTransactionCents the balance of the account after the transaction, in cents
+     */
+    public Transaction(int accountId, Date date, String type, long amountCents, long balanceAfterTransactionCents) {
+        this(accountId, date, type, amountCents, balanceAfterTransactionCents, 0);
+    }
+
+    /**
+     * Returns a copy of this transaction stored under the given ID.
+     *
+     * @param id the ID to store the transaction under
+     * @return the copy
+     */
+    public Transaction withId(String id) {
+        return new Transaction(accountId, date, type, amountCents, balanceAfterTransactionCents, counterpartyAccountId, id);
+    }
+
+    /**
+     * Returns how much this transaction changed the balance of an account: deposits and transfers received add
+     * the amount, withdrawals and transfers sent subtract it.
+     *
+     * @param accountId the ID of the account
+     * @return the change of the account's balance in cents; 0 if the transaction does not involve the account
+     */
+    public long balanceDelta(int accountId) {
+        if (accountId == this.accountId) {
+            return "Deposit".equals(type) ? amountCents : -amountCents;
+        }
+        return accountId == counterpartyAccountId && "Transfer".equals(type) ? amountCents : 0;
+    }
+}
@@ -0,0 +1,45 @@
+package com.acn3to.core.logging;
+
+import java.io.PrintStream;
+
+/**
+ * Writes events to standard output. Each block of events is printed with a single call,
+ * so the stream's lock is taken once per block rather than once per event.
+ */
+public class ConsoleSink implements EventSink {
+    private final PrintStream out;
+
+    /**
+     * Constructs a ConsoleSink writing to {@link System#out}.
+     */
+    public ConsoleSink() {
+        this(System.out);
+    }
+
+    /**
+     * Constructs a ConsoleSink writing to the given stream.
+     *
+     * @param out the stream to write to
+     */
+    public ConsoleSink(PrintStream out) {
+        this.out = out;
+    }
+
+    @Override
+    public void write(CharSequence text) {
+        out.append(text);
+    }
+
+    @Override
+    public void flush() {
+        out.flush();
+    }
+
+    /**
+     * Flushes standard output, which stays open.
+     */
+    @Override
+    public void close() {
+        out.flush();
+    }
+}
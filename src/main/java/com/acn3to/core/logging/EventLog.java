@@ -0,0 +1,317 @@
+package com.acn3to.core.logging;
+
+import com.acn3to.core.metrics.Counter;
+import com.acn3to.core.metrics.MetricsRegistry;
+import com.acn3to.core.utils.Money;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * An asynchronous structured event log.
+ * <p>
+ * Events live in a ring of preallocated slots. A caller claims a slot with a compare-and-set, fills in the event
+ * name and up to {@value #MAX_FIELDS} key/value fields, and publishes it, so logging takes no lock and allocates
+ * nothing. A single writer thread formats published events as {@code key=value} lines and hands them to the
+ * {@link EventSink} in blocks, which is the only place formatting and I/O happen.
+ * </p>
+ * <p>
+ * When the ring is full, new events are dropped and counted rather than making callers wait, so logging never
+ * throttles the work being logged. Events below the configured level cost a single comparison.
+ * </p>
+ * <pre>{@code
+ * eventLog.at(Level.INFO, "withdrawal").with("account", accountId).with("amount", amount).publish();
+ * }</pre>
+ */
+public class EventLog implements AutoCloseable {
+    public static final int DEFAULT_CAPACITY = 16384;
+    public static final int MAX_FIELDS = 6;
+
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final int BLOCK_SIZE = 64 * 1024;
+    private static final Counter DROPPED = MetricsRegistry.getDefault().counter("banking_events_dropped_total",
+            "Events discarded because the event log ring was full.");
+
+    private static EventLog console;
+
+    private final Level level;
+    private final EventSink sink;
+    private final Event[] ring;
+    private final int mask;
+    private final AtomicLong nextSequence = new AtomicLong();
+    private final Thread writer;
+    private final Event disabled = new Event(null);
+
+    private volatile long consumedSequence;
+    private volatile long flushedSequence;
+    private volatile boolean closed;
+
+    /**
+     * A claimed event slot. Fill it in with {@code with} calls and then call {@link #publish()} promptly:
+     * the writer handles events in order and waits for a claimed slot to be published before moving on.
+     * Fields beyond {@value #MAX_FIELDS} are ignored.
+     */
+    public static final class Event {
+        private static final byte LONG = 0;
+        private static final byte DOUBLE = 1;
+        private static final byte TEXT = 2;
+        private static final byte MONEY = 3;
+
+        private final EventLog owner;
+        private final String[] keys = new String[MAX_FIELDS];
+        private final byte[] kinds = new byte[MAX_FIELDS];
+        private final long[] numbers = new long[MAX_FIELDS];
+        private final String[] texts = new String[MAX_FIELDS];
+
+        private volatile long publishedSequence = -1;
+        private long sequence;
+        private long timestampMillis;
+        private Level level;
+        private String name;
+        private String threadName;
+        private int fieldCount;
+
+        private Event(EventLog owner) {
+            this.owner = owner;
+        }
+
+        public Event with(String key, long value) {
+            if (owner != null && fieldCount < MAX_FIELDS) {
+                keys[fieldCount] = key;
+                kinds[fieldCount] = LONG;
+                numbers[fieldCount++] = value;
+            }
+            return this;
+        }
+
+        public Event with(String key, double value) {
+            if (owner != null && fieldCount < MAX_FIELDS) {
+                keys[fieldCount] = key;
+                kinds[fieldCount] = DOUBLE;
+                numbers[fieldCount++] = Double.doubleToRawLongBits(value);
+            }
+            return this;
+        }
+
+        /**
+         * Adds an amount of money, given in cents and written in currency units, e.g. {@code amount=12.05}.
+         */
+        public Event withMoney(String key, long cents) {
+            if (owner != null && fieldCount < MAX_FIELDS) {
+                keys[fieldCount] = key;
+                kinds[fieldCount] = MONEY;
+                numbers[fieldCount++] = cents;
+            }
+            return this;
+        }
+
+        public Event with(String key, String value) {
+            if (owner != null && fieldCount < MAX_FIELDS) {
+                keys[fieldCount] = key;
+                kinds[fieldCount] = TEXT;
+                texts[fieldCount++] = value;
+            }
+            return this;
+        }
+
+        /**
+         * Hands the event to the writer. The event must not be used afterwards.
+         */
+        public void publish() {
+            if (owner != null) {
+                publishedSequence = sequence;
+            }
+        }
+
+        private void begin(long sequence, Level level, String name) {
+            this.sequence = sequence;
+            this.timestampMillis = System.currentTimeMillis();
+            this.level = level;
+            this.name = name;
+            this.threadName = Thread.currentThread().getName();
+            this.fieldCount = 0;
+        }
+
+        private void format(StringBuilder out) {
+            out.append(Instant.ofEpochMilli(timestampMillis)).append(' ').append(level).append(' ').append(name);
+            if (!threadName.isEmpty()) {
+                out.append(" thread=").append(threadName);
+            }
+            for (int i = 0; i < fieldCount; i++) {
+                out.append(' ').append(keys[i]).append('=');
+                switch (kinds[i]) {
+                    case LONG -> out.append(numbers[i]);
+                    case DOUBLE -> out.append(Double.longBitsToDouble(numbers[i]));
+                    case MONEY -> Money.appendTo(out, numbers[i]);
+                    default -> appendText(out, texts[i]);
+                }
+                texts[i] = null;
+            }
+            out.append('\n');
+        }
+
+        private static void appendText(StringBuilder out, String text) {
+            if (text == null) {
+                out.append("null");
+            } else if (text.indexOf(' ') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && !text.isEmpty()) {
+                out.append(text);
+            } else {
+                out.append('"').append(text.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n")).append('"');
+            }
+        }
+    }
+
+    /**
+     * Constructs an EventLog with {@link #DEFAULT_CAPACITY} slots and starts its writer thread.
+     *
+     * @param level the least severe level that is logged
+     * @param sink  where formatted events are written; closed when the log is closed
+     */
+    public EventLog(Level level, EventSink sink) {
+        this(level, sink, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructs an EventLog and starts its writer thread.
+     *
+     * @param level    the least severe level that is logged
+     * @param sink     where formatted events are written; closed when the log is closed
+     * @param capacity the minimum number of slots, rounded up to a power of two
+     * @throws IllegalArgumentException if capacity is not positive
+     */
+    public EventLog(Level level, EventSink sink, int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        }
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity) {
+            size <<= 1;
+        }
+        this.level = level;
+        this.sink = sink;
+        this.ring = new Event[size];
+        for (int i = 0; i < size; i++) {
+            ring[i] = new Event(this);
+        }
+        this.mask = size - 1;
+        this.writer = new Thread(this::runWriter, "EventLogWriter");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /**
+     * Returns a shared INFO-level log writing to standard output, creating it on first use.
+     *
+     * @return the console event log
+     */
+    public static synchronized EventLog console() {
+        if (console == null || console.closed) {
+            console = new EventLog(Level.INFO, new ConsoleSink());
+        }
+        return console;
+    }
+
+    /**
+     * Returns whether events of the given level are logged.
+     *
+     * @param eventLevel the level to check
+     * @return true if the level is at least the configured level
+     */
+    public boolean isEnabled(Level eventLevel) {
+        return eventLevel.compareTo(level) >= 0 && eventLevel != Level.OFF;
+    }
+
+    /**
+     * Claims a slot for an event. If the level is disabled, the log is closed or the ring is full,
+     * a no-op event is returned, so callers can always chain {@code with} and {@code publish} calls.
+     *
+     * @param eventLevel the level of the event
+     * @param name       the event name, such as {@code "withdrawal.failed"}
+     * @return the event to fill in and publish
+     */
+    public Event at(Level eventLevel, String name) {
+        if (!isEnabled(eventLevel) || closed) {
+            return disabled;
+        }
+        while (true) {
+            long sequence = nextSequence.get();
+            if (sequence - consumedSequence >= ring.length) {
+                DROPPED.increment();
+                return disabled;
+            }
+            if (nextSequence.compareAndSet(sequence, sequence + 1)) {
+                Event event = ring[(int) (sequence & mask)];
+                event.begin(sequence, eventLevel, name);
+                return event;
+            }
+        }
+    }
+
+    /**
+     * Waits until every event claimed before this call has been written and the sink flushed,
+     * e.g. before printing to the same console directly.
+     */
+    public void flush() {
+        long target = nextSequence.get();
+        while (flushedSequence < target && writer.isAlive()) {
+            LockSupport.unpark(writer);
+            LockSupport.parkNanos(IDLE_PARK_NANOS);
+        }
+    }
+
+    /**
+     * Stops accepting events, writes every event already claimed and closes the sink.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        LockSupport.unpark(writer);
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void runWriter() {
+        StringBuilder block = new StringBuilder(BLOCK_SIZE);
+        long next = 0;
+        try {
+            while (!closed || next < nextSequence.get()) {
+                Event event = ring[(int) (next & mask)];
+                if (event.publishedSequence == next) {
+                    event.format(block);
+                    next++;
+                    consumedSequence = next;
+                    if (block.length() >= BLOCK_SIZE) {
+                        writeBlock(block);
+                    }
+                } else {
+                    if (flushedSequence < next) {
+                        writeBlock(block);
+                        sink.flush();
+                        flushedSequence = next;
+                    }
+                    LockSupport.parkNanos(IDLE_PARK_NANOS);
+                }
+            }
+            writeBlock(block);
+        } catch (IOException e) {
+            e.printStackTrace();
+        } finally {
+            try {
+                sink.close();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    private void writeBlock(StringBuilder block) throws IOException {
+        sink.write(block);
+        block.setLength(0);
+    }
+}
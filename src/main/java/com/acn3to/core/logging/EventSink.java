@@ -0,0 +1,32 @@
+package com.acn3to.core.logging;
+
+import java.io.IOException;
+
+/**
+ * Destination of formatted events. Sinks are only called from the {@link EventLog} writer thread.
+ */
+public interface EventSink extends AutoCloseable {
+
+    /**
+     * Writes a block of formatted events, one per line.
+     *
+     * @param text the events to write
+     * @throws IOException if the events cannot be written
+     */
+    void write(CharSequence text) throws IOException;
+
+    /**
+     * Pushes buffered output to its destination.
+     *
+     * @throws IOException if the output cannot be written
+     */
+    void flush() throws IOException;
+
+    /**
+     * Flushes and releases the destination.
+     *
+     * @throws IOException if the output cannot be written
+     */
+    @Override
+    void close() throws IOException;
+}
@@ -0,0 +1,12 @@
+package com.acn3to.core.logging;
+
+/**
+ * Severity of a logged event, from least to most severe. {@link #OFF} disables logging.
+ */
+public enum Level {
+    DEBUG,
+    INFO,
+    WARN,
+    ERROR,
+    OFF
+}
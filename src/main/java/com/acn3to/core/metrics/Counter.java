@@ -0,0 +1,38 @@
+package com.acn3to.core.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A monotonically increasing count, such as the number of rejected withdrawals.
+ * <p>
+ * Increments go to striped cells, so threads counting concurrently do not contend on a single variable.
+ * </p>
+ */
+public class Counter {
+    private final LongAdder value = new LongAdder();
+
+    /**
+     * Adds one to the count.
+     */
+    public void increment() {
+        value.increment();
+    }
+
+    /**
+     * Adds an amount to the count.
+     *
+     * @param amount the amount to add; must not be negative
+     */
+    public void add(long amount) {
+        value.add(amount);
+    }
+
+    /**
+     * Returns the current count.
+     *
+     * @return the sum of all increments
+     */
+    public long get() {
+        return value.sum();
+    }
+}
@@ -0,0 +1,115 @@
+package com.acn3to.core.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A thread-safe histogram of latencies in nanoseconds with log-linear buckets.
+ * <p>
+ * Every power-of-two range is split into 32 linear sub-buckets, so any recorded value is reported
+ * within about 3% of its true value while the whole histogram stays a fixed array of counters.
+ * Recording is a single atomic increment and never allocates.
+ * </p>
+ */
+public class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int BUCKET_COUNT = bucketIndex(Long.MAX_VALUE) + 1;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+
+    /**
+     * Records a single latency.
+     *
+     * @param nanos the latency in nanoseconds; negative values are recorded as zero
+     */
+    public void record(long nanos) {
+        counts.incrementAndGet(bucketIndex(Math.max(0, nanos)));
+    }
+
+    /**
+     * Returns the total number of recorded values.
+     *
+     * @return the value count
+     */
+    public long getCount() {
+        long total = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            total += counts.get(i);
+        }
+        return total;
+    }
+
+    /**
+     * Returns an upper bound of the value at the given percentile.
+     *
+     * @param percentile the percentile, between 0 and 100
+     * @return the latency in nanoseconds, or 0 if nothing has been recorded
+     */
+    public long getValueAtPercentile(double percentile) {
+        long[] snapshot = new long[BUCKET_COUNT];
+        long total = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            snapshot[i] = counts.get(i);
+            total += snapshot[i];
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(Math.min(100.0, percentile) / 100.0 * total));
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += snapshot[i];
+            if (seen >= rank) {
+                return bucketUpperBound(i);
+            }
+        }
+        return bucketUpperBound(BUCKET_COUNT - 1);
+    }
+
+    /**
+     * Returns an upper bound of the largest recorded value.
+     *
+     * @return the maximum latency in nanoseconds, or 0 if nothing has been recorded
+     */
+    public long getMax() {
+        for (int i = BUCKET_COUNT - 1; i >= 0; i--) {
+            if (counts.get(i) > 0) {
+                return bucketUpperBound(i);
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Adds every value recorded by another histogram to this one.
+     *
+     * @param other the histogram to merge in
+     */
+    public void add(LatencyHistogram other) {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            long count = other.counts.get(i);
+            if (count != 0) {
+                counts.addAndGet(i, count);
+            }
+        }
+    }
+
+    /**
+     * Clears all recorded values.
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            counts.set(i, 0);
+        }
+    }
+
+    private static int bucketIndex(long value) {
+        int shift = Math.max(0, 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS);
+        return (shift << SUB_BUCKET_BITS) + (int) (value >>> shift);
+    }
+
+    private static long bucketUpperBound(int index) {
+        int shift = Math.max(0, (index >> SUB_BUCKET_BITS) - 1);
+        long lower = (long) (index - (shift << SUB_BUCKET_BITS)) << shift;
+        return lower + (1L << shift) - 1;
+    }
+}
@@ -0,0 +1,68 @@
+package com.acn3to.core.metrics;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Periodically writes a {@link MetricsRegistry} to a file in the Prometheus text exposition format.
+ * <p>
+ * Each dump is written to a temporary file next to the target and then moved over it, so readers never
+ * see a partially written file. A final dump is written when the reporter is closed.
+ * </p>
+ */
+public class MetricsFileReporter implements AutoCloseable {
+    private final MetricsRegistry registry;
+    private final Path file;
+    private final ScheduledExecutorService scheduler;
+
+    /**
+     * Constructs a MetricsFileReporter and starts dumping.
+     *
+     * @param registry       the registry to dump
+     * @param file           the file to write
+     * @param intervalMillis the time between two dumps
+     */
+    public MetricsFileReporter(MetricsRegistry registry, Path file, long intervalMillis) {
+        this.registry = registry;
+        this.file = file.toAbsolutePath();
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "MetricsFileReporter");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::report, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Writes the current metrics to the file.
+     */
+    public void report() {
+        try {
+            Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+            Files.writeString(temporary, registry.scrape(), StandardCharsets.UTF_8);
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Stops periodic dumping and writes the metrics one last time.
+     */
+    @Override
+    public void close() {
+        scheduler.shutdown();
+        try {
+            scheduler.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        report();
+    }
+}
@@ -0,0 +1,167 @@
+package com.acn3to.core.metrics;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.DoubleSupplier;
+
+/**
+ * Holds named counters, timers and gauges and renders them in the Prometheus text exposition format.
+ * <p>
+ * Metrics are identified by a name and an optional list of label name/value pairs. Asking for the same name
+ * and labels twice returns the same instance, so components look their metrics up once, keep them in fields,
+ * and record on the hot path without touching the registry. Timers are exported as summaries in seconds.
+ * </p>
+ * <p>
+ * Application components report to {@link #getDefault()}, which {@code Main} exposes over HTTP or dumps to a file.
+ * </p>
+ */
+public class MetricsRegistry {
+    private static final MetricsRegistry DEFAULT = new MetricsRegistry();
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99, 0.999};
+
+    private enum Type {
+        COUNTER("counter"),
+        GAUGE("gauge"),
+        SUMMARY("summary");
+
+        private final String exposedName;
+
+        Type(String exposedName) {
+            this.exposedName = exposedName;
+        }
+    }
+
+    private record Family(String name, String help, Type type, ConcurrentSkipListMap<String, Object> children) {
+    }
+
+    private final ConcurrentSkipListMap<String, Family> families = new ConcurrentSkipListMap<>();
+
+    /**
+     * Returns the registry the application's components report to.
+     *
+     * @return the process-wide registry
+     */
+    public static MetricsRegistry getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * Returns the counter with the given name and labels, creating it if needed.
+     *
+     * @param name   the metric name, ending in {@code _total} by convention
+     * @param help   a description of the metric
+     * @param labels alternating label names and values
+     * @return the counter
+     * @throws IllegalArgumentException if the name is already used by another type of metric
+     */
+    public Counter counter(String name, String help, String... labels) {
+        return (Counter) family(name, help, Type.COUNTER).children().computeIfAbsent(formatLabels(labels), key -> new Counter());
+    }
+
+    /**
+     * Returns the timer with the given name and labels, creating it if needed.
+     *
+     * @param name   the metric name, ending in {@code _seconds} by convention
+     * @param help   a description of the metric
+     * @param labels alternating label names and values
+     * @return the timer
+     * @throws IllegalArgumentException if the name is already used by another type of metric
+     */
+    public Timer timer(String name, String help, String... labels) {
+        return (Timer) family(name, help, Type.SUMMARY).children().computeIfAbsent(formatLabels(labels), key -> new Timer());
+    }
+
+    /**
+     * Registers a gauge whose value is read when the registry is rendered, replacing any gauge with the same
+     * name and labels.
+     *
+     * @param name   the metric name
+     * @param help   a description of the metric
+     * @param value  supplies the current value
+     * @param labels alternating label names and values
+     * @throws IllegalArgumentException if the name is already used by another type of metric
+     */
+    public void gauge(String name, String help, DoubleSupplier value, String... labels) {
+        family(name, help, Type.GAUGE).children().put(formatLabels(labels), value);
+    }
+
+    /**
+     * Renders every metric in the Prometheus text exposition format.
+     *
+     * @return the rendered metrics
+     */
+    public String scrape() {
+        StringBuilder out = new StringBuilder(4096);
+        for (Family family : families.values()) {
+            out.append("# HELP ").append(family.name()).append(' ').append(family.help()).append('\n');
+            out.append("# TYPE ").append(family.name()).append(' ').append(family.type().exposedName).append('\n');
+            for (Map.Entry<String, Object> child : family.children().entrySet()) {
+                String labels = child.getKey();
+                switch (family.type()) {
+                    case COUNTER -> sample(out, family.name(), labels, ((Counter) child.getValue()).get());
+                    case GAUGE -> sample(out, family.name(), labels, ((DoubleSupplier) child.getValue()).getAsDouble());
+                    case SUMMARY -> summary(out, family.name(), labels, (Timer) child.getValue());
+                }
+            }
+        }
+        return out.toString();
+    }
+
+    private Family family(String name, String help, Type type) {
+        Family family = families.computeIfAbsent(name, key -> new Family(name, help, type, new ConcurrentSkipListMap<>()));
+        if (family.type() != type) {
+            throw new IllegalArgumentException("Metric " + name + " is already registered as a " + family.type().exposedName);
+        }
+        return family;
+    }
+
+    private static void summary(StringBuilder out, String name, String labels, Timer timer) {
+        LatencyHistogram snapshot = timer.snapshot();
+        for (double quantile : QUANTILES) {
+            String quantileLabel = "quantile=\"" + quantile + "\"";
+            sample(out, name, labels.isEmpty() ? quantileLabel : labels + "," + quantileLabel,
+                    snapshot.getValueAtPercentile(quantile * 100) / 1e9);
+        }
+        sample(out, name + "_sum", labels, timer.getTotalNanos() / 1e9);
+        sample(out, name + "_count", labels, snapshot.getCount());
+    }
+
+    private static void sample(StringBuilder out, String name, String labels, double value) {
+        out.append(name);
+        if (!labels.isEmpty()) {
+            out.append('{').append(labels).append('}');
+        }
+        out.append(' ');
+        if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+            out.append((long) value);
+        } else {
+            out.append(value);
+        }
+        out.append('\n');
+    }
+
+    private static String formatLabels(String[] labels) {
+        if (labels.length % 2 != 0) {
+            throw new IllegalArgumentException("Labels must be name/value pairs");
+        }
+        StringBuilder formatted = new StringBuilder();
+        for (int i = 0; i < labels.length; i += 2) {
+            if (i > 0) {
+                formatted.append(',');
+            }
+            formatted.append(labels[i]).append("=\"");
+            String value = labels[i + 1];
+            for (int j = 0; j < value.length(); j++) {
+                char c = value.charAt(j);
+                switch (c) {
+                    case '\\' -> formatted.append("\\\\");
+                    case '"' -> formatted.append("\\\"");
+                    case '\n' -> formatted.append("\\n");
+                    default -> formatted.append(c);
+                }
+            }
+            formatted.append('"');
+        }
+        return formatted.toString();
+    }
+}
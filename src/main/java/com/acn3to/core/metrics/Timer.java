@@ -0,0 +1,74 @@
+package com.acn3to.core.metrics;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Records the latency of an operation into per-thread-stripe histograms.
+ * <p>
+ * Each recording thread is mapped to one of a fixed number of {@link LatencyHistogram} stripes, so threads
+ * rarely update the same counters. A stripe is allocated the first time a thread lands on it; after that,
+ * recording is two atomic additions and never allocates. Readers merge the stripes into a snapshot.
+ * </p>
+ */
+public class Timer {
+    private static final int STRIPES = Math.min(16, Integer.highestOneBit(Runtime.getRuntime().availableProcessors() * 2 - 1));
+
+    private final AtomicReferenceArray<LatencyHistogram> stripes = new AtomicReferenceArray<>(STRIPES);
+    private final LongAdder totalNanos = new LongAdder();
+
+    /**
+     * Records a single latency.
+     *
+     * @param nanos the latency in nanoseconds
+     */
+    public void record(long nanos) {
+        int index = stripeIndex(Thread.currentThread().threadId());
+        LatencyHistogram stripe = stripes.get(index);
+        if (stripe == null) {
+            stripes.compareAndSet(index, null, new LatencyHistogram());
+            stripe = stripes.get(index);
+        }
+        stripe.record(nanos);
+        totalNanos.add(Math.max(0, nanos));
+    }
+
+    /**
+     * Records the time elapsed since a start time taken from {@link System#nanoTime()}.
+     *
+     * @param startNanos the start time
+     */
+    public void recordSince(long startNanos) {
+        record(System.nanoTime() - startNanos);
+    }
+
+    /**
+     * Returns a histogram holding every latency recorded so far.
+     *
+     * @return a new histogram merged from all stripes
+     */
+    public LatencyHistogram snapshot() {
+        LatencyHistogram merged = new LatencyHistogram();
+        for (int i = 0; i < STRIPES; i++) {
+            LatencyHistogram stripe = stripes.get(i);
+            if (stripe != null) {
+                merged.add(stripe);
+            }
+        }
+        return merged;
+    }
+
+    /**
+     * Returns the sum of all recorded latencies.
+     *
+     * @return the total in nanoseconds
+     */
+    public long getTotalNanos() {
+        return totalNanos.sum();
+    }
+
+    private static int stripeIndex(long threadId) {
+        long h = threadId * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & (STRIPES - 1);
+    }
+}
@@ -1,62 +1,139 @@
 package com.acn3to.core.repositories;
 
 import com.acn3to.core.entities.Account;
-import com.mongodb.client.MongoCollection;
-import com.mongodb.client.MongoDatabase;
-import com.mongodb.client.model.ReplaceOptions;
-import org.bson.Document;
+import com.acn3to.core.utils.Money;
 
-import java.util.ArrayList;
 import java.util.List;
 
-import static com.mongodb.client.model.Filters.eq;
-
-public class AccountRepository {
-    private final MongoCollection<Document> accountsCollection;
-
-    public AccountRepository(MongoDatabase database) {
-        this.accountsCollection = database.getCollection("accounts");
-    }
-
-    public void save(Account account) {
-        Document document = new Document("accountId", account.getAccountId())
-                .append("accountHolderName", account.getAccountHolderName())
-                .append("accountType", account.getAccountType())
-                .append("accountStatus", account.getAccountStatus())
-                .append("creationDate", account.getCreationDate())
-                .append("lastUpdatedDate", account.getLastUpdatedDate())
-                .append("balance", account.getBalance());
-        accountsCollection.replaceOne(eq("accountId", account.getAccountId()), document, new ReplaceOptions().upsert(true));
-    }
-
-    public Account findById(int accountId) {
-        Document document = accountsCollection.find(eq("accountId", accountId)).first();
-        if (document == null) {
-            return null;
-        }
-        return new Account(
-                document.getDouble("balance"),
-                document.getInteger("accountId"),
-                document.getString("accountHolderName"),
-                document.getString("accountType"),
-                document.getString("accountStatus"),
-                document.getDate("creationDate")
-        );
-    }
-
-    public List<Account> findAll() {
-        List<Account> accounts = new ArrayList<>();
-        for (Document doc : accountsCollection.find()) {
-            Account account = new Account(
-                    doc.getDouble("balance"),
-                    doc.getInteger("accountId"),
-                    doc.getString("accountHolderName"),
-                    doc.getString("accountType"),
-                    doc.getString("accountStatus"),
-                    doc.getDate("creationDate")
-            );
-            accounts.add(account);
-        }
-        return accounts;
-    }
+/**
+ * Storage for bank accounts.
+ * <p>
+ * Implementations must apply balance updates atomically: concurrent calls to {@link #applyDelta}
+ * and {@link #withdrawIfSufficient} for the same account never lose an update. All amounts and balances
+ * are whole numbers of cents.
+ * </p>
+ */
+public interface AccountRepository {
+
+    /**
+     * Saves an account, replacing any existing account with the same ID.
+     *
+     * @param account the Account object to save
+     */
+    void save(Account account);
+
+    /**
+     * Saves several accounts in as few round trips as possible, replacing any existing accounts with the same IDs.
+     *
+     * @param accounts the accounts to save
+     */
+    void saveAll(List<Account> accounts);
+
+    /**
+     * Finds an account by its ID.
+     *
+     * @param accountId the ID of the account to find
+     * @return the Account object with the given ID, or null if not found
+     */
+    Account findById(int accountId);
+
+    /**
+     * Finds the balance of an account without loading the rest of the account.
+     *
+     * @param accountId the ID of the account
+     * @return the balance in cents, or {@link Money#NO_BALANCE} if not found
+     */
+    long findBalance(int accountId);
+
+    /**
+     * Finds the balances of several accounts with a single query.
+     *
+     * @param accountIds the IDs of the accounts, in ascending order
+     * @param count      the number of leading entries of accountIds to look up
+     * @return the balances in cents, parallel to accountIds, with {@link Money#NO_BALANCE} for accounts
+     *         that do not exist
+     */
+    long[] findBalances(int[] accountIds, int count);
+
+    /**
+     * Finds all accounts.
+     *
+     * @return a list of all Account objects
+     */
+    List<Account> findAll();
+
+    /**
+     * Atomically adds a delta to an account's balance.
+     *
+     * @param accountId  the ID of the account to update
+     * @param deltaCents the amount to add, in cents; may be negative
+     * @return the account as it is after the update, or null if no such account exists
+     */
+    Account applyDelta(int accountId, long deltaCents);
+
+    /**
+     * Atomically subtracts an amount from an account's balance if the balance covers it.
+     *
+     * @param accountId   the ID of the account to withdraw from
+     * @param amountCents the amount to withdraw, in cents
+     * @return the account as it is after the update, or null if the account does not exist
+     *         or its balance is lower than the amount
+     */
+    Account withdrawIfSufficient(int accountId, long amountCents);
+
+    /**
+     * Atomically adds a delta to an account's balance, like {@link #applyDelta}, but returns only the new balance.
+     * Implementations avoid loading the rest of the account, so callers that only need the balance save a read
+     * and, in memory, an allocation.
+     *
+     * @param accountId  the ID of the account to update
+     * @param deltaCents the amount to add, in cents; may be negative
+     * @return the new balance in cents, or {@link Money#NO_BALANCE} if no such account exists
+     */
+    long addToBalance(int accountId, long deltaCents);
+
+    /**
+     * Atomically subtracts an amount from an account's balance if the balance covers it, like
+     * {@link #withdrawIfSufficient}, but returns only the new balance.
+     *
+     * @param accountId   the ID of the account to withdraw from
+     * @param amountCents the amount to withdraw, in cents
+     * @return the new balance in cents, or {@link Money#NO_BALANCE} if the account does not exist
+     *         or its balance is lower than the amount
+     */
+    long withdrawFromBalance(int accountId, long amountCents);
+
+    /**
+     * Atomically moves an amount from one account to another if the source balance covers it.
+     * Either both balances change or neither does.
+     *
+     * @param fromAccountId the ID of the account to take the money from
+     * @param toAccountId   the ID of the account to give the money to
+     * @param amountCents   the amount to transfer, in cents
+     * @return the source account as it is after the transfer, or null if either account does not exist
+     *         or the source balance is lower than the amount
+     * @throws IllegalArgumentException if the amount is not positive
+     */
+    Account transfer(int fromAccountId, int toAccountId, long amountCents);
+
+    /**
+     * Overwrites the balances of several accounts in one operation.
+     *
+     * @param accountIds the IDs of the accounts to update
+     * @param balances   the new balances in cents, parallel to accountIds
+     * @param count      the number of leading entries of both arrays to write
+     */
+    void updateBalances(int[] accountIds, long[] balances, int count);
+
+    /**
+     * Sets the balances of several accounts in one operation, each only if its current balance still equals
+     * the expected one. Each account is compared and set atomically; the batch as a whole is not atomic.
+     *
+     * @param accountIds       the IDs of the accounts to update, in ascending order
+     * @param expectedBalances the balances in cents the accounts must still have, parallel to accountIds
+     * @param newBalances      the balances in cents to set, parallel to accountIds
+     * @param count            the number of leading entries of the arrays to write
+     * @return whether each account was updated, parallel to accountIds
+     */
+    boolean[] compareAndSetBalances(int[] accountIds, long[] expectedBalances, long[] newBalances, int count);
 }
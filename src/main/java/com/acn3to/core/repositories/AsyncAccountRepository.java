@@ -0,0 +1,57 @@
+package com.acn3to.core.repositories;
+
+import com.acn3to.core.utils.Money;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Non-blocking storage for the balances of bank accounts.
+ * <p>
+ * The asynchronous counterpart of the balance operations of {@link AccountRepository}: every method returns
+ * at once and completes its future when the store answers, so callers never park a thread on I/O. Futures may
+ * complete on the store's own threads, so dependent stages must not block. The same atomicity guarantees
+ * apply, and amounts and balances are whole numbers of cents.
+ * </p>
+ */
+public interface AsyncAccountRepository {
+
+    /**
+     * Finds the balance of an account without loading the rest of the account.
+     *
+     * @param accountId the ID of the account
+     * @return the balance in cents, or {@link Money#NO_BALANCE} if not found
+     */
+    CompletableFuture<Long> findBalance(int accountId);
+
+    /**
+     * Atomically adds a delta to an account's balance.
+     *
+     * @param accountId  the ID of the account to update
+     * @param deltaCents the amount to add, in cents; may be negative
+     * @return the new balance in cents, or {@link Money#NO_BALANCE} if no such account exists
+     */
+    CompletableFuture<Long> addToBalance(int accountId, long deltaCents);
+
+    /**
+     * Atomically subtracts an amount from an account's balance if the balance covers it.
+     *
+     * @param accountId   the ID of the account to withdraw from
+     * @param amountCents the amount to withdraw, in cents
+     * @return the new balance in cents, or {@link Money#NO_BALANCE} if the account does not exist
+     *         or its balance is lower than the amount
+     */
+    CompletableFuture<Long> withdrawFromBalance(int accountId, long amountCents);
+
+    /**
+     * Atomically moves an amount from one account to another if the source balance covers it.
+     * Either both balances change or neither does.
+     *
+     * @param fromAccountId the ID of the account to take the money from
+     * @param toAccountId   the ID of the account to give the money to
+     * @param amountCents   the amount to transfer, in cents
+     * @return the new balance of the source account in cents, or {@link Money#NO_BALANCE} if either account
+     *         does not exist or the source balance is lower than the amount
+     * @throws IllegalArgumentException if the amount is not positive
+     */
+    CompletableFuture<Long> transfer(int fromAccountId, int toAccountId, long amountCents);
+}
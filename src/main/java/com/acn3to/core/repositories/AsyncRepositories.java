@@ -0,0 +1,10 @@
+package com.acn3to.core.repositories;
+
+/**
+ * The non-blocking repositories used by the asynchronous account service.
+ *
+ * @param accounts     the account repository
+ * @param transactions the transaction repository
+ */
+public record AsyncRepositories(AsyncAccountRepository accounts, AsyncTransactionRepository transactions) {
+}
@@ -0,0 +1,43 @@
+package com.acn3to.core.repositories;
+
+import com.acn3to.core.entities.Transaction;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Non-blocking, append-only storage for transactions.
+ * <p>
+ * The asynchronous counterpart of {@link TransactionRepository}'s writes and paged reads. Futures may
+ * complete on the store's own threads, so dependent stages must not block.
+ * </p>
+ */
+public interface AsyncTransactionRepository {
+
+    /**
+     * Saves a transaction.
+     *
+     * @param transaction the Transaction object to save
+     * @return a future completed once the transaction is stored
+     */
+    CompletableFuture<Void> save(Transaction transaction);
+
+    /**
+     * Saves a batch of transactions. The transactions may be stored in any order.
+     *
+     * @param transactions the Transaction objects to save
+     * @return a future completed once every transaction is stored
+     */
+    CompletableFuture<Void> saveAll(List<Transaction> transactions);
+
+    /**
+     * Finds one page of an account's transactions in date order, like
+     * {@link TransactionRepository#findByAccountId(int, TransactionPage.Key, int)}.
+     *
+     * @param accountId the ID of the account
+     * @param after     the {@link TransactionPage#next() next} key of the previous page; null starts at the oldest
+     * @param limit     the maximum number of transactions to return
+     * @return up to limit transactions, oldest first, and the key of the following page
+     */
+    CompletableFuture<TransactionPage> findByAccountId(int accountId, TransactionPage.Key after, int limit);
+}
@@ -0,0 +1,99 @@
+package com.acn3to.core.repositories;
+
+import com.acn3to.core.metrics.MetricsRegistry;
+import com.acn3to.core.repositories.cached.CachingAccountRepository;
+import com.acn3to.core.repositories.instrumented.InstrumentedAccountRepository;
+import com.acn3to.core.repositories.instrumented.InstrumentedBankAgencyRepository;
+import com.acn3to.core.repositories.instrumented.InstrumentedSnapshotRepository;
+import com.acn3to.core.repositories.instrumented.InstrumentedSummaryRepository;
+import com.acn3to.core.repositories.instrumented.InstrumentedTransactionRepository;
+import com.acn3to.core.repositories.journal.JournaledTransactionRepository;
+import com.acn3to.core.repositories.snapshot.SnapshottingTransactionRepository;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * The set of repositories backing the application.
+ *
+ * @param accounts     the account repository
+ * @param transactions the transaction repository
+ * @param bankAgencies the bank agency repository
+ * @param snapshots    the balance snapshot repository
+ * @param summaries    the transaction statistics summary repository
+ */
+public record Repositories(AccountRepository accounts, TransactionRepository transactions, BankAgencyRepository bankAgencies,
+                           SnapshotRepository snapshots, SummaryRepository summaries) {
+
+    /**
+     * Wraps every repository in a decorator recording the latency and failures of its calls.
+     *
+     * @param registry the registry the metrics are recorded in
+     * @return the instrumented repositories
+     */
+    public Repositories instrumented(MetricsRegistry registry) {
+        return new Repositories(
+                new InstrumentedAccountRepository(accounts, registry),
+                new InstrumentedTransactionRepository(transactions, registry),
+                new InstrumentedBankAgencyRepository(bankAgencies, registry),
+                new InstrumentedSnapshotRepository(snapshots, registry),
+                new InstrumentedSummaryRepository(summaries, registry)
+        );
+    }
+
+    /**
+     * Puts a read-through cache in front of the account repository.
+     *
+     * @param registry    the registry the cache statistics are reported to
+     * @param maximumSize the maximum number of cached accounts
+     * @param timeToLive  how long an account stays cached
+     * @return the repositories with a cached account repository
+     */
+    public Repositories withAccountCache(MetricsRegistry registry, int maximumSize, Duration timeToLive) {
+        return new Repositories(
+                new CachingAccountRepository(accounts, registry, maximumSize, timeToLive),
+                transactions,
+                bankAgencies,
+                snapshots,
+                summaries
+        );
+    }
+
+    /**
+     * Puts a local durable journal in front of the transaction repository. The returned transaction repository
+     * is a {@link JournaledTransactionRepository} and must be closed to ship the last transactions.
+     *
+     * @param registry       the registry the journal metrics are recorded in
+     * @param directory      the directory holding the journal segments
+     * @param segmentRecords the number of transactions in each journal segment
+     * @return the repositories with a journaled transaction repository
+     */
+    public Repositories withTransactionJournal(MetricsRegistry registry, Path directory, int segmentRecords) {
+        return new Repositories(
+                accounts,
+                new JournaledTransactionRepository(transactions, directory, segmentRecords, registry),
+                bankAgencies,
+                snapshots,
+                summaries
+        );
+    }
+
+    /**
+     * Snapshots account balances every few transactions in the background. The returned transaction repository
+     * is a {@link SnapshottingTransactionRepository} and must be closed to stop the snapshot thread.
+     *
+     * @param registry the registry the snapshot metrics are recorded in
+     * @param interval the number of transactions of an account between two of its snapshots
+     * @return the repositories with a snapshotting transaction repository
+     */
+    public Repositories withBalanceSnapshots(MetricsRegistry registry, int interval) {
+        return new Repositories(
+                accounts,
+                new SnapshottingTransactionRepository(transactions, snapshots, interval,
+                        SnapshottingTransactionRepository.DEFAULT_SETTLE_MILLIS, registry),
+                bankAgencies,
+                snapshots,
+                summaries
+        );
+    }
+}
@@ -0,0 +1,49 @@
+package com.acn3to.core.repositories;
+
+import com.acn3to.core.entities.BalanceSnapshot;
+
+import java.util.List;
+
+/**
+ * Append-only storage for account balance snapshots.
+ * <p>
+ * Every snapshot is kept, so the balance at any point in time can be replayed from a nearby snapshot.
+ * </p>
+ */
+public interface SnapshotRepository {
+
+    /**
+     * Saves a snapshot.
+     *
+     * @param snapshot the snapshot to save
+     */
+    void save(BalanceSnapshot snapshot);
+
+    /**
+     * Saves a batch of snapshots. The snapshots may be stored in any order.
+     *
+     * @param snapshots the snapshots to save
+     */
+    void saveAll(List<BalanceSnapshot> snapshots);
+
+    /**
+     * Finds the most recent snapshot of an account taken at or before a point in time.
+     *
+     * @param accountId  the ID of the account
+     * @param asOfMillis the point in time in epoch milliseconds; {@link Long#MAX_VALUE} finds the latest snapshot
+     * @return the snapshot with the greatest {@link BalanceSnapshot#asOfMillis()} not after the given time,
+     *         or null if there is none
+     */
+    BalanceSnapshot findLatest(int accountId, long asOfMillis);
+
+    /**
+     * Finds the latest opening snapshots of a range of accounts with a single query. An account has several
+     * when a database was seeded again, which resets the balances of the accounts already in it.
+     *
+     * @param firstAccountId the first account ID of the range
+     * @param count          the number of consecutive account IDs in the range
+     * @return the opening snapshot with the greatest {@link BalanceSnapshot#asOfMillis()} of each account,
+     *         indexed by account ID minus firstAccountId, with null for accounts without an opening snapshot
+     */
+    BalanceSnapshot[] findOpeningSnapshots(int firstAccountId, int count);
+}
@@ -0,0 +1,104 @@
+package com.acn3to.core.repositories;
+
+import com.acn3to.core.repositories.async.AsyncAccountRepositoryAdapter;
+import com.acn3to.core.repositories.async.AsyncTransactionRepositoryAdapter;
+import com.acn3to.core.repositories.memory.InMemoryAccountRepository;
+import com.acn3to.core.repositories.memory.InMemoryBankAgencyRepository;
+import com.acn3to.core.repositories.memory.InMemorySnapshotRepository;
+import com.acn3to.core.repositories.memory.InMemorySummaryRepository;
+import com.acn3to.core.repositories.memory.InMemoryTransactionRepository;
+import com.acn3to.core.repositories.mongo.MongoAccountRepository;
+import com.acn3to.core.repositories.mongo.MongoBankAgencyRepository;
+import com.acn3to.core.repositories.mongo.MongoIndexManager;
+import com.acn3to.core.repositories.mongo.MongoSnapshotRepository;
+import com.acn3to.core.repositories.mongo.MongoSummaryRepository;
+import com.acn3to.core.repositories.mongo.MongoTransactionRepository;
+import com.acn3to.core.repositories.mongo.ReactiveMongoAccountRepository;
+import com.acn3to.core.repositories.mongo.ReactiveMongoTransactionRepository;
+import com.acn3to.core.utils.MongoDBConnection;
+import com.mongodb.client.MongoDatabase;
+
+/**
+ * The available storage backends, selected at startup.
+ */
+public enum StorageBackend {
+    /** Repositories backed by the MongoDB database at {@code MONGO_URI}, with indexes ensured on open. */
+    MONGO {
+        @Override
+        public Repositories open() {
+            MongoDatabase database = MongoDBConnection.getDatabase();
+            new MongoIndexManager(database).ensureIndexes();
+            return new Repositories(
+                    new MongoAccountRepository(MongoDBConnection.getClient(), database),
+                    new MongoTransactionRepository(database),
+                    new MongoBankAgencyRepository(database),
+                    new MongoSnapshotRepository(database),
+                    new MongoSummaryRepository(database)
+            );
+        }
+
+        /** Opens repositories on the reactive driver, sharing the collections and indexes of {@link #open()}. */
+        @Override
+        public AsyncRepositories openAsync(Repositories repositories) {
+            com.mongodb.reactivestreams.client.MongoDatabase database = MongoDBConnection.getReactiveDatabase();
+            return new AsyncRepositories(
+                    new ReactiveMongoAccountRepository(MongoDBConnection.getReactiveClient(), database),
+                    new ReactiveMongoTransactionRepository(database)
+            );
+        }
+    },
+    /** Repositories held in process memory; data is lost when the process exits. */
+    MEMORY {
+        @Override
+        public Repositories open() {
+            return new Repositories(
+                    new InMemoryAccountRepository(),
+                    new InMemoryTransactionRepository(),
+                    new InMemoryBankAgencyRepository(),
+                    new InMemorySnapshotRepository(),
+                    new InMemorySummaryRepository()
+            );
+        }
+
+        /** Adapts the given repositories, running each call on the calling thread since none of them blocks. */
+        @Override
+        public AsyncRepositories openAsync(Repositories repositories) {
+            return new AsyncRepositories(
+                    new AsyncAccountRepositoryAdapter(repositories.accounts(), Runnable::run),
+                    new AsyncTransactionRepositoryAdapter(repositories.transactions(), Runnable::run)
+            );
+        }
+    };
+
+    private static final String ENVIRONMENT_VARIABLE = "STORAGE_BACKEND";
+
+    /**
+     * Creates the repositories of this backend.
+     *
+     * @return the repositories
+     */
+    public abstract Repositories open();
+
+    /**
+     * Creates the non-blocking repositories of this backend over the same data as {@link #open()}.
+     *
+     * @param repositories the repositories opened from this backend, which backends without a non-blocking
+     *                     driver adapt; a backend with one bypasses them and any decorators around them
+     * @return the non-blocking repositories
+     */
+    public abstract AsyncRepositories openAsync(Repositories repositories);
+
+    /**
+     * Returns the backend named by the {@code STORAGE_BACKEND} environment variable, or {@link #MONGO} if it is unset.
+     *
+     * @return the selected backend
+     * @throws IllegalArgumentException if the variable names an unknown backend
+     */
+    public static StorageBackend fromEnvironment() {
+        String name = System.getenv(ENVIRONMENT_VARIABLE);
+        if (name == null || name.isEmpty()) {
+            return MONGO;
+        }
+        return valueOf(name.trim().toUpperCase());
+    }
+}
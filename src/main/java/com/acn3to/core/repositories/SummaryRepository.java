@@ -0,0 +1,26 @@
+package com.acn3to.core.repositories;
+
+import com.acn3to.core.analytics.AnalyticsSummary;
+
+import java.util.List;
+
+/**
+ * Append-only storage for the transaction statistics of past periods.
+ */
+public interface SummaryRepository {
+
+    /**
+     * Saves the statistics of a period.
+     *
+     * @param summary the summary to save
+     */
+    void save(AnalyticsSummary summary);
+
+    /**
+     * Finds the summaries of the periods that started at or after a point in time.
+     *
+     * @param fromMillis the point in time, in epoch milliseconds
+     * @return the summaries, oldest first
+     */
+    List<AnalyticsSummary> findSince(long fromMillis);
+}
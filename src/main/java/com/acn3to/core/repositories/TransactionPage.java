@@ -0,0 +1,26 @@
+package com.acn3to.core.repositories;
+
+import com.acn3to.core.entities.Transaction;
+
+import java.util.Date;
+import java.util.List;
+
+/**
+ * One page of an account's transaction history, read by {@link TransactionRepository#findByAccountId(int, Key, int)}.
+ *
+ * @param transactions the transactions of the page, ordered by date and then by their ID in the store
+ * @param next         the key to pass to read the following page; the key that was passed, or null, if the
+ *                     page is empty
+ */
+public record TransactionPage(List<Transaction> transactions, Key next) {
+
+    /**
+     * The position of a transaction in an account's history. Transactions sharing a date are told apart, and
+     * ordered, by the ID the store gave them, so a page boundary never falls between two of them.
+     *
+     * @param date the date of the transaction
+     * @param id   the store's identifier of the transaction, opaque to callers
+     */
+    public record Key(Date date, String id) {
+    }
+}
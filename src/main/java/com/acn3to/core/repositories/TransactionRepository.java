@@ -1,45 +1,31 @@
 package com.acn3to.core.repositories;
 
 import com.acn3to.core.entities.Transaction;
-import com.mongodb.client.MongoCollection;
-import com.mongodb.client.MongoDatabase;
-import org.bson.Document;
 
-import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
+import java.util.stream.Stream;
 
 /**
- * Repository class for managing transactions in a MongoDB collection.
- * <p>
- * This class provides methods for saving, finding, and retrieving transactions from the MongoDB collection.
- * </p>
+ * Append-only storage for transactions.
  */
-public class TransactionRepository {
-    private final MongoCollection<Document> transactionsCollection;
+public interface TransactionRepository {
 
     /**
-     * Constructs a TransactionRepository with a MongoDB connection.
+     * Saves a transaction. A transaction whose {@link Transaction#id() ID} is already stored is not stored again,
+     * so a write that failed or timed out can be retried.
      *
-     * @param database the MongoDatabase instance to use
+     * @param transaction the Transaction object to save
      */
-    public TransactionRepository(MongoDatabase database) {
-        this.transactionsCollection = database.getCollection("transactions");
-    }
+    void save(Transaction transaction);
 
     /**
-     * Saves a transaction to the MongoDB collection.
+     * Saves a batch of transactions. The transactions may be stored in any order. Transactions whose
+     * {@link Transaction#id() ID} is already stored are skipped, so a batch that failed part way can be sent again.
      *
-     * @param transaction the Transaction object to save
+     * @param transactions the Transaction objects to save
      */
-    public void save(Transaction transaction) {
-        Document document = new Document("accountId", transaction.accountId())
-                .append("date", transaction.date())
-                .append("type", transaction.type())
-                .append("amount", transaction.amount())
-                .append("balanceAfterTransaction", transaction.balanceAfterTransaction());
-        transactionsCollection.insertOne(document);
-    }
+    void saveAll(List<Transaction> transactions);
 
     /**
      * Finds a transaction by its account ID and date.
@@ -48,21 +34,7 @@ public class TransactionRepository {
      * @param date the date and time of the transaction
      * @return the Transaction object with the given account ID and date, or null if not found
      */
-    public Transaction findByAccountIdAndDate(int accountId, Date date) {
-        Document query = new Document("accountId", accountId)
-                .append("date", date);
-        Document document = transactionsCollection.find(query).first();
-        if (document == null) {
-            return null;
-        }
-        return new Transaction(
-                document.getInteger("accountId"),
-                document.getDate("date"),
-                document.getString("type"),
-                document.getDouble("amount"),
-                document.getDouble("balanceAfterTransaction")
-        );
-    }
+    Transaction findByAccountIdAndDate(int accountId, Date date);
 
     /**
      * Finds all transactions for a given account ID.
@@ -70,19 +42,54 @@ public class TransactionRepository {
      * @param accountId the ID of the account
      * @return a list of all Transaction objects for the given account ID
      */
-    public List<Transaction> findByAccountId(int accountId) {
-        List<Transaction> transactions = new ArrayList<>();
-        Document query = new Document("accountId", accountId);
-        for (Document doc : transactionsCollection.find(query)) {
-            Transaction transaction = new Transaction(
-                    doc.getInteger("accountId"),
-                    doc.getDate("date"),
-                    doc.getString("type"),
-                    doc.getDouble("amount"),
-                    doc.getDouble("balanceAfterTransaction")
-            );
-            transactions.add(transaction);
-        }
-        return transactions;
-    }
+    List<Transaction> findByAccountId(int accountId);
+
+    /**
+     * Finds one page of an account's transactions in date order, using the date and ID of the previous page's
+     * last transaction as the key for the next one. Cost depends on the page size, not on how far into the
+     * history the page is. Transactions sharing a date are ordered by ID, so every transaction is returned
+     * exactly once however many share a date.
+     *
+     * @param accountId the ID of the account
+     * @param after     the {@link TransactionPage#next() next} key of the previous page; null starts at the oldest
+     * @param limit     the maximum number of transactions to return
+     * @return up to limit transactions, oldest first, and the key of the following page
+     */
+    TransactionPage findByAccountId(int accountId, TransactionPage.Key after, int limit);
+
+    /**
+     * Streams all of an account's transactions in date order, fetching them lazily in batches.
+     * The stream holds a database cursor and must be closed, e.g. with try-with-resources.
+     *
+     * @param accountId the ID of the account
+     * @param batchSize the number of transactions fetched per round trip
+     * @return a lazily populated stream of transactions, oldest first
+     */
+    Stream<Transaction> streamByAccountId(int accountId, int batchSize);
+
+    /**
+     * Streams the transactions that changed an account's balance within a period, in date order: its own
+     * transactions and the transfers it received. The stream holds a database cursor and must be closed.
+     *
+     * @param accountId the ID of the account
+     * @param afterDate only transactions strictly after this date are returned
+     * @param upToDate  only transactions at or before this date are returned
+     * @param batchSize the number of transactions fetched per round trip
+     * @return a lazily populated stream of transactions, oldest first
+     */
+    Stream<Transaction> streamAffectingAccount(int accountId, Date afterDate, Date upToDate, int batchSize);
+
+    /**
+     * Sums how much the stored transactions changed the balances of a range of accounts since given times, see
+     * {@link Transaction#balanceDelta}. The sums are computed by the store in one pass over the range,
+     * without returning the transactions.
+     *
+     * @param firstAccountId the first account ID of the range
+     * @param count          the number of consecutive account IDs in the range
+     * @param afterMillis    for each account, indexed by account ID minus firstAccountId, only transactions dated
+     *                       strictly after this time in epoch milliseconds are summed; {@link Long#MIN_VALUE}
+     *                       sums them all
+     * @return the net change of each account's balance in cents, indexed by account ID minus firstAccountId
+     */
+    long[] sumBalanceChanges(int firstAccountId, int count, long[] afterMillis);
 }
@@ -0,0 +1,57 @@
+package com.acn3to.core.repositories.async;
+
+import com.acn3to.core.entities.Account;
+import com.acn3to.core.repositories.AccountRepository;
+import com.acn3to.core.repositories.AsyncAccountRepository;
+import com.acn3to.core.utils.Money;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * Exposes a blocking {@link AccountRepository} through the {@link AsyncAccountRepository} interface by running
+ * each call on an executor.
+ * <p>
+ * Meant for stores whose calls never wait on I/O, such as the in-memory one, where running on the calling
+ * thread is cheapest. For a store that does block, the executor must own the threads that block, which gives up
+ * the point of the asynchronous API; use a natively non-blocking implementation instead.
+ * </p>
+ */
+public class AsyncAccountRepositoryAdapter implements AsyncAccountRepository {
+    private final AccountRepository delegate;
+    private final Executor executor;
+
+    /**
+     * Constructs an adapter running the delegate's calls on an executor.
+     *
+     * @param delegate the repository to adapt
+     * @param executor the executor the calls run on, e.g. {@code Runnable::run} for the calling thread
+     */
+    public AsyncAccountRepositoryAdapter(AccountRepository delegate, Executor executor) {
+        this.delegate = delegate;
+        this.executor = executor;
+    }
+
+    @Override
+    public CompletableFuture<Long> findBalance(int accountId) {
+        return CompletableFuture.supplyAsync(() -> delegate.findBalance(accountId), executor);
+    }
+
+    @Override
+    public CompletableFuture<Long> addToBalance(int accountId, long deltaCents) {
+        return CompletableFuture.supplyAsync(() -> delegate.addToBalance(accountId, deltaCents), executor);
+    }
+
+    @Override
+    public CompletableFuture<Long> withdrawFromBalance(int accountId, long amountCents) {
+        return CompletableFuture.supplyAsync(() -> delegate.withdrawFromBalance(accountId, amountCents), executor);
+    }
+
+    @Override
+    public CompletableFuture<Long> transfer(int fromAccountId, int toAccountId, long amountCents) {
+        return CompletableFuture.supplyAsync(() -> {
+            Account source = delegate.transfer(fromAccountId, toAccountId, amountCents);
+            return source != null ? source.getBalanceCents() : Money.NO_BALANCE;
+        }, executor);
+    }
+}
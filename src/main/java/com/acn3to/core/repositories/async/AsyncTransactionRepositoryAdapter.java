@@ -0,0 +1,46 @@
+package com.acn3to.core.repositories.async;
+
+import com.acn3to.core.entities.Transaction;
+import com.acn3to.core.repositories.AsyncTransactionRepository;
+import com.acn3to.core.repositories.TransactionPage;
+import com.acn3to.core.repositories.TransactionRepository;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * Exposes a blocking {@link TransactionRepository} through the {@link AsyncTransactionRepository} interface by
+ * running each call on an executor. Like {@link AsyncAccountRepositoryAdapter}, it is meant for stores whose
+ * calls never wait on I/O.
+ */
+public class AsyncTransactionRepositoryAdapter implements AsyncTransactionRepository {
+    private final TransactionRepository delegate;
+    private final Executor executor;
+
+    /**
+     * Constructs an adapter running the delegate's calls on an executor.
+     *
+     * @param delegate the repository to adapt
+     * @param executor the executor the calls run on, e.g. {@code Runnable::run} for the calling thread
+     */
+    public AsyncTransactionRepositoryAdapter(TransactionRepository delegate, Executor executor) {
+        this.delegate = delegate;
+        this.executor = executor;
+    }
+
+    @Override
+    public CompletableFuture<Void> save(Transaction transaction) {
+        return CompletableFuture.runAsync(() -> delegate.save(transaction), executor);
+    }
+
+    @Override
+    public CompletableFuture<Void> saveAll(List<Transaction> transactions) {
+        return CompletableFuture.runAsync(() -> delegate.saveAll(transactions), executor);
+    }
+
+    @Override
+    public CompletableFuture<TransactionPage> findByAccountId(int accountId, TransactionPage.Key after, int limit) {
+        return CompletableFuture.supplyAsync(() -> delegate.findByAccountId(accountId, after, limit), executor);
+    }
+}
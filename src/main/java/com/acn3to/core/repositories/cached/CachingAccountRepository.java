@@ -0,0 +1,436 @@
+package com.acn3to.core.repositories.cached;
+
+import com.acn3to.core.entities.Account;
+import com.acn3to.core.metrics.Counter;
+import com.acn3to.core.metrics.MetricsRegistry;
+import com.acn3to.core.repositories.AccountRepository;
+import com.acn3to.core.utils.Money;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Account repository decorator that keeps recently read accounts in memory.
+ * <p>
+ * {@link #findById} and {@link #findBalance} are read-through: a miss loads the account from the delegate and
+ * caches a snapshot of it. Entries expire after a fixed time to live and the least recently used entries are
+ * evicted once the cache is full. The cache is split into segments, each an access-ordered map behind its own
+ * lock, so readers of different accounts rarely contend; eviction is least recently used per segment.
+ * </p>
+ * <p>
+ * Writes go to the delegate first. Writes returning the updated account then cache it, and writes returning
+ * only the new balance update the balance of a cached account, so the balance inquiry that usually follows an
+ * operation is a hit; every other write removes the accounts it touched. Each account
+ * maps to a generation number that writes bump: a load or write only caches its result if no other write to
+ * the account completed while it was running, so an older value never overwrites a newer one. Writes made by
+ * other processes become visible once the entry expires.
+ * </p>
+ * <p>
+ * {@link #findBalances} and {@link #findAll} bypass the cache, since the batch path compares balances against
+ * the database and needs current values.
+ * </p>
+ */
+public class CachingAccountRepository implements AccountRepository {
+    public static final int DEFAULT_SEGMENTS = 64;
+
+    private static final int GENERATIONS_PER_SEGMENT = 64;
+
+    /**
+     * Cache statistics.
+     *
+     * @param hits          lookups answered from the cache
+     * @param misses        lookups that went to the delegate, including expired entries
+     * @param evictions     entries removed to stay within the maximum size
+     * @param expirations   entries removed because their time to live had passed
+     * @param invalidations entries removed because the account was written
+     * @param size          the number of cached accounts
+     */
+    public record Stats(long hits, long misses, long evictions, long expirations, long invalidations, int size) {
+
+        /**
+         * Returns the share of lookups answered from the cache.
+         *
+         * @return the hit rate between 0 and 1, or 0 if there was no lookup
+         */
+        public double hitRate() {
+            long lookups = hits + misses;
+            return lookups == 0 ? 0 : (double) hits / lookups;
+        }
+    }
+
+    private record CachedAccount(int accountId, String accountHolderName, String accountType, String accountStatus,
+                                 long creationMillis, long balanceCents, long expiresAtNanos) {
+
+        static CachedAccount of(Account account, long expiresAtNanos) {
+            return new CachedAccount(account.getAccountId(), account.getAccountHolderName(), account.getAccountType(),
+                    account.getAccountStatus(), account.getCreationMillis(), account.getBalanceCents(), expiresAtNanos);
+        }
+
+        Account toAccount() {
+            return new Account(balanceCents, accountId, accountHolderName, accountType, accountStatus, creationMillis);
+        }
+    }
+
+    private static final class Segment {
+        final ReentrantLock lock = new ReentrantLock();
+        final LinkedHashMap<Integer, CachedAccount> entries = new LinkedHashMap<>(16, 0.75f, true);
+        final long[] generations = new long[GENERATIONS_PER_SEGMENT];
+    }
+
+    private final AccountRepository delegate;
+    private final long timeToLiveNanos;
+    private final Segment[] segments;
+    private final int segmentMask;
+    private final int segmentCapacity;
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter evictions;
+    private final Counter expirations;
+    private final Counter invalidations;
+
+    /**
+     * Constructs a CachingAccountRepository around another repository.
+     *
+     * @param delegate    the repository that stores the accounts
+     * @param registry    the registry the cache statistics are reported to
+     * @param maximumSize the maximum number of cached accounts
+     * @param timeToLive  how long an account stays cached after it was loaded or written
+     * @throws IllegalArgumentException if maximumSize or timeToLive is not positive
+     */
+    public CachingAccountRepository(AccountRepository delegate, MetricsRegistry registry, int maximumSize, Duration timeToLive) {
+        if (maximumSize <= 0) {
+            throw new IllegalArgumentException("Maximum size must be positive: " + maximumSize);
+        }
+        if (timeToLive.isNegative() || timeToLive.isZero()) {
+            throw new IllegalArgumentException("Time to live must be positive: " + timeToLive);
+        }
+        int segmentCount = Math.min(DEFAULT_SEGMENTS, Integer.highestOneBit(maximumSize));
+        this.delegate = delegate;
+        this.timeToLiveNanos = timeToLive.toNanos();
+        this.segments = new Segment[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            segments[i] = new Segment();
+        }
+        this.segmentMask = segmentCount - 1;
+        this.segmentCapacity = (maximumSize + segmentCount - 1) / segmentCount;
+
+        this.hits = registry.counter("banking_account_cache_requests_total",
+                "Account cache lookups.", "result", "hit");
+        this.misses = registry.counter("banking_account_cache_requests_total",
+                "Account cache lookups.", "result", "miss");
+        this.evictions = registry.counter("banking_account_cache_removals_total",
+                "Accounts removed from the account cache.", "cause", "size");
+        this.expirations = registry.counter("banking_account_cache_removals_total",
+                "Accounts removed from the account cache.", "cause", "expired");
+        this.invalidations = registry.counter("banking_account_cache_removals_total",
+                "Accounts removed from the account cache.", "cause", "written");
+        registry.gauge("banking_account_cache_size", "Accounts held in the account cache.", this::size);
+    }
+
+    @Override
+    public void save(Account account) {
+        try {
+            delegate.save(account);
+        } finally {
+            invalidate(account.getAccountId());
+        }
+    }
+
+    @Override
+    public void saveAll(List<Account> accounts) {
+        try {
+            delegate.saveAll(accounts);
+        } finally {
+            for (Account account : accounts) {
+                invalidate(account.getAccountId());
+            }
+        }
+    }
+
+    @Override
+    public Account findById(int accountId) {
+        CachedAccount cached = lookup(accountId);
+        if (cached != null) {
+            return cached.toAccount();
+        }
+        return load(accountId);
+    }
+
+    @Override
+    public long findBalance(int accountId) {
+        CachedAccount cached = lookup(accountId);
+        if (cached != null) {
+            return cached.balanceCents();
+        }
+        Account account = load(accountId);
+        return account != null ? account.getBalanceCents() : Money.NO_BALANCE;
+    }
+
+    @Override
+    public long[] findBalances(int[] accountIds, int count) {
+        return delegate.findBalances(accountIds, count);
+    }
+
+    @Override
+    public List<Account> findAll() {
+        return delegate.findAll();
+    }
+
+    @Override
+    public Account applyDelta(int accountId, long deltaCents) {
+        long generation = generation(accountId);
+        Account updated = null;
+        try {
+            updated = delegate.applyDelta(accountId, deltaCents);
+            return updated;
+        } finally {
+            written(accountId, generation, updated);
+        }
+    }
+
+    @Override
+    public Account withdrawIfSufficient(int accountId, long amountCents) {
+        long generation = generation(accountId);
+        Account updated = null;
+        try {
+            updated = delegate.withdrawIfSufficient(accountId, amountCents);
+            return updated;
+        } finally {
+            written(accountId, generation, updated);
+        }
+    }
+
+    @Override
+    public long addToBalance(int accountId, long deltaCents) {
+        long generation = generation(accountId);
+        long updated = Money.NO_BALANCE;
+        try {
+            updated = delegate.addToBalance(accountId, deltaCents);
+            return updated;
+        } finally {
+            balanceWritten(accountId, generation, updated);
+        }
+    }
+
+    @Override
+    public long withdrawFromBalance(int accountId, long amountCents) {
+        long generation = generation(accountId);
+        long updated = Money.NO_BALANCE;
+        try {
+            updated = delegate.withdrawFromBalance(accountId, amountCents);
+            return updated;
+        } finally {
+            balanceWritten(accountId, generation, updated);
+        }
+    }
+
+    @Override
+    public Account transfer(int fromAccountId, int toAccountId, long amountCents) {
+        long generation = generation(fromAccountId);
+        Account updated = null;
+        try {
+            updated = delegate.transfer(fromAccountId, toAccountId, amountCents);
+            return updated;
+        } finally {
+            written(fromAccountId, generation, updated);
+            invalidate(toAccountId);
+        }
+    }
+
+    @Override
+    public void updateBalances(int[] accountIds, long[] balances, int count) {
+        try {
+            delegate.updateBalances(accountIds, balances, count);
+        } finally {
+            invalidateAll(accountIds, count);
+        }
+    }
+
+    @Override
+    public boolean[] compareAndSetBalances(int[] accountIds, long[] expectedBalances, long[] newBalances, int count) {
+        try {
+            return delegate.compareAndSetBalances(accountIds, expectedBalances, newBalances, count);
+        } finally {
+            invalidateAll(accountIds, count);
+        }
+    }
+
+    /**
+     * Returns the cache statistics.
+     *
+     * @return the current Stats
+     */
+    public Stats getStats() {
+        return new Stats(hits.get(), misses.get(), evictions.get(), expirations.get(), invalidations.get(), size());
+    }
+
+    /**
+     * Removes every cached account.
+     */
+    public void clear() {
+        for (Segment segment : segments) {
+            segment.lock.lock();
+            try {
+                segment.entries.clear();
+                for (int i = 0; i < GENERATIONS_PER_SEGMENT; i++) {
+                    segment.generations[i]++;
+                }
+            } finally {
+                segment.lock.unlock();
+            }
+        }
+    }
+
+    private int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            segment.lock.lock();
+            try {
+                size += segment.entries.size();
+            } finally {
+                segment.lock.unlock();
+            }
+        }
+        return size;
+    }
+
+    private CachedAccount lookup(int accountId) {
+        Segment segment = segmentFor(accountId);
+        segment.lock.lock();
+        try {
+            CachedAccount cached = segment.entries.get(accountId);
+            if (cached != null && cached.expiresAtNanos() - System.nanoTime() <= 0) {
+                segment.entries.remove(accountId);
+                expirations.increment();
+                cached = null;
+            }
+            if (cached != null) {
+                hits.increment();
+            } else {
+                misses.increment();
+            }
+            return cached;
+        } finally {
+            segment.lock.unlock();
+        }
+    }
+
+    private Account load(int accountId) {
+        long generation = generation(accountId);
+        Account account = delegate.findById(accountId);
+        if (account != null) {
+            Segment segment = segmentFor(accountId);
+            segment.lock.lock();
+            try {
+                if (segment.generations[generationIndex(accountId)] == generation) {
+                    put(segment, accountId, account);
+                }
+            } finally {
+                segment.lock.unlock();
+            }
+        }
+        return account;
+    }
+
+    private long generation(int accountId) {
+        Segment segment = segmentFor(accountId);
+        segment.lock.lock();
+        try {
+            return segment.generations[generationIndex(accountId)];
+        } finally {
+            segment.lock.unlock();
+        }
+    }
+
+    /**
+     * Records a completed write. The returned account is cached only if no other write to the account
+     * completed since the write started; otherwise the order of the two is unknown and the entry is dropped.
+     */
+    private void written(int accountId, long generationBefore, Account updated) {
+        Segment segment = segmentFor(accountId);
+        int index = generationIndex(accountId);
+        segment.lock.lock();
+        try {
+            if (updated != null && segment.generations[index] == generationBefore) {
+                put(segment, accountId, updated);
+            } else if (segment.entries.remove(accountId) != null) {
+                invalidations.increment();
+            }
+            segment.generations[index]++;
+        } finally {
+            segment.lock.unlock();
+        }
+    }
+
+    /**
+     * Records a completed write that returned only the new balance. A cached account takes the new balance,
+     * under the same condition as in {@link #written}; an account that is not cached stays uncached.
+     */
+    private void balanceWritten(int accountId, long generationBefore, long updatedCents) {
+        Segment segment = segmentFor(accountId);
+        int index = generationIndex(accountId);
+        segment.lock.lock();
+        try {
+            CachedAccount cached = segment.entries.get(accountId);
+            if (cached != null) {
+                if (updatedCents != Money.NO_BALANCE && segment.generations[index] == generationBefore) {
+                    segment.entries.put(accountId, new CachedAccount(accountId, cached.accountHolderName(),
+                            cached.accountType(), cached.accountStatus(), cached.creationMillis(), updatedCents,
+                            System.nanoTime() + timeToLiveNanos));
+                } else {
+                    segment.entries.remove(accountId);
+                    invalidations.increment();
+                }
+            }
+            segment.generations[index]++;
+        } finally {
+            segment.lock.unlock();
+        }
+    }
+
+    private void invalidate(int accountId) {
+        Segment segment = segmentFor(accountId);
+        segment.lock.lock();
+        try {
+            if (segment.entries.remove(accountId) != null) {
+                invalidations.increment();
+            }
+            segment.generations[generationIndex(accountId)]++;
+        } finally {
+            segment.lock.unlock();
+        }
+    }
+
+    private void invalidateAll(int[] accountIds, int count) {
+        for (int i = 0; i < count; i++) {
+            invalidate(accountIds[i]);
+        }
+    }
+
+    private void put(Segment segment, int accountId, Account account) {
+        segment.entries.put(accountId, CachedAccount.of(account, System.nanoTime() + timeToLiveNanos));
+        if (segment.entries.size() > segmentCapacity) {
+            Iterator<Map.Entry<Integer, CachedAccount>> eldest = segment.entries.entrySet().iterator();
+            eldest.next();
+            eldest.remove();
+            evictions.increment();
+        }
+    }
+
+    private Segment segmentFor(int accountId) {
+        return segments[spread(accountId) & segmentMask];
+    }
+
+    private int generationIndex(int accountId) {
+        return (spread(accountId) >>> Integer.numberOfTrailingZeros(segments.length)) & (GENERATIONS_PER_SEGMENT - 1);
+    }
+
+    private static int spread(int accountId) {
+        int h = accountId * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
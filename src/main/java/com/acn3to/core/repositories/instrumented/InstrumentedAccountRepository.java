@@ -0,0 +1,222 @@
+package com.acn3to.core.repositories.instrumented;
+
+import com.acn3to.core.entities.Account;
+import com.acn3to.core.metrics.MetricsRegistry;
+import com.acn3to.core.repositories.AccountRepository;
+
+import java.util.List;
+
+/**
+ * Account repository decorator that records the latency and failures of every call.
+ * <p>
+ * Metrics are looked up once at construction, so recording a call does not allocate.
+ * </p>
+ */
+public class InstrumentedAccountRepository implements AccountRepository {
+    private final AccountRepository delegate;
+    private final MethodMetrics save;
+    private final MethodMetrics saveAll;
+    private final MethodMetrics findById;
+    private final MethodMetrics findBalance;
+    private final MethodMetrics findBalances;
+    private final MethodMetrics findAll;
+    private final MethodMetrics applyDelta;
+    private final MethodMetrics withdrawIfSufficient;
+    private final MethodMetrics addToBalance;
+    private final MethodMetrics withdrawFromBalance;
+    private final MethodMetrics transfer;
+    private final MethodMetrics updateBalances;
+    private final MethodMetrics compareAndSetBalances;
+
+    /**
+     * Constructs an InstrumentedAccountRepository around another repository.
+     *
+     * @param delegate the repository that performs the calls
+     * @param registry the registry the metrics are recorded in
+     */
+    public InstrumentedAccountRepository(AccountRepository delegate, MetricsRegistry registry) {
+        this.delegate = delegate;
+        this.save = new MethodMetrics(registry, "accounts", "save");
+        this.saveAll = new MethodMetrics(registry, "accounts", "saveAll");
+        this.findById = new MethodMetrics(registry, "accounts", "findById");
+        this.findBalance = new MethodMetrics(registry, "accounts", "findBalance");
+        this.findBalances = new MethodMetrics(registry, "accounts", "findBalances");
+        this.findAll = new MethodMetrics(registry, "accounts", "findAll");
+        this.applyDelta = new MethodMetrics(registry, "accounts", "applyDelta");
+        this.withdrawIfSufficient = new MethodMetrics(registry, "accounts", "withdrawIfSufficient");
+        this.addToBalance = new MethodMetrics(registry, "accounts", "addToBalance");
+        this.withdrawFromBalance = new MethodMetrics(registry, "accounts", "withdrawFromBalance");
+        this.transfer = new MethodMetrics(registry, "accounts", "transfer");
+        this.updateBalances = new MethodMetrics(registry, "accounts", "updateBalances");
+        this.compareAndSetBalances = new MethodMetrics(registry, "accounts", "compareAndSetBalances");
+    }
+
+    @Override
+    public void save(Account account) {
+        long start = System.nanoTime();
+        try {
+            delegate.save(account);
+        } catch (RuntimeException e) {
+            save.failed();
+            throw e;
+        } finally {
+            save.recordSince(start);
+        }
+    }
+
+    @Override
+    public void saveAll(List<Account> accounts) {
+        long start = System.nanoTime();
+        try {
+            delegate.saveAll(accounts);
+        } catch (RuntimeException e) {
+            saveAll.failed();
+            throw e;
+        } finally {
+            saveAll.recordSince(start);
+        }
+    }
+
+    @Override
+    public Account findById(int accountId) {
+        long start = System.nanoTime();
+        try {
+            return delegate.findById(accountId);
+        } catch (RuntimeException e) {
+            findById.failed();
+            throw e;
+        } finally {
+            findById.recordSince(start);
+        }
+    }
+
+    @Override
+    public long findBalance(int accountId) {
+        long start = System.nanoTime();
+        try {
+            return delegate.findBalance(accountId);
+        } catch (RuntimeException e) {
+            findBalance.failed();
+            throw e;
+        } finally {
+            findBalance.recordSince(start);
+        }
+    }
+
+    @Override
+    public long[] findBalances(int[] accountIds, int count) {
+        long start = System.nanoTime();
+        try {
+            return delegate.findBalances(accountIds, count);
+        } catch (RuntimeException e) {
+            findBalances.failed();
+            throw e;
+        } finally {
+            findBalances.recordSince(start);
+        }
+    }
+
+    @Override
+    public List<Account> findAll() {
+        long start = System.nanoTime();
+        try {
+            return delegate.findAll();
+        } catch (RuntimeException e) {
+            findAll.failed();
+            throw e;
+        } finally {
+            findAll.recordSince(start);
+        }
+    }
+
+    @Override
+    public Account applyDelta(int accountId, long deltaCents) {
+        long start = System.nanoTime();
+        try {
+            return delegate.applyDelta(accountId, deltaCents);
+        } catch (RuntimeException e) {
+            applyDelta.failed();
+            throw e;
+        } finally {
+            applyDelta.recordSince(start);
+        }
+    }
+
+    @Override
+    public Account withdrawIfSufficient(int accountId, long amountCents) {
+        long start = System.nanoTime();
+        try {
+            return delegate.withdrawIfSufficient(accountId, amountCents);
+        } catch (RuntimeException e) {
+            withdrawIfSufficient.failed();
+            throw e;
+        } finally {
+            withdrawIfSufficient.recordSince(start);
+        }
+    }
+
+    @Override
+    public long addToBalance(int accountId, long deltaCents) {
+        long start = System.nanoTime();
+        try {
+            return delegate.addToBalance(accountId, deltaCents);
+        } catch (RuntimeException e) {
+            addToBalance.failed();
+            throw e;
+        } finally {
+            addToBalance.recordSince(start);
+        }
+    }
+
+    @Override
+    public long withdrawFromBalance(int accountId, long amountCents) {
+        long start = System.nanoTime();
+        try {
+            return delegate.withdrawFromBalance(accountId, amountCents);
+        } catch (RuntimeException e) {
+            withdrawFromBalance.failed();
+            throw e;
+        } finally {
+            withdrawFromBalance.recordSince(start);
+        }
+    }
+
+    @Override
+    public Account transfer(int fromAccountId, int toAccountId, long amountCents) {
+        long start = System.nanoTime();
+        try {
+            return delegate.transfer(fromAccountId, toAccountId, amountCents);
+        } catch (RuntimeException e) {
+            transfer.failed();
+            throw e;
+        } finally {
+            transfer.recordSince(start);
+        }
+    }
+
+    @Override
+    public void updateBalances(int[] accountIds, long[] balances, int count) {
+        long start = System.nanoTime();
+        try {
+            delegate.updateBalances(accountIds, balances, count);
+        } catch (RuntimeException e) {
+            updateBalances.failed();
+            throw e;
+        } finally {
+            updateBalances.recordSince(start);
+        }
+    }
+
+    @Override
+    public boolean[] compareAndSetBalances(int[] accountIds, long[] expectedBalances, long[] newBalances, int count) {
+        long start = System.nanoTime();
+        try {
+            return delegate.compareAndSetBalances(accountIds, expectedBalances, newBalances, count);
+        } catch (RuntimeException e) {
+            compareAndSetBalances.failed();
+            throw e;
+        } finally {
+            compareAndSetBalances.recordSince(start);
+        }
+    }
+}
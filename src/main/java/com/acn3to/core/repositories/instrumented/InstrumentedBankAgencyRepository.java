@@ -0,0 +1,102 @@
+package com.acn3to.core.repositories.instrumented;
+
+import com.acn3to.core.entities.BankAgency;
+import com.acn3to.core.metrics.MetricsRegistry;
+import com.acn3to.core.repositories.BankAgencyRepository;
+
+import java.util.List;
+
+/**
+ * Bank agency repository decorator that records the latency and failures of every call.
+ * <p>
+ * Metrics are looked up once at construction, so recording a call does not allocate.
+ * </p>
+ */
+public class InstrumentedBankAgencyRepository implements BankAgencyRepository {
+    private final BankAgencyRepository delegate;
+    private final MethodMetrics save;
+    private final MethodMetrics saveAll;
+    private final MethodMetrics findById;
+    private final MethodMetrics findAll;
+    private final MethodMetrics findNearest;
+
+    /**
+     * Constructs an InstrumentedBankAgencyRepository around another repository.
+     *
+     * @param delegate the repository that performs the calls
+     * @param registry the registry the metrics are recorded in
+     */
+    public InstrumentedBankAgencyRepository(BankAgencyRepository delegate, MetricsRegistry registry) {
+        this.delegate = delegate;
+        this.save = new MethodMetrics(registry, "bankAgencies", "save");
+        this.saveAll = new MethodMetrics(registry, "bankAgencies", "saveAll");
+        this.findById = new MethodMetrics(registry, "bankAgencies", "findById");
+        this.findAll = new MethodMetrics(registry, "bankAgencies", "findAll");
+        this.findNearest = new MethodMetrics(registry, "bankAgencies", "findNearest");
+    }
+
+    @Override
+    public void save(BankAgency bankAgency) {
+        long start = System.nanoTime();
+        try {
+            delegate.save(bankAgency);
+        } catch (RuntimeException e) {
+            save.failed();
+            throw e;
+        } finally {
+            save.recordSince(start);
+        }
+    }
+
+    @Override
+    public void saveAll(List<BankAgency> bankAgencies) {
+        long start = System.nanoTime();
+        try {
+            delegate.saveAll(bankAgencies);
+        } catch (RuntimeException e) {
+            saveAll.failed();
+            throw e;
+        } finally {
+            saveAll.recordSince(start);
+        }
+    }
+
+    @Override
+    public BankAgency findById(String agencyId) {
+        long start = System.nanoTime();
+        try {
+            return delegate.findById(agencyId);
+        } catch (RuntimeException e) {
+            findById.failed();
+            throw e;
+        } finally {
+            findById.recordSince(start);
+        }
+    }
+
+    @Override
+    public List<BankAgency> findAll() {
+        long start = System.nanoTime();
+        try {
+            return delegate.findAll();
+        } catch (RuntimeException e) {
+            findAll.failed();
+            throw e;
+        } finally {
+            findAll.recordSince(start);
+        }
+    }
+
+    @Override
+    public List<BankAgency> findNearest(double latitude, double longitude, int limit, boolean onlyOpen) {
+        long start = System.nanoTime();
+        try {
+            return delegate.findNearest(latitude, longitude, limit, onlyOpen);
+        } catch (RuntimeException e) {
+            findNearest.failed();
+            throw e;
+        } finally {
+            findNearest.recordSince(start);
+        }
+    }
+}
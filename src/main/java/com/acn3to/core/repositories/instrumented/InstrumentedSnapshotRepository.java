@@ -0,0 +1,87 @@
+package com.acn3to.core.repositories.instrumented;
+
+import com.acn3to.core.entities.BalanceSnapshot;
+import com.acn3to.core.metrics.MetricsRegistry;
+import com.acn3to.core.repositories.SnapshotRepository;
+
+import java.util.List;
+
+/**
+ * Snapshot repository decorator that records the latency and failures of every call.
+ * <p>
+ * Metrics are looked up once at construction, so recording a call does not allocate.
+ * </p>
+ */
+public class InstrumentedSnapshotRepository implements SnapshotRepository {
+    private final SnapshotRepository delegate;
+    private final MethodMetrics save;
+    private final MethodMetrics saveAll;
+    private final MethodMetrics findLatest;
+    private final MethodMetrics findOpeningSnapshots;
+
+    /**
+     * Constructs an InstrumentedSnapshotRepository around another repository.
+     *
+     * @param delegate the repository that performs the calls
+     * @param registry the registry the metrics are recorded in
+     */
+    public InstrumentedSnapshotRepository(SnapshotRepository delegate, MetricsRegistry registry) {
+        this.delegate = delegate;
+        this.save = new MethodMetrics(registry, "balanceSnapshots", "save");
+        this.saveAll = new MethodMetrics(registry, "balanceSnapshots", "saveAll");
+        this.findLatest = new MethodMetrics(registry, "balanceSnapshots", "findLatest");
+        this.findOpeningSnapshots = new MethodMetrics(registry, "balanceSnapshots", "findOpeningSnapshots");
+    }
+
+    @Override
+    public void save(BalanceSnapshot snapshot) {
+        long start = System.nanoTime();
+        try {
+            delegate.save(snapshot);
+        } catch (RuntimeException e) {
+            save.failed();
+            throw e;
+        } finally {
+            save.recordSince(start);
+        }
+    }
+
+    @Override
+    public void saveAll(List<BalanceSnapshot> snapshots) {
+        long start = System.nanoTime();
+        try {
+            delegate.saveAll(snapshots);
+        } catch (RuntimeException e) {
+            saveAll.failed();
+            throw e;
+        } finally {
+            saveAll.recordSince(start);
+        }
+    }
+
+    @Override
+    public BalanceSnapshot findLatest(int accountId, long asOfMillis) {
+        long start = System.nanoTime();
+        try {
+            return delegate.findLatest(accountId, asOfMillis);
+        } catch (RuntimeException e) {
+            findLatest.failed();
+            throw e;
+        } finally {
+            findLatest.recordSince(start);
+        }
+    }
+
+    @Override
+    public BalanceSnapshot[] findOpeningSnapshots(int firstAccountId, int count) {
+        long start = System.nanoTime();
+        try {
+            return delegate.findOpeningSnapshots(firstAccountId, count);
+        } catch (RuntimeException e) {
+            findOpeningSnapshots.failed();
+            throw e;
+        } finally {
+            findOpeningSnapshots.recordSince(start);
+        }
+    }
+}
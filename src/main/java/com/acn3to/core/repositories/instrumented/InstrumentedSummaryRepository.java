@@ -0,0 +1,57 @@
+package com.acn3to.core.repositories.instrumented;
+
+import com.acn3to.core.analytics.AnalyticsSummary;
+import com.acn3to.core.metrics.MetricsRegistry;
+import com.acn3to.core.repositories.SummaryRepository;
+
+import java.util.List;
+
+/**
+ * Summary repository decorator that records the latency and failures of every call.
+ * <p>
+ * Metrics are looked up once at construction, so recording a call does not allocate.
+ * </p>
+ */
+public class InstrumentedSummaryRepository implements SummaryRepository {
+    private final SummaryRepository delegate;
+    private final MethodMetrics save;
+    private final MethodMetrics findSince;
+
+    /**
+     * Constructs an InstrumentedSummaryRepository around another repository.
+     *
+     * @param delegate the repository that performs the calls
+     * @param registry the registry the metrics are recorded in
+     */
+    public InstrumentedSummaryRepository(SummaryRepository delegate, MetricsRegistry registry) {
+        this.delegate = delegate;
+        this.save = new MethodMetrics(registry, "transactionSummaries", "save");
+        this.findSince = new MethodMetrics(registry, "transactionSummaries", "findSince");
+    }
+
+    @Override
+    public void save(AnalyticsSummary summary) {
+        long start = System.nanoTime();
+        try {
+            delegate.save(summary);
+        } catch (RuntimeException e) {
+            save.failed();
+            throw e;
+        } finally {
+            save.recordSince(start);
+        }
+    }
+
+    @Override
+    public List<AnalyticsSummary> findSince(long fromMillis) {
+        long start = System.nanoTime();
+        try {
+            return delegate.findSince(fromMillis);
+        } catch (RuntimeException e) {
+            findSince.failed();
+            throw e;
+        } finally {
+            findSince.recordSince(start);
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.acn3to.core.repositories.instrumented;
+
+import com.acn3to.core.entities.Transaction;
+import com.acn3to.core.metrics.MetricsRegistry;
+import com.acn3to.core.repositories.TransactionPage;
+import com.acn3to.core.repositories.TransactionRepository;
+
+import java.util.Date;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Transaction repository decorator that records the latency and failures of every call.
+ * <p>
+ * Metrics are looked up once at construction, so recording a call does not allocate. For streams, only
+ * opening the stream is timed, not consuming it.
+ * </p>
+ */
+public class InstrumentedTransactionRepository implements TransactionRepository {
+    private final TransactionRepository delegate;
+    private final MethodMetrics save;
+    private final MethodMetrics saveAll;
+    private final MethodMetrics findByAccountIdAndDate;
+    private final MethodMetrics findByAccountId;
+    private final MethodMetrics findPageByAccountId;
+    private final MethodMetrics streamByAccountId;
+    private final MethodMetrics streamAffectingAccount;
+    private final MethodMetrics sumBalanceChanges;
+
+    /**
+     * Constructs an InstrumentedTransactionRepository around another repository.
+     *
+     * @param delegate the repository that performs the calls
+     * @param registry the registry the metrics are recorded in
+     */
+    public InstrumentedTransactionRepository(TransactionRepository delegate, MetricsRegistry registry) {
+        this.delegate = delegate;
+        this.save = new MethodMetrics(registry, "transactions", "save");
+        this.saveAll = new MethodMetrics(registry, "transactions", "saveAll");
+        this.findByAccountIdAndDate = new MethodMetrics(registry, "transactions", "findByAccountIdAndDate");
+        this.findByAccountId = new MethodMetrics(registry, "transactions", "findByAccountId");
+        this.findPageByAccountId = new MethodMetrics(registry, "transactions", "findPageByAccountId");
+        this.streamByAccountId = new MethodMetrics(registry, "transactions", "streamByAccountId");
+        this.streamAffectingAccount = new MethodMetrics(registry, "transactions", "streamAffectingAccount");
+        this.sumBalanceChanges = new MethodMetrics(registry, "transactions", "sumBalanceChanges");
+    }
+
+    @Override
+    public void save(Transaction transaction) {
+        long start = System.nanoTime();
+        try {
+            delegate.save(transaction);
+        } catch (RuntimeException e) {
+            save.failed();
+            throw e;
+        } finally {
+            save.recordSince(start);
+        }
+    }
+
+    @Override
+    public void saveAll(List<Transaction> transactions) {
+        long start = System.nanoTime();
+        try {
+            delegate.saveAll(transactions);
+        } catch (RuntimeException e) {
+            saveAll.failed();
+            throw e;
+        } finally {
+            saveAll.recordSince(start);
+        }
+    }
+
+    @Override
+    public Transaction findByAccountIdAndDate(int accountId, Date date) {
+        long start = System.nanoTime();
+        try {
+            return delegate.findByAccountIdAndDate(accountId, date);
+        } catch (RuntimeException e) {
+            findByAccountIdAndDate.failed();
+            throw e;
+        } finally {
+            findByAccountIdAndDate.recordSince(start);
+        }
+    }
+
+    @Override
+    public List<Transaction> findByAccountId(int accountId) {
+        long start = System.nanoTime();
+        try {
+            return delegate.findByAccountId(accountId);
+        } catch (RuntimeException e) {
+            findByAccountId.failed();
+            throw e;
+        } finally {
+            findByAccountId.recordSince(start);
+        }
+    }
+
+    @Override
+    public TransactionPage findByAccountId(int accountId, TransactionPage.Key after, int limit) {
+        long start = System.nanoTime();
+        try {
+            return delegate.findByAccountId(accountId, after, limit);
+        } catch (RuntimeException e) {
+            findPageByAccountId.failed();
+            throw e;
+        } finally {
+            findPageByAccountId.recordSince(start);
+        }
+    }
+
+    @Override
+    public Stream<Transaction> streamByAccountId(int accountId, int batchSize) {
+        long start = System.nanoTime();
+        try {
+            return delegate.streamByAccountId(accountId, batchSize);
+        } catch (RuntimeException e) {
+            streamByAccountId.failed();
+            throw e;
+        } finally {
+            streamByAccountId.recordSince(start);
+        }
+    }
+
+    @Override
+    public Stream<Transaction> streamAffectingAccount(int accountId, Date afterDate, Date upToDate, int batchSize) {
+        long start = System.nanoTime();
+        try {
+            return delegate.streamAffectingAccount(accountId, afterDate, upToDate, batchSize);
+        } catch (RuntimeException e) {
+            streamAffectingAccount.failed();
+            throw e;
+        } finally {
+            streamAffectingAccount.recordSince(start);
+        }
+    }
+
+    @Override
+    public long[] sumBalanceChanges(int firstAccountId, int count, long[] afterMillis) {
+        long start = System.nanoTime();
+        try {
+            return delegate.sumBalanceChanges(firstAccountId, count, afterMillis);
+        } catch (RuntimeException e) {
+            sumBalanceChanges.failed();
+            throw e;
+        } finally {
+            sumBalanceChanges.recordSince(start);
+        }
+    }
+}
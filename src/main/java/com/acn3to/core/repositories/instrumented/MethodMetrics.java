@@ -0,0 +1,28 @@
+package com.acn3to.core.repositories.instrumented;
+
+import com.acn3to.core.metrics.Counter;
+import com.acn3to.core.metrics.MetricsRegistry;
+import com.acn3to.core.metrics.Timer;
+
+/**
+ * The latency timer and failure counter of one repository method.
+ */
+final class MethodMetrics {
+    private final Timer timer;
+    private final Counter failures;
+
+    MethodMetrics(MetricsRegistry registry, String repository, String method) {
+        this.timer = registry.timer("banking_repository_call_seconds",
+                "Latency of repository calls.", "repository", repository, "method", method);
+        this.failures = registry.counter("banking_repository_failures_total",
+                "Repository calls that threw an exception.", "repository", repository, "method", method);
+    }
+
+    void recordSince(long startNanos) {
+        timer.recordSince(startNanos);
+    }
+
+    void failed() {
+        failures.increment();
+    }
+}
@@ -0,0 +1,189 @@
+package com.acn3to.core.repositories.journal;
+
+import com.acn3to.core.entities.Transaction;
+import com.acn3to.core.metrics.Counter;
+import com.acn3to.core.metrics.MetricsRegistry;
+import com.acn3to.core.repositories.TransactionRepository;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Copies the records of a {@link TransactionJournal} into another transaction repository in the background.
+ * <p>
+ * A dedicated thread reads durable records in batches and writes each batch with one {@code saveAll}. After a
+ * batch is written, the sequence number of the next record to ship is saved to a cursor file next to the
+ * segments, and segments that are fully shipped are deleted. A failed batch is retried with a growing delay,
+ * so records stay in the journal while the repository is unavailable.
+ * </p>
+ * <p>
+ * Each record is stored under the ID the journal derives from its sequence number, and the repository skips
+ * IDs it already holds. A batch that is sent again, because a saveAll failed part way or the process died
+ * before the cursor was saved, therefore adds only the records still missing.
+ * </p>
+ */
+public class JournalShipper implements AutoCloseable {
+    public static final int DEFAULT_BATCH_SIZE = 1000;
+
+    private static final String CURSOR_FILE = "shipped";
+    private static final long IDLE_WAIT_MILLIS = 100;
+    private static final long MAX_RETRY_DELAY_MILLIS = 5000;
+
+    private final TransactionJournal journal;
+    private final TransactionRepository repository;
+    private final Path cursorFile;
+    private final int batchSize;
+    private final Thread shipper;
+    private final Counter shippedCounter;
+    private final Counter failedCounter;
+    private final Object progress = new Object();
+
+    private volatile long cursor;
+    private volatile boolean closing;
+
+    /**
+     * Starts shipping a journal, resuming from the cursor saved by a previous run.
+     *
+     * @param journal    the journal to ship
+     * @param repository the repository the transactions are written to
+     * @param directory  the directory the cursor file is kept in, usually the journal directory
+     * @param batchSize  the maximum number of transactions written by one saveAll
+     * @param registry   the registry the shipping metrics are recorded in
+     * @throws UncheckedIOException if the cursor file cannot be read
+     */
+    public JournalShipper(TransactionJournal journal, TransactionRepository repository, Path directory, int batchSize,
+                          MetricsRegistry registry) {
+        this.journal = journal;
+        this.repository = repository;
+        this.cursorFile = directory.resolve(CURSOR_FILE);
+        this.batchSize = batchSize;
+        this.cursor = Math.max(readCursor(), journal.firstSequence());
+        this.shippedCounter = registry.counter("banking_journal_shipped_total", "Journal records written to the repository.");
+        this.failedCounter = registry.counter("banking_journal_ship_failures_total", "Journal batches that failed to ship.");
+        registry.gauge("banking_journal_unshipped", "Journal records not yet written to the repository.",
+                () -> journal.nextSequence() - cursor);
+        this.shipper = new Thread(this::run, "JournalShipper");
+        this.shipper.setDaemon(true);
+        this.shipper.start();
+    }
+
+    /**
+     * Returns the sequence number of the next record to ship.
+     *
+     * @return the shipping cursor
+     */
+    public long getCursor() {
+        return cursor;
+    }
+
+    /**
+     * Waits until every record before the given sequence number has been shipped.
+     *
+     * @param sequence the exclusive upper bound of the records to wait for
+     * @return true if they were shipped, false if the shipper stopped first
+     */
+    public boolean awaitShipped(long sequence) {
+        synchronized (progress) {
+            while (cursor < sequence && shipper.isAlive()) {
+                try {
+                    progress.wait(IDLE_WAIT_MILLIS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            }
+            return cursor >= sequence;
+        }
+    }
+
+    /**
+     * Ships the records appended so far and stops the shipper. If the repository fails, the remaining
+     * records stay in the journal and are shipped on the next start.
+     */
+    @Override
+    public void close() {
+        closing = true;
+        try {
+            shipper.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void run() {
+        List<Transaction> batch = new ArrayList<>(batchSize);
+        long retryDelay = 0;
+        while (true) {
+            long end = journal.nextSequence();
+            if (cursor >= end) {
+                if (closing) {
+                    break;
+                }
+                journal.awaitAppended(cursor, IDLE_WAIT_MILLIS);
+                continue;
+            }
+            journal.awaitDurable(end - 1);
+            batch.clear();
+            journal.read(cursor, batchSize, batch);
+            try {
+                repository.saveAll(batch);
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+                failedCounter.increment();
+                if (closing) {
+                    break;
+                }
+                retryDelay = Math.min(MAX_RETRY_DELAY_MILLIS, Math.max(10, retryDelay * 2));
+                sleep(retryDelay);
+                continue;
+            }
+            retryDelay = 0;
+            shippedCounter.add(batch.size());
+            advance(cursor + batch.size());
+        }
+        synchronized (progress) {
+            progress.notifyAll();
+        }
+    }
+
+    private void advance(long shipped) {
+        try {
+            Path temporary = cursorFile.resolveSibling(CURSOR_FILE + ".tmp");
+            Files.writeString(temporary, Long.toString(shipped), StandardCharsets.US_ASCII);
+            Files.move(temporary, cursorFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            // The records were shipped; a stale cursor only means they are sent again, and skipped, after a restart.
+            e.printStackTrace();
+        }
+        synchronized (progress) {
+            cursor = shipped;
+            progress.notifyAll();
+        }
+        journal.deleteBefore(shipped);
+    }
+
+    private long readCursor() {
+        if (!Files.exists(cursorFile)) {
+            return 0;
+        }
+        try {
+            return Long.parseLong(Files.readString(cursorFile, StandardCharsets.US_ASCII).trim());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.acn3to.core.repositories.journal;
+
+import com.acn3to.core.entities.Transaction;
+import com.acn3to.core.metrics.MetricsRegistry;
+import com.acn3to.core.metrics.Timer;
+import com.acn3to.core.repositories.TransactionPage;
+import com.acn3to.core.repositories.TransactionRepository;
+
+import java.nio.file.Path;
+import java.util.Date;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Transaction repository decorator that makes writes durable in a local {@link TransactionJournal} and ships
+ * them to the delegate in the background.
+ * <p>
+ * {@link #save} and {@link #saveAll} return once the transactions are forced to the local journal, which
+ * group-commits concurrent writers, instead of waiting for a network round trip. A {@link JournalShipper}
+ * then writes them to the delegate in batches. Reads wait until every transaction saved before them has been
+ * shipped and then go to the delegate, so they see their own writes.
+ * </p>
+ */
+public class JournaledTransactionRepository implements TransactionRepository, AutoCloseable {
+    private final TransactionRepository delegate;
+    private final TransactionJournal journal;
+    private final JournalShipper shipper;
+    private final Timer appendTimer;
+
+    /**
+     * Opens the journal in a directory and starts shipping it to another repository, including any records
+     * left unshipped by a previous run.
+     *
+     * @param delegate       the repository the transactions are shipped to and read from
+     * @param directory      the directory holding the journal segments
+     * @param segmentRecords the number of records in each journal segment
+     * @param registry       the registry the journal metrics are recorded in
+     */
+    public JournaledTransactionRepository(TransactionRepository delegate, Path directory, int segmentRecords,
+                                          MetricsRegistry registry) {
+        this.delegate = delegate;
+        this.journal = new TransactionJournal(directory, segmentRecords, registry);
+        this.shipper = new JournalShipper(journal, delegate, directory, JournalShipper.DEFAULT_BATCH_SIZE, registry);
+        this.appendTimer = registry.timer("banking_journal_append_seconds",
+                "Time to append transactions to the journal and make them durable.");
+    }
+
+    @Override
+    public void save(Transaction transaction) {
+        long start = System.nanoTime();
+        journal.awaitDurable(journal.append(transaction));
+        appendTimer.recordSince(start);
+    }
+
+    @Override
+    public void saveAll(List<Transaction> transactions) {
+        if (transactions.isEmpty()) {
+            return;
+        }
+        long start = System.nanoTime();
+        long last = -1;
+        for (Transaction transaction : transactions) {
+            last = journal.append(transaction);
+        }
+        journal.awaitDurable(last);
+        appendTimer.recordSince(start);
+    }
+
+    @Override
+    public Transaction findByAccountIdAndDate(int accountId, Date date) {
+        awaitShipped();
+        return delegate.findByAccountIdAndDate(accountId, date);
+    }
+
+    @Override
+    public List<Transaction> findByAccountId(int accountId) {
+        awaitShipped();
+        return delegate.findByAccountId(accountId);
+    }
+
+    @Override
+    public TransactionPage findByAccountId(int accountId, TransactionPage.Key after, int limit) {
+        awaitShipped();
+        return delegate.findByAccountId(accountId, after, limit);
+    }
+
+    @Override
+    public Stream<Transaction> streamByAccountId(int accountId, int batchSize) {
+        awaitShipped();
+        return delegate.streamByAccountId(accountId, batchSize);
+    }
+
+    @Override
+    public Stream<Transaction> streamAffectingAccount(int accountId, Date afterDate, Date upToDate, int batchSize) {
+        awaitShipped();
+        return delegate.streamAffectingAccount(accountId, afterDate, upToDate, batchSize);
+    }
+
+    @Override
+    public long[] sumBalanceChanges(int firstAccountId, int count, long[] afterMillis) {
+        awaitShipped();
+        return delegate.sumBalanceChanges(firstAccountId, count, afterMillis);
+    }
+
+    /**
+     * Returns the journal the transactions are written to.
+     *
+     * @return the journal
+     */
+    public TransactionJournal getJournal() {
+        return journal;
+    }
+
+    /**
+     * Returns the number of saved transactions not yet written to the delegate.
+     *
+     * @return the shipping backlog
+     */
+    public long getUnshipped() {
+        return journal.nextSequence() - shipper.getCursor();
+    }
+
+    /**
+     * Ships the remaining transactions, then closes the journal. Transactions the delegate fails to accept
+     * stay in the journal and are shipped when it is opened again.
+     */
+    @Override
+    public void close() {
+        shipper.close();
+        journal.close();
+    }
+
+    private void awaitShipped() {
+        shipper.awaitShipped(journal.nextSequence());
+    }
+}
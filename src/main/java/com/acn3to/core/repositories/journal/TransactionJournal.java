@@ -0,0 +1,503 @@
+package com.acn3to.core.repositories.journal;
+
+import com.acn3to.core.entities.Transaction;
+import com.acn3to.core.metrics.Counter;
+import com.acn3to.core.metrics.MetricsRegistry;
+import com.acn3to.core.metrics.Timer;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32C;
+
+/**
+ * An append-only, crash-safe journal of transactions in local memory-mapped segment files.
+ * <p>
+ * Every transaction is encoded as a fixed-width record of {@value #RECORD_SIZE} bytes and numbered with a
+ * sequence number, starting at 0. Appending copies the record into the mapped file of the active segment,
+ * which costs well under a microsecond; once a segment is full the next one is created. Each segment file is
+ * named after the sequence number of its first record.
+ * </p>
+ * <p>
+ * A record is durable once its segment has been forced to disk. {@link #awaitDurable} uses group commit: the
+ * first waiter forces everything appended so far while later appenders wait for that force to finish, then
+ * the next waiter forces everything appended in the meantime. Under load one force covers many records.
+ * </p>
+ * <p>
+ * Each record carries its sequence number and a CRC-32C checksum. When the journal is opened, the last segment
+ * is scanned up to the first record that is missing, torn or stale, and the rest of the segment is zeroed, so
+ * a crash loses at most the records that were appended but not yet durable.
+ * </p>
+ * <p>
+ * Records are read back with a {@link Transaction#id() transaction ID} in ObjectId form: the time the journal
+ * directory was created, kept in a file next to the segments, followed by the record's sequence number. The same
+ * record always gets the same ID, and records of a journal started afresh against the same database get new ones.
+ * </p>
+ */
+public class TransactionJournal implements AutoCloseable {
+    public static final int RECORD_SIZE = 48;
+    public static final int DEFAULT_SEGMENT_RECORDS = 1 << 20;
+
+    private static final String SEGMENT_SUFFIX = ".journal";
+    private static final String CREATED_FILE = "created";
+    private static final long NO_DATE = Long.MIN_VALUE;
+    private static final HexFormat HEX = HexFormat.of();
+    private static final String[] TYPES = {null, "Deposit", "Withdrawal", "Transfer"};
+
+    // Record layout; the checksum covers every byte before it.
+    private static final int SEQUENCE_OFFSET = 0;
+    private static final int DATE_OFFSET = 8;
+    private static final int AMOUNT_OFFSET = 16;
+    private static final int BALANCE_OFFSET = 24;
+    private static final int ACCOUNT_OFFSET = 32;
+    private static final int COUNTERPARTY_OFFSET = 36;
+    private static final int TYPE_OFFSET = 40;
+    private static final int CHECKSUM_OFFSET = 44;
+
+    private static final class Segment {
+        final long firstSequence;
+        final int capacity;
+        final Path path;
+        final MappedByteBuffer buffer;
+
+        Segment(long firstSequence, int capacity, Path path, MappedByteBuffer buffer) {
+            this.firstSequence = firstSequence;
+            this.capacity = capacity;
+            this.path = path;
+            this.buffer = buffer;
+        }
+
+        long endSequence() {
+            return firstSequence + capacity;
+        }
+    }
+
+    private final Path directory;
+    private final int segmentRecords;
+    private final String idPrefix;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition forced = lock.newCondition();
+    private final Condition appended = lock.newCondition();
+    private final TreeMap<Long, Segment> segments = new TreeMap<>();
+    private final ByteBuffer scratch = ByteBuffer.allocate(RECORD_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+    private final CRC32C checksum = new CRC32C();
+    private final Timer forceTimer;
+    private final Counter forceCounter;
+    private final Counter appendCounter;
+
+    private Segment active;
+    private long nextSequence;
+    private volatile long durableSequence;
+    private boolean forcing;
+    private boolean closed;
+
+    /**
+     * Opens the journal in a directory, creating the directory if needed and recovering any existing segments.
+     *
+     * @param directory      the directory holding the segment files
+     * @param segmentRecords the number of records in each new segment
+     * @param registry       the registry the journal metrics are recorded in
+     * @throws UncheckedIOException if the directory cannot be read or a segment cannot be mapped
+     */
+    public TransactionJournal(Path directory, int segmentRecords, MetricsRegistry registry) {
+        if (segmentRecords <= 0) {
+            throw new IllegalArgumentException("Segment size must be positive: " + segmentRecords);
+        }
+        this.directory = directory;
+        this.segmentRecords = segmentRecords;
+        this.forceTimer = registry.timer("banking_journal_force_seconds", "Time spent forcing journal segments to disk.");
+        this.forceCounter = registry.counter("banking_journal_forces_total", "Journal forces to disk.");
+        this.appendCounter = registry.counter("banking_journal_records_total", "Records appended to the journal.");
+        try {
+            Files.createDirectories(directory);
+            idPrefix = HEX.toHexDigits(readCreationSeconds());
+            recover();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        registry.gauge("banking_journal_segments", "Journal segment files on disk.", this::segmentCount);
+    }
+
+    /**
+     * Appends a transaction. The record is not durable until {@link #awaitDurable} returns for its sequence number.
+     *
+     * @param transaction the transaction to append
+     * @return the sequence number of the record
+     * @throws IllegalArgumentException if the transaction type is not Deposit, Withdrawal or Transfer
+     * @throws IllegalStateException    if the journal is closed
+     */
+    public long append(Transaction transaction) {
+        byte type = typeCode(transaction.type());
+        lock.lock();
+        try {
+            if (closed) {
+                throw new IllegalStateException("Journal is closed");
+            }
+            if (nextSequence == active.endSequence()) {
+                roll();
+            }
+            long sequence = nextSequence;
+            encode(sequence, transaction, type);
+            active.buffer.put((int) (sequence - active.firstSequence) * RECORD_SIZE, scratch, 0, RECORD_SIZE);
+            nextSequence = sequence + 1;
+            appendCounter.increment();
+            appended.signal();
+            return sequence;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Waits until a record and every record before it are durable, forcing them to disk if no other thread is.
+     *
+     * @param sequence the sequence number of the record
+     * @throws UncheckedIOException if forcing the segment fails
+     */
+    public void awaitDurable(long sequence) {
+        if (durableSequence > sequence) {
+            return;
+        }
+        lock.lock();
+        try {
+            while (durableSequence <= sequence) {
+                if (sequence >= nextSequence) {
+                    throw new IllegalArgumentException("Record " + sequence + " was not appended");
+                }
+                if (forcing) {
+                    forced.awaitUninterruptibly();
+                    continue;
+                }
+                forcing = true;
+                long target = nextSequence;
+                Segment segment = active;
+                // Records before durableSequence are already on disk, and records of older segments were forced
+                // when the segment was rolled, so only the records appended since the last force are written.
+                int from = (int) (Math.max(durableSequence, segment.firstSequence) - segment.firstSequence) * RECORD_SIZE;
+                int to = (int) (target - segment.firstSequence) * RECORD_SIZE;
+                lock.unlock();
+                long start = System.nanoTime();
+                try {
+                    segment.buffer.force(from, to - from);
+                } finally {
+                    forceTimer.recordSince(start);
+                    forceCounter.increment();
+                    lock.lock();
+                    forcing = false;
+                    forced.signalAll();
+                }
+                if (target > durableSequence) {
+                    durableSequence = target;
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the sequence number the next record will get, i.e. the number of records appended since the
+     * journal was created.
+     *
+     * @return the next sequence number
+     */
+    public long nextSequence() {
+        lock.lock();
+        try {
+            return nextSequence;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the sequence number of the oldest record still on disk.
+     *
+     * @return the first sequence number of the oldest segment
+     */
+    public long firstSequence() {
+        lock.lock();
+        try {
+            return segments.firstKey();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Waits until a record with the given sequence number has been appended.
+     *
+     * @param sequence      the sequence number to wait for
+     * @param timeoutMillis the longest time to wait
+     * @return true if the record was appended
+     */
+    public boolean awaitAppended(long sequence, long timeoutMillis) {
+        long remaining = TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        lock.lock();
+        try {
+            while (nextSequence <= sequence && !closed && remaining > 0) {
+                try {
+                    remaining = appended.awaitNanos(remaining);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+            return nextSequence > sequence;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Reads durable records in sequence order.
+     *
+     * @param fromSequence the sequence number of the first record to read
+     * @param maxRecords   the maximum number of records to read
+     * @param out          the list the transactions are added to
+     * @return the number of records read, which stops early at the first record that is not durable yet
+     * @throws IllegalArgumentException if fromSequence is older than the oldest record on disk
+     * @throws IllegalStateException    if a durable record fails its checksum
+     */
+    public int read(long fromSequence, int maxRecords, List<Transaction> out) {
+        long end = Math.min(durableSequence, fromSequence + maxRecords);
+        byte[] record = new byte[RECORD_SIZE];
+        ByteBuffer view = ByteBuffer.wrap(record).order(ByteOrder.LITTLE_ENDIAN);
+        CRC32C crc = new CRC32C();
+        int read = 0;
+        long sequence = fromSequence;
+        while (sequence < end) {
+            Segment segment = segmentFor(sequence);
+            long segmentEnd = Math.min(end, segment.endSequence());
+            for (; sequence < segmentEnd; sequence++) {
+                segment.buffer.get((int) (sequence - segment.firstSequence) * RECORD_SIZE, record);
+                if (!isValid(view, crc, sequence)) {
+                    throw new IllegalStateException("Corrupt journal record " + sequence + " in " + segment.path);
+                }
+                out.add(decode(view, idPrefix + HEX.toHexDigits(sequence)));
+                read++;
+            }
+        }
+        return read;
+    }
+
+    /**
+     * Deletes the segments holding only records older than the given sequence number. The active segment is kept.
+     *
+     * @param sequence the sequence number of the oldest record to keep
+     */
+    public void deleteBefore(long sequence) {
+        List<Segment> deleted = new ArrayList<>();
+        lock.lock();
+        try {
+            while (segments.size() > 1) {
+                Segment oldest = segments.firstEntry().getValue();
+                if (oldest == active || oldest.endSequence() > sequence) {
+                    break;
+                }
+                segments.pollFirstEntry();
+                deleted.add(oldest);
+            }
+        } finally {
+            lock.unlock();
+        }
+        for (Segment segment : deleted) {
+            try {
+                Files.deleteIfExists(segment.path);
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * Forces every appended record to disk and closes the journal. Appending afterwards fails.
+     */
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            if (nextSequence > 0) {
+                long last = nextSequence - 1;
+                lock.unlock();
+                try {
+                    awaitDurable(last);
+                } finally {
+                    lock.lock();
+                }
+            }
+            closed = true;
+            appended.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private double segmentCount() {
+        lock.lock();
+        try {
+            return segments.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Segment segmentFor(long sequence) {
+        lock.lock();
+        try {
+            Map.Entry<Long, Segment> entry = segments.floorEntry(sequence);
+            if (entry == null || entry.getValue().endSequence() <= sequence) {
+                throw new IllegalArgumentException("Record " + sequence + " is no longer in the journal");
+            }
+            return entry.getValue();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Forces the full active segment and starts a new one. Called with the lock held; waiters on records of the
+     * full segment are released since the force made them durable.
+     */
+    private void roll() {
+        long start = System.nanoTime();
+        active.buffer.force();
+        forceTimer.recordSince(start);
+        forceCounter.increment();
+        durableSequence = nextSequence;
+        forced.signalAll();
+        try {
+            active = createSegment(nextSequence);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void recover() throws IOException {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + SEGMENT_SUFFIX)) {
+            for (Path path : files) {
+                String name = path.getFileName().toString();
+                long firstSequence = Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length()));
+                int capacity = (int) (Files.size(path) / RECORD_SIZE);
+                segments.put(firstSequence, new Segment(firstSequence, capacity, path, map(path, (long) capacity * RECORD_SIZE)));
+            }
+        }
+        if (segments.isEmpty()) {
+            active = createSegment(0);
+            return;
+        }
+        active = segments.lastEntry().getValue();
+        byte[] record = new byte[RECORD_SIZE];
+        ByteBuffer view = ByteBuffer.wrap(record).order(ByteOrder.LITTLE_ENDIAN);
+        int valid = 0;
+        while (valid < active.capacity) {
+            active.buffer.get(valid * RECORD_SIZE, record);
+            if (!isValid(view, checksum, active.firstSequence + valid)) {
+                break;
+            }
+            valid++;
+        }
+        // Zero the tail so records of a crashed run can never be mistaken for new ones by a later recovery.
+        byte[] zeros = new byte[RECORD_SIZE * 256];
+        for (int offset = valid * RECORD_SIZE; offset < active.capacity * RECORD_SIZE; offset += zeros.length) {
+            active.buffer.put(offset, zeros, 0, Math.min(zeros.length, active.capacity * RECORD_SIZE - offset));
+        }
+        active.buffer.force();
+        nextSequence = active.firstSequence + valid;
+        durableSequence = nextSequence;
+    }
+
+    /**
+     * Reads the creation time of the journal directory in epoch seconds, recording the current time on first use.
+     */
+    private int readCreationSeconds() throws IOException {
+        Path file = directory.resolve(CREATED_FILE);
+        if (!Files.exists(file)) {
+            Path temporary = directory.resolve(CREATED_FILE + ".tmp");
+            Files.writeString(temporary, Long.toString(System.currentTimeMillis() / 1000), StandardCharsets.US_ASCII);
+            Files.move(temporary, file, StandardCopyOption.ATOMIC_MOVE);
+        }
+        return (int) Long.parseLong(Files.readString(file, StandardCharsets.US_ASCII).trim());
+    }
+
+    private Segment createSegment(long firstSequence) throws IOException {
+        Path path = directory.resolve(String.format("%020d%s", firstSequence, SEGMENT_SUFFIX));
+        Segment segment = new Segment(firstSequence, segmentRecords, path, map(path, (long) segmentRecords * RECORD_SIZE));
+        segments.put(firstSequence, segment);
+        return segment;
+    }
+
+    private static MappedByteBuffer map(Path path, long size) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        }
+    }
+
+    private void encode(long sequence, Transaction transaction, byte type) {
+        Date date = transaction.date();
+        scratch.putLong(SEQUENCE_OFFSET, sequence);
+        scratch.putLong(DATE_OFFSET, date != null ? date.getTime() : NO_DATE);
+        scratch.putLong(AMOUNT_OFFSET, transaction.amountCents());
+        scratch.putLong(BALANCE_OFFSET, transaction.balanceAfterTransactionCents());
+        scratch.putInt(ACCOUNT_OFFSET, transaction.accountId());
+        scratch.putInt(COUNTERPARTY_OFFSET, transaction.counterpartyAccountId());
+        scratch.putInt(TYPE_OFFSET, type);
+        checksum.reset();
+        checksum.update(scratch.array(), 0, CHECKSUM_OFFSET);
+        scratch.putInt(CHECKSUM_OFFSET, (int) checksum.getValue());
+    }
+
+    private static boolean isValid(ByteBuffer record, CRC32C crc, long expectedSequence) {
+        int type = record.getInt(TYPE_OFFSET);
+        if (type <= 0 || type >= TYPES.length || record.getLong(SEQUENCE_OFFSET) != expectedSequence) {
+            return false;
+        }
+        crc.reset();
+        crc.update(record.array(), 0, CHECKSUM_OFFSET);
+        return (int) crc.getValue() == record.getInt(CHECKSUM_OFFSET);
+    }
+
+    private static Transaction decode(ByteBuffer record, String id) {
+        long date = record.getLong(DATE_OFFSET);
+        return new Transaction(
+                record.getInt(ACCOUNT_OFFSET),
+                date != NO_DATE ? new Date(date) : null,
+                TYPES[record.getInt(TYPE_OFFSET)],
+                record.getLong(AMOUNT_OFFSET),
+                record.getLong(BALANCE_OFFSET),
+                record.getInt(COUNTERPARTY_OFFSET),
+                id
+        );
+    }
+
+    private static byte typeCode(String type) {
+        for (byte code = 1; code < TYPES.length; code++) {
+            if (TYPES[code].equals(type)) {
+                return code;
+            }
+        }
+        throw new IllegalArgumentException("Transaction type cannot be journaled: " + type);
+    }
+}
@@ -0,0 +1,324 @@
+package com.acn3to.core.repositories.memory;
+
+import com.acn3to.core.utils.Money;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A compact in-memory table of accounts addressed directly by their integer ID.
+ * <p>
+ * Accounts are laid out column by column in fixed-size chunks of primitive arrays instead of one object per
+ * account: the balance in cents, the creation time in epoch milliseconds, the account type and status as
+ * one-byte codes into a shared dictionary, and the holder name as UTF-8 bytes in a per-chunk arena. An account
+ * costs about 30 bytes plus its name, and storing or updating one allocates nothing once its chunk exists.
+ * </p>
+ * <p>
+ * Balances are updated lock-free with compare-and-set through {@link VarHandle}s. The other fields are only
+ * written by {@link #put}, which serialises writers per chunk; readers never block and use a per-account
+ * sequence number to retry if they raced with a write. A type code of zero marks an empty slot; it is set
+ * after the other fields when an account is first stored, so readers never see a half-written account.
+ * </p>
+ */
+public class AccountStore {
+    /**
+     * Returned by balance methods for accounts that do not exist, or that cannot cover a withdrawal.
+     */
+    public static final long NO_BALANCE = Money.NO_BALANCE;
+
+    private static final int CHUNK_BITS = 12;
+    private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+    private static final int INITIAL_NAME_BYTES_PER_ACCOUNT = 16;
+    private static final int MAX_CODES = 255;
+    private static final byte NULL_CODE = 1;
+
+    private static final VarHandle LONGS = MethodHandles.arrayElementVarHandle(long[].class);
+    private static final VarHandle INTS = MethodHandles.arrayElementVarHandle(int[].class);
+    private static final VarHandle BYTES = MethodHandles.arrayElementVarHandle(byte[].class);
+
+    private static final class Chunk {
+        final long[] balances = new long[CHUNK_SIZE];
+        final long[] creationMillis = new long[CHUNK_SIZE];
+        final byte[] typeCodes = new byte[CHUNK_SIZE];
+        final byte[] statusCodes = new byte[CHUNK_SIZE];
+        final int[] versions = new int[CHUNK_SIZE];
+        /** Offset of the name in the arena in the high 32 bits, length + 1 in the low 32 bits; 0 for a null name. */
+        final long[] nameRefs = new long[CHUNK_SIZE];
+        volatile byte[] names = new byte[CHUNK_SIZE * INITIAL_NAME_BYTES_PER_ACCOUNT];
+        int namesUsed;
+    }
+
+    /**
+     * The fields of an account other than its ID and balance, as read by {@link #readDetails}.
+     *
+     * @param holderName     the name of the account holder
+     * @param type           the account type
+     * @param status         the account status
+     * @param creationMillis the creation time in epoch milliseconds
+     */
+    public record Details(String holderName, String type, String status, long creationMillis) {
+    }
+
+    private final Object growLock = new Object();
+    private final ConcurrentHashMap<String, Byte> codesByValue = new ConcurrentHashMap<>();
+    private volatile String[] valuesByCode = new String[NULL_CODE + 1];
+    private volatile Chunk[] chunks = new Chunk[0];
+
+    /**
+     * Stores an account, replacing any existing account with the same ID.
+     *
+     * @param accountId      the ID of the account; must not be negative
+     * @param balanceCents   the balance in cents
+     * @param holderName     the name of the account holder, may be null
+     * @param type           the account type, may be null
+     * @param status         the account status, may be null
+     * @param creationMillis the creation time in epoch milliseconds
+     * @throws IllegalArgumentException if the ID is negative
+     * @throws IllegalStateException    if more than 254 distinct types and statuses are stored
+     */
+    public void put(int accountId, long balanceCents, String holderName, String type, String status, long creationMillis) {
+        Chunk chunk = chunkForWrite(accountId);
+        int slot = accountId & CHUNK_MASK;
+        byte typeCode = codeOf(type);
+        byte statusCode = codeOf(status);
+        byte[] name = holderName != null ? holderName.getBytes(StandardCharsets.UTF_8) : null;
+        synchronized (chunk) {
+            int version = chunk.versions[slot];
+            INTS.setOpaque(chunk.versions, slot, version + 1);
+            VarHandle.storeStoreFence();
+            chunk.nameRefs[slot] = name != null ? appendName(chunk, name) : 0;
+            chunk.creationMillis[slot] = creationMillis;
+            chunk.statusCodes[slot] = statusCode;
+            LONGS.setVolatile(chunk.balances, slot, balanceCents);
+            BYTES.setRelease(chunk.typeCodes, slot, typeCode);
+            INTS.setRelease(chunk.versions, slot, version + 2);
+        }
+    }
+
+    /**
+     * Returns whether an account exists.
+     *
+     * @param accountId the ID of the account
+     * @return true if the account was stored
+     */
+    public boolean contains(int accountId) {
+        Chunk chunk = chunkForRead(accountId);
+        return chunk != null && exists(chunk, accountId & CHUNK_MASK);
+    }
+
+    /**
+     * Returns the balance of an account.
+     *
+     * @param accountId the ID of the account
+     * @return the balance in cents, or {@link #NO_BALANCE} if the account does not exist
+     */
+    public long getBalance(int accountId) {
+        Chunk chunk = chunkForRead(accountId);
+        int slot = accountId & CHUNK_MASK;
+        if (chunk == null || !exists(chunk, slot)) {
+            return NO_BALANCE;
+        }
+        return (long) LONGS.getVolatile(chunk.balances, slot);
+    }
+
+    /**
+     * Atomically adds an amount to an account's balance.
+     *
+     * @param accountId  the ID of the account
+     * @param deltaCents the amount to add in cents; may be negative
+     * @return the new balance in cents, or {@link #NO_BALANCE} if the account does not exist
+     */
+    public long add(int accountId, long deltaCents) {
+        Chunk chunk = chunkForRead(accountId);
+        int slot = accountId & CHUNK_MASK;
+        if (chunk == null || !exists(chunk, slot)) {
+            return NO_BALANCE;
+        }
+        return (long) LONGS.getAndAdd(chunk.balances, slot, deltaCents) + deltaCents;
+    }
+
+    /**
+     * Atomically subtracts an amount from an account's balance if the balance covers it.
+     *
+     * @param accountId   the ID of the account
+     * @param amountCents the amount to withdraw in cents
+     * @return the new balance in cents, or {@link #NO_BALANCE} if the account does not exist
+     *         or its balance is lower than the amount
+     */
+    public long withdraw(int accountId, long amountCents) {
+        Chunk chunk = chunkForRead(accountId);
+        int slot = accountId & CHUNK_MASK;
+        if (chunk == null || !exists(chunk, slot)) {
+            return NO_BALANCE;
+        }
+        long balance = (long) LONGS.getVolatile(chunk.balances, slot);
+        while (balance >= amountCents) {
+            long witness = (long) LONGS.compareAndExchange(chunk.balances, slot, balance, balance - amountCents);
+            if (witness == balance) {
+                return balance - amountCents;
+            }
+            balance = witness;
+        }
+        return NO_BALANCE;
+    }
+
+    /**
+     * Atomically sets an account's balance if it still equals the expected one.
+     *
+     * @param accountId     the ID of the account
+     * @param expectedCents the balance the account must still have, in cents
+     * @param newCents      the balance to set, in cents
+     * @return true if the account exists and was updated
+     */
+    public boolean compareAndSetBalance(int accountId, long expectedCents, long newCents) {
+        Chunk chunk = chunkForRead(accountId);
+        int slot = accountId & CHUNK_MASK;
+        return chunk != null && exists(chunk, slot) && LONGS.compareAndSet(chunk.balances, slot, expectedCents, newCents);
+    }
+
+    /**
+     * Overwrites an account's balance.
+     *
+     * @param accountId    the ID of the account
+     * @param balanceCents the new balance in cents
+     * @return true if the account exists and was updated
+     */
+    public boolean setBalance(int accountId, long balanceCents) {
+        Chunk chunk = chunkForRead(accountId);
+        int slot = accountId & CHUNK_MASK;
+        if (chunk == null || !exists(chunk, slot)) {
+            return false;
+        }
+        LONGS.setVolatile(chunk.balances, slot, balanceCents);
+        return true;
+    }
+
+    /**
+     * Reads the fields of an account other than its ID and balance.
+     *
+     * @param accountId the ID of the account
+     * @return the details, or null if the account does not exist
+     */
+    public Details readDetails(int accountId) {
+        Chunk chunk = chunkForRead(accountId);
+        int slot = accountId & CHUNK_MASK;
+        if (chunk == null || !exists(chunk, slot)) {
+            return null;
+        }
+        while (true) {
+            int version = (int) INTS.getAcquire(chunk.versions, slot);
+            if ((version & 1) != 0) {
+                Thread.onSpinWait();
+                continue;
+            }
+            long nameRef = (long) LONGS.getOpaque(chunk.nameRefs, slot);
+            long creationMillis = (long) LONGS.getOpaque(chunk.creationMillis, slot);
+            byte statusCode = (byte) BYTES.getOpaque(chunk.statusCodes, slot);
+            byte typeCode = (byte) BYTES.getOpaque(chunk.typeCodes, slot);
+            byte[] names = chunk.names;
+            int offset = (int) (nameRef >>> 32);
+            int length = (int) nameRef - 1;
+            boolean nameReadable = length < 0 || offset + length <= names.length;
+            String holderName = nameReadable && length >= 0 ? new String(names, offset, length, StandardCharsets.UTF_8) : null;
+            VarHandle.loadLoadFence();
+            if (nameReadable && (int) INTS.getOpaque(chunk.versions, slot) == version) {
+                String[] values = valuesByCode;
+                return new Details(holderName, valueOf(values, typeCode), valueOf(values, statusCode), creationMillis);
+            }
+        }
+    }
+
+    /**
+     * Returns one more than the highest ID that may hold an account, for iterating over all accounts.
+     *
+     * @return an exclusive upper bound of the stored account IDs
+     */
+    public int idLimit() {
+        return chunks.length << CHUNK_BITS;
+    }
+
+    private static boolean exists(Chunk chunk, int slot) {
+        return (byte) BYTES.getAcquire(chunk.typeCodes, slot) != 0;
+    }
+
+    private static String valueOf(String[] values, byte code) {
+        int index = code & 0xFF;
+        return index < values.length ? values[index] : null;
+    }
+
+    /**
+     * Appends a name to the chunk's arena, growing it if needed. Names replaced by a later put are not reclaimed.
+     * Must be called while holding the chunk's monitor.
+     */
+    private static long appendName(Chunk chunk, byte[] name) {
+        byte[] names = chunk.names;
+        int offset = chunk.namesUsed;
+        if (names.length - offset < name.length) {
+            names = Arrays.copyOf(names, Math.max(names.length * 2, offset + name.length));
+            chunk.names = names;
+        }
+        System.arraycopy(name, 0, names, offset, name.length);
+        chunk.namesUsed = offset + name.length;
+        return ((long) offset << 32) | (name.length + 1L);
+    }
+
+    private byte codeOf(String value) {
+        if (value == null) {
+            return NULL_CODE;
+        }
+        Byte code = codesByValue.get(value);
+        if (code != null) {
+            return code;
+        }
+        synchronized (codesByValue) {
+            code = codesByValue.get(value);
+            if (code != null) {
+                return code;
+            }
+            String[] values = valuesByCode;
+            if (values.length > MAX_CODES) {
+                throw new IllegalStateException("Too many distinct account types and statuses: " + values.length);
+            }
+            String[] extended = Arrays.copyOf(values, values.length + 1);
+            extended[values.length] = value;
+            valuesByCode = extended;
+            code = (byte) values.length;
+            codesByValue.put(value, code);
+            return code;
+        }
+    }
+
+    private Chunk chunkForRead(int accountId) {
+        Chunk[] directory = chunks;
+        int index = accountId >>> CHUNK_BITS;
+        return accountId >= 0 && index < directory.length ? directory[index] : null;
+    }
+
+    private Chunk chunkForWrite(int accountId) {
+        if (accountId < 0) {
+            throw new IllegalArgumentException("Account ID must not be negative: " + accountId);
+        }
+        Chunk chunk = chunkForRead(accountId);
+        if (chunk != null) {
+            return chunk;
+        }
+        synchronized (growLock) {
+            int index = accountId >>> CHUNK_BITS;
+            Chunk[] directory = chunks;
+            if (index >= directory.length) {
+                directory = Arrays.copyOf(directory, Math.max(index + 1, directory.length * 2));
+            } else if (directory[index] != null) {
+                return directory[index];
+            } else {
+                directory = directory.clone();
+            }
+            directory[index] = new Chunk();
+            chunks = directory;
+            return directory[index];
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package com.acn3to.core.repositories.memory;
+
+import com.acn3to.core.entities.Account;
+import com.acn3to.core.metrics.MetricsRegistry;
+import com.acn3to.core.repositories.AccountRepository;
+import com.acn3to.core.utils.StripedLock;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Repository class keeping accounts in process memory.
+ * <p>
+ * Accounts live in an {@link AccountStore}: primitive arrays addressed directly by account ID, with balances
+ * held as whole cents and updated lock-free with compare-and-set. Callers always receive their own Account
+ * copies, as they would from a database; {@link #addToBalance} and {@link #withdrawFromBalance} build none and
+ * do not allocate. Transfers additionally hold the striped locks of both accounts, taken in a fixed order, so concurrent transfers over the same
+ * accounts are serialised and cannot deadlock. Account IDs must not be negative.
+ * </p>
+ */
+public class InMemoryAccountRepository implements AccountRepository {
+    private final AccountStore store = new AccountStore();
+    private final StripedLock transferLocks = new StripedLock(StripedLock.DEFAULT_STRIPES,
+            MetricsRegistry.getDefault().timer("banking_lock_wait_seconds", "Time spent waiting for contended locks.", "lock", "inMemoryTransfer"));
+
+    @Override
+    public void save(Account account) {
+        store.put(
+                account.getAccountId(),
+                account.getBalanceCents(),
+                account.getAccountHolderName(),
+                account.getAccountType(),
+                account.getAccountStatus(),
+                account.getCreationMillis()
+        );
+    }
+
+    @Override
+    public void saveAll(List<Account> accounts) {
+        for (Account account : accounts) {
+            save(account);
+        }
+    }
+
+    @Override
+    public Account findById(int accountId) {
+        return toAccount(accountId, store.getBalance(accountId));
+    }
+
+    @Override
+    public long findBalance(int accountId) {
+        return store.getBalance(accountId);
+    }
+
+    @Override
+    public long[] findBalances(int[] accountIds, int count) {
+        long[] balances = new long[count];
+        for (int i = 0; i < count; i++) {
+            balances[i] = store.getBalance(accountIds[i]);
+        }
+        return balances;
+    }
+
+    @Override
+    public List<Account> findAll() {
+        List<Account> accounts = new ArrayList<>();
+        int limit = store.idLimit();
+        for (int accountId = 0; accountId < limit; accountId++) {
+            if (store.contains(accountId)) {
+                Account account = findById(accountId);
+                if (account != null) {
+                    accounts.add(account);
+                }
+            }
+        }
+        return accounts;
+    }
+
+    @Override
+    public Account applyDelta(int accountId, long deltaCents) {
+        return toAccount(accountId, store.add(accountId, deltaCents));
+    }
+
+    @Override
+    public Account withdrawIfSufficient(int accountId, long amountCents) {
+        return toAccount(accountId, store.withdraw(accountId, amountCents));
+    }
+
+    @Override
+    public long addToBalance(int accountId, long deltaCents) {
+        return store.add(accountId, deltaCents);
+    }
+
+    @Override
+    public long withdrawFromBalance(int accountId, long amountCents) {
+        return store.withdraw(accountId, amountCents);
+    }
+
+    /**
+     * Transfers money between two accounts. The debit is a conditional compare-and-set and accounts are
+     * never removed, so once the debit succeeds the credit cannot fail and no money is ever lost;
+     * a concurrent reader may briefly observe the debit before the credit.
+     */
+    @Override
+    public Account transfer(int fromAccountId, int toAccountId, long amountCents) {
+        if (amountCents <= 0) {
+            throw new IllegalArgumentException("Transfer amount must be positive: " + amountCents);
+        }
+        transferLocks.lockPair(fromAccountId, toAccountId);
+        try {
+            if (!store.contains(toAccountId)) {
+                return null;
+            }
+            long source = store.withdraw(fromAccountId, amountCents);
+            if (source == AccountStore.NO_BALANCE) {
+                return null;
+            }
+            store.add(toAccountId, amountCents);
+            return toAccount(fromAccountId, source);
+        } finally {
+            transferLocks.unlockPair(fromAccountId, toAccountId);
+        }
+    }
+
+    @Override
+    public void updateBalances(int[] accountIds, long[] balances, int count) {
+        for (int i = 0; i < count; i++) {
+            store.setBalance(accountIds[i], balances[i]);
+        }
+    }
+
+    @Override
+    public boolean[] compareAndSetBalances(int[] accountIds, long[] expectedBalances, long[] newBalances, int count) {
+        boolean[] updated = new boolean[count];
+        for (int i = 0; i < count; i++) {
+            updated[i] = store.compareAndSetBalance(accountIds[i], expectedBalances[i], newBalances[i]);
+        }
+        return updated;
+    }
+
+    private Account toAccount(int accountId, long balanceCents) {
+        if (balanceCents == AccountStore.NO_BALANCE) {
+            return null;
+        }
+        AccountStore.Details details = store.readDetails(accountId);
+        if (details == null) {
+            return null;
+        }
+        return new Account(balanceCents, accountId, details.holderName(), details.type(), details.status(),
+                details.creationMillis());
+    }
+}
@@ -0,0 +1,90 @@
+package com.acn3to.core.repositories.memory;
+
+import com.acn3to.core.entities.BankAgency;
+import com.acn3to.core.repositories.BankAgencyRepository;
+import com.acn3to.core.utils.AgencyIndex;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Repository class keeping bank agencies in process memory, keyed by agency ID.
+ * Stored agencies are copied on the way in and out, so callers cannot modify them in place.
+ */
+public class InMemoryBankAgencyRepository implements BankAgencyRepository {
+    private record Candidate(BankAgency agency, double distanceMeters) {
+    }
+
+    private final ConcurrentHashMap<String, BankAgency> agencies = new ConcurrentHashMap<>();
+
+    @Override
+    public void save(BankAgency bankAgency) {
+        agencies.put(bankAgency.getAgencyId(), copyOf(bankAgency));
+    }
+
+    @Override
+    public void saveAll(List<BankAgency> bankAgencies) {
+        for (BankAgency bankAgency : bankAgencies) {
+            save(bankAgency);
+        }
+    }
+
+    @Override
+    public BankAgency findById(String agencyId) {
+        BankAgency agency = agencies.get(agencyId);
+        return agency != null ? copyOf(agency) : null;
+    }
+
+    @Override
+    public List<BankAgency> findAll() {
+        List<BankAgency> result = new ArrayList<>(agencies.size());
+        for (BankAgency agency : agencies.values()) {
+            result.add(copyOf(agency));
+        }
+        return result;
+    }
+
+    /**
+     * Scans every stored agency, keeping the nearest ones in a bounded heap.
+     */
+    @Override
+    public List<BankAgency> findNearest(double latitude, double longitude, int limit, boolean onlyOpen) {
+        if (limit <= 0) {
+            return new ArrayList<>(0);
+        }
+        PriorityQueue<Candidate> nearest = new PriorityQueue<>(Comparator.comparingDouble(Candidate::distanceMeters).reversed());
+        for (BankAgency agency : agencies.values()) {
+            if (onlyOpen && !agency.isOpen()) {
+                continue;
+            }
+            double distance = AgencyIndex.distanceMeters(latitude, longitude, agency.getLatitude(), agency.getLongitude());
+            if (nearest.size() < limit) {
+                nearest.add(new Candidate(agency, distance));
+            } else if (distance < nearest.peek().distanceMeters()) {
+                nearest.poll();
+                nearest.add(new Candidate(agency, distance));
+            }
+        }
+        BankAgency[] result = new BankAgency[nearest.size()];
+        for (int i = result.length - 1; i >= 0; i--) {
+            result[i] = copyOf(nearest.poll().agency());
+        }
+        return new ArrayList<>(List.of(result));
+    }
+
+    private static BankAgency copyOf(BankAgency agency) {
+        return new BankAgency(
+                agency.getAgencyId(),
+                agency.getLatitude(),
+                agency.getLongitude(),
+                agency.getAddress(),
+                agency.getPhoneNumber(),
+                agency.getManagerName(),
+                agency.getOpeningDate(),
+                agency.getStatus()
+        );
+    }
+}
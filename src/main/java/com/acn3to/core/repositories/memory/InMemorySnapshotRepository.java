@@ -0,0 +1,79 @@
+package com.acn3to.core.repositories.memory;
+
+import com.acn3to.core.entities.BalanceSnapshot;
+import com.acn3to.core.repositories.SnapshotRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Repository class keeping account balance snapshots in process memory.
+ * <p>
+ * Each account's snapshots are kept sorted by time, so the latest snapshot before a point in time is found
+ * by binary search. Snapshots are usually taken in time order and then appended at the end of the list.
+ * </p>
+ */
+public class InMemorySnapshotRepository implements SnapshotRepository {
+    private final ConcurrentHashMap<Integer, List<BalanceSnapshot>> snapshotsByAccount = new ConcurrentHashMap<>();
+
+    @Override
+    public void save(BalanceSnapshot snapshot) {
+        List<BalanceSnapshot> snapshots = snapshotsByAccount.computeIfAbsent(snapshot.accountId(), id -> new ArrayList<>());
+        synchronized (snapshots) {
+            int index = snapshots.size();
+            while (index > 0 && snapshots.get(index - 1).asOfMillis() > snapshot.asOfMillis()) {
+                index--;
+            }
+            snapshots.add(index, snapshot);
+        }
+    }
+
+    @Override
+    public void saveAll(List<BalanceSnapshot> snapshots) {
+        for (BalanceSnapshot snapshot : snapshots) {
+            save(snapshot);
+        }
+    }
+
+    @Override
+    public BalanceSnapshot findLatest(int accountId, long asOfMillis) {
+        List<BalanceSnapshot> snapshots = snapshotsByAccount.get(accountId);
+        if (snapshots == null) {
+            return null;
+        }
+        synchronized (snapshots) {
+            // Index of the first snapshot taken after asOfMillis.
+            int low = 0;
+            int high = snapshots.size();
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (snapshots.get(middle).asOfMillis() <= asOfMillis) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low > 0 ? snapshots.get(low - 1) : null;
+        }
+    }
+
+    @Override
+    public BalanceSnapshot[] findOpeningSnapshots(int firstAccountId, int count) {
+        BalanceSnapshot[] openings = new BalanceSnapshot[count];
+        for (int i = 0; i < count; i++) {
+            List<BalanceSnapshot> snapshots = snapshotsByAccount.get(firstAccountId + i);
+            if (snapshots == null) {
+                continue;
+            }
+            synchronized (snapshots) {
+                for (int k = snapshots.size() - 1; k >= 0 && openings[i] == null; k--) {
+                    if (snapshots.get(k).transactionCount() == 0) {
+                        openings[i] = snapshots.get(k);
+                    }
+                }
+            }
+        }
+        return openings;
+    }
+}
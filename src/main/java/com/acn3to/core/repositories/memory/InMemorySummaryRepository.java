@@ -0,0 +1,28 @@
+package com.acn3to.core.repositories.memory;
+
+import com.acn3to.core.analytics.AnalyticsSummary;
+import com.acn3to.core.repositories.SummaryRepository;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Repository class keeping transaction statistics summaries in process memory.
+ */
+public class InMemorySummaryRepository implements SummaryRepository {
+    private final List<AnalyticsSummary> summaries = new ArrayList<>();
+
+    @Override
+    public synchronized void save(AnalyticsSummary summary) {
+        summaries.add(summary);
+    }
+
+    @Override
+    public synchronized List<AnalyticsSummary> findSince(long fromMillis) {
+        return summaries.stream()
+                .filter(summary -> summary.fromMillis() >= fromMillis)
+                .sorted(Comparator.comparingLong(AnalyticsSummary::fromMillis))
+                .toList();
+    }
+}
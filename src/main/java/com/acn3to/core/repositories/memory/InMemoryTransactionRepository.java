@@ -0,0 +1,271 @@
+package com.acn3to.core.repositories.memory;
+
+import com.acn3to.core.entities.Transaction;
+import com.acn3to.core.repositories.TransactionPage;
+import com.acn3to.core.repositories.TransactionRepository;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Repository class keeping transactions in an append-only columnar store in process memory.
+ * <p>
+ * Each field lives in its own primitive column, grown in fixed-size chunks so appends never copy existing
+ * rows. Per-account lists of row numbers, one for the account's own transactions and one for the transfers it
+ * received, make account history lookups proportional to the size of that history. Appends are serialised by a lock; readers only take the lock to copy an account's row numbers
+ * and read the columns without it, since published rows are never modified.
+ * Account IDs must not be negative.
+ * </p>
+ */
+public class InMemoryTransactionRepository implements TransactionRepository {
+    private static final int CHUNK_BITS = 13;
+    private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+    private final ReentrantLock appendLock = new ReentrantLock();
+
+    // Column chunks, row counts and per-account row lists are written under appendLock.
+    private int[][] accountIds = new int[0][];
+    private long[][] dates = new long[0][];
+    private String[][] types = new String[0][];
+    private long[][] amounts = new long[0][];
+    private long[][] balances = new long[0][];
+    private int[][] counterpartyAccountIds = new int[0][];
+    private final RowIndex rowsByAccount = new RowIndex();
+    private final RowIndex rowsByCounterparty = new RowIndex();
+
+    // Written under appendLock; volatile so size() can be read without it.
+    private volatile int size;
+
+    @Override
+    public void save(Transaction transaction) {
+        appendLock.lock();
+        try {
+            append(transaction);
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    @Override
+    public void saveAll(List<Transaction> transactions) {
+        appendLock.lock();
+        try {
+            for (Transaction transaction : transactions) {
+                append(transaction);
+            }
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    @Override
+    public Transaction findByAccountIdAndDate(int accountId, Date date) {
+        long time = date.getTime();
+        for (int row : rowsOf(rowsByAccount, accountId)) {
+            if (dateOf(row) == time) {
+                return toTransaction(row);
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public List<Transaction> findByAccountId(int accountId) {
+        int[] rows = rowsOf(rowsByAccount, accountId);
+        List<Transaction> transactions = new ArrayList<>(rows.length);
+        for (int row : rows) {
+            transactions.add(toTransaction(row));
+        }
+        return transactions;
+    }
+
+    /**
+     * Finds a page of an account's transactions. Row numbers never change, so they serve as the IDs that order
+     * transactions sharing a date.
+     */
+    @Override
+    public TransactionPage findByAccountId(int accountId, TransactionPage.Key after, int limit) {
+        long afterDate = after != null ? after.date().getTime() : Long.MIN_VALUE;
+        int afterRow = after != null ? Integer.parseInt(after.id()) : -1;
+        int[] rows = IntStream.of(rowsOf(rowsByAccount, accountId))
+                .filter(row -> dateOf(row) > afterDate || (dateOf(row) == afterDate && row > afterRow))
+                .boxed()
+                .sorted((left, right) -> dateOf(left) != dateOf(right)
+                        ? Long.compare(dateOf(left), dateOf(right))
+                        : Integer.compare(left, right))
+                .limit(limit)
+                .mapToInt(Integer::intValue)
+                .toArray();
+        List<Transaction> transactions = new ArrayList<>(rows.length);
+        for (int row : rows) {
+            transactions.add(toTransaction(row));
+        }
+        TransactionPage.Key next = rows.length == 0 ? after
+                : new TransactionPage.Key(new Date(dateOf(rows[rows.length - 1])), Integer.toString(rows[rows.length - 1]));
+        return new TransactionPage(transactions, next);
+    }
+
+    /**
+     * Streams an account's transactions in date order. Rows are already in memory, so the batch size is ignored.
+     */
+    @Override
+    public Stream<Transaction> streamByAccountId(int accountId, int batchSize) {
+        return IntStream.of(rowsOf(rowsByAccount, accountId))
+                .boxed()
+                .sorted((left, right) -> Long.compare(dateOf(left), dateOf(right)))
+                .map(this::toTransaction);
+    }
+
+    /**
+     * Streams the transactions that changed an account's balance within a period. Rows are already in memory,
+     * so the batch size is ignored.
+     */
+    @Override
+    public Stream<Transaction> streamAffectingAccount(int accountId, Date afterDate, Date upToDate, int batchSize) {
+        long after = afterDate.getTime();
+        long upTo = upToDate.getTime();
+        return IntStream.concat(IntStream.of(rowsOf(rowsByAccount, accountId)), IntStream.of(rowsOf(rowsByCounterparty, accountId)))
+                .filter(row -> dateOf(row) > after && dateOf(row) <= upTo)
+                .boxed()
+                .sorted((left, right) -> Long.compare(dateOf(left), dateOf(right)))
+                .map(this::toTransaction);
+    }
+
+    @Override
+    public long[] sumBalanceChanges(int firstAccountId, int count, long[] afterMillis) {
+        long[] changes = new long[count];
+        for (int i = 0; i < count; i++) {
+            int accountId = firstAccountId + i;
+            long change = 0;
+            for (int row : rowsOf(rowsByAccount, accountId)) {
+                if (dateOf(row) <= afterMillis[i]) {
+                    continue;
+                }
+                long amount = amounts[row >>> CHUNK_BITS][row & CHUNK_MASK];
+                change += "Deposit".equals(types[row >>> CHUNK_BITS][row & CHUNK_MASK]) ? amount : -amount;
+            }
+            for (int row : rowsOf(rowsByCounterparty, accountId)) {
+                if (dateOf(row) > afterMillis[i] && "Transfer".equals(types[row >>> CHUNK_BITS][row & CHUNK_MASK])) {
+                    change += amounts[row >>> CHUNK_BITS][row & CHUNK_MASK];
+                }
+            }
+            changes[i] = change;
+        }
+        return changes;
+    }
+
+    /**
+     * Returns the number of stored transactions.
+     *
+     * @return the row count
+     */
+    public int size() {
+        return size;
+    }
+
+    private void append(Transaction transaction) {
+        int accountId = transaction.accountId();
+        if (accountId < 0) {
+            throw new IllegalArgumentException("Account ID must not be negative: " + accountId);
+        }
+        int row = size;
+        int chunk = row >>> CHUNK_BITS;
+        if (chunk == accountIds.length) {
+            addChunk();
+        }
+        int offset = row & CHUNK_MASK;
+        accountIds[chunk][offset] = accountId;
+        dates[chunk][offset] = transaction.date().getTime();
+        types[chunk][offset] = transaction.type();
+        amounts[chunk][offset] = transaction.amountCents();
+        balances[chunk][offset] = transaction.balanceAfterTransactionCents();
+        counterpartyAccountIds[chunk][offset] = transaction.counterpartyAccountId();
+        rowsByAccount.add(accountId, row);
+        int counterpartyAccountId = transaction.counterpartyAccountId();
+        if (counterpartyAccountId > 0 && counterpartyAccountId != accountId) {
+            rowsByCounterparty.add(counterpartyAccountId, row);
+        }
+        size = row + 1;
+    }
+
+    private void addChunk() {
+        int chunks = accountIds.length + 1;
+        accountIds = Arrays.copyOf(accountIds, chunks);
+        dates = Arrays.copyOf(dates, chunks);
+        types = Arrays.copyOf(types, chunks);
+        amounts = Arrays.copyOf(amounts, chunks);
+        balances = Arrays.copyOf(balances, chunks);
+        counterpartyAccountIds = Arrays.copyOf(counterpartyAccountIds, chunks);
+        accountIds[chunks - 1] = new int[CHUNK_SIZE];
+        dates[chunks - 1] = new long[CHUNK_SIZE];
+        types[chunks - 1] = new String[CHUNK_SIZE];
+        amounts[chunks - 1] = new long[CHUNK_SIZE];
+        balances[chunks - 1] = new long[CHUNK_SIZE];
+        counterpartyAccountIds[chunks - 1] = new int[CHUNK_SIZE];
+    }
+
+    private int[] rowsOf(RowIndex index, int accountId) {
+        appendLock.lock();
+        try {
+            return index.rowsOf(accountId);
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    private long dateOf(int row) {
+        return dates[row >>> CHUNK_BITS][row & CHUNK_MASK];
+    }
+
+    private Transaction toTransaction(int row) {
+        int chunk = row >>> CHUNK_BITS;
+        int offset = row & CHUNK_MASK;
+        return new Transaction(
+                accountIds[chunk][offset],
+                new Date(dates[chunk][offset]),
+                types[chunk][offset],
+                amounts[chunk][offset],
+                balances[chunk][offset],
+                counterpartyAccountIds[chunk][offset]
+        );
+    }
+
+    /**
+     * Row numbers grouped by account ID, in insertion order. Only accessed while holding appendLock.
+     */
+    private static final class RowIndex {
+        private int[][] rowsByAccount = new int[0][];
+        private int[] rowCountByAccount = new int[0];
+
+        void add(int accountId, int row) {
+            if (accountId >= rowsByAccount.length) {
+                int length = Math.max(accountId + 1, rowsByAccount.length * 2);
+                rowsByAccount = Arrays.copyOf(rowsByAccount, length);
+                rowCountByAccount = Arrays.copyOf(rowCountByAccount, length);
+            }
+            int[] rows = rowsByAccount[accountId];
+            int count = rowCountByAccount[accountId];
+            if (rows == null) {
+                rows = new int[8];
+            } else if (count == rows.length) {
+                rows = Arrays.copyOf(rows, count * 2);
+            }
+            rows[count] = row;
+            rowsByAccount[accountId] = rows;
+            rowCountByAccount[accountId] = count + 1;
+        }
+
+        int[] rowsOf(int accountId) {
+            if (accountId < 0 || accountId >= rowsByAccount.length || rowsByAccount[accountId] == null) {
+                return new int[0];
+            }
+            return Arrays.copyOf(rowsByAccount[accountId], rowCountByAccount[accountId]);
+        }
+    }
+}
@@ -0,0 +1,285 @@
+package com.acn3to.core.repositories.mongo;
+
+import com.acn3to.core.entities.Account;
+import com.acn3to.core.repositories.AccountRepository;
+import com.acn3to.core.repositories.mongo.codecs.BankingCodecs;
+import com.acn3to.core.utils.Money;
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.client.ClientSession;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.FindOneAndUpdateOptions;
+import com.mongodb.client.model.ReplaceOneModel;
+import com.mongodb.client.model.ReplaceOptions;
+import com.mongodb.client.model.ReturnDocument;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.WriteModel;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.bson.types.Decimal128;
+import org.bson.types.ObjectId;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+import static com.mongodb.client.model.Filters.and;
+import static com.mongodb.client.model.Filters.eq;
+import static com.mongodb.client.model.Filters.gte;
+import static com.mongodb.client.model.Filters.in;
+import static com.mongodb.client.model.Projections.excludeId;
+import static com.mongodb.client.model.Projections.fields;
+import static com.mongodb.client.model.Projections.include;
+import static com.mongodb.client.model.Updates.combine;
+import static com.mongodb.client.model.Updates.currentDate;
+import static com.mongodb.client.model.Updates.inc;
+import static com.mongodb.client.model.Updates.set;
+
+/**
+ * Repository class for managing accounts in a MongoDB collection.
+ * <p>
+ * Besides plain saving and lookup, this class provides atomic balance updates that are applied
+ * server-side in a single round trip, so concurrent updates are safe across processes.
+ * Accounts are mapped straight to and from BSON by {@link com.acn3to.core.repositories.mongo.codecs.AccountCodec}.
+ * Balances are stored as Decimal128 amounts with two decimal places, so {@code $inc} on the server is exact;
+ * balances written as doubles by earlier versions are rounded to the cent when read.
+ * </p>
+ */
+public class MongoAccountRepository implements AccountRepository {
+    private static final FindOneAndUpdateOptions RETURN_UPDATED = new FindOneAndUpdateOptions()
+            .returnDocument(ReturnDocument.AFTER);
+    private static final Bson BALANCE_ONLY = fields(include("balance"), excludeId());
+    private static final FindOneAndUpdateOptions RETURN_UPDATED_BALANCE = new FindOneAndUpdateOptions()
+            .returnDocument(ReturnDocument.AFTER)
+            .projection(BALANCE_ONLY);
+    private static final Bson ID_ONLY = fields(include("accountId"), excludeId());
+    private static final Bson ID_AND_BALANCE = fields(include("accountId", "balance"), excludeId());
+    private static final BulkWriteOptions UNORDERED = new BulkWriteOptions().ordered(false);
+    private static final ReplaceOptions UPSERT = new ReplaceOptions().upsert(true);
+
+    private final MongoClient mongoClient;
+    private final MongoCollection<Account> accountsCollection;
+    private final MongoCollection<Document> accountDocuments;
+
+    /**
+     * Constructs a MongoAccountRepository.
+     *
+     * @param mongoClient the client used to start sessions for multi-document transactions
+     * @param database    the MongoDatabase instance to use
+     */
+    public MongoAccountRepository(MongoClient mongoClient, MongoDatabase database) {
+        this.mongoClient = mongoClient;
+        this.accountsCollection = database.getCollection("accounts", Account.class)
+                .withCodecRegistry(BankingCodecs.withEntityCodecs(database.getCodecRegistry()));
+        this.accountDocuments = accountsCollection.withDocumentClass(Document.class);
+    }
+
+    @Override
+    public void save(Account account) {
+        accountsCollection.replaceOne(eq("accountId", account.getAccountId()), account, UPSERT);
+    }
+
+    /**
+     * Saves the accounts with one unordered bulkWrite of upserts, which the driver splits into server-sized batches.
+     */
+    @Override
+    public void saveAll(List<Account> accounts) {
+        if (accounts.isEmpty()) {
+            return;
+        }
+        List<WriteModel<Account>> replacements = new ArrayList<>(accounts.size());
+        for (Account account : accounts) {
+            replacements.add(new ReplaceOneModel<>(eq("accountId", account.getAccountId()), account, UPSERT));
+        }
+        accountsCollection.bulkWrite(replacements, UNORDERED);
+    }
+
+    @Override
+    public Account findById(int accountId) {
+        return accountsCollection.find(eq("accountId", accountId)).first();
+    }
+
+    /**
+     * Finds the balance of an account. The query only touches fields of the accountId_balance index
+     * created by {@link MongoIndexManager}, so the server answers it without reading the document.
+     */
+    @Override
+    public long findBalance(int accountId) {
+        Document document = accountsCollection.find(eq("accountId", accountId), Document.class)
+                .projection(BALANCE_ONLY)
+                .first();
+        return document != null ? balanceOf(document) : Money.NO_BALANCE;
+    }
+
+    /**
+     * Finds several balances with one $in query, covered by the accountId_balance index.
+     */
+    @Override
+    public long[] findBalances(int[] accountIds, int count) {
+        long[] balances = new long[count];
+        Arrays.fill(balances, Money.NO_BALANCE);
+        for (Document document : accountsCollection.find(in("accountId", idList(accountIds, count)), Document.class)
+                .projection(ID_AND_BALANCE)) {
+            int index = indexOf(accountIds, count, document);
+            if (index >= 0) {
+                balances[index] = balanceOf(document);
+            }
+        }
+        return balances;
+    }
+
+    @Override
+    public List<Account> findAll() {
+        return accountsCollection.find().into(new ArrayList<>());
+    }
+
+    @Override
+    public Account applyDelta(int accountId, long deltaCents) {
+        return updateBalance(eq("accountId", accountId), deltaCents);
+    }
+
+    @Override
+    public Account withdrawIfSufficient(int accountId, long amountCents) {
+        return updateBalance(and(eq("accountId", accountId), gte("balance", Money.toDecimal128(amountCents))), -amountCents);
+    }
+
+    @Override
+    public long addToBalance(int accountId, long deltaCents) {
+        return updateBalanceOnly(eq("accountId", accountId), deltaCents);
+    }
+
+    @Override
+    public long withdrawFromBalance(int accountId, long amountCents) {
+        return updateBalanceOnly(and(eq("accountId", accountId), gte("balance", Money.toDecimal128(amountCents))), -amountCents);
+    }
+
+    /**
+     * Transfers money inside a multi-document transaction, so the debit and the credit commit together.
+     * Transactions need the server to run as a replica set (a single-node one is enough).
+     */
+    @Override
+    public Account transfer(int fromAccountId, int toAccountId, long amountCents) {
+        if (amountCents <= 0) {
+            throw new IllegalArgumentException("Transfer amount must be positive: " + amountCents);
+        }
+        Decimal128 amount = Money.toDecimal128(amountCents);
+        try (ClientSession session = mongoClient.startSession()) {
+            return session.withTransaction(() -> {
+                Account source = accountsCollection.findOneAndUpdate(session,
+                        and(eq("accountId", fromAccountId), gte("balance", amount)), balanceUpdate(-amountCents), RETURN_UPDATED);
+                if (source == null) {
+                    throw new TransferRejectedException();
+                }
+                Account target = accountsCollection.findOneAndUpdate(session,
+                        eq("accountId", toAccountId), balanceUpdate(amountCents), RETURN_UPDATED);
+                if (target == null) {
+                    throw new TransferRejectedException();
+                }
+                return source;
+            });
+        } catch (TransferRejectedException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public void updateBalances(int[] accountIds, long[] balances, int count) {
+        if (count == 0) {
+            return;
+        }
+        Date now = new Date();
+        List<WriteModel<Account>> updates = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            updates.add(new UpdateOneModel<>(
+                    eq("accountId", accountIds[i]),
+                    combine(set("balance", Money.toDecimal128(balances[i])), set("lastUpdatedDate", now))
+            ));
+        }
+        accountsCollection.bulkWrite(updates, UNORDERED);
+    }
+
+    /**
+     * Writes all balances with one unordered bulkWrite whose filters include the expected balance.
+     * Every update also stamps the account with an ID unique to this call, so when some filters did not match,
+     * one extra query finds out which accounts were updated. The write and the query run in one multi-document
+     * transaction: another writer touching a stamped account conflicts with it instead of overwriting the stamp
+     * before it is read, and the transaction is retried. Transactions need the server to run as a replica set.
+     */
+    @Override
+    public boolean[] compareAndSetBalances(int[] accountIds, long[] expectedBalances, long[] newBalances, int count) {
+        if (count == 0) {
+            return new boolean[0];
+        }
+        ObjectId batchId = new ObjectId();
+        Date now = new Date();
+        List<WriteModel<Account>> updates = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            updates.add(new UpdateOneModel<>(
+                    and(eq("accountId", accountIds[i]), eq("balance", Money.toDecimal128(expectedBalances[i]))),
+                    combine(set("balance", Money.toDecimal128(newBalances[i])), set("lastUpdatedDate", now),
+                            set("lastBatchId", batchId))
+            ));
+        }
+        try (ClientSession session = mongoClient.startSession()) {
+            return session.withTransaction(() -> {
+                boolean[] updated = new boolean[count];
+                BulkWriteResult result = accountsCollection.bulkWrite(session, updates, UNORDERED);
+                if (result.getMatchedCount() == count) {
+                    Arrays.fill(updated, true);
+                    return updated;
+                }
+                for (Document document : accountsCollection.find(session,
+                        and(in("accountId", idList(accountIds, count)), eq("lastBatchId", batchId)), Document.class)
+                        .projection(ID_ONLY)) {
+                    int index = indexOf(accountIds, count, document);
+                    if (index >= 0) {
+                        updated[index] = true;
+                    }
+                }
+                return updated;
+            });
+        }
+    }
+
+    private static List<Integer> idList(int[] accountIds, int count) {
+        List<Integer> ids = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            ids.add(accountIds[i]);
+        }
+        return ids;
+    }
+
+    private static int indexOf(int[] sortedAccountIds, int count, Document document) {
+        return Arrays.binarySearch(sortedAccountIds, 0, count, ((Number) document.get("accountId")).intValue());
+    }
+
+    static long balanceOf(Document document) {
+        Object balance = document.get("balance");
+        return balance instanceof Decimal128 decimal ? Money.ofUnits(decimal) : Money.ofUnits(((Number) balance).doubleValue());
+    }
+
+    private Account updateBalance(Bson filter, long deltaCents) {
+        return accountsCollection.findOneAndUpdate(filter, balanceUpdate(deltaCents), RETURN_UPDATED);
+    }
+
+    private long updateBalanceOnly(Bson filter, long deltaCents) {
+        Document document = accountDocuments.findOneAndUpdate(filter, balanceUpdate(deltaCents), RETURN_UPDATED_BALANCE);
+        return document != null ? balanceOf(document) : Money.NO_BALANCE;
+    }
+
+    private static Bson balanceUpdate(long deltaCents) {
+        return combine(inc("balance", Money.toDecimal128(deltaCents)), currentDate("lastUpdatedDate"));
+    }
+
+    /**
+     * Aborts a transfer's transaction when one side of it cannot be applied.
+     */
+    private static class TransferRejectedException extends RuntimeException {
+        TransferRejectedException() {
+            super(null, null, false, false);
+        }
+    }
+}
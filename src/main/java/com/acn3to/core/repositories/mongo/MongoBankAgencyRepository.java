@@ -0,0 +1,77 @@
+package com.acn3to.core.repositories.mongo;
+
+import com.acn3to.core.entities.BankAgency;
+import com.acn3to.core.repositories.BankAgencyRepository;
+import com.acn3to.core.repositories.mongo.codecs.BankingCodecs;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.InsertManyOptions;
+import com.mongodb.client.model.geojson.Point;
+import com.mongodb.client.model.geojson.Position;
+import org.bson.conversions.Bson;
+
+import static com.mongodb.client.model.Filters.and;
+import static com.mongodb.client.model.Filters.eq;
+import static com.mongodb.client.model.Filters.near;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Repository class for managing bank agencies in a MongoDB collection.
+ * <p>
+ * This class provides methods for saving, finding, and retrieving bank agencies from the MongoDB collection.
+ * </p>
+ */
+public class MongoBankAgencyRepository implements BankAgencyRepository {
+    private static final InsertManyOptions UNORDERED = new InsertManyOptions().ordered(false);
+
+    private final MongoCollection<BankAgency> bankAgenciesCollection;
+
+    /**
+     * Constructs a MongoBankAgencyRepository with a MongoDB connection.
+     *
+     * @param database the MongoDatabase instance to use
+     */
+    public MongoBankAgencyRepository(MongoDatabase database) {
+        this.bankAgenciesCollection = database.getCollection("bankAgencies", BankAgency.class)
+                .withCodecRegistry(BankingCodecs.withEntityCodecs(database.getCodecRegistry()));
+    }
+
+    @Override
+    public void save(BankAgency bankAgency) {
+        bankAgenciesCollection.insertOne(bankAgency);
+    }
+
+    @Override
+    public void saveAll(List<BankAgency> bankAgencies) {
+        if (!bankAgencies.isEmpty()) {
+            bankAgenciesCollection.insertMany(bankAgencies, UNORDERED);
+        }
+    }
+
+    @Override
+    public BankAgency findById(String agencyId) {
+        return bankAgenciesCollection.find(eq("agencyId", agencyId)).first();
+    }
+
+    @Override
+    public List<BankAgency> findAll() {
+        return bankAgenciesCollection.find().into(new ArrayList<>());
+    }
+
+    /**
+     * Runs a {@code $near} query on the {@code location_2dsphere} index, which returns agencies nearest first.
+     */
+    @Override
+    public List<BankAgency> findNearest(double latitude, double longitude, int limit, boolean onlyOpen) {
+        if (limit <= 0) {
+            return new ArrayList<>(0);
+        }
+        Bson filter = near("location", new Point(new Position(longitude, latitude)), null, null);
+        if (onlyOpen) {
+            filter = and(filter, eq("status", BankAgency.STATUS_OPEN));
+        }
+        return bankAgenciesCollection.find(filter).limit(limit).into(new ArrayList<>(limit));
+    }
+}
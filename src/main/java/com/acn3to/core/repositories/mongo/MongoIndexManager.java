@@ -0,0 +1,75 @@
+package com.acn3to.core.repositories.mongo;
+
+import com.mongodb.MongoCommandException;
+import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.IndexOptions;
+import com.mongodb.client.model.Indexes;
+import org.bson.conversions.Bson;
+
+/**
+ * Creates the indexes the MongoDB repositories rely on.
+ * <p>
+ * Index creation is idempotent, so this runs on every startup. If an index with the same name or keys
+ * already exists with a different definition, startup fails instead of silently running without the
+ * expected index.
+ * </p>
+ */
+public class MongoIndexManager {
+    private static final int INDEX_OPTIONS_CONFLICT = 85;
+    private static final int INDEX_KEY_SPECS_CONFLICT = 86;
+
+    private final MongoDatabase database;
+
+    /**
+     * Constructs a MongoIndexManager for the given database.
+     *
+     * @param database the MongoDatabase instance to use
+     */
+    public MongoIndexManager(MongoDatabase database) {
+        this.database = database;
+    }
+
+    /**
+     * Ensures all indexes exist, printing how long each took.
+     *
+     * @throws IllegalStateException if an existing index conflicts with the expected definition
+     */
+    public void ensureIndexes() {
+        ensureIndex("accounts", Indexes.ascending("accountId"),
+                new IndexOptions().name("accountId_unique").unique(true));
+        // Lets balance reads be answered from the index alone (a covered query).
+        ensureIndex("accounts", Indexes.ascending("accountId", "balance"),
+                new IndexOptions().name("accountId_balance"));
+        ensureIndex("transactions", Indexes.compoundIndex(Indexes.ascending("accountId"), Indexes.descending("date")),
+                new IndexOptions().name("accountId_date"));
+        // Serves history pages, which are ordered on (date, _id) so transactions sharing a date are never skipped.
+        ensureIndex("transactions", Indexes.ascending("accountId", "date", "_id"),
+                new IndexOptions().name("accountId_date_id"));
+        // Only transfers have a counterparty, so the index skips every other transaction.
+        ensureIndex("transactions", Indexes.ascending("counterpartyAccountId", "date"),
+                new IndexOptions().name("counterpartyAccountId_date").sparse(true));
+        ensureIndex("balanceSnapshots", Indexes.compoundIndex(Indexes.ascending("accountId"), Indexes.descending("asOf")),
+                new IndexOptions().name("accountId_asOf"));
+        ensureIndex("transactionSummaries", Indexes.ascending("from"),
+                new IndexOptions().name("from"));
+        ensureIndex("bankAgencies", Indexes.ascending("agencyId"),
+                new IndexOptions().name("agencyId"));
+        ensureIndex("bankAgencies", Indexes.geo2dsphere("location"),
+                new IndexOptions().name("location_2dsphere"));
+    }
+
+    private void ensureIndex(String collection, Bson keys, IndexOptions options) {
+        long start = System.nanoTime();
+        try {
+            database.getCollection(collection).createIndex(keys, options);
+        } catch (MongoCommandException e) {
+            if (e.getErrorCode() == INDEX_OPTIONS_CONFLICT || e.getErrorCode() == INDEX_KEY_SPECS_CONFLICT) {
+                throw new IllegalStateException("Conflicting definition for index " + options.getName()
+                        + " on " + collection + ": " + e.getErrorMessage(), e);
+            }
+            throw e;
+        }
+        System.out.printf("Index %s.%s ready in %d ms%n",
+                collection, options.getName(), (System.nanoTime() - start) / 1_000_000);
+    }
+}
@@ -0,0 +1,72 @@
+package com.acn3to.core.repositories.mongo;
+
+import com.acn3to.core.entities.BalanceSnapshot;
+import com.acn3to.core.repositories.SnapshotRepository;
+import com.acn3to.core.repositories.mongo.codecs.BankingCodecs;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.InsertManyOptions;
+
+import java.util.Date;
+import java.util.List;
+
+import static com.mongodb.client.model.Filters.and;
+import static com.mongodb.client.model.Filters.eq;
+import static com.mongodb.client.model.Filters.gte;
+import static com.mongodb.client.model.Filters.lt;
+import static com.mongodb.client.model.Filters.lte;
+import static com.mongodb.client.model.Sorts.descending;
+
+/**
+ * Repository class for managing account balance snapshots in a MongoDB collection.
+ * <p>
+ * Finding the latest snapshot of an account is a single seek on the {@code accountId_asOf} index.
+ * </p>
+ */
+public class MongoSnapshotRepository implements SnapshotRepository {
+    private static final InsertManyOptions UNORDERED = new InsertManyOptions().ordered(false);
+
+    private final MongoCollection<BalanceSnapshot> snapshotsCollection;
+
+    /**
+     * Constructs a MongoSnapshotRepository with a MongoDB connection.
+     *
+     * @param database the MongoDatabase instance to use
+     */
+    public MongoSnapshotRepository(MongoDatabase database) {
+        this.snapshotsCollection = database.getCollection("balanceSnapshots", BalanceSnapshot.class)
+                .withCodecRegistry(BankingCodecs.withEntityCodecs(database.getCodecRegistry()));
+    }
+
+    @Override
+    public void save(BalanceSnapshot snapshot) {
+        snapshotsCollection.insertOne(snapshot);
+    }
+
+    @Override
+    public void saveAll(List<BalanceSnapshot> snapshots) {
+        if (!snapshots.isEmpty()) {
+            snapshotsCollection.insertMany(snapshots, UNORDERED);
+        }
+    }
+
+    @Override
+    public BalanceSnapshot findLatest(int accountId, long asOfMillis) {
+        return snapshotsCollection.find(and(eq("accountId", accountId), lte("asOf", new Date(asOfMillis))))
+                .sort(descending("asOf"))
+                .first();
+    }
+
+    @Override
+    public BalanceSnapshot[] findOpeningSnapshots(int firstAccountId, int count) {
+        BalanceSnapshot[] openings = new BalanceSnapshot[count];
+        for (BalanceSnapshot snapshot : snapshotsCollection.find(and(gte("accountId", firstAccountId),
+                lt("accountId", firstAccountId + count), eq("transactionCount", 0L)))) {
+            int index = snapshot.accountId() - firstAccountId;
+            if (openings[index] == null || openings[index].asOfMillis() < snapshot.asOfMillis()) {
+                openings[index] = snapshot;
+            }
+        }
+        return openings;
+    }
+}
@@ -0,0 +1,46 @@
+package com.acn3to.core.repositories.mongo;
+
+import com.acn3to.core.analytics.AnalyticsSummary;
+import com.acn3to.core.repositories.SummaryRepository;
+import com.acn3to.core.repositories.mongo.codecs.BankingCodecs;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoDatabase;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import static com.mongodb.client.model.Filters.gte;
+import static com.mongodb.client.model.Sorts.ascending;
+
+/**
+ * Repository class for managing transaction statistics summaries in a MongoDB collection.
+ * <p>
+ * Reports over long periods read these pre-aggregated documents instead of scanning the transactions.
+ * </p>
+ */
+public class MongoSummaryRepository implements SummaryRepository {
+    private final MongoCollection<AnalyticsSummary> summariesCollection;
+
+    /**
+     * Constructs a MongoSummaryRepository with a MongoDB connection.
+     *
+     * @param database the MongoDatabase instance to use
+     */
+    public MongoSummaryRepository(MongoDatabase database) {
+        this.summariesCollection = database.getCollection("transactionSummaries", AnalyticsSummary.class)
+                .withCodecRegistry(BankingCodecs.withEntityCodecs(database.getCodecRegistry()));
+    }
+
+    @Override
+    public void save(AnalyticsSummary summary) {
+        summariesCollection.insertOne(summary);
+    }
+
+    @Override
+    public List<AnalyticsSummary> findSince(long fromMillis) {
+        return summariesCollection.find(gte("from", new Date(fromMillis)))
+                .sort(ascending("from"))
+                .into(new ArrayList<>());
+    }
+}
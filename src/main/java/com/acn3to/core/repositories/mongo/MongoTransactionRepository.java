@@ -0,0 +1,216 @@
+package com.acn3to.core.repositories.mongo;
+
+import com.acn3to.core.entities.Transaction;
+import com.acn3to.core.repositories.TransactionPage;
+import com.acn3to.core.repositories.TransactionRepository;
+import com.acn3to.core.repositories.mongo.codecs.BankingCodecs;
+import com.acn3to.core.utils.Money;
+import com.mongodb.ErrorCategory;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.MongoWriteException;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoCursor;
+import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.InsertManyOptions;
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.Codec;
+import org.bson.codecs.DecoderContext;
+import org.bson.conversions.Bson;
+import org.bson.types.Decimal128;
+import org.bson.types.ObjectId;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import static com.mongodb.client.model.Accumulators.sum;
+import static com.mongodb.client.model.Aggregates.group;
+import static com.mongodb.client.model.Aggregates.match;
+import static com.mongodb.client.model.Filters.and;
+import static com.mongodb.client.model.Filters.eq;
+import static com.mongodb.client.model.Filters.expr;
+import static com.mongodb.client.model.Filters.gt;
+import static com.mongodb.client.model.Filters.gte;
+import static com.mongodb.client.model.Filters.lt;
+import static com.mongodb.client.model.Filters.lte;
+import static com.mongodb.client.model.Filters.or;
+import static com.mongodb.client.model.Sorts.ascending;
+
+/**
+ * Repository class for managing transactions in a MongoDB collection.
+ * <p>
+ * This class provides methods for saving, finding, and retrieving transactions from the MongoDB collection.
+ * </p>
+ */
+public class MongoTransactionRepository implements TransactionRepository {
+    private static final InsertManyOptions UNORDERED = new InsertManyOptions().ordered(false);
+    // Deposits add their amount to the account's balance; withdrawals and transfers sent subtract it.
+    private static final Document SIGNED_AMOUNT = new Document("$cond", List.of(
+            new Document("$eq", List.of("$type", "Deposit")),
+            "$amount",
+            new Document("$multiply", List.of("$amount", -1))));
+
+    private final MongoCollection<Transaction> transactionsCollection;
+    private final MongoCollection<RawBsonDocument> rawTransactions;
+    private final Codec<Transaction> transactionCodec;
+
+    /**
+     * Constructs a MongoTransactionRepository with a MongoDB connection.
+     *
+     * @param database the MongoDatabase instance to use
+     */
+    public MongoTransactionRepository(MongoDatabase database) {
+        this.transactionsCollection = database.getCollection("transactions", Transaction.class)
+                .withCodecRegistry(BankingCodecs.withEntityCodecs(database.getCodecRegistry()));
+        this.rawTransactions = transactionsCollection.withDocumentClass(RawBsonDocument.class);
+        this.transactionCodec = transactionsCollection.getCodecRegistry().get(Transaction.class);
+    }
+
+    /**
+     * Inserts the transaction. A duplicate key error on a transaction with an ID means it was already inserted.
+     */
+    @Override
+    public void save(Transaction transaction) {
+        try {
+            transactionsCollection.insertOne(transaction);
+        } catch (MongoWriteException e) {
+            if (transaction.id() == null || e.getError().getCategory() != ErrorCategory.DUPLICATE_KEY) {
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Inserts the transactions with one unordered insertMany, which goes on past the documents that fail.
+     * If the only failures are duplicate keys, those transactions were inserted by an earlier attempt.
+     */
+    @Override
+    public void saveAll(List<Transaction> transactions) {
+        if (transactions.isEmpty()) {
+            return;
+        }
+        try {
+            transactionsCollection.insertMany(transactions, UNORDERED);
+        } catch (MongoBulkWriteException e) {
+            if (e.getWriteConcernError() != null) {
+                throw e;
+            }
+            for (BulkWriteError error : e.getWriteErrors()) {
+                if (ErrorCategory.fromErrorCode(error.getCode()) != ErrorCategory.DUPLICATE_KEY
+                        || transactions.get(error.getIndex()).id() == null) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    @Override
+    public Transaction findByAccountIdAndDate(int accountId, Date date) {
+        return transactionsCollection.find(and(eq("accountId", accountId), eq("date", date))).first();
+    }
+
+    @Override
+    public List<Transaction> findByAccountId(int accountId) {
+        return transactionsCollection.find(eq("accountId", accountId)).into(new ArrayList<>());
+    }
+
+    /**
+     * Finds a page ordered on {@code (date, _id)}, served by the accountId_date_id index. Documents are read
+     * raw so the {@code _id} of each one is available for the key without decoding it into a Document.
+     */
+    @Override
+    public TransactionPage findByAccountId(int accountId, TransactionPage.Key after, int limit) {
+        List<Transaction> transactions = new ArrayList<>(limit);
+        TransactionPage.Key next = after;
+        for (RawBsonDocument document : rawTransactions.find(pageFilter(accountId, after))
+                .sort(ascending("date", "_id"))
+                .limit(limit)) {
+            Transaction transaction = transactionCodec.decode(document.asBsonReader(), DecoderContext.builder().build());
+            transactions.add(transaction);
+            next = new TransactionPage.Key(transaction.date(), document.getObjectId("_id").getValue().toHexString());
+        }
+        return new TransactionPage(transactions, next);
+    }
+
+    /**
+     * Matches an account's transactions after a page key: a later date, or the same date and a greater ID.
+     *
+     * @param accountId the ID of the account
+     * @param after     the key of the previous page's last transaction, or null to match from the oldest
+     * @return the filter
+     */
+    static Bson pageFilter(int accountId, TransactionPage.Key after) {
+        if (after == null) {
+            return eq("accountId", accountId);
+        }
+        return and(eq("accountId", accountId), or(
+                gt("date", after.date()),
+                and(eq("date", after.date()), gt("_id", new ObjectId(after.id())))));
+    }
+
+    @Override
+    public Stream<Transaction> streamByAccountId(int accountId, int batchSize) {
+        return stream(eq("accountId", accountId), batchSize);
+    }
+
+    @Override
+    public Stream<Transaction> streamAffectingAccount(int accountId, Date afterDate, Date upToDate, int batchSize) {
+        return stream(and(or(eq("accountId", accountId), eq("counterpartyAccountId", accountId)),
+                gt("date", afterDate), lte("date", upToDate)), batchSize);
+    }
+
+    /**
+     * Sums the changes with two {@code $group} aggregations, one over the accounts' own transactions and one
+     * over the transfers they received, each answered from an index on the grouped field. The per-account start
+     * times are passed as one array, which each transaction's date is compared against by account ID.
+     */
+    @Override
+    public long[] sumBalanceChanges(int firstAccountId, int count, long[] afterMillis) {
+        long[] changes = new long[count];
+        int end = firstAccountId + count;
+        List<Date> afterDates = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            afterDates.add(new Date(afterMillis[i]));
+        }
+        addSums(changes, firstAccountId, List.of(
+                match(and(gte("accountId", firstAccountId), lt("accountId", end),
+                        datedAfter("$accountId", firstAccountId, afterDates))),
+                group("$accountId", sum("change", SIGNED_AMOUNT))));
+        addSums(changes, firstAccountId, List.of(
+                match(and(gte("counterpartyAccountId", firstAccountId), lt("counterpartyAccountId", end), eq("type", "Transfer"),
+                        datedAfter("$counterpartyAccountId", firstAccountId, afterDates))),
+                group("$counterpartyAccountId", sum("change", "$amount"))));
+        return changes;
+    }
+
+    // Matches transactions dated after the entry of afterDates at the given account ID field minus firstAccountId.
+    private static Bson datedAfter(String accountIdField, int firstAccountId, List<Date> afterDates) {
+        Document threshold = new Document("$arrayElemAt",
+                List.of(afterDates, new Document("$subtract", List.of(accountIdField, firstAccountId))));
+        return expr(new Document("$gt", List.of("$date", threshold)));
+    }
+
+    private void addSums(long[] changes, int firstAccountId, List<Bson> pipeline) {
+        for (Document group : transactionsCollection.aggregate(pipeline, Document.class)) {
+            Object change = group.get("change");
+            changes[group.getInteger("_id") - firstAccountId] += change instanceof Decimal128 decimal
+                    ? Money.ofUnits(decimal)
+                    : Money.ofUnits(((Number) change).doubleValue());
+        }
+    }
+
+    private Stream<Transaction> stream(Bson filter, int batchSize) {
+        MongoCursor<Transaction> cursor = transactionsCollection.find(filter)
+                .sort(ascending("date"))
+                .batchSize(batchSize)
+                .cursor();
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(cursor, Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .onClose(cursor::close);
+    }
+}
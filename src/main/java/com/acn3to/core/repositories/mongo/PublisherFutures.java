@@ -0,0 +1,122 @@
+package com.acn3to.core.repositories.mongo;
+
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Turns the Reactive Streams publishers of the reactive driver into {@link CompletableFuture}s.
+ * Subscribing is what starts the operation, so each method subscribes exactly once.
+ */
+final class PublisherFutures {
+
+    private PublisherFutures() {
+    }
+
+    /**
+     * Subscribes to a publisher and completes with its first element.
+     *
+     * @param publisher the publisher, typically of a single-result operation
+     * @param <T>       the element type
+     * @return a future completed with the first element, or with null if the publisher completes empty
+     */
+    static <T> CompletableFuture<T> first(Publisher<T> publisher) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        publisher.subscribe(new Subscriber<T>() {
+            private Subscription subscription;
+
+            @Override
+            public void onSubscribe(Subscription subscription) {
+                this.subscription = subscription;
+                subscription.request(1);
+            }
+
+            @Override
+            public void onNext(T element) {
+                future.complete(element);
+                subscription.cancel();
+            }
+
+            @Override
+            public void onError(Throwable error) {
+                future.completeExceptionally(error);
+            }
+
+            @Override
+            public void onComplete() {
+                future.complete(null);
+            }
+        });
+        return future;
+    }
+
+    /**
+     * Subscribes to a publisher and collects all of its elements.
+     *
+     * @param publisher the publisher
+     * @param <T>       the element type
+     * @return a future completed with the elements in the order they were published
+     */
+    static <T> CompletableFuture<List<T>> toList(Publisher<T> publisher) {
+        CompletableFuture<List<T>> future = new CompletableFuture<>();
+        publisher.subscribe(new Subscriber<T>() {
+            private final List<T> elements = new ArrayList<>();
+
+            @Override
+            public void onSubscribe(Subscription subscription) {
+                subscription.request(Long.MAX_VALUE);
+            }
+
+            @Override
+            public void onNext(T element) {
+                elements.add(element);
+            }
+
+            @Override
+            public void onError(Throwable error) {
+                future.completeExceptionally(error);
+            }
+
+            @Override
+            public void onComplete() {
+                future.complete(elements);
+            }
+        });
+        return future;
+    }
+
+    /**
+     * Subscribes to a publisher and completes when it does, ignoring its elements.
+     *
+     * @param publisher the publisher, typically of a write or a session command
+     * @return a future completed when the publisher completes
+     */
+    static CompletableFuture<Void> done(Publisher<?> publisher) {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        publisher.subscribe(new Subscriber<Object>() {
+            @Override
+            public void onSubscribe(Subscription subscription) {
+                subscription.request(Long.MAX_VALUE);
+            }
+
+            @Override
+            public void onNext(Object element) {
+            }
+
+            @Override
+            public void onError(Throwable error) {
+                future.completeExceptionally(error);
+            }
+
+            @Override
+            public void onComplete() {
+                future.complete(null);
+            }
+        });
+        return future;
+    }
+}
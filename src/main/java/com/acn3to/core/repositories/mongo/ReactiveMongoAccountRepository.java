@@ -0,0 +1,166 @@
+package com.acn3to.core.repositories.mongo;
+
+import com.acn3to.core.repositories.AsyncAccountRepository;
+import com.acn3to.core.utils.Money;
+import com.mongodb.MongoException;
+import com.mongodb.client.model.FindOneAndUpdateOptions;
+import com.mongodb.client.model.ReturnDocument;
+import com.mongodb.reactivestreams.client.ClientSession;
+import com.mongodb.reactivestreams.client.MongoClient;
+import com.mongodb.reactivestreams.client.MongoCollection;
+import com.mongodb.reactivestreams.client.MongoDatabase;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import static com.mongodb.client.model.Filters.and;
+import static com.mongodb.client.model.Filters.eq;
+import static com.mongodb.client.model.Filters.gte;
+import static com.mongodb.client.model.Projections.excludeId;
+import static com.mongodb.client.model.Projections.fields;
+import static com.mongodb.client.model.Projections.include;
+import static com.mongodb.client.model.Updates.combine;
+import static com.mongodb.client.model.Updates.currentDate;
+import static com.mongodb.client.model.Updates.inc;
+
+/**
+ * Non-blocking account balance operations on the MongoDB reactive-streams driver.
+ * <p>
+ * Issues the same server-side updates as {@link MongoAccountRepository}, against the same {@code accounts}
+ * collection, but never parks a thread on the socket: each call subscribes to the driver's publisher and
+ * completes its future from the driver's I/O threads.
+ * </p>
+ */
+public class ReactiveMongoAccountRepository implements AsyncAccountRepository {
+    private static final Bson BALANCE_ONLY = fields(include("balance"), excludeId());
+    private static final FindOneAndUpdateOptions RETURN_UPDATED_BALANCE = new FindOneAndUpdateOptions()
+            .returnDocument(ReturnDocument.AFTER)
+            .projection(BALANCE_ONLY);
+    // Matches the retry limit of the synchronous driver's ClientSession.withTransaction.
+    private static final long TRANSACTION_TIMEOUT_MILLIS = 120_000;
+
+    private final MongoClient mongoClient;
+    private final MongoCollection<Document> accountDocuments;
+
+    /**
+     * Constructs a ReactiveMongoAccountRepository.
+     *
+     * @param mongoClient the reactive client used to start sessions for multi-document transactions
+     * @param database    the reactive MongoDatabase instance to use
+     */
+    public ReactiveMongoAccountRepository(MongoClient mongoClient, MongoDatabase database) {
+        this.mongoClient = mongoClient;
+        this.accountDocuments = database.getCollection("accounts");
+    }
+
+    /**
+     * Finds the balance with a query covered by the accountId_balance index.
+     */
+    @Override
+    public CompletableFuture<Long> findBalance(int accountId) {
+        return PublisherFutures.first(accountDocuments.find(eq("accountId", accountId)).projection(BALANCE_ONLY).first())
+                .thenApply(ReactiveMongoAccountRepository::balanceOrMissing);
+    }
+
+    @Override
+    public CompletableFuture<Long> addToBalance(int accountId, long deltaCents) {
+        return updateBalance(eq("accountId", accountId), deltaCents);
+    }
+
+    @Override
+    public CompletableFuture<Long> withdrawFromBalance(int accountId, long amountCents) {
+        return updateBalance(and(eq("accountId", accountId), gte("balance", Money.toDecimal128(amountCents))), -amountCents);
+    }
+
+    /**
+     * Transfers money inside a multi-document transaction, so the debit and the credit commit together.
+     * The reactive driver has no {@code withTransaction}, so its retry rules are applied here: the whole
+     * transaction is retried on a transient transaction error and the commit alone when its outcome is
+     * unknown, until two minutes have passed. Transactions need the server to run as a replica set.
+     */
+    @Override
+    public CompletableFuture<Long> transfer(int fromAccountId, int toAccountId, long amountCents) {
+        if (amountCents <= 0) {
+            throw new IllegalArgumentException("Transfer amount must be positive: " + amountCents);
+        }
+        long deadline = System.currentTimeMillis() + TRANSACTION_TIMEOUT_MILLIS;
+        return PublisherFutures.first(mongoClient.startSession()).thenCompose(session ->
+                runTransfer(session, fromAccountId, toAccountId, amountCents, deadline)
+                        .whenComplete((balance, error) -> session.close()));
+    }
+
+    private CompletableFuture<Long> runTransfer(ClientSession session, int fromAccountId, int toAccountId,
+                                                long amountCents, long deadline) {
+        session.startTransaction();
+        return debitAndCredit(session, fromAccountId, toAccountId, amountCents)
+                .thenCompose(balance -> balance == Money.NO_BALANCE
+                        ? PublisherFutures.done(session.abortTransaction()).thenApply(ignored -> balance)
+                        : commit(session, deadline).thenApply(ignored -> balance))
+                .handle((balance, error) -> {
+                    if (error == null) {
+                        return CompletableFuture.completedFuture(balance);
+                    }
+                    CompletableFuture<Void> aborted = session.hasActiveTransaction()
+                            ? PublisherFutures.done(session.abortTransaction()).exceptionally(ignored -> null)
+                            : CompletableFuture.completedFuture(null);
+                    if (hasLabel(error, MongoException.TRANSIENT_TRANSACTION_ERROR_LABEL)
+                            && System.currentTimeMillis() < deadline) {
+                        return aborted.thenCompose(ignored ->
+                                runTransfer(session, fromAccountId, toAccountId, amountCents, deadline));
+                    }
+                    return aborted.<Long>thenCompose(ignored -> CompletableFuture.failedFuture(unwrap(error)));
+                })
+                .thenCompose(result -> result);
+    }
+
+    // Completes with the source's new balance, or NO_BALANCE if either side cannot be applied.
+    private CompletableFuture<Long> debitAndCredit(ClientSession session, int fromAccountId, int toAccountId,
+                                                   long amountCents) {
+        return PublisherFutures.first(accountDocuments.findOneAndUpdate(session,
+                        and(eq("accountId", fromAccountId), gte("balance", Money.toDecimal128(amountCents))),
+                        balanceUpdate(-amountCents), RETURN_UPDATED_BALANCE))
+                .thenCompose(source -> source == null
+                        ? CompletableFuture.completedFuture(Money.NO_BALANCE)
+                        : PublisherFutures.first(accountDocuments.findOneAndUpdate(session,
+                                        eq("accountId", toAccountId), balanceUpdate(amountCents), RETURN_UPDATED_BALANCE))
+                                .thenApply(target -> target != null ? MongoAccountRepository.balanceOf(source) : Money.NO_BALANCE));
+    }
+
+    private CompletableFuture<Void> commit(ClientSession session, long deadline) {
+        return PublisherFutures.done(session.commitTransaction())
+                .handle((ignored, error) -> {
+                    if (error == null) {
+                        return CompletableFuture.<Void>completedFuture(null);
+                    }
+                    if (hasLabel(error, MongoException.UNKNOWN_TRANSACTION_COMMIT_RESULT_LABEL)
+                            && System.currentTimeMillis() < deadline) {
+                        return commit(session, deadline);
+                    }
+                    return CompletableFuture.<Void>failedFuture(unwrap(error));
+                })
+                .thenCompose(result -> result);
+    }
+
+    private CompletableFuture<Long> updateBalance(Bson filter, long deltaCents) {
+        return PublisherFutures.first(accountDocuments.findOneAndUpdate(filter, balanceUpdate(deltaCents), RETURN_UPDATED_BALANCE))
+                .thenApply(ReactiveMongoAccountRepository::balanceOrMissing);
+    }
+
+    private static long balanceOrMissing(Document document) {
+        return document != null ? MongoAccountRepository.balanceOf(document) : Money.NO_BALANCE;
+    }
+
+    private static Bson balanceUpdate(long deltaCents) {
+        return combine(inc("balance", Money.toDecimal128(deltaCents)), currentDate("lastUpdatedDate"));
+    }
+
+    private static boolean hasLabel(Throwable error, String label) {
+        return unwrap(error) instanceof MongoException mongoError && mongoError.hasErrorLabel(label);
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    }
+}
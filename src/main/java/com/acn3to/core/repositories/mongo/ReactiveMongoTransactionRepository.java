@@ -0,0 +1,72 @@
+package com.acn3to.core.repositories.mongo;
+
+import com.acn3to.core.entities.Transaction;
+import com.acn3to.core.repositories.AsyncTransactionRepository;
+import com.acn3to.core.repositories.TransactionPage;
+import com.acn3to.core.repositories.mongo.codecs.BankingCodecs;
+import com.mongodb.client.model.InsertManyOptions;
+import com.mongodb.reactivestreams.client.MongoCollection;
+import com.mongodb.reactivestreams.client.MongoDatabase;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.Codec;
+import org.bson.codecs.DecoderContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static com.mongodb.client.model.Sorts.ascending;
+
+/**
+ * Non-blocking transaction storage on the MongoDB reactive-streams driver, writing the same {@code transactions}
+ * collection and documents as {@link MongoTransactionRepository}.
+ */
+public class ReactiveMongoTransactionRepository implements AsyncTransactionRepository {
+    private static final InsertManyOptions UNORDERED = new InsertManyOptions().ordered(false);
+
+    private final MongoCollection<Transaction> transactionsCollection;
+    private final MongoCollection<RawBsonDocument> rawTransactions;
+    private final Codec<Transaction> transactionCodec;
+
+    /**
+     * Constructs a ReactiveMongoTransactionRepository.
+     *
+     * @param database the reactive MongoDatabase instance to use
+     */
+    public ReactiveMongoTransactionRepository(MongoDatabase database) {
+        this.transactionsCollection = database.getCollection("transactions", Transaction.class)
+                .withCodecRegistry(BankingCodecs.withEntityCodecs(database.getCodecRegistry()));
+        this.rawTransactions = transactionsCollection.withDocumentClass(RawBsonDocument.class);
+        this.transactionCodec = transactionsCollection.getCodecRegistry().get(Transaction.class);
+    }
+
+    @Override
+    public CompletableFuture<Void> save(Transaction transaction) {
+        return PublisherFutures.done(transactionsCollection.insertOne(transaction));
+    }
+
+    @Override
+    public CompletableFuture<Void> saveAll(List<Transaction> transactions) {
+        if (transactions.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return PublisherFutures.done(transactionsCollection.insertMany(transactions, UNORDERED));
+    }
+
+    @Override
+    public CompletableFuture<TransactionPage> findByAccountId(int accountId, TransactionPage.Key after, int limit) {
+        return PublisherFutures.toList(rawTransactions.find(MongoTransactionRepository.pageFilter(accountId, after))
+                        .sort(ascending("date", "_id"))
+                        .limit(limit))
+                .thenApply(documents -> {
+                    List<Transaction> transactions = new ArrayList<>(documents.size());
+                    TransactionPage.Key next = after;
+                    for (RawBsonDocument document : documents) {
+                        Transaction transaction = transactionCodec.decode(document.asBsonReader(), DecoderContext.builder().build());
+                        transactions.add(transaction);
+                        next = new TransactionPage.Key(transaction.date(), document.getObjectId("_id").getValue().toHexString());
+                    }
+                    return new TransactionPage(transactions, next);
+                });
+    }
+}
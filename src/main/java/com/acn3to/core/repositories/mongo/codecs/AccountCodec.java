@@ -0,0 +1,59 @@
+package com.acn3to.core.repositories.mongo.codecs;
+
+import com.acn3to.core.entities.Account;
+import org.bson.BsonReader;
+import org.bson.BsonType;
+import org.bson.BsonWriter;
+import org.bson.codecs.Codec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+
+/**
+ * Encodes and decodes {@link Account} directly to and from BSON, without an intermediate Document.
+ */
+public class AccountCodec implements Codec<Account> {
+
+    @Override
+    public void encode(BsonWriter writer, Account account, EncoderContext encoderContext) {
+        writer.writeStartDocument();
+        writer.writeInt32("accountId", account.getAccountId());
+        BsonFields.writeString(writer, "accountHolderName", account.getAccountHolderName());
+        BsonFields.writeString(writer, "accountType", account.getAccountType());
+        BsonFields.writeString(writer, "accountStatus", account.getAccountStatus());
+        BsonFields.writeMillis(writer, "creationDate", account.getCreationMillis());
+        BsonFields.writeMillis(writer, "lastUpdatedDate", account.getLastUpdatedMillis());
+        BsonFields.writeMoney(writer, "balance", account.getBalanceCents());
+        writer.writeEndDocument();
+    }
+
+    @Override
+    public Account decode(BsonReader reader, DecoderContext decoderContext) {
+        int accountId = 0;
+        String accountHolderName = null;
+        String accountType = null;
+        String accountStatus = null;
+        long creationMillis = Account.NO_TIMESTAMP;
+        long balanceCents = 0;
+
+        reader.readStartDocument();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            switch (reader.readName()) {
+                case "accountId" -> accountId = reader.readInt32();
+                case "accountHolderName" -> accountHolderName = BsonFields.readString(reader);
+                case "accountType" -> accountType = BsonFields.readString(reader);
+                case "accountStatus" -> accountStatus = BsonFields.readString(reader);
+                case "creationDate" -> creationMillis = BsonFields.readMillis(reader);
+                case "balance" -> balanceCents = BsonFields.readMoney(reader);
+                default -> reader.skipValue();
+            }
+        }
+        reader.readEndDocument();
+
+        return new Account(balanceCents, accountId, accountHolderName, accountType, accountStatus, creationMillis);
+    }
+
+    @Override
+    public Class<Account> getEncoderClass() {
+        return Account.class;
+    }
+}
@@ -0,0 +1,133 @@
+package com.acn3to.core.repositories.mongo.codecs;
+
+import com.acn3to.core.analytics.AnalyticsSummary;
+import org.bson.BsonReader;
+import org.bson.BsonType;
+import org.bson.BsonWriter;
+import org.bson.codecs.Codec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Encodes and decodes {@link AnalyticsSummary} directly to and from BSON, with the type statistics and the most
+ * active accounts as arrays of embedded documents.
+ */
+public class AnalyticsSummaryCodec implements Codec<AnalyticsSummary> {
+
+    @Override
+    public void encode(BsonWriter writer, AnalyticsSummary summary, EncoderContext encoderContext) {
+        writer.writeStartDocument();
+        writer.writeDateTime("from", summary.fromMillis());
+        writer.writeDateTime("to", summary.toMillis());
+        writer.writeStartArray("types");
+        for (AnalyticsSummary.TypeSummary type : summary.types()) {
+            writer.writeStartDocument();
+            BsonFields.writeString(writer, "type", type.type());
+            writer.writeInt64("count", type.count());
+            writer.writeInt64("failures", type.failures());
+            BsonFields.writeMoney(writer, "sum", type.sumCents());
+            BsonFields.writeMoney(writer, "min", type.minCents());
+            BsonFields.writeMoney(writer, "max", type.maxCents());
+            BsonFields.writeMoney(writer, "p50", type.p50Cents());
+            BsonFields.writeMoney(writer, "p90", type.p90Cents());
+            BsonFields.writeMoney(writer, "p99", type.p99Cents());
+            writer.writeEndDocument();
+        }
+        writer.writeEndArray();
+        writer.writeStartArray("topAccounts");
+        for (AnalyticsSummary.AccountActivity account : summary.topAccounts()) {
+            writer.writeStartDocument();
+            writer.writeInt32("accountId", account.accountId());
+            writer.writeInt64("estimatedCount", account.estimatedCount());
+            writer.writeEndDocument();
+        }
+        writer.writeEndArray();
+        writer.writeEndDocument();
+    }
+
+    @Override
+    public AnalyticsSummary decode(BsonReader reader, DecoderContext decoderContext) {
+        long fromMillis = 0;
+        long toMillis = 0;
+        List<AnalyticsSummary.TypeSummary> types = new ArrayList<>();
+        List<AnalyticsSummary.AccountActivity> topAccounts = new ArrayList<>();
+
+        reader.readStartDocument();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            switch (reader.readName()) {
+                case "from" -> fromMillis = reader.readDateTime();
+                case "to" -> toMillis = reader.readDateTime();
+                case "types" -> {
+                    reader.readStartArray();
+                    while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+                        types.add(decodeType(reader));
+                    }
+                    reader.readEndArray();
+                }
+                case "topAccounts" -> {
+                    reader.readStartArray();
+                    while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+                        topAccounts.add(decodeAccount(reader));
+                    }
+                    reader.readEndArray();
+                }
+                default -> reader.skipValue();
+            }
+        }
+        reader.readEndDocument();
+
+        return new AnalyticsSummary(fromMillis, toMillis, types, topAccounts);
+    }
+
+    @Override
+    public Class<AnalyticsSummary> getEncoderClass() {
+        return AnalyticsSummary.class;
+    }
+
+    private static AnalyticsSummary.TypeSummary decodeType(BsonReader reader) {
+        String type = null;
+        long count = 0;
+        long failures = 0;
+        long sum = 0;
+        long min = 0;
+        long max = 0;
+        long p50 = 0;
+        long p90 = 0;
+        long p99 = 0;
+        reader.readStartDocument();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            switch (reader.readName()) {
+                case "type" -> type = BsonFields.readString(reader);
+                case "count" -> count = reader.readInt64();
+                case "failures" -> failures = reader.readInt64();
+                case "sum" -> sum = BsonFields.readMoney(reader);
+                case "min" -> min = BsonFields.readMoney(reader);
+                case "max" -> max = BsonFields.readMoney(reader);
+                case "p50" -> p50 = BsonFields.readMoney(reader);
+                case "p90" -> p90 = BsonFields.readMoney(reader);
+                case "p99" -> p99 = BsonFields.readMoney(reader);
+                default -> reader.skipValue();
+            }
+        }
+        reader.readEndDocument();
+        return new AnalyticsSummary.TypeSummary(type, count, failures, sum, min, max, p50, p90, p99);
+    }
+
+    private static AnalyticsSummary.AccountActivity decodeAccount(BsonReader reader) {
+        int accountId = 0;
+        long estimatedCount = 0;
+        reader.readStartDocument();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            switch (reader.readName()) {
+                case "accountId" -> accountId = reader.readInt32();
+                case "estimatedCount" -> estimatedCount = reader.readInt64();
+                default -> reader.skipValue();
+            }
+        }
+        reader.readEndDocument();
+        return new AnalyticsSummary.AccountActivity(accountId, estimatedCount);
+    }
+}
@@ -0,0 +1,52 @@
+package com.acn3to.core.repositories.mongo.codecs;
+
+import com.acn3to.core.entities.BalanceSnapshot;
+import org.bson.BsonReader;
+import org.bson.BsonType;
+import org.bson.BsonWriter;
+import org.bson.codecs.Codec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+
+/**
+ * Encodes and decodes {@link BalanceSnapshot} directly to and from BSON, without an intermediate Document.
+ */
+public class BalanceSnapshotCodec implements Codec<BalanceSnapshot> {
+
+    @Override
+    public void encode(BsonWriter writer, BalanceSnapshot snapshot, EncoderContext encoderContext) {
+        writer.writeStartDocument();
+        writer.writeInt32("accountId", snapshot.accountId());
+        writer.writeDateTime("asOf", snapshot.asOfMillis());
+        BsonFields.writeMoney(writer, "balance", snapshot.balanceCents());
+        writer.writeInt64("transactionCount", snapshot.transactionCount());
+        writer.writeEndDocument();
+    }
+
+    @Override
+    public BalanceSnapshot decode(BsonReader reader, DecoderContext decoderContext) {
+        int accountId = 0;
+        long asOfMillis = 0;
+        long balanceCents = 0;
+        long transactionCount = 0;
+
+        reader.readStartDocument();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            switch (reader.readName()) {
+                case "accountId" -> accountId = reader.readInt32();
+                case "asOf" -> asOfMillis = reader.readDateTime();
+                case "balance" -> balanceCents = BsonFields.readMoney(reader);
+                case "transactionCount" -> transactionCount = reader.readInt64();
+                default -> reader.skipValue();
+            }
+        }
+        reader.readEndDocument();
+
+        return new BalanceSnapshot(accountId, asOfMillis, balanceCents, transactionCount);
+    }
+
+    @Override
+    public Class<BalanceSnapshot> getEncoderClass() {
+        return BalanceSnapshot.class;
+    }
+}
@@ -0,0 +1,77 @@
+package com.acn3to.core.repositories.mongo.codecs;
+
+import com.acn3to.core.entities.BankAgency;
+import org.bson.BsonReader;
+import org.bson.BsonType;
+import org.bson.BsonWriter;
+import org.bson.codecs.Codec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+
+import java.util.Date;
+
+/**
+ * Encodes and decodes {@link BankAgency} directly to and from BSON, without an intermediate Document.
+ * <p>
+ * Besides the plain latitude and longitude fields, the coordinates are written as a GeoJSON point in
+ * {@code location}, which the {@code 2dsphere} index and {@code $near} queries work on.
+ * </p>
+ */
+public class BankAgencyCodec implements Codec<BankAgency> {
+
+    @Override
+    public void encode(BsonWriter writer, BankAgency agency, EncoderContext encoderContext) {
+        writer.writeStartDocument();
+        BsonFields.writeString(writer, "agencyId", agency.getAgencyId());
+        writer.writeDouble("latitude", agency.getLatitude());
+        writer.writeDouble("longitude", agency.getLongitude());
+        writer.writeStartDocument("location");
+        writer.writeString("type", "Point");
+        writer.writeStartArray("coordinates");
+        writer.writeDouble(agency.getLongitude());
+        writer.writeDouble(agency.getLatitude());
+        writer.writeEndArray();
+        writer.writeEndDocument();
+        BsonFields.writeString(writer, "address", agency.getAddress());
+        BsonFields.writeString(writer, "phoneNumber", agency.getPhoneNumber());
+        BsonFields.writeString(writer, "managerName", agency.getManagerName());
+        BsonFields.writeDate(writer, "openingDate", agency.getOpeningDate());
+        BsonFields.writeString(writer, "status", agency.getStatus());
+        writer.writeEndDocument();
+    }
+
+    @Override
+    public BankAgency decode(BsonReader reader, DecoderContext decoderContext) {
+        String agencyId = null;
+        double latitude = 0;
+        double longitude = 0;
+        String address = null;
+        String phoneNumber = null;
+        String managerName = null;
+        Date openingDate = null;
+        String status = null;
+
+        reader.readStartDocument();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            switch (reader.readName()) {
+                case "agencyId" -> agencyId = BsonFields.readString(reader);
+                case "latitude" -> latitude = BsonFields.readDouble(reader);
+                case "longitude" -> longitude = BsonFields.readDouble(reader);
+                case "address" -> address = BsonFields.readString(reader);
+                case "phoneNumber" -> phoneNumber = BsonFields.readString(reader);
+                case "managerName" -> managerName = BsonFields.readString(reader);
+                case "openingDate" -> openingDate = BsonFields.readDate(reader);
+                case "status" -> status = BsonFields.readString(reader);
+                default -> reader.skipValue();
+            }
+        }
+        reader.readEndDocument();
+
+        return new BankAgency(agencyId, latitude, longitude, address, phoneNumber, managerName, openingDate, status);
+    }
+
+    @Override
+    public Class<BankAgency> getEncoderClass() {
+        return BankAgency.class;
+    }
+}
@@ -0,0 +1,28 @@
+package com.acn3to.core.repositories.mongo.codecs;
+
+import org.bson.codecs.configuration.CodecRegistries;
+import org.bson.codecs.configuration.CodecRegistry;
+
+/**
+ * Builds the codec registry used by the MongoDB repositories.
+ */
+public final class BankingCodecs {
+
+    private BankingCodecs() {
+    }
+
+    /**
+     * Returns a registry that resolves the entity codecs first and falls back to the given registry
+     * for everything else, such as the values used in filters and updates.
+     *
+     * @param defaults the registry to fall back to, normally the database's own
+     * @return the combined registry
+     */
+    public static CodecRegistry withEntityCodecs(CodecRegistry defaults) {
+        return CodecRegistries.fromRegistries(
+                CodecRegistries.fromCodecs(new AccountCodec(), new TransactionCodec(), new BankAgencyCodec(),
+                        new BalanceSnapshotCodec(), new AnalyticsSummaryCodec()),
+                defaults
+        );
+    }
+}
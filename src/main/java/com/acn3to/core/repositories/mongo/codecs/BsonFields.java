@@ -0,0 +1,98 @@
+package com.acn3to.core.repositories.mongo.codecs;
+
+import com.acn3to.core.entities.Account;
+import com.acn3to.core.utils.Money;
+import org.bson.BsonReader;
+import org.bson.BsonType;
+import org.bson.BsonWriter;
+
+import java.util.Date;
+
+/**
+ * Null-tolerant helpers shared by the entity codecs.
+ */
+final class BsonFields {
+
+    private BsonFields() {
+    }
+
+    static void writeString(BsonWriter writer, String name, String value) {
+        if (value == null) {
+            writer.writeNull(name);
+        } else {
+            writer.writeString(name, value);
+        }
+    }
+
+    static void writeDate(BsonWriter writer, String name, Date value) {
+        if (value == null) {
+            writer.writeNull(name);
+        } else {
+            writer.writeDateTime(name, value.getTime());
+        }
+    }
+
+    static void writeMillis(BsonWriter writer, String name, long millis) {
+        if (millis == Account.NO_TIMESTAMP) {
+            writer.writeNull(name);
+        } else {
+            writer.writeDateTime(name, millis);
+        }
+    }
+
+    static String readString(BsonReader reader) {
+        if (reader.getCurrentBsonType() == BsonType.NULL) {
+            reader.readNull();
+            return null;
+        }
+        return reader.readString();
+    }
+
+    static Date readDate(BsonReader reader) {
+        if (reader.getCurrentBsonType() == BsonType.NULL) {
+            reader.readNull();
+            return null;
+        }
+        return new Date(reader.readDateTime());
+    }
+
+    static long readMillis(BsonReader reader) {
+        if (reader.getCurrentBsonType() == BsonType.NULL) {
+            reader.readNull();
+            return Account.NO_TIMESTAMP;
+        }
+        return reader.readDateTime();
+    }
+
+    /**
+     * Reads a numeric field as a double, whichever numeric BSON type it was stored with.
+     */
+    static double readDouble(BsonReader reader) {
+        return switch (reader.getCurrentBsonType()) {
+            case INT32 -> reader.readInt32();
+            case INT64 -> reader.readInt64();
+            case DECIMAL128 -> reader.readDecimal128().doubleValue();
+            default -> reader.readDouble();
+        };
+    }
+
+    /**
+     * Writes an amount in cents as a Decimal128 in currency units with two decimal places.
+     */
+    static void writeMoney(BsonWriter writer, String name, long cents) {
+        writer.writeDecimal128(name, Money.toDecimal128(cents));
+    }
+
+    /**
+     * Reads an amount in currency units as cents. Decimal128 values are exact; doubles and integers written by
+     * earlier versions are rounded to the nearest cent.
+     */
+    static long readMoney(BsonReader reader) {
+        return switch (reader.getCurrentBsonType()) {
+            case DECIMAL128 -> Money.ofUnits(reader.readDecimal128());
+            case INT32 -> reader.readInt32() * 100L;
+            case INT64 -> Math.multiplyExact(reader.readInt64(), 100L);
+            default -> Money.ofUnits(reader.readDouble());
+        };
+    }
+}
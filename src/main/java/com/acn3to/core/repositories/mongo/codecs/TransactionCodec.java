@@ -0,0 +1,76 @@
+package com.acn3to.core.repositories.mongo.codecs;
+
+import com.acn3to.core.entities.Transaction;
+import org.bson.BsonReader;
+import org.bson.BsonType;
+import org.bson.BsonWriter;
+import org.bson.codecs.Codec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+import org.bson.types.ObjectId;
+
+import java.util.Date;
+
+/**
+ * Encodes and decodes {@link Transaction} directly to and from BSON, without an intermediate Document.
+ * A transaction ID is the hex string of the document's ObjectId {@code _id}.
+ */
+public class TransactionCodec implements Codec<Transaction> {
+
+    @Override
+    public void encode(BsonWriter writer, Transaction transaction, EncoderContext encoderContext) {
+        writer.writeStartDocument();
+        if (transaction.id() != null) {
+            writer.writeObjectId("_id", new ObjectId(transaction.id()));
+        }
+        writer.writeInt32("accountId", transaction.accountId());
+        BsonFields.writeDate(writer, "date", transaction.date());
+        BsonFields.writeString(writer, "type", transaction.type());
+        BsonFields.writeMoney(writer, "amount", transaction.amountCents());
+        BsonFields.writeMoney(writer, "balanceAfterTransaction", transaction.balanceAfterTransactionCents());
+        if (transaction.counterpartyAccountId() != 0) {
+            writer.writeInt32("counterpartyAccountId", transaction.counterpartyAccountId());
+        }
+        writer.writeEndDocument();
+    }
+
+    @Override
+    public Transaction decode(BsonReader reader, DecoderContext decoderContext) {
+        int accountId = 0;
+        Date date = null;
+        String type = null;
+        long amountCents = 0;
+        long balanceAfterTransactionCents = 0;
+        int counterpartyAccountId = 0;
+        String id = null;
+
+        reader.readStartDocument();
+        BsonType bsonType;
+        while ((bsonType = reader.readBsonType()) != BsonType.END_OF_DOCUMENT) {
+            switch (reader.readName()) {
+                case "_id" -> {
+                    if (bsonType == BsonType.OBJECT_ID) {
+                        id = reader.readObjectId().toHexString();
+                    } else {
+                        reader.skipValue();
+                    }
+                }
+                case "accountId" -> accountId = reader.readInt32();
+                case "date" -> date = BsonFields.readDate(reader);
+                case "type" -> type = BsonFields.readString(reader);
+                case "amount" -> amountCents = BsonFields.readMoney(reader);
+                case "balanceAfterTransaction" -> balanceAfterTransactionCents = BsonFields.readMoney(reader);
+                case "counterpartyAccountId" -> counterpartyAccountId = reader.readInt32();
+                default -> reader.skipValue();
+            }
+        }
+        reader.readEndDocument();
+
+        return new Transaction(accountId, date, type, amountCents, balanceAfterTransactionCents, counterpartyAccountId, id);
+    }
+
+    @Override
+    public Class<Transaction> getEncoderClass() {
+        return Transaction.class;
+    }
+}
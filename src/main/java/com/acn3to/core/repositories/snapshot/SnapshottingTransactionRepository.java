@@ -0,0 +1,214 @@
+package com.acn3to.core.repositories.snapshot;
+
+import com.acn3to.core.entities.BalanceSnapshot;
+import com.acn3to.core.entities.Transaction;
+import com.acn3to.core.metrics.Counter;
+import com.acn3to.core.metrics.MetricsRegistry;
+import com.acn3to.core.metrics.Timer;
+import com.acn3to.core.repositories.SnapshotRepository;
+import com.acn3to.core.repositories.TransactionPage;
+import com.acn3to.core.repositories.TransactionRepository;
+
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * Transaction repository decorator that takes a new balance snapshot of an account every few transactions.
+ * <p>
+ * Saves are counted per account, including the receiving account of transfers. Once an account has had
+ * {@code interval} transactions since it was last queued, a background thread snapshots it by applying the
+ * transactions since its previous snapshot, so replaying a balance never has to read much more than one
+ * interval of history. Each snapshot only takes in transactions older than the settle delay, which must be
+ * longer than transactions can take between being dated and being saved, e.g. while buffered by a logger.
+ * </p>
+ * <p>
+ * Snapshots build on the opening snapshot written when an account is created; accounts without one are
+ * skipped. Counts are kept in memory only, so after a restart an account is next snapshotted after another
+ * interval of transactions.
+ * </p>
+ */
+public class SnapshottingTransactionRepository implements TransactionRepository, AutoCloseable {
+    public static final long DEFAULT_SETTLE_MILLIS = 1000;
+
+    private static final long IDLE_WAIT_MILLIS = 100;
+    private static final int TAIL_BATCH_SIZE = 1000;
+
+    private final TransactionRepository delegate;
+    private final SnapshotRepository snapshotRepository;
+    private final int interval;
+    private final long settleMillis;
+    private final ConcurrentHashMap<Integer, AtomicInteger> pendingByAccount = new ConcurrentHashMap<>();
+    private final LinkedBlockingQueue<Integer> dueAccounts = new LinkedBlockingQueue<>();
+    private final Thread snapshotter;
+    private final Timer snapshotTimer;
+    private final Counter takenCounter;
+    private final Counter skippedCounter;
+    private final Counter failedCounter;
+
+    private volatile boolean closing;
+
+    /**
+     * Constructs a SnapshottingTransactionRepository and starts its snapshot thread.
+     *
+     * @param delegate           the repository that stores the transactions and replays their history
+     * @param snapshotRepository the repository the snapshots are stored in
+     * @param interval           the number of transactions of an account between two of its snapshots
+     * @param settleMillis       how old a transaction must be before a snapshot takes it in
+     * @param registry           the registry the snapshot metrics are recorded in
+     * @throws IllegalArgumentException if the interval is not positive
+     */
+    public SnapshottingTransactionRepository(TransactionRepository delegate, SnapshotRepository snapshotRepository,
+                                             int interval, long settleMillis, MetricsRegistry registry) {
+        if (interval <= 0) {
+            throw new IllegalArgumentException("Snapshot interval must be positive: " + interval);
+        }
+        this.delegate = delegate;
+        this.snapshotRepository = snapshotRepository;
+        this.interval = interval;
+        this.settleMillis = settleMillis;
+        this.snapshotTimer = registry.timer("banking_snapshot_seconds", "Time to take a balance snapshot of an account.");
+        this.takenCounter = registry.counter("banking_snapshots_taken_total", "Balance snapshots saved.");
+        this.skippedCounter = registry.counter("banking_snapshots_skipped_total",
+                "Balance snapshots not taken because the account has no opening snapshot.");
+        this.failedCounter = registry.counter("banking_snapshot_failures_total", "Balance snapshots that failed.");
+        registry.gauge("banking_snapshot_queue_depth", "Accounts waiting for a balance snapshot.", dueAccounts::size);
+        this.snapshotter = new Thread(this::run, "BalanceSnapshotter");
+        this.snapshotter.setDaemon(true);
+        this.snapshotter.start();
+    }
+
+    @Override
+    public void save(Transaction transaction) {
+        delegate.save(transaction);
+        count(transaction);
+    }
+
+    @Override
+    public void saveAll(List<Transaction> transactions) {
+        delegate.saveAll(transactions);
+        for (Transaction transaction : transactions) {
+            count(transaction);
+        }
+    }
+
+    @Override
+    public Transaction findByAccountIdAndDate(int accountId, Date date) {
+        return delegate.findByAccountIdAndDate(accountId, date);
+    }
+
+    @Override
+    public List<Transaction> findByAccountId(int accountId) {
+        return delegate.findByAccountId(accountId);
+    }
+
+    @Override
+    public TransactionPage findByAccountId(int accountId, TransactionPage.Key after, int limit) {
+        return delegate.findByAccountId(accountId, after, limit);
+    }
+
+    @Override
+    public Stream<Transaction> streamByAccountId(int accountId, int batchSize) {
+        return delegate.streamByAccountId(accountId, batchSize);
+    }
+
+    @Override
+    public Stream<Transaction> streamAffectingAccount(int accountId, Date afterDate, Date upToDate, int batchSize) {
+        return delegate.streamAffectingAccount(accountId, afterDate, upToDate, batchSize);
+    }
+
+    @Override
+    public long[] sumBalanceChanges(int firstAccountId, int count, long[] afterMillis) {
+        return delegate.sumBalanceChanges(firstAccountId, count, afterMillis);
+    }
+
+    /**
+     * Takes a snapshot of an account from its latest earlier snapshot and the transactions since.
+     *
+     * @param accountId  the ID of the account
+     * @param asOfMillis the time of the snapshot, in epoch milliseconds; transactions dated later are left out
+     * @return the new snapshot, the latest earlier snapshot if no transaction followed it, or null if the
+     *         account has no earlier snapshot
+     */
+    public BalanceSnapshot takeSnapshot(int accountId, long asOfMillis) {
+        long start = System.nanoTime();
+        BalanceSnapshot previous = snapshotRepository.findLatest(accountId, asOfMillis);
+        if (previous == null) {
+            skippedCounter.increment();
+            return null;
+        }
+        if (previous.asOfMillis() == asOfMillis) {
+            return previous;
+        }
+        BalanceSnapshot snapshot;
+        try (Stream<Transaction> tail = delegate.streamAffectingAccount(accountId, new Date(previous.asOfMillis()),
+                new Date(asOfMillis), TAIL_BATCH_SIZE)) {
+            snapshot = previous.advance(asOfMillis, tail);
+        }
+        if (snapshot.transactionCount() == previous.transactionCount()) {
+            return previous;
+        }
+        snapshotRepository.save(snapshot);
+        takenCounter.increment();
+        snapshotTimer.recordSince(start);
+        return snapshot;
+    }
+
+    /**
+     * Snapshots the accounts already due, then stops the snapshot thread.
+     */
+    @Override
+    public void close() {
+        closing = true;
+        try {
+            snapshotter.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void count(Transaction transaction) {
+        countFor(transaction.accountId());
+        if (transaction.counterpartyAccountId() > 0) {
+            countFor(transaction.counterpartyAccountId());
+        }
+    }
+
+    private void countFor(int accountId) {
+        AtomicInteger pending = pendingByAccount.computeIfAbsent(accountId, id -> new AtomicInteger());
+        // Exactly one caller sees the count reach the interval, so an account is queued once per interval.
+        if (pending.incrementAndGet() == interval) {
+            pending.addAndGet(-interval);
+            dueAccounts.offer(accountId);
+        }
+    }
+
+    private void run() {
+        while (true) {
+            Integer accountId;
+            try {
+                accountId = dueAccounts.poll(IDLE_WAIT_MILLIS, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (accountId == null) {
+                if (closing) {
+                    return;
+                }
+                continue;
+            }
+            try {
+                takeSnapshot(accountId, System.currentTimeMillis() - settleMillis);
+            } catch (RuntimeException e) {
+                // The account is queued again after its next interval of transactions.
+                e.printStackTrace();
+                failedCounter.increment();
+            }
+        }
+    }
+}
@@ -0,0 +1,283 @@
+package com.acn3to.core.services;
+
+import com.acn3to.core.entities.Account;
+import com.acn3to.core.metrics.MetricsRegistry;
+import com.acn3to.core.repositories.AccountRepository;
+import com.acn3to.core.utils.Money;
+import com.acn3to.core.utils.StripedLock;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Keeps account balances in memory and writes them back to the repository periodically.
+ * <p>
+ * Accounts are loaded once from the repository. Balances live in a primitive array of cents indexed by account ID
+ * and are updated atomically, so reads and updates never touch the database. Every update marks
+ * its account dirty; a checkpoint writes the current balance of each dirty account with one bulkWrite,
+ * so the database sees at most one write per account per checkpoint however many updates happened.
+ * A checkpoint copies the dirty balances while holding every transfer stripe, so it never sees the debit of a
+ * transfer without its credit; the write happens after the stripes are released.
+ * </p>
+ * <p>
+ * The ledger assumes it is the only writer of balances while it is running, and account IDs are expected
+ * to be dense non-negative integers, as assigned by {@code Main}. Accounts created after {@link #load()}
+ * are not visible to the ledger.
+ * </p>
+ */
+public class AccountLedger implements AutoCloseable {
+    public static final long DEFAULT_CHECKPOINT_INTERVAL_MILLIS = 1000;
+
+    private final AccountRepository accountRepository;
+    private final long checkpointIntervalMillis;
+    private final ScheduledExecutorService scheduler;
+    private final StripedLock transferLocks = new StripedLock(StripedLock.DEFAULT_STRIPES,
+            MetricsRegistry.getDefault().timer("banking_lock_wait_seconds", "Time spent waiting for contended locks.", "lock", "ledgerTransfer"));
+
+    private volatile int[] slotById = new int[0];
+    private volatile int[] idBySlot = new int[0];
+    private volatile AtomicLongArray balances = new AtomicLongArray(0);
+    private volatile AtomicLongArray dirty = new AtomicLongArray(0);
+
+    /**
+     * Constructs an AccountLedger that checkpoints every {@link #DEFAULT_CHECKPOINT_INTERVAL_MILLIS} milliseconds.
+     *
+     * @param accountRepository the repository accounts are loaded from and checkpointed to
+     */
+    public AccountLedger(AccountRepository accountRepository) {
+        this(accountRepository, DEFAULT_CHECKPOINT_INTERVAL_MILLIS);
+    }
+
+    /**
+     * Constructs an AccountLedger.
+     *
+     * @param accountRepository        the repository accounts are loaded from and checkpointed to
+     * @param checkpointIntervalMillis the time between two checkpoints
+     */
+    public AccountLedger(AccountRepository accountRepository, long checkpointIntervalMillis) {
+        this.accountRepository = accountRepository;
+        this.checkpointIntervalMillis = checkpointIntervalMillis;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "AccountLedgerCheckpoint");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Loads every account from the repository and starts periodic checkpointing.
+     */
+    public synchronized void load() {
+        List<Account> accounts = accountRepository.findAll();
+        int maxId = -1;
+        for (Account account : accounts) {
+            maxId = Math.max(maxId, account.getAccountId());
+        }
+
+        int[] slots = new int[maxId + 1];
+        Arrays.fill(slots, -1);
+        int[] ids = new int[accounts.size()];
+        AtomicLongArray loadedBalances = new AtomicLongArray(accounts.size());
+        for (int slot = 0; slot < accounts.size(); slot++) {
+            Account account = accounts.get(slot);
+            slots[account.getAccountId()] = slot;
+            ids[slot] = account.getAccountId();
+            loadedBalances.set(slot, account.getBalanceCents());
+        }
+
+        this.idBySlot = ids;
+        this.balances = loadedBalances;
+        this.dirty = new AtomicLongArray((accounts.size() + 63) >>> 6);
+        this.slotById = slots;
+        scheduler.scheduleWithFixedDelay(this::checkpoint, checkpointIntervalMillis, checkpointIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Returns whether the ledger holds the given account.
+     *
+     * @param accountId the ID of the account
+     * @return true if the account was loaded
+     */
+    public boolean contains(int accountId) {
+        return slotOf(accountId) >= 0;
+    }
+
+    /**
+     * Returns the in-memory balance of an account.
+     *
+     * @param accountId the ID of the account
+     * @return the balance in cents, or {@link Money#NO_BALANCE} if the account is unknown
+     */
+    public long getBalance(int accountId) {
+        int slot = slotOf(accountId);
+        return slot >= 0 ? balances.get(slot) : Money.NO_BALANCE;
+    }
+
+    /**
+     * Atomically adds an amount to an account's balance.
+     *
+     * @param accountId   the ID of the account
+     * @param amountCents the amount to add in cents
+     * @return the new balance in cents, or {@link Money#NO_BALANCE} if the account is unknown
+     */
+    public long deposit(int accountId, long amountCents) {
+        int slot = slotOf(accountId);
+        if (slot < 0) {
+            return Money.NO_BALANCE;
+        }
+        long updated = balances.addAndGet(slot, amountCents);
+        markDirty(slot);
+        return updated;
+    }
+
+    /**
+     * Atomically subtracts an amount from an account's balance if the balance covers it.
+     *
+     * @param accountId   the ID of the account
+     * @param amountCents the amount to withdraw in cents
+     * @return the new balance in cents, or {@link Money#NO_BALANCE} if the account is unknown or the balance is insufficient
+     */
+    public long withdraw(int accountId, long amountCents) {
+        int slot = slotOf(accountId);
+        if (slot < 0) {
+            return Money.NO_BALANCE;
+        }
+        return debit(slot, amountCents);
+    }
+
+    /**
+     * Moves an amount from one account to another if the source balance covers it.
+     * <p>
+     * The striped locks of both accounts are taken in ascending stripe order, so concurrent transfers in
+     * opposite directions cannot deadlock. Deposits and withdrawals stay lock-free; the debit is a conditional
+     * compare-and-set, after which the credit cannot fail.
+     * </p>
+     *
+     * @param fromAccountId the ID of the account to debit
+     * @param toAccountId   the ID of the account to credit
+     * @param amountCents   the amount to move in cents
+     * @return the new source balance in cents, or {@link Money#NO_BALANCE} if an account is unknown or the balance
+     *         is insufficient
+     */
+    public long transfer(int fromAccountId, int toAccountId, long amountCents) {
+        int fromSlot = slotOf(fromAccountId);
+        int toSlot = slotOf(toAccountId);
+        if (fromSlot < 0 || toSlot < 0) {
+            return Money.NO_BALANCE;
+        }
+        transferLocks.lockPair(fromAccountId, toAccountId);
+        try {
+            long updated = debit(fromSlot, amountCents);
+            if (updated != Money.NO_BALANCE) {
+                deposit(toAccountId, amountCents);
+            }
+            return updated;
+        } finally {
+            transferLocks.unlockPair(fromAccountId, toAccountId);
+        }
+    }
+
+    private long debit(int slot, long amountCents) {
+        AtomicLongArray current = balances;
+        while (true) {
+            long balance = current.get(slot);
+            if (balance < amountCents) {
+                return Money.NO_BALANCE;
+            }
+            long updated = balance - amountCents;
+            if (current.compareAndSet(slot, balance, updated)) {
+                markDirty(slot);
+                return updated;
+            }
+        }
+    }
+
+    /**
+     * Writes the balance of every account updated since the previous checkpoint to the repository.
+     * Accounts whose write fails stay dirty and are retried by the next checkpoint.
+     *
+     * @return the number of accounts written
+     */
+    public synchronized int checkpoint() {
+        AtomicLongArray dirtyWords = dirty;
+        int[] ids;
+        int[] slots;
+        long[] values;
+        int count = 0;
+        transferLocks.lockAll();
+        try {
+            long[] words = new long[dirtyWords.length()];
+            int dirtyCount = 0;
+            for (int word = 0; word < words.length; word++) {
+                words[word] = dirtyWords.getAndSet(word, 0);
+                dirtyCount += Long.bitCount(words[word]);
+            }
+            ids = new int[dirtyCount];
+            slots = new int[dirtyCount];
+            values = new long[dirtyCount];
+            for (int word = 0; word < words.length; word++) {
+                long bits = words[word];
+                while (bits != 0) {
+                    int slot = (word << 6) + Long.numberOfTrailingZeros(bits);
+                    bits &= bits - 1;
+                    slots[count] = slot;
+                    ids[count] = idBySlot[slot];
+                    values[count] = balances.get(slot);
+                    count++;
+                }
+            }
+        } finally {
+            transferLocks.unlockAll();
+        }
+        return write(ids, slots, values, count);
+    }
+
+    /**
+     * Stops periodic checkpointing and writes any remaining dirty balances.
+     */
+    @Override
+    public void close() {
+        scheduler.shutdown();
+        try {
+            scheduler.awaitTermination(checkpointIntervalMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        checkpoint();
+    }
+
+    private int write(int[] ids, int[] slots, long[] values, int count) {
+        if (count == 0) {
+            return 0;
+        }
+        try {
+            accountRepository.updateBalances(ids, values, count);
+            return count;
+        } catch (RuntimeException e) {
+            e.printStackTrace();
+            for (int i = 0; i < count; i++) {
+                markDirty(slots[i]);
+            }
+            return 0;
+        }
+    }
+
+    private int slotOf(int accountId) {
+        int[] slots = slotById;
+        return accountId >= 0 && accountId < slots.length ? slots[accountId] : -1;
+    }
+
+    private void markDirty(int slot) {
+        AtomicLongArray dirtyWords = dirty;
+        int word = slot >>> 6;
+        long mask = 1L << slot;
+        long bits = dirtyWords.get(word);
+        while ((bits & mask) == 0 && !dirtyWords.compareAndSet(word, bits, bits | mask)) {
+            bits = dirtyWords.get(word);
+        }
+    }
+}
@@ -1,14 +1,69 @@
 package com.acn3to.core.services;
 
 import com.acn3to.core.entities.Account;
+import com.acn3to.core.metrics.Counter;
+import com.acn3to.core.metrics.MetricsRegistry;
+import com.acn3to.core.metrics.Timer;
 import com.acn3to.core.repositories.AccountRepository;
+import com.acn3to.core.utils.Money;
+
+import java.util.Arrays;
+import java.util.List;
 
 /**
  * Provides services for performing operations on bank accounts, such as deposits and withdrawals.
+ * <p>
+ * The latency of every call and the outcome of every operation are recorded in {@link MetricsRegistry#getDefault()}.
+ * Rejected repository operations cost one extra balance read to tell a missing account from insufficient funds.
+ * </p>
+ * <p>
+ * Amounts and balances are {@code long} counts of cents; see {@link Money}.
+ * </p>
  */
 public class AccountService {
+    private static final OperationMetrics DEPOSIT_METRICS = new OperationMetrics("deposit");
+    private static final OperationMetrics WITHDRAWAL_METRICS = new OperationMetrics("withdrawal");
+    private static final OperationMetrics TRANSFER_METRICS = new OperationMetrics("transfer");
+    private static final OperationMetrics BALANCE_METRICS = new OperationMetrics("balance");
+    private static final Timer BATCH_TIMER = MetricsRegistry.getDefault().timer("banking_account_service_seconds",
+            "Latency of AccountService calls.", "operation", "batch");
+
+    /**
+     * A deposit or withdrawal submitted as part of a batch.
+     *
+     * @param accountId   the ID of the account
+     * @param type        whether money is deposited or withdrawn
+     * @param amountCents the amount of money in cents
+     */
+    public record Operation(int accountId, Type type, long amountCents) {
+
+        public enum Type {
+            DEPOSIT("Deposit"),
+            WITHDRAWAL("Withdrawal");
+
+            private final String transactionType;
+
+            Type(String transactionType) {
+                this.transactionType = transactionType;
+            }
+
+            public String getTransactionType() {
+                return transactionType;
+            }
+        }
+
+        public static Operation deposit(int accountId, long amountCents) {
+            return new Operation(accountId, Type.DEPOSIT, amountCents);
+        }
+
+        public static Operation withdrawal(int accountId, long amountCents) {
+            return new Operation(accountId, Type.WITHDRAWAL, amountCents);
+        }
+    }
+
     private final AccountRepository accountRepository;
     private final TransactionLogger transactionLogger;
+    private final AccountLedger accountLedger;
 
     /**
      * Constructs an AccountService with specified AccountRepository and TransactionLogger.
@@ -17,53 +72,205 @@ public class AccountService {
      * @param transactionLogger the logger used for logging transactions
      */
     public AccountService(AccountRepository accountRepository, TransactionLogger transactionLogger) {
+        this(accountRepository, transactionLogger, null);
+    }
+
+    /**
+     * Constructs an AccountService that keeps balances in an in-memory ledger.
+     * Accounts held by the ledger are read and updated in memory; other accounts go to the repository.
+     *
+     * @param accountRepository the repository used for account data operations
+     * @param transactionLogger the logger used for logging transactions
+     * @param accountLedger     the loaded ledger, or null to always use the repository
+     */
+    public AccountService(AccountRepository accountRepository, TransactionLogger transactionLogger, AccountLedger accountLedger) {
         this.accountRepository = accountRepository;
         this.transactionLogger = transactionLogger;
+        this.accountLedger = accountLedger;
     }
 
     /**
      * Deposits a specified amount into the given account.
+     * The balance is updated atomically by the repository, so no in-process locking is needed.
      * Logs the transaction using the TransactionLogger.
      *
-     * @param accountId the ID of the account to deposit into
-     * @param amount    the amount to deposit
+     * @param accountId   the ID of the account to deposit into
+     * @param amountCents the amount to deposit in cents
      */
-    public synchronized void deposit(int accountId, double amount) {
-        Account account = accountRepository.findById(accountId);
-        if (account != null) {
-            double newBalance = account.getBalance() + amount;
-            account.setBalance(newBalance);
-            accountRepository.save(account);
+    public void deposit(int accountId, long amountCents) {
+        long start = System.nanoTime();
+        long newBalance;
+        if (accountLedger != null && accountLedger.contains(accountId)) {
+            newBalance = accountLedger.deposit(accountId, amountCents);
+        } else {
+            newBalance = accountRepository.addToBalance(accountId, amountCents);
         }
+        logResult(accountId, "Deposit", amountCents, newBalance);
+        DEPOSIT_METRICS.record(start, newBalance == Money.NO_BALANCE ? Outcome.MISSING_ACCOUNT : Outcome.SUCCEEDED);
     }
 
     /**
      * Withdraws a specified amount from the given account if sufficient balance exists.
+     * The balance check and update happen atomically in the repository, so no in-process locking is needed.
      * Logs the transaction using the TransactionLogger.
      *
-     * @param accountId the ID of the account to withdraw from
-     * @param amount    the amount to withdraw
+     * @param accountId   the ID of the account to withdraw from
+     * @param amountCents the amount to withdraw in cents
      */
-    public synchronized void withdraw(int accountId, double amount) {
-        Account account = accountRepository.findById(accountId);
-        if (account != null) {
-            if (amount <= account.getBalance()) {
-                double newBalance = account.getBalance() - amount;
-                account.setBalance(newBalance);
-                accountRepository.save(account);
+    public void withdraw(int accountId, long amountCents) {
+        long start = System.nanoTime();
+        long newBalance;
+        Outcome outcome;
+        if (accountLedger != null && accountLedger.contains(accountId)) {
+            newBalance = accountLedger.withdraw(accountId, amountCents);
+            outcome = newBalance == Money.NO_BALANCE ? Outcome.INSUFFICIENT_FUNDS : Outcome.SUCCEEDED;
+        } else {
+            newBalance = accountRepository.withdrawFromBalance(accountId, amountCents);
+            outcome = newBalance != Money.NO_BALANCE ? Outcome.SUCCEEDED : rejectionCause(accountId);
+        }
+        logResult(accountId, "Withdrawal", amountCents, newBalance);
+        WITHDRAWAL_METRICS.record(start, outcome);
+    }
+
+    /**
+     * Moves a specified amount from one account to another if the source balance covers it.
+     * The debit and the credit are applied atomically, so money is never lost or created.
+     * Logs one "Transfer" entry on the source account naming the receiving account.
+     * <p>
+     * With a ledger, a transfer where only one of the accounts is held by the ledger is rejected as a missing
+     * account: writing the other balance to the repository would be overwritten by the next checkpoint.
+     * </p>
+     *
+     * @param fromAccountId the ID of the account to debit
+     * @param toAccountId   the ID of the account to credit
+     * @param amountCents   the amount to transfer in cents
+     * @throws IllegalArgumentException if both IDs refer to the same account or the amount is not positive
+     */
+    public void transfer(int fromAccountId, int toAccountId, long amountCents) {
+        if (fromAccountId == toAccountId) {
+            throw new IllegalArgumentException("Cannot transfer to the same account: " + fromAccountId);
+        }
+        if (amountCents <= 0) {
+            throw new IllegalArgumentException("Transfer amount must be positive: " + amountCents);
+        }
+        long start = System.nanoTime();
+        long newBalance;
+        Outcome outcome;
+        boolean fromInLedger = accountLedger != null && accountLedger.contains(fromAccountId);
+        boolean toInLedger = accountLedger != null && accountLedger.contains(toAccountId);
+        if (fromInLedger && toInLedger) {
+            newBalance = accountLedger.transfer(fromAccountId, toAccountId, amountCents);
+            outcome = newBalance == Money.NO_BALANCE ? Outcome.INSUFFICIENT_FUNDS : Outcome.SUCCEEDED;
+        } else if (fromInLedger || toInLedger) {
+            newBalance = Money.NO_BALANCE;
+            outcome = Outcome.MISSING_ACCOUNT;
+        } else {
+            Account source = accountRepository.transfer(fromAccountId, toAccountId, amountCents);
+            newBalance = source != null ? source.getBalanceCents() : Money.NO_BALANCE;
+            if (source != null) {
+                outcome = Outcome.SUCCEEDED;
+            } else if (accountRepository.findBalance(toAccountId) == Money.NO_BALANCE) {
+                outcome = Outcome.MISSING_ACCOUNT;
+            } else {
+                outcome = rejectionCause(fromAccountId);
             }
         }
+        boolean error = newBalance == Money.NO_BALANCE;
+        transactionLogger.logTransfer(fromAccountId, toAccountId, amountCents, error ? 0 : newBalance, error);
+        TRANSFER_METRICS.record(start, outcome);
+    }
+
+    /**
+     * Applies a batch of deposits and withdrawals, e.g. from a bulk upload.
+     * <p>
+     * Operations are grouped per account and applied in submission order within each account, so a withdrawal
+     * is checked against the balance left by the operations before it. Accounts held by the ledger are updated
+     * in memory. For the others, the balances are read with one query, the operations are netted in memory and
+     * the final balances are written with one bulk write, guarded by the balances that were read. An account
+     * whose balance changed in the meantime falls back to applying its operations one at a time. All successful
+     * operations are then logged with a single write.
+     * </p>
+     *
+     * @param operations the operations to apply
+     * @return the balance in cents after each operation, parallel to operations, or {@link Money#NO_BALANCE} for
+     *         operations that were rejected because the account does not exist or the balance was insufficient
+     */
+    public long[] applyBatch(List<Operation> operations) {
+        long startNanos = System.nanoTime();
+        int size = operations.size();
+        long[] results = new long[size];
+        boolean[] missingAccounts = new boolean[size];
+
+        // Sorting on (accountId, index) groups operations per account and keeps their submission order.
+        long[] order = new long[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = ((long) operations.get(i).accountId() << 32) | i;
+        }
+        Arrays.sort(order);
+
+        int[] groupIds = new int[size];
+        int[] groupStarts = new int[size];
+        int[] groupEnds = new int[size];
+        int groups = 0;
+        for (int start = 0, end; start < size; start = end) {
+            int accountId = (int) (order[start] >> 32);
+            end = start + 1;
+            while (end < size && (int) (order[end] >> 32) == accountId) {
+                end++;
+            }
+            if (accountLedger != null && accountLedger.contains(accountId)) {
+                applyToLedger(operations, order, start, end, results);
+            } else {
+                groupIds[groups] = accountId;
+                groupStarts[groups] = start;
+                groupEnds[groups] = end;
+                groups++;
+            }
+        }
+        if (groups > 0) {
+            applyToRepository(operations, order, groupIds, groupStarts, groupEnds, groups, results, missingAccounts);
+        }
+
+        int[] accountIds = new int[size];
+        String[] transactionTypes = new String[size];
+        long[] amounts = new long[size];
+        for (int i = 0; i < size; i++) {
+            Operation operation = operations.get(i);
+            accountIds[i] = operation.accountId();
+            transactionTypes[i] = operation.type().getTransactionType();
+            amounts[i] = operation.amountCents();
+        }
+        transactionLogger.logBatch(accountIds, transactionTypes, amounts, results, size);
+
+        for (int i = 0; i < size; i++) {
+            OperationMetrics metrics = operations.get(i).type() == Operation.Type.DEPOSIT ? DEPOSIT_METRICS : WITHDRAWAL_METRICS;
+            if (results[i] != Money.NO_BALANCE) {
+                metrics.count(Outcome.SUCCEEDED);
+            } else {
+                metrics.count(missingAccounts[i] ? Outcome.MISSING_ACCOUNT : Outcome.INSUFFICIENT_FUNDS);
+            }
+        }
+        BATCH_TIMER.recordSince(startNanos);
+        return results;
     }
 
     /**
      * Retrieves the balance of a specified account.
      *
      * @param accountId the ID of the account
-     * @return the balance of the account, or 0 if not found
+     * @return the balance of the account in cents, or 0 if not found
      */
-    public double getAccountBalance(int accountId) {
-        Account account = accountRepository.findById(accountId);
-        return account != null ? account.getBalance() : 0;
+    public long getAccountBalance(int accountId) {
+        long start = System.nanoTime();
+        if (accountLedger != null && accountLedger.contains(accountId)) {
+            long balance = accountLedger.getBalance(accountId);
+            BALANCE_METRICS.record(start, Outcome.SUCCEEDED);
+            return balance;
+        }
+        long balance = accountRepository.findBalance(accountId);
+        boolean found = balance != Money.NO_BALANCE;
+        BALANCE_METRICS.record(start, found ? Outcome.SUCCEEDED : Outcome.MISSING_ACCOUNT);
+        return found ? balance : 0;
     }
 
     /**
@@ -74,4 +281,126 @@ public class AccountService {
     public TransactionLogger getTransactionLogger() {
         return transactionLogger;
     }
+
+    private void applyToLedger(List<Operation> operations, long[] order, int start, int end, long[] results) {
+        for (int k = start; k < end; k++) {
+            int index = (int) order[k];
+            Operation operation = operations.get(index);
+            results[index] = operation.type() == Operation.Type.DEPOSIT
+                    ? accountLedger.deposit(operation.accountId(), operation.amountCents())
+                    : accountLedger.withdraw(operation.accountId(), operation.amountCents());
+        }
+    }
+
+    private void applyToRepository(List<Operation> operations, long[] order, int[] groupIds, int[] groupStarts,
+                                   int[] groupEnds, int groups, long[] results, boolean[] missingAccounts) {
+        long[] balances = accountRepository.findBalances(groupIds, groups);
+        int[] ids = new int[groups];
+        long[] expectedBalances = new long[groups];
+        long[] newBalances = new long[groups];
+        int[] groupOfWrite = new int[groups];
+        int writes = 0;
+        for (int g = 0; g < groups; g++) {
+            if (balances[g] == Money.NO_BALANCE) {
+                for (int k = groupStarts[g]; k < groupEnds[g]; k++) {
+                    results[(int) order[k]] = Money.NO_BALANCE;
+                    missingAccounts[(int) order[k]] = true;
+                }
+                continue;
+            }
+            long balance = applyInOrder(operations, order, groupStarts[g], groupEnds[g], balances[g], results);
+            if (balance != balances[g]) {
+                ids[writes] = groupIds[g];
+                expectedBalances[writes] = balances[g];
+                newBalances[writes] = balance;
+                groupOfWrite[writes] = g;
+                writes++;
+            }
+        }
+
+        boolean[] applied = accountRepository.compareAndSetBalances(ids, expectedBalances, newBalances, writes);
+        for (int w = 0; w < writes; w++) {
+            if (applied[w]) {
+                continue;
+            }
+            // Another writer changed the balance after it was read; apply this account's operations one by one.
+            int g = groupOfWrite[w];
+            for (int k = groupStarts[g]; k < groupEnds[g]; k++) {
+                int index = (int) order[k];
+                Operation operation = operations.get(index);
+                results[index] = operation.type() == Operation.Type.DEPOSIT
+                        ? accountRepository.addToBalance(operation.accountId(), operation.amountCents())
+                        : accountRepository.withdrawFromBalance(operation.accountId(), operation.amountCents());
+                missingAccounts[index] = results[index] == Money.NO_BALANCE && rejectionCause(operation.accountId()) == Outcome.MISSING_ACCOUNT;
+            }
+        }
+    }
+
+    private static long applyInOrder(List<Operation> operations, long[] order, int start, int end, long balance,
+                                     long[] results) {
+        for (int k = start; k < end; k++) {
+            int index = (int) order[k];
+            Operation operation = operations.get(index);
+            if (operation.type() == Operation.Type.DEPOSIT) {
+                balance += operation.amountCents();
+                results[index] = balance;
+            } else if (balance >= operation.amountCents()) {
+                balance -= operation.amountCents();
+                results[index] = balance;
+            } else {
+                results[index] = Money.NO_BALANCE;
+            }
+        }
+        return balance;
+    }
+
+    // Tells whether an operation the repository rejected failed because the account is missing or underfunded.
+    private Outcome rejectionCause(int accountId) {
+        return accountRepository.findBalance(accountId) == Money.NO_BALANCE ? Outcome.MISSING_ACCOUNT : Outcome.INSUFFICIENT_FUNDS;
+    }
+
+    // A balance of Money.NO_BALANCE means the operation was rejected.
+    private void logResult(int accountId, String transactionType, long amountCents, long newBalance) {
+        boolean error = newBalance == Money.NO_BALANCE;
+        transactionLogger.logTransaction(accountId, transactionType, amountCents, error ? 0 : newBalance, error);
+    }
+
+    private enum Outcome {
+        SUCCEEDED("succeeded"),
+        INSUFFICIENT_FUNDS("insufficient_funds"),
+        MISSING_ACCOUNT("missing_account");
+
+        private final String label;
+
+        Outcome(String label) {
+            this.label = label;
+        }
+    }
+
+    /**
+     * The latency timer and per-outcome counters of one kind of operation.
+     */
+    private static final class OperationMetrics {
+        private final Timer timer;
+        private final Counter[] outcomes = new Counter[Outcome.values().length];
+
+        OperationMetrics(String operation) {
+            MetricsRegistry registry = MetricsRegistry.getDefault();
+            this.timer = registry.timer("banking_account_service_seconds",
+                    "Latency of AccountService calls.", "operation", operation);
+            for (Outcome outcome : Outcome.values()) {
+                outcomes[outcome.ordinal()] = registry.counter("banking_account_operations_total",
+                        "Account operations by outcome.", "operation", operation, "outcome", outcome.label);
+            }
+        }
+
+        void record(long startNanos, Outcome outcome) {
+            timer.recordSince(startNanos);
+            count(outcome);
+        }
+
+        void count(Outcome outcome) {
+            outcomes[outcome.ordinal()].increment();
+        }
+    }
 }
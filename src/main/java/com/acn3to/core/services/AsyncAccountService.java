@@ -0,0 +1,272 @@
+package com.acn3to.core.services;
+
+import com.acn3to.core.entities.Transaction;
+import com.acn3to.core.metrics.Counter;
+import com.acn3to.core.metrics.MetricsRegistry;
+import com.acn3to.core.metrics.Timer;
+import com.acn3to.core.repositories.AsyncAccountRepository;
+import com.acn3to.core.repositories.AsyncTransactionRepository;
+import com.acn3to.core.utils.Money;
+import com.acn3to.core.utils.StripedLock;
+
+import java.util.Date;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * The non-blocking counterpart of {@link AccountService}: every operation returns a {@link CompletableFuture}
+ * at once, so a few driver threads can keep thousands of operations in flight without a thread per caller.
+ * <p>
+ * Operations on the same account are applied in the order they were submitted: each one is chained behind the
+ * previous operation on its account and starts when that one completes, whether it succeeded or failed.
+ * Operations on different accounts run concurrently. A transfer is ordered on both of its accounts; it is
+ * queued on both while holding their stripes of a {@link StripedLock}, so two transfers between the same
+ * accounts are queued in the same order on each and never wait for each other.
+ * </p>
+ * <p>
+ * Successful operations are then recorded with the transaction repository, and the returned future completes
+ * once the record is stored. Writing the record does not hold up the next operation on the account.
+ * Latencies and outcomes are recorded in {@link MetricsRegistry#getDefault()}.
+ * </p>
+ */
+public class AsyncAccountService {
+    private static final OperationMetrics DEPOSIT_METRICS = new OperationMetrics("deposit");
+    private static final OperationMetrics WITHDRAWAL_METRICS = new OperationMetrics("withdrawal");
+    private static final OperationMetrics TRANSFER_METRICS = new OperationMetrics("transfer");
+    private static final OperationMetrics BALANCE_METRICS = new OperationMetrics("balance");
+
+    private final AsyncAccountRepository accountRepository;
+    private final AsyncTransactionRepository transactionRepository;
+    // The last operation queued on each account; removed by that operation once it completes.
+    private final ConcurrentHashMap<Integer, CompletableFuture<Long>> tails = new ConcurrentHashMap<>();
+    private final StripedLock queueLocks = new StripedLock();
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    /**
+     * Constructs an AsyncAccountService.
+     *
+     * @param accountRepository     the repository used for balance operations
+     * @param transactionRepository the repository successful operations are recorded in
+     */
+    public AsyncAccountService(AsyncAccountRepository accountRepository, AsyncTransactionRepository transactionRepository) {
+        this.accountRepository = accountRepository;
+        this.transactionRepository = transactionRepository;
+        MetricsRegistry.getDefault().gauge("banking_async_operations_in_flight",
+                "Asynchronous account operations submitted but not yet completed.", inFlight::get);
+    }
+
+    /**
+     * Deposits an amount into an account after the operations already submitted for it.
+     *
+     * @param accountId   the ID of the account to deposit into
+     * @param amountCents the amount to deposit in cents
+     * @return the new balance in cents, or {@link Money#NO_BALANCE} if the account does not exist
+     */
+    public CompletableFuture<Long> deposit(int accountId, long amountCents) {
+        long start = System.nanoTime();
+        return record(start, DEPOSIT_METRICS,
+                enqueue(accountId, () -> accountRepository.addToBalance(accountId, amountCents))
+                        .thenCompose(balance -> log(accountId, 0, "Deposit", amountCents, balance))
+                        .thenCompose(balance -> classify(balance, accountId, 0, Outcome.MISSING_ACCOUNT)));
+    }
+
+    /**
+     * Withdraws an amount from an account, if its balance covers it, after the operations already submitted
+     * for it.
+     *
+     * @param accountId   the ID of the account to withdraw from
+     * @param amountCents the amount to withdraw in cents
+     * @return the new balance in cents, or {@link Money#NO_BALANCE} if the account does not exist or its
+     *         balance was lower than the amount
+     */
+    public CompletableFuture<Long> withdraw(int accountId, long amountCents) {
+        long start = System.nanoTime();
+        return record(start, WITHDRAWAL_METRICS,
+                enqueue(accountId, () -> accountRepository.withdrawFromBalance(accountId, amountCents))
+                        .thenCompose(balance -> log(accountId, 0, "Withdrawal", amountCents, balance))
+                        .thenCompose(balance -> classify(balance, accountId, 0, null)));
+    }
+
+    /**
+     * Moves an amount from one account to another, if the source balance covers it, after the operations
+     * already submitted for either account. Logs one "Transfer" entry on the source account naming the
+     * receiving account.
+     *
+     * @param fromAccountId the ID of the account to debit
+     * @param toAccountId   the ID of the account to credit
+     * @param amountCents   the amount to transfer in cents
+     * @return the new balance of the source account in cents, or {@link Money#NO_BALANCE} if either account
+     *         does not exist or the source balance was lower than the amount
+     * @throws IllegalArgumentException if both IDs refer to the same account or the amount is not positive
+     */
+    public CompletableFuture<Long> transfer(int fromAccountId, int toAccountId, long amountCents) {
+        if (fromAccountId == toAccountId) {
+            throw new IllegalArgumentException("Cannot transfer to the same account: " + fromAccountId);
+        }
+        if (amountCents <= 0) {
+            throw new IllegalArgumentException("Transfer amount must be positive: " + amountCents);
+        }
+        long start = System.nanoTime();
+        return record(start, TRANSFER_METRICS,
+                enqueue(fromAccountId, toAccountId, () -> accountRepository.transfer(fromAccountId, toAccountId, amountCents))
+                        .thenCompose(balance -> log(fromAccountId, toAccountId, "Transfer", amountCents, balance))
+                        .thenCompose(balance -> classify(balance, fromAccountId, toAccountId, null)));
+    }
+
+    /**
+     * Retrieves the balance of an account as left by the operations already submitted for it.
+     *
+     * @param accountId the ID of the account
+     * @return the balance of the account in cents, or 0 if not found
+     */
+    public CompletableFuture<Long> getAccountBalance(int accountId) {
+        long start = System.nanoTime();
+        return record(start, BALANCE_METRICS,
+                enqueue(accountId, () -> accountRepository.findBalance(accountId))
+                        .thenApply(balance -> new Result(balance != Money.NO_BALANCE ? balance : 0,
+                                balance != Money.NO_BALANCE ? Outcome.SUCCEEDED : Outcome.MISSING_ACCOUNT)));
+    }
+
+    /**
+     * Returns the number of operations submitted but not yet completed.
+     *
+     * @return the number of operations in flight
+     */
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    private CompletableFuture<Long> enqueue(int accountId, Supplier<CompletableFuture<Long>> operation) {
+        CompletableFuture<Long> result = new CompletableFuture<>();
+        CompletableFuture<Long> previous;
+        queueLocks.lockFor(accountId).lock();
+        try {
+            previous = tails.put(accountId, result);
+        } finally {
+            queueLocks.lockFor(accountId).unlock();
+        }
+        start(after(previous, null), operation, result);
+        result.whenComplete((balance, error) -> tails.remove(accountId, result));
+        return result;
+    }
+
+    private CompletableFuture<Long> enqueue(int firstAccountId, int secondAccountId,
+                                            Supplier<CompletableFuture<Long>> operation) {
+        CompletableFuture<Long> result = new CompletableFuture<>();
+        CompletableFuture<Long> first;
+        CompletableFuture<Long> second;
+        queueLocks.lockPair(firstAccountId, secondAccountId);
+        try {
+            first = tails.put(firstAccountId, result);
+            second = tails.put(secondAccountId, result);
+        } finally {
+            queueLocks.unlockPair(firstAccountId, secondAccountId);
+        }
+        start(after(first, second), operation, result);
+        result.whenComplete((balance, error) -> {
+            tails.remove(firstAccountId, result);
+            tails.remove(secondAccountId, result);
+        });
+        return result;
+    }
+
+    // Completes when both predecessors have, whatever their outcome.
+    private static CompletableFuture<?> after(CompletableFuture<Long> first, CompletableFuture<Long> second) {
+        CompletableFuture<?> settledFirst = first != null ? first.handle((balance, error) -> null) : CompletableFuture.completedFuture(null);
+        if (second == null) {
+            return settledFirst;
+        }
+        return CompletableFuture.allOf(settledFirst, second.handle((balance, error) -> null));
+    }
+
+    private static void start(CompletableFuture<?> predecessor, Supplier<CompletableFuture<Long>> operation,
+                              CompletableFuture<Long> result) {
+        predecessor.thenCompose(ignored -> operation.get()).whenComplete((balance, error) -> {
+            if (error != null) {
+                result.completeExceptionally(error);
+            } else {
+                result.complete(balance);
+            }
+        });
+    }
+
+    // A balance of Money.NO_BALANCE means the operation was rejected and is not recorded.
+    private CompletableFuture<Long> log(int accountId, int counterpartyAccountId, String transactionType,
+                                        long amountCents, long newBalance) {
+        if (newBalance == Money.NO_BALANCE) {
+            return CompletableFuture.completedFuture(newBalance);
+        }
+        Transaction transaction = new Transaction(accountId, new Date(), transactionType, amountCents, newBalance,
+                counterpartyAccountId);
+        return transactionRepository.save(transaction).thenApply(ignored -> newBalance);
+    }
+
+    /**
+     * Tells why an operation was rejected, with one extra balance read per account as in {@link AccountService}.
+     * A known cause skips the reads; a counterparty of 0 means there is none to check.
+     */
+    private CompletableFuture<Result> classify(long newBalance, int accountId, int counterpartyAccountId, Outcome knownCause) {
+        if (newBalance != Money.NO_BALANCE) {
+            return CompletableFuture.completedFuture(new Result(newBalance, Outcome.SUCCEEDED));
+        }
+        if (knownCause != null) {
+            return CompletableFuture.completedFuture(new Result(newBalance, knownCause));
+        }
+        CompletableFuture<Boolean> counterpartyExists = counterpartyAccountId == 0
+                ? CompletableFuture.completedFuture(true)
+                : accountRepository.findBalance(counterpartyAccountId).thenApply(balance -> balance != Money.NO_BALANCE);
+        return counterpartyExists.thenCompose(exists -> exists
+                ? accountRepository.findBalance(accountId).thenApply(balance -> new Result(newBalance,
+                        balance == Money.NO_BALANCE ? Outcome.MISSING_ACCOUNT : Outcome.INSUFFICIENT_FUNDS))
+                : CompletableFuture.completedFuture(new Result(newBalance, Outcome.MISSING_ACCOUNT)));
+    }
+
+    private CompletableFuture<Long> record(long startNanos, OperationMetrics metrics, CompletableFuture<Result> operation) {
+        inFlight.incrementAndGet();
+        return operation.handle((result, error) -> {
+            inFlight.decrementAndGet();
+            metrics.timer.recordSince(startNanos);
+            if (error != null) {
+                throw error instanceof RuntimeException runtime ? runtime : new RuntimeException(error);
+            }
+            metrics.outcomes[result.outcome().ordinal()].increment();
+            return result.balance();
+        });
+    }
+
+    private record Result(long balance, Outcome outcome) {
+    }
+
+    private enum Outcome {
+        SUCCEEDED("succeeded"),
+        INSUFFICIENT_FUNDS("insufficient_funds"),
+        MISSING_ACCOUNT("missing_account");
+
+        private final String label;
+
+        Outcome(String label) {
+            this.label = label;
+        }
+    }
+
+    /**
+     * The latency timer and per-outcome counters of one kind of operation. Outcomes are counted in the same
+     * family as {@link AccountService}'s, so they add up whichever API served the operation.
+     */
+    private static final class OperationMetrics {
+        private final Timer timer;
+        private final Counter[] outcomes = new Counter[Outcome.values().length];
+
+        OperationMetrics(String operation) {
+            MetricsRegistry registry = MetricsRegistry.getDefault();
+            this.timer = registry.timer("banking_async_account_service_seconds",
+                    "Latency of AsyncAccountService calls, from submission to completion.", "operation", operation);
+            for (Outcome outcome : Outcome.values()) {
+                outcomes[outcome.ordinal()] = registry.counter("banking_account_operations_total",
+                        "Account operations by outcome.", "operation", operation, "outcome", outcome.label);
+            }
+        }
+    }
+}
@@ -0,0 +1,471 @@
+package com.acn3to.core.services;
+
+import com.acn3to.core.analytics.TransactionAnalytics;
+import com.acn3to.core.entities.Transaction;
+import com.acn3to.core.logging.EventLog;
+import com.acn3to.core.logging.Level;
+import com.acn3to.core.metrics.MetricsRegistry;
+import com.acn3to.core.metrics.Timer;
+import com.acn3to.core.repositories.TransactionRepository;
+import org.bson.types.ObjectId;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Logs transactions asynchronously, writing them to the repository in batches.
+ * <p>
+ * Callers copy transaction fields into a bounded ring buffer of preallocated slots and return
+ * immediately. A dedicated writer thread drains the buffer into the repository with unordered
+ * insertMany batches, flushing whenever a full batch is available or the flush interval elapses.
+ * What happens when the buffer is full is controlled by the {@link OverflowPolicy}.
+ * </p>
+ * <p>
+ * A batch that fails to write is kept and retried with a growing delay, and nothing behind it is written until
+ * it succeeds, so the buffer fills up and applies the overflow policy while the repository is unavailable.
+ * Every transaction gets its ID when it is drained into a batch, so resending a batch that was partly or entirely
+ * written does not store it twice. Failed attempts are logged to the {@link EventLog}.
+ * {@link #flush()} and {@link #close()} wait until the transactions are written. Once the logger is closed,
+ * batches are retried for at most {@link #CLOSE_RETRY_MILLIS}; the transactions still unwritten after that are
+ * given up on, and close reports them by throwing.
+ * </p>
+ */
+public class AsyncTransactionLogger extends TransactionLogger {
+    public static final int DEFAULT_CAPACITY = 8192;
+    public static final int DEFAULT_BATCH_SIZE = 500;
+    public static final long DEFAULT_FLUSH_INTERVAL_MILLIS = 5;
+    public static final long CLOSE_RETRY_MILLIS = 30_000;
+    private static final long MAX_RETRY_DELAY_MILLIS = 5000;
+    private static final Timer LOCK_WAIT = MetricsRegistry.getDefault().timer("banking_lock_wait_seconds",
+            "Time spent waiting for contended locks.", "lock", "transactionLogBuffer");
+
+    /**
+     * What a caller does when the ring buffer is full.
+     */
+    public enum OverflowPolicy {
+        /** Wait until the writer frees a slot. */
+        BLOCK,
+        /** Discard the transaction and count it as dropped. */
+        DROP,
+        /** Append the transaction to an unbounded overflow queue drained by the writer. */
+        SPILL
+    }
+
+    /**
+     * A point-in-time view of the logger's counters.
+     *
+     * @param queueDepth       the number of transactions waiting to be written, including spilled ones
+     * @param enqueued         the number of transactions accepted for writing
+     * @param dropped          the number of transactions discarded because the buffer was full
+     * @param spilled          the number of transactions that went to the overflow queue
+     * @param written          the number of transactions successfully written
+     * @param failed           the number of transactions given up on because they could not be written before
+     *                         the close timeout
+     * @param retries          the number of batch writes that failed and were retried
+     * @param batches          the number of batches written or given up on
+     * @param maxBatchSize     the size of the largest batch written
+     * @param averageBatchSize the average batch size
+     */
+    public record Stats(long queueDepth, long enqueued, long dropped, long spilled, long written, long failed,
+                        long retries, long batches, int maxBatchSize, double averageBatchSize) {}
+
+    private final int capacity;
+    private final int batchSize;
+    private final long flushIntervalNanos;
+    private final OverflowPolicy overflowPolicy;
+    private final EventLog eventLog;
+
+    private final int[] accountIds;
+    private final int[] counterpartyAccountIds;
+    private final long[] dates;
+    private final String[] types;
+    private final long[] amounts;
+    private final long[] balances;
+    private final ArrayDeque<Transaction> overflow = new ArrayDeque<>();
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final Condition notFull = lock.newCondition();
+    private final Condition written = lock.newCondition();
+    private final Thread writer;
+
+    // All fields below are guarded by lock.
+    private long head;
+    private long tail;
+    private long enqueuedCount;
+    private long processedCount;
+    private long droppedCount;
+    private long spilledCount;
+    private long writtenCount;
+    private long failedCount;
+    private long retryCount;
+    private long batchCount;
+    private int maxBatchSize;
+    private boolean flushRequested;
+    private boolean closed;
+
+    /**
+     * Constructs an AsyncTransactionLogger with default capacity, batch size, flush interval and
+     * the {@link OverflowPolicy#BLOCK} policy.
+     *
+     * @param transactionRepository the repository used for storing transactions
+     */
+    public AsyncTransactionLogger(TransactionRepository transactionRepository) {
+        this(transactionRepository, null);
+    }
+
+    /**
+     * Constructs an AsyncTransactionLogger with default capacity, batch size, flush interval and
+     * the {@link OverflowPolicy#BLOCK} policy, feeding the logged operations to streaming analytics.
+     *
+     * @param transactionRepository the repository used for storing transactions
+     * @param analytics             the analytics every logged operation is recorded in, or null
+     */
+    public AsyncTransactionLogger(TransactionRepository transactionRepository, TransactionAnalytics analytics) {
+        this(transactionRepository, analytics, EventLog.console());
+    }
+
+    /**
+     * Constructs an AsyncTransactionLogger with default capacity, batch size, flush interval and
+     * the {@link OverflowPolicy#BLOCK} policy, feeding the logged operations to streaming analytics.
+     *
+     * @param transactionRepository the repository used for storing transactions
+     * @param analytics             the analytics every logged operation is recorded in, or null
+     * @param eventLog              where failed writes are logged
+     */
+    public AsyncTransactionLogger(TransactionRepository transactionRepository, TransactionAnalytics analytics,
+                                  EventLog eventLog) {
+        this(transactionRepository, DEFAULT_CAPACITY, DEFAULT_BATCH_SIZE, DEFAULT_FLUSH_INTERVAL_MILLIS, OverflowPolicy.BLOCK,
+                analytics, eventLog);
+    }
+
+    /**
+     * Constructs an AsyncTransactionLogger and starts its writer thread.
+     *
+     * @param transactionRepository the repository used for storing transactions
+     * @param capacity              the number of slots in the ring buffer
+     * @param batchSize             the maximum number of transactions per insertMany
+     * @param flushIntervalMillis   the longest a buffered transaction waits before being written
+     * @param overflowPolicy        what callers do when the buffer is full
+     * @throws IllegalArgumentException if capacity, batchSize or flushIntervalMillis is not positive
+     */
+    public AsyncTransactionLogger(TransactionRepository transactionRepository, int capacity, int batchSize,
+                                  long flushIntervalMillis, OverflowPolicy overflowPolicy) {
+        this(transactionRepository, capacity, batchSize, flushIntervalMillis, overflowPolicy, null);
+    }
+
+    /**
+     * Constructs an AsyncTransactionLogger that also feeds the logged operations to streaming analytics,
+     * and starts its writer thread.
+     *
+     * @param transactionRepository the repository used for storing transactions
+     * @param capacity              the number of slots in the ring buffer
+     * @param batchSize             the maximum number of transactions per insertMany
+     * @param flushIntervalMillis   the longest a buffered transaction waits before being written
+     * @param overflowPolicy        what callers do when the buffer is full
+     * @param analytics             the analytics every logged operation is recorded in, or null
+     * @throws IllegalArgumentException if capacity, batchSize or flushIntervalMillis is not positive
+     */
+    public AsyncTransactionLogger(TransactionRepository transactionRepository, int capacity, int batchSize,
+                                  long flushIntervalMillis, OverflowPolicy overflowPolicy, TransactionAnalytics analytics) {
+        this(transactionRepository, capacity, batchSize, flushIntervalMillis, overflowPolicy, analytics, EventLog.console());
+    }
+
+    /**
+     * Constructs an AsyncTransactionLogger that also feeds the logged operations to streaming analytics,
+     * and starts its writer thread.
+     *
+     * @param transactionRepository the repository used for storing transactions
+     * @param capacity              the number of slots in the ring buffer
+     * @param batchSize             the maximum number of transactions per insertMany
+     * @param flushIntervalMillis   the longest a buffered transaction waits before being written
+     * @param overflowPolicy        what callers do when the buffer is full
+     * @param analytics             the analytics every logged operation is recorded in, or null
+     * @param eventLog              where failed writes are logged
+     * @throws IllegalArgumentException if capacity, batchSize or flushIntervalMillis is not positive
+     */
+    public AsyncTransactionLogger(TransactionRepository transactionRepository, int capacity, int batchSize,
+                                  long flushIntervalMillis, OverflowPolicy overflowPolicy, TransactionAnalytics analytics,
+                                  EventLog eventLog) {
+        super(transactionRepository, analytics);
+        if (capacity <= 0 || batchSize <= 0 || flushIntervalMillis <= 0) {
+            throw new IllegalArgumentException("Capacity, batch size and flush interval must be positive");
+        }
+        this.capacity = capacity;
+        this.batchSize = batchSize;
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMillis);
+        this.overflowPolicy = overflowPolicy;
+        this.eventLog = eventLog;
+        this.accountIds = new int[capacity];
+        this.counterpartyAccountIds = new int[capacity];
+        this.dates = new long[capacity];
+        this.types = new String[capacity];
+        this.amounts = new long[capacity];
+        this.balances = new long[capacity];
+        this.writer = new Thread(this::runWriter, "TransactionLogWriter");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /**
+     * Queues a transaction for writing. Once the logger is closed, transactions are written synchronously.
+     */
+    @Override
+    protected void record(int accountId, int counterpartyAccountId, String transactionType, long amountCents, long newBalance) {
+        long now = System.currentTimeMillis();
+        if (!lock.tryLock()) {
+            long start = System.nanoTime();
+            lock.lock();
+            LOCK_WAIT.recordSince(start);
+        }
+        try {
+            while (!closed && tail - head == capacity) {
+                if (overflowPolicy == OverflowPolicy.DROP) {
+                    droppedCount++;
+                    return;
+                }
+                if (overflowPolicy == OverflowPolicy.SPILL) {
+                    overflow.add(createTransaction(accountId, counterpartyAccountId, new Date(now), transactionType, amountCents, newBalance));
+                    spilledCount++;
+                    enqueuedCount++;
+                    notEmpty.signal();
+                    return;
+                }
+                notFull.awaitUninterruptibly();
+            }
+            if (!closed) {
+                int slot = (int) (tail % capacity);
+                accountIds[slot] = accountId;
+                counterpartyAccountIds[slot] = counterpartyAccountId;
+                dates[slot] = now;
+                types[slot] = transactionType;
+                amounts[slot] = amountCents;
+                balances[slot] = newBalance;
+                tail++;
+                enqueuedCount++;
+                long depth = tail - head;
+                if (depth == 1 || depth == batchSize) {
+                    notEmpty.signal();
+                }
+                return;
+            }
+        } finally {
+            lock.unlock();
+        }
+        super.record(accountId, counterpartyAccountId, transactionType, amountCents, newBalance);
+    }
+
+    /**
+     * Waits until every transaction queued before this call has been written to the repository, retrying
+     * failed batches for as long as it takes.
+     *
+     * @throws IllegalStateException if transactions were given up on while waiting, which only happens once the
+     *                               logger is closed
+     */
+    @Override
+    public void flush() {
+        lock.lock();
+        try {
+            long target = enqueuedCount;
+            long failedBefore = failedCount;
+            flushRequested = true;
+            notEmpty.signal();
+            while (processedCount < target && writer.isAlive()) {
+                written.awaitUninterruptibly();
+            }
+            if (failedCount > failedBefore) {
+                throw new IllegalStateException((failedCount - failedBefore) + " transactions could not be written");
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Writes all queued transactions and stops the writer thread.
+     * Transactions logged afterwards are written synchronously.
+     *
+     * @throws IllegalStateException if some transactions could not be written within {@link #CLOSE_RETRY_MILLIS}
+     *                               and were given up on
+     */
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            closed = true;
+            notEmpty.signal();
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        lock.lock();
+        try {
+            if (failedCount > 0) {
+                throw new IllegalStateException(failedCount + " transactions could not be written");
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns a snapshot of the logger's counters.
+     *
+     * @return the current Stats
+     */
+    public Stats getStats() {
+        lock.lock();
+        try {
+            return new Stats(
+                    (tail - head) + overflow.size(),
+                    enqueuedCount,
+                    droppedCount,
+                    spilledCount,
+                    writtenCount,
+                    failedCount,
+                    retryCount,
+                    batchCount,
+                    maxBatchSize,
+                    batchCount == 0 ? 0 : (double) (writtenCount + failedCount) / batchCount
+            );
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void runWriter() {
+        List<Transaction> batch = new ArrayList<>(batchSize);
+        // Set at the first failure after close; batches failing after it are given up on without retrying.
+        long giveUpAtNanos = 0;
+        boolean givingUp = false;
+        while (true) {
+            lock.lock();
+            try {
+                awaitBatch();
+                if (closed && tail == head && overflow.isEmpty()) {
+                    written.signalAll();
+                    return;
+                }
+                drainTo(batch);
+                flushRequested = false;
+                notFull.signalAll();
+                if (batch.isEmpty()) {
+                    written.signalAll();
+                    continue;
+                }
+            } finally {
+                lock.unlock();
+            }
+
+            int attempts = 1;
+            boolean success = writeBatch(batch, attempts);
+            long retryDelay = 0;
+            while (!success && !givingUp) {
+                boolean closing;
+                lock.lock();
+                try {
+                    retryCount++;
+                    closing = closed;
+                } finally {
+                    lock.unlock();
+                }
+                if (closing) {
+                    if (giveUpAtNanos == 0) {
+                        giveUpAtNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(CLOSE_RETRY_MILLIS);
+                    } else if (System.nanoTime() - giveUpAtNanos >= 0) {
+                        givingUp = true;
+                        break;
+                    }
+                }
+                retryDelay = Math.min(MAX_RETRY_DELAY_MILLIS, Math.max(10, retryDelay * 2));
+                sleep(retryDelay);
+                success = writeBatch(batch, ++attempts);
+            }
+
+            lock.lock();
+            try {
+                processedCount += batch.size();
+                if (success) {
+                    writtenCount += batch.size();
+                } else {
+                    failedCount += batch.size();
+                }
+                batchCount++;
+                maxBatchSize = Math.max(maxBatchSize, batch.size());
+                written.signalAll();
+            } finally {
+                lock.unlock();
+            }
+            batch.clear();
+        }
+    }
+
+    // Waits, holding the lock, until a full batch is queued, the oldest entry is due, or a flush or close is requested.
+    private void awaitBatch() {
+        long remaining = flushIntervalNanos;
+        while (!closed && !flushRequested && pending() < batchSize) {
+            if (pending() == 0) {
+                notEmpty.awaitUninterruptibly();
+                remaining = flushIntervalNanos;
+            } else if (remaining > 0) {
+                try {
+                    remaining = notEmpty.awaitNanos(remaining);
+                } catch (InterruptedException e) {
+                    remaining = 0;
+                }
+            } else {
+                return;
+            }
+        }
+    }
+
+    private int pending() {
+        return (int) (tail - head) + overflow.size();
+    }
+
+    private void drainTo(List<Transaction> batch) {
+        while (batch.size() < batchSize && head < tail) {
+            int slot = (int) (head % capacity);
+            batch.add(new Transaction(accountIds[slot], new Date(dates[slot]), types[slot], amounts[slot], balances[slot],
+                    counterpartyAccountIds[slot], new ObjectId().toHexString()));
+            types[slot] = null;
+            head++;
+        }
+        while (batch.size() < batchSize && !overflow.isEmpty()) {
+            batch.add(overflow.poll().withId(new ObjectId().toHexString()));
+        }
+    }
+
+    private boolean writeBatch(List<Transaction> batch, int attempt) {
+        try {
+            transactionRepository.saveAll(batch);
+            return true;
+        } catch (RuntimeException e) {
+            eventLog.at(Level.WARN, "transactionLog.writeFailed")
+                    .with("transactions", batch.size())
+                    .with("attempt", attempt)
+                    .with("error", e.getClass().getSimpleName())
+                    .with("message", String.valueOf(e.getMessage()))
+                    .publish();
+            return false;
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package com.acn3to.core.services;
+
+import com.acn3to.core.entities.BalanceSnapshot;
+import com.acn3to.core.entities.Transaction;
+import com.acn3to.core.metrics.Counter;
+import com.acn3to.core.metrics.MetricsRegistry;
+import com.acn3to.core.metrics.Timer;
+import com.acn3to.core.repositories.AccountRepository;
+import com.acn3to.core.repositories.SnapshotRepository;
+import com.acn3to.core.repositories.TransactionRepository;
+import com.acn3to.core.utils.Money;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.stream.Stream;
+
+/**
+ * Reconstructs account balances from balance snapshots and the transaction log.
+ * <p>
+ * The balance at a point in time is the nearest earlier snapshot plus the transactions between the two, so
+ * the cost of a query depends on how often the account is snapshotted, not on how old it is. Balances before
+ * an account's opening snapshot are unknown.
+ * </p>
+ */
+public class BalanceReplayer {
+    private static final int TAIL_BATCH_SIZE = 1000;
+
+    private final TransactionRepository transactionRepository;
+    private final SnapshotRepository snapshotRepository;
+    private final Timer replayTimer;
+    private final Counter replayedCounter;
+
+    /**
+     * The outcome of a replay.
+     *
+     * @param base     the snapshot the replay started from
+     * @param snapshot the balance at the requested time, as a snapshot that is not saved
+     */
+    public record Replay(BalanceSnapshot base, BalanceSnapshot snapshot) {
+
+        /**
+         * Returns the number of transactions applied on top of the base snapshot.
+         *
+         * @return the length of the replayed tail
+         */
+        public long tailLength() {
+            return snapshot.transactionCount() - base.transactionCount();
+        }
+    }
+
+    /**
+     * Summarises a comparison of replayed balances with the stored ones.
+     *
+     * @param accounts             the number of accounts checked
+     * @param mismatches           the number of accounts whose replayed balance differs from the stored one
+     * @param unknown              the number of accounts without a snapshot or without a stored balance
+     * @param replayedTransactions the total number of transactions applied on top of snapshots
+     * @param elapsed              the wall-clock time the check took
+     */
+    public record Verification(int accounts, int mismatches, int unknown, long replayedTransactions, Duration elapsed) {
+
+        /**
+         * Formats the verification as a one-line summary.
+         *
+         * @return the formatted verification
+         */
+        public String format() {
+            return String.format("Replayed %d balances in %d ms (%.1f transactions per account): %d mismatches, %d unknown%n",
+                    accounts, elapsed.toMillis(), accounts > 0 ? (double) replayedTransactions / accounts : 0,
+                    mismatches, unknown);
+        }
+    }
+
+    /**
+     * Constructs a BalanceReplayer over the given repositories.
+     * Replays are timed in {@link MetricsRegistry#getDefault()}.
+     *
+     * @param transactionRepository the repository holding the transactions
+     * @param snapshotRepository    the repository holding the balance snapshots
+     */
+    public BalanceReplayer(TransactionRepository transactionRepository, SnapshotRepository snapshotRepository) {
+        this.transactionRepository = transactionRepository;
+        this.snapshotRepository = snapshotRepository;
+        MetricsRegistry registry = MetricsRegistry.getDefault();
+        this.replayTimer = registry.timer("banking_balance_replay_seconds", "Time to replay a balance from its snapshot.");
+        this.replayedCounter = registry.counter("banking_balance_replay_transactions_total",
+                "Transactions applied on top of snapshots by balance replays.");
+    }
+
+    /**
+     * Replays an account's balance at a point in time.
+     *
+     * @param accountId  the ID of the account
+     * @param asOfMillis the point in time, in epoch milliseconds
+     * @return the replay, or null if the account has no snapshot at or before that time
+     */
+    public Replay replay(int accountId, long asOfMillis) {
+        long start = System.nanoTime();
+        BalanceSnapshot base = snapshotRepository.findLatest(accountId, asOfMillis);
+        if (base == null) {
+            return null;
+        }
+        BalanceSnapshot snapshot;
+        try (Stream<Transaction> tail = transactionRepository.streamAffectingAccount(accountId,
+                new Date(base.asOfMillis()), new Date(asOfMillis), TAIL_BATCH_SIZE)) {
+            snapshot = base.advance(asOfMillis, tail);
+        }
+        Replay replay = new Replay(base, snapshot);
+        replayedCounter.add(replay.tailLength());
+        replayTimer.recordSince(start);
+        return replay;
+    }
+
+    /**
+     * Returns an account's balance at a point in time.
+     *
+     * @param accountId the ID of the account
+     * @param date      the point in time
+     * @return the balance in cents, or {@link Money#NO_BALANCE} if it is unknown
+     */
+    public long balanceAt(int accountId, Date date) {
+        Replay replay = replay(accountId, date.getTime());
+        return replay != null ? replay.snapshot().balanceCents() : Money.NO_BALANCE;
+    }
+
+    /**
+     * Replays the current balance of a range of accounts and compares it with the stored balance. Every
+     * transaction must already be saved and no balance may change while the check runs.
+     *
+     * @param accountRepository the repository holding the stored balances
+     * @param firstAccountId    the first account ID to check
+     * @param lastAccountId     the last account ID to check, inclusive
+     * @return the outcome of the check
+     */
+    public Verification verify(AccountRepository accountRepository, int firstAccountId, int lastAccountId) {
+        long start = System.nanoTime();
+        long now = System.currentTimeMillis();
+        int mismatches = 0;
+        int unknown = 0;
+        long replayedTransactions = 0;
+        for (int accountId = firstAccountId; accountId <= lastAccountId; accountId++) {
+            Replay replay = replay(accountId, now);
+            long stored = accountRepository.findBalance(accountId);
+            if (replay == null || stored == Money.NO_BALANCE) {
+                unknown++;
+                continue;
+            }
+            replayedTransactions += replay.tailLength();
+            if (replay.snapshot().balanceCents() != stored) {
+                mismatches++;
+            }
+        }
+        return new Verification(lastAccountId - firstAccountId + 1, mismatches, unknown, replayedTransactions,
+                Duration.ofNanos(System.nanoTime() - start));
+    }
+}
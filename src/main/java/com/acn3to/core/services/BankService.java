@@ -1,28 +1,72 @@
 package com.acn3to.core.services;
 
 import com.acn3to.core.entities.Account;
+import com.acn3to.core.entities.BalanceSnapshot;
 import com.acn3to.core.entities.BankAgency;
 import com.acn3to.core.repositories.AccountRepository;
 import com.acn3to.core.repositories.BankAgencyRepository;
+import com.acn3to.core.repositories.SnapshotRepository;
+import com.acn3to.core.utils.AgencyIndex;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Service class for managing bank accounts and bank agencies.
+ * <p>
+ * Nearest-agency queries are answered from an in-memory {@link AgencyIndex}, built from all agencies on the
+ * first query and rebuilt after agencies are added through this service. Agencies added by other processes
+ * appear after {@link #refreshAgencyIndex()}. Without the index, queries go to the repository.
+ * </p>
+ * <p>
+ * Given a snapshot repository, the service also saves the opening balance snapshot of every account it adds,
+ * which later balance snapshots and replays build on.
+ * </p>
  */
 public class BankService {
     private final AccountRepository accountRepository;
     private final BankAgencyRepository bankAgencyRepository;
+    private final SnapshotRepository snapshotRepository;
+    private final boolean indexAgencies;
+    private final AtomicLong agencyVersion = new AtomicLong();
+    private volatile AgencyIndex agencyIndex;
 
     /**
-     * Constructs a BankService with the given repositories.
+     * Constructs a BankService with the given repositories, answering nearest-agency queries from memory.
      *
      * @param accountRepository    the repository for managing accounts
      * @param bankAgencyRepository the repository for managing bank agencies
      */
     public BankService(AccountRepository accountRepository, BankAgencyRepository bankAgencyRepository) {
+        this(accountRepository, bankAgencyRepository, true);
+    }
+
+    /**
+     * Constructs a BankService with the given repositories.
+     *
+     * @param accountRepository    the repository for managing accounts
+     * @param bankAgencyRepository the repository for managing bank agencies
+     * @param indexAgencies        whether nearest-agency queries use an in-memory index instead of the repository
+     */
+    public BankService(AccountRepository accountRepository, BankAgencyRepository bankAgencyRepository, boolean indexAgencies) {
+        this(accountRepository, bankAgencyRepository, indexAgencies, null);
+    }
+
+    /**
+     * Constructs a BankService with the given repositories.
+     *
+     * @param accountRepository    the repository for managing accounts
+     * @param bankAgencyRepository the repository for managing bank agencies
+     * @param indexAgencies        whether nearest-agency queries use an in-memory index instead of the repository
+     * @param snapshotRepository   the repository the opening balance snapshots are saved in, or null not to save them
+     */
+    public BankService(AccountRepository accountRepository, BankAgencyRepository bankAgencyRepository, boolean indexAgencies,
+                       SnapshotRepository snapshotRepository) {
         this.accountRepository = accountRepository;
         this.bankAgencyRepository = bankAgencyRepository;
+        this.indexAgencies = indexAgencies;
+        this.snapshotRepository = snapshotRepository;
     }
 
     /**
@@ -33,6 +77,25 @@ public class BankService {
     public void addAccount(Account account) {
         if (account != null) {
             accountRepository.save(account);
+            if (snapshotRepository != null) {
+                snapshotRepository.save(BalanceSnapshot.opening(account));
+            }
+        }
+    }
+
+    /**
+     * Adds several accounts to the bank with a single bulk write.
+     *
+     * @param accounts the accounts to add
+     */
+    public void addAccounts(List<Account> accounts) {
+        accountRepository.saveAll(accounts);
+        if (snapshotRepository != null) {
+            List<BalanceSnapshot> snapshots = new ArrayList<>(accounts.size());
+            for (Account account : accounts) {
+                snapshots.add(BalanceSnapshot.opening(account));
+            }
+            snapshotRepository.saveAll(snapshots);
         }
     }
 
@@ -63,9 +126,20 @@ public class BankService {
     public void addBankAgency(BankAgency agency) {
         if (agency != null) {
             bankAgencyRepository.save(agency);
+            invalidateAgencyIndex();
         }
     }
 
+    /**
+     * Adds several bank agencies with a single bulk write.
+     *
+     * @param agencies the bank agencies to add
+     */
+    public void addBankAgencies(List<BankAgency> agencies) {
+        bankAgencyRepository.saveAll(agencies);
+        invalidateAgencyIndex();
+    }
+
     /**
      * Retrieves the bank agency associated with the given ID.
      *
@@ -84,4 +158,44 @@ public class BankService {
     public List<BankAgency> getAllBankAgencies() {
         return bankAgencyRepository.findAll();
     }
+
+    /**
+     * Finds the bank agencies nearest to a location, by great-circle distance.
+     *
+     * @param latitude  the latitude of the location, in degrees
+     * @param longitude the longitude of the location, in degrees
+     * @param limit     the maximum number of agencies to return
+     * @param onlyOpen  whether to skip agencies that are not open
+     * @return up to limit agencies, nearest first
+     */
+    public List<BankAgency> findNearestAgencies(double latitude, double longitude, int limit, boolean onlyOpen) {
+        if (!indexAgencies) {
+            return bankAgencyRepository.findNearest(latitude, longitude, limit, onlyOpen);
+        }
+        AgencyIndex index = agencyIndex;
+        if (index == null) {
+            index = refreshAgencyIndex();
+        }
+        return index.findNearest(latitude, longitude, limit, onlyOpen);
+    }
+
+    /**
+     * Rebuilds the nearest-agency index from the repository.
+     *
+     * @return the new index
+     */
+    public synchronized AgencyIndex refreshAgencyIndex() {
+        long version = agencyVersion.get();
+        AgencyIndex index = new AgencyIndex(bankAgencyRepository.findAll());
+        // An agency added while the index was being built may be missing from it; leave it for the next query.
+        if (agencyVersion.get() == version) {
+            agencyIndex = index;
+        }
+        return index;
+    }
+
+    private void invalidateAgencyIndex() {
+        agencyVersion.incrementAndGet();
+        agencyIndex = null;
+    }
 }
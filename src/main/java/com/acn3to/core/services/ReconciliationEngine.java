@@ -0,0 +1,312 @@
+package com.acn3to.core.services;
+
+import com.acn3to.core.entities.BalanceSnapshot;
+import com.acn3to.core.metrics.MetricsRegistry;
+import com.acn3to.core.metrics.Timer;
+import com.acn3to.core.repositories.AccountRepository;
+import com.acn3to.core.repositories.SnapshotRepository;
+import com.acn3to.core.repositories.TransactionRepository;
+import com.acn3to.core.utils.Money;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Checks that every account's stored balance equals its opening balance plus the transactions made since.
+ * <p>
+ * The account ID range is cut into fixed-size partitions, split recursively on a fork-join pool. Each partition
+ * costs three range queries whatever its size: the stored balances, the opening snapshots and the per-account sums
+ * of the transactions dated after them, which the transaction store computes itself. Partitions share nothing, so
+ * a run scales with the number of threads until the database is saturated.
+ * </p>
+ * <p>
+ * An account seeded again into a reused database is checked from its latest opening snapshot, so the
+ * transactions of its earlier life are ignored.
+ * </p>
+ * <p>
+ * Given a checkpoint file, the outcome of each partition is appended to it as one line when the partition is done,
+ * and a later run with the same file and partition size skips the partitions already listed and reports their
+ * discrepancies again. Balances must not change while a reconciliation runs, e.g. it runs at the end of the day.
+ * </p>
+ */
+public class ReconciliationEngine {
+    public static final int DEFAULT_PARTITION_SIZE = 10_000;
+
+    private final AccountRepository accountRepository;
+    private final TransactionRepository transactionRepository;
+    private final SnapshotRepository snapshotRepository;
+    private final int partitionSize;
+    private final int parallelism;
+    private final Timer partitionTimer;
+
+    /**
+     * Constructs a ReconciliationEngine over the given repositories.
+     * The time each partition takes is recorded in {@link MetricsRegistry#getDefault()}.
+     *
+     * @param accountRepository     the repository holding the stored balances
+     * @param transactionRepository the repository holding the transaction history
+     * @param snapshotRepository    the repository holding the opening balances
+     * @param partitionSize         the number of account IDs checked together
+     * @param parallelism           the number of partitions checked at the same time
+     * @throws IllegalArgumentException if the partition size or parallelism is not positive
+     */
+    public ReconciliationEngine(AccountRepository accountRepository, TransactionRepository transactionRepository,
+                                SnapshotRepository snapshotRepository, int partitionSize, int parallelism) {
+        if (partitionSize <= 0 || parallelism <= 0) {
+            throw new IllegalArgumentException("Partition size and parallelism must be positive: "
+                    + partitionSize + ", " + parallelism);
+        }
+        this.accountRepository = accountRepository;
+        this.transactionRepository = transactionRepository;
+        this.snapshotRepository = snapshotRepository;
+        this.partitionSize = partitionSize;
+        this.parallelism = parallelism;
+        this.partitionTimer = MetricsRegistry.getDefault().timer("banking_reconciliation_partition_seconds",
+                "Time to reconcile one partition of accounts.");
+    }
+
+    /**
+     * Reconciles a range of accounts.
+     *
+     * @param firstAccountId the first account ID to check
+     * @param lastAccountId  the last account ID to check, inclusive
+     * @param checkpointFile the file partition outcomes are appended to and resumed from, or null not to keep one
+     * @return the outcome of the run, including the partitions resumed from the checkpoint file
+     * @throws UncheckedIOException  if the checkpoint file cannot be read or written
+     * @throws IllegalStateException if the checkpoint file was written with a different partition size
+     */
+    public ReconciliationReport reconcile(int firstAccountId, int lastAccountId, Path checkpointFile) {
+        long start = System.nanoTime();
+        Progress progress = new Progress();
+        Map<Integer, PartitionResult> resumed = checkpointFile != null ? resume(checkpointFile) : Map.of();
+        List<Integer> pending = new ArrayList<>();
+        for (long first = firstAccountId; first <= lastAccountId; first += partitionSize) {
+            int count = (int) Math.min(partitionSize, lastAccountId - first + 1);
+            PartitionResult result = resumed.get((int) first);
+            if (result == null) {
+                pending.add((int) first);
+            } else if (result.count() != count) {
+                throw new IllegalStateException("Checkpoint " + checkpointFile + " has partition " + first + " with "
+                        + result.count() + " accounts instead of " + count);
+            } else {
+                progress.add(result);
+            }
+        }
+        int resumedPartitions = progress.partitions.get();
+
+        try (Writer checkpoint = checkpointFile != null ? Files.newBufferedWriter(checkpointFile, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND) : null) {
+            ForkJoinPool pool = new ForkJoinPool(parallelism);
+            try {
+                pool.invoke(new PartitionTask(pending, 0, pending.size(), lastAccountId, progress, checkpoint));
+            } finally {
+                pool.shutdown();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        List<ReconciliationReport.Discrepancy> discrepancies = new ArrayList<>(progress.discrepancies);
+        discrepancies.sort(Comparator.comparingInt(ReconciliationReport.Discrepancy::accountId));
+        return new ReconciliationReport(progress.accounts.sum(), progress.unverifiable.sum(), discrepancies,
+                progress.partitions.get() - resumedPartitions, resumedPartitions,
+                Duration.ofNanos(System.nanoTime() - start));
+    }
+
+    private PartitionResult reconcilePartition(int firstAccountId, int count) {
+        long start = System.nanoTime();
+        int[] accountIds = new int[count];
+        for (int i = 0; i < count; i++) {
+            accountIds[i] = firstAccountId + i;
+        }
+        long[] stored = accountRepository.findBalances(accountIds, count);
+        BalanceSnapshot[] openings = snapshotRepository.findOpeningSnapshots(firstAccountId, count);
+        long[] opening = new long[count];
+        long[] openedAt = new long[count];
+        for (int i = 0; i < count; i++) {
+            opening[i] = openings[i] != null ? openings[i].balanceCents() : Money.NO_BALANCE;
+            openedAt[i] = openings[i] != null ? openings[i].asOfMillis() : Long.MIN_VALUE;
+        }
+        long[] changes = transactionRepository.sumBalanceChanges(firstAccountId, count, openedAt);
+        int accounts = 0;
+        int unverifiable = 0;
+        List<ReconciliationReport.Discrepancy> discrepancies = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            if (stored[i] == Money.NO_BALANCE && opening[i] == Money.NO_BALANCE && changes[i] == 0) {
+                continue;
+            }
+            accounts++;
+            if (stored[i] == Money.NO_BALANCE || opening[i] == Money.NO_BALANCE) {
+                unverifiable++;
+            } else if (opening[i] + changes[i] != stored[i]) {
+                discrepancies.add(new ReconciliationReport.Discrepancy(accountIds[i], stored[i], opening[i] + changes[i]));
+            }
+        }
+        partitionTimer.recordSince(start);
+        return new PartitionResult(firstAccountId, count, accounts, unverifiable, discrepancies);
+    }
+
+    /**
+     * Reads the partitions completed by earlier runs and cuts off a line left incomplete by a crash.
+     */
+    private static Map<Integer, PartitionResult> resume(Path checkpointFile) {
+        Map<Integer, PartitionResult> results = new HashMap<>();
+        if (!Files.exists(checkpointFile)) {
+            return results;
+        }
+        try {
+            String content = Files.readString(checkpointFile, StandardCharsets.UTF_8);
+            int complete = content.lastIndexOf('\n') + 1;
+            for (String line : content.substring(0, complete).split("\n")) {
+                if (!line.isEmpty()) {
+                    PartitionResult result = PartitionResult.parse(line);
+                    results.put(result.firstAccountId(), result);
+                }
+            }
+            if (complete < content.length()) {
+                try (FileChannel channel = FileChannel.open(checkpointFile, StandardOpenOption.WRITE)) {
+                    channel.truncate(content.substring(0, complete).getBytes(StandardCharsets.UTF_8).length);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return results;
+    }
+
+    /**
+     * The outcome of one partition, as kept in the checkpoint file.
+     */
+    private record PartitionResult(int firstAccountId, int count, int accounts, int unverifiable,
+                                   List<ReconciliationReport.Discrepancy> discrepancies) {
+
+        /**
+         * Formats the result as one checkpoint line, e.g.
+         * {@code partition first=1 count=10000 accounts=10000 unverifiable=0 discrepancies=42:1000:1200}.
+         */
+        String format() {
+            StringBuilder line = new StringBuilder("partition first=").append(firstAccountId)
+                    .append(" count=").append(count)
+                    .append(" accounts=").append(accounts)
+                    .append(" unverifiable=").append(unverifiable)
+                    .append(" discrepancies=");
+            for (int i = 0; i < discrepancies.size(); i++) {
+                ReconciliationReport.Discrepancy discrepancy = discrepancies.get(i);
+                line.append(i > 0 ? "," : "").append(discrepancy.accountId())
+                        .append(':').append(discrepancy.storedCents())
+                        .append(':').append(discrepancy.expectedCents());
+            }
+            return line.append('\n').toString();
+        }
+
+        static PartitionResult parse(String line) {
+            String[] fields = line.split(" ");
+            if (fields.length != 6 || !fields[0].equals("partition")) {
+                throw new IllegalStateException("Malformed reconciliation checkpoint line: " + line);
+            }
+            List<ReconciliationReport.Discrepancy> discrepancies = new ArrayList<>();
+            String listed = valueOf(fields[5], "discrepancies");
+            if (!listed.isEmpty()) {
+                for (String entry : listed.split(",")) {
+                    String[] parts = entry.split(":");
+                    discrepancies.add(new ReconciliationReport.Discrepancy(Integer.parseInt(parts[0]),
+                            Long.parseLong(parts[1]), Long.parseLong(parts[2])));
+                }
+            }
+            return new PartitionResult(Integer.parseInt(valueOf(fields[1], "first")),
+                    Integer.parseInt(valueOf(fields[2], "count")),
+                    Integer.parseInt(valueOf(fields[3], "accounts")),
+                    Integer.parseInt(valueOf(fields[4], "unverifiable")),
+                    discrepancies);
+        }
+
+        private static String valueOf(String field, String key) {
+            if (!field.startsWith(key + "=")) {
+                throw new IllegalStateException("Expected " + key + " in reconciliation checkpoint field: " + field);
+            }
+            return field.substring(key.length() + 1);
+        }
+    }
+
+    /**
+     * Totals of the partitions done so far, updated concurrently by the partition tasks.
+     */
+    private static class Progress {
+        final LongAdder accounts = new LongAdder();
+        final LongAdder unverifiable = new LongAdder();
+        final AtomicInteger partitions = new AtomicInteger();
+        final List<ReconciliationReport.Discrepancy> discrepancies = new ArrayList<>();
+
+        void add(PartitionResult result) {
+            accounts.add(result.accounts());
+            unverifiable.add(result.unverifiable());
+            partitions.incrementAndGet();
+            synchronized (discrepancies) {
+                discrepancies.addAll(result.discrepancies());
+            }
+        }
+    }
+
+    /**
+     * Reconciles the pending partitions in [from, to), splitting the list while it holds more than one partition.
+     */
+    private class PartitionTask extends RecursiveAction {
+        private final List<Integer> partitions;
+        private final int from;
+        private final int to;
+        private final int lastAccountId;
+        private final Progress progress;
+        private final Writer checkpoint;
+
+        PartitionTask(List<Integer> partitions, int from, int to, int lastAccountId, Progress progress, Writer checkpoint) {
+            this.partitions = partitions;
+            this.from = from;
+            this.to = to;
+            this.lastAccountId = lastAccountId;
+            this.progress = progress;
+            this.checkpoint = checkpoint;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > 1) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new PartitionTask(partitions, from, middle, lastAccountId, progress, checkpoint),
+                        new PartitionTask(partitions, middle, to, lastAccountId, progress, checkpoint));
+                return;
+            }
+            if (to == from) {
+                return;
+            }
+            int first = partitions.get(from);
+            PartitionResult result = reconcilePartition(first, (int) Math.min(partitionSize, (long) lastAccountId - first + 1));
+            if (checkpoint != null) {
+                try {
+                    synchronized (checkpoint) {
+                        checkpoint.write(result.format());
+                        checkpoint.flush();
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+            progress.add(result);
+        }
+    }
+}
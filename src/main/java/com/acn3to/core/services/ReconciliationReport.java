@@ -0,0 +1,63 @@
+package com.acn3to.core.services;
+
+import com.acn3to.core.utils.Money;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Summarises a reconciliation of stored balances with the transaction history.
+ *
+ * @param accounts          the number of existing accounts checked
+ * @param unverifiable      the number of accounts that could not be checked because they have no opening balance
+ *                          snapshot, or have transactions but no stored balance
+ * @param discrepancies     the accounts whose stored balance differs from the one computed from their history,
+ *                          in account ID order
+ * @param partitions        the number of partitions checked by this run
+ * @param resumedPartitions the number of partitions already checked by an earlier run and skipped
+ * @param elapsed           the wall-clock time the run took
+ */
+public record ReconciliationReport(long accounts, long unverifiable, List<Discrepancy> discrepancies, int partitions,
+                                   int resumedPartitions, Duration elapsed) {
+    private static final int MAX_LISTED_DISCREPANCIES = 20;
+
+    /**
+     * An account whose stored balance does not match its transaction history.
+     *
+     * @param accountId     the ID of the account
+     * @param storedCents   the balance stored for the account, in cents
+     * @param expectedCents the latest opening balance plus every later transaction of the account, in cents
+     */
+    public record Discrepancy(int accountId, long storedCents, long expectedCents) {
+
+        /**
+         * Returns how much the stored balance exceeds the expected one.
+         *
+         * @return the difference in cents; negative if the stored balance is too low
+         */
+        public long differenceCents() {
+            return storedCents - expectedCents;
+        }
+    }
+
+    /**
+     * Formats the report as a summary line followed by the first discrepancies.
+     *
+     * @return the formatted report
+     */
+    public String format() {
+        StringBuilder out = new StringBuilder(String.format(
+                "Reconciled %d accounts in %d ms (%d partitions, %d resumed): %d discrepancies, %d unverifiable%n",
+                accounts, elapsed.toMillis(), partitions, resumedPartitions, discrepancies.size(), unverifiable));
+        for (Discrepancy discrepancy : discrepancies.subList(0, Math.min(discrepancies.size(), MAX_LISTED_DISCREPANCIES))) {
+            out.append("  account ").append(discrepancy.accountId()).append(": stored ");
+            Money.appendTo(out, discrepancy.storedCents()).append(", expected ");
+            Money.appendTo(out, discrepancy.expectedCents()).append(System.lineSeparator());
+        }
+        if (discrepancies.size() > MAX_LISTED_DISCREPANCIES) {
+            out.append("  ... and ").append(discrepancies.size() - MAX_LISTED_DISCREPANCIES).append(" more")
+                    .append(System.lineSeparator());
+        }
+        return out.toString();
+    }
+}
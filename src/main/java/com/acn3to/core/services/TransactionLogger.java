@@ -1,51 +1,174 @@
 package com.acn3to.core.services;
 
+import com.acn3to.core.analytics.TransactionAnalytics;
 import com.acn3to.core.entities.Transaction;
+import com.acn3to.core.metrics.Counter;
+import com.acn3to.core.metrics.MetricsRegistry;
+import com.acn3to.core.metrics.Timer;
 import com.acn3to.core.repositories.TransactionRepository;
+import com.acn3to.core.utils.Money;
 
-import java.math.BigDecimal;
-import java.math.RoundingMode;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.List;
 
 /**
  * Logs transactions to a MongoDB collection using a repository.
  * <p>
  * This class stores transaction details in a MongoDB collection for persistent record-keeping.
+ * Given {@link TransactionAnalytics}, every logged operation, including failed ones, is also fed to them.
  * </p>
  */
-public class TransactionLogger {
-    private final TransactionRepository transactionRepository;
+public class TransactionLogger implements AutoCloseable {
+    protected final TransactionRepository transactionRepository;
+    private final TransactionAnalytics analytics;
+    private final Timer logTimer;
+    private final Counter loggedCounter;
 
     /**
      * Constructs a TransactionLogger with a specified TransactionRepository.
+     * The time callers spend logging is recorded in {@link MetricsRegistry#getDefault()}, labelled with the logger class.
      *
      * @param transactionRepository the repository used for storing transactions
      */
     public TransactionLogger(TransactionRepository transactionRepository) {
+        this(transactionRepository, null);
+    }
+
+    /**
+     * Constructs a TransactionLogger with a specified TransactionRepository that also feeds the logged operations
+     * to streaming analytics.
+     *
+     * @param transactionRepository the repository used for storing transactions
+     * @param analytics             the analytics every logged operation is recorded in, or null
+     */
+    public TransactionLogger(TransactionRepository transactionRepository, TransactionAnalytics analytics) {
         this.transactionRepository = transactionRepository;
+        this.analytics = analytics;
+        String logger = getClass().getSimpleName();
+        MetricsRegistry registry = MetricsRegistry.getDefault();
+        this.logTimer = registry.timer("banking_transaction_log_seconds",
+                "Time callers spend logging a transaction or batch.", "logger", logger);
+        this.loggedCounter = registry.counter("banking_transactions_logged_total",
+                "Successful transactions handed to the logger.", "logger", logger);
     }
 
     /**
      * Logs a transaction with the specified details.
+     * Failed transactions did not move any money and are not persisted.
      *
      * @param accountId         the ID of the account involved in the transaction
      * @param transactionType  the type of transaction ("Deposit" or "Withdrawal")
-     * @param amount           the amount of money involved in the transaction
-     * @param newBalance       the balance after the transaction
+     * @param amountCents      the amount of money involved in the transaction, in cents
+     * @param newBalance       the balance after the transaction, in cents
      * @param error            indicates if the transaction failed
      */
-    public synchronized void logTransaction(int accountId, String transactionType, double amount, double newBalance, boolean error) {
-        BigDecimal formattedAmount = BigDecimal.valueOf(amount).setScale(2, RoundingMode.HALF_UP);
-        BigDecimal formattedBalance = BigDecimal.valueOf(newBalance).setScale(2, RoundingMode.HALF_UP);
+    public void logTransaction(int accountId, String transactionType, long amountCents, long newBalance, boolean error) {
+        if (analytics != null) {
+            analytics.record(transactionType, accountId, amountCents, error);
+        }
+        if (error) {
+            return;
+        }
+        long start = System.nanoTime();
+        record(accountId, 0, transactionType, amountCents, newBalance);
+        logTimer.recordSince(start);
+        loggedCounter.increment();
+    }
+
+    /**
+     * Logs a transfer as a single entry naming both accounts.
+     * Failed transfers did not move any money and are not persisted.
+     *
+     * @param fromAccountId  the ID of the account the money left
+     * @param toAccountId    the ID of the account that received the money
+     * @param amountCents    the amount transferred, in cents
+     * @param newFromBalance the balance of the source account after the transfer, in cents
+     * @param error          indicates if the transfer failed
+     */
+    public void logTransfer(int fromAccountId, int toAccountId, long amountCents, long newFromBalance, boolean error) {
+        if (analytics != null) {
+            analytics.record("Transfer", fromAccountId, amountCents, error);
+        }
+        if (error) {
+            return;
+        }
+        long start = System.nanoTime();
+        record(fromAccountId, toAccountId, "Transfer", amountCents, newFromBalance);
+        logTimer.recordSince(start);
+        loggedCounter.increment();
+    }
+
+    /**
+     * Logs the operations of a batch with a single write to the repository, bypassing any buffering.
+     * The arrays are parallel; operations with a balance of {@link Money#NO_BALANCE} were rejected and are not persisted.
+     *
+     * @param accountIds       the IDs of the accounts involved
+     * @param transactionTypes the type of each transaction
+     * @param amounts          the amount of each transaction, in cents
+     * @param newBalances      the balance after each transaction in cents, or {@link Money#NO_BALANCE} if it was rejected
+     * @param count            the number of leading entries of the arrays to log
+     */
+    public void logBatch(int[] accountIds, String[] transactionTypes, long[] amounts, long[] newBalances, int count) {
+        long start = System.nanoTime();
+        Date date = new Date();
+        List<Transaction> transactions = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            if (analytics != null) {
+                analytics.record(transactionTypes[i], accountIds[i], amounts[i], newBalances[i] == Money.NO_BALANCE);
+            }
+            if (newBalances[i] != Money.NO_BALANCE) {
+                transactions.add(createTransaction(accountIds[i], 0, date, transactionTypes[i], amounts[i], newBalances[i]));
+            }
+        }
+        if (!transactions.isEmpty()) {
+            transactionRepository.saveAll(transactions);
+        }
+        logTimer.recordSince(start);
+        loggedCounter.add(transactions.size());
+    }
+
+    /**
+     * Persists a successful transaction. Subclasses override this to change how entries are written.
+     *
+     * @param accountId             the ID of the account involved in the transaction
+     * @param counterpartyAccountId the ID of the receiving account for transfers, otherwise 0
+     * @param transactionType       the type of transaction
+     * @param amountCents           the amount of money involved in the transaction, in cents
+     * @param newBalance            the balance after the transaction, in cents
+     */
+    protected void record(int accountId, int counterpartyAccountId, String transactionType, long amountCents, long newBalance) {
+        transactionRepository.save(createTransaction(accountId, counterpartyAccountId, new Date(), transactionType, amountCents, newBalance));
+    }
+
+    /**
+     * Waits until every transaction logged so far has been persisted.
+     * Transactions are written synchronously by this logger, so there is nothing to wait for.
+     */
+    public void flush() {
+    }
 
-        Transaction transaction = new Transaction(
-                accountId,
-                new Date(),
-                transactionType,
-                formattedAmount.doubleValue(),
-                formattedBalance.doubleValue()
-        );
+    /**
+     * Flushes pending transactions and releases any resources held by the logger.
+     */
+    @Override
+    public void close() {
+        flush();
+    }
 
-        transactionRepository.save(transaction);
+    /**
+     * Builds the Transaction record to persist. Amounts are already whole cents, so no rounding is needed.
+     *
+     * @param accountId             the ID of the account involved in the transaction
+     * @param counterpartyAccountId the ID of the receiving account for transfers, otherwise 0
+     * @param date                  the date and time of the transaction
+     * @param transactionType       the type of transaction
+     * @param amountCents           the amount of money involved in the transaction, in cents
+     * @param newBalance            the balance after the transaction, in cents
+     * @return the Transaction record
+     */
+    protected static Transaction createTransaction(int accountId, int counterpartyAccountId, Date date, String transactionType,
+                                                   long amountCents, long newBalance) {
+        return new Transaction(accountId, date, transactionType, amountCents, newBalance, counterpartyAccountId);
     }
 }
@@ -0,0 +1,281 @@
+package com.acn3to.core.utils;
+
+import com.acn3to.core.entities.BankAgency;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * An immutable spatial index answering nearest-agency queries.
+ * <p>
+ * Agency coordinates are converted to points on the unit sphere and stored in a k-d tree laid out implicitly in
+ * arrays: the node for a range of slots is its middle slot, and its children are the two halves on either side.
+ * Each node splits on the axis along which its subtree is most spread out. The straight-line distance between
+ * two points on the sphere grows with their great-circle distance, so the tree can prune with plain coordinate
+ * differences and still return the agencies that are nearest on the globe, without special cases at the poles
+ * or the antimeridian. A query visits O(log n + k) nodes on average instead of scanning every agency.
+ * </p>
+ */
+public class AgencyIndex {
+    public static final double EARTH_RADIUS_METERS = 6_371_008.8;
+
+    private final BankAgency[] agencies;
+    private final double[][] coordinates;
+    private final byte[] splitAxes;
+    private final boolean[] open;
+
+    /**
+     * Builds an index over the given agencies.
+     *
+     * @param agencies the agencies to index
+     */
+    public AgencyIndex(Collection<BankAgency> agencies) {
+        int size = agencies.size();
+        BankAgency[] unordered = agencies.toArray(new BankAgency[0]);
+        double[][] points = new double[size][];
+        for (int i = 0; i < size; i++) {
+            points[i] = toUnitVector(unordered[i].getLatitude(), unordered[i].getLongitude());
+        }
+        int[] order = new int[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = i;
+        }
+        this.splitAxes = new byte[size];
+        build(order, points, 0, size);
+
+        this.agencies = new BankAgency[size];
+        this.coordinates = new double[3][size];
+        this.open = new boolean[size];
+        for (int slot = 0; slot < size; slot++) {
+            int agency = order[slot];
+            this.agencies[slot] = unordered[agency];
+            for (int axis = 0; axis < 3; axis++) {
+                coordinates[axis][slot] = points[agency][axis];
+            }
+            this.open[slot] = unordered[agency].isOpen();
+        }
+    }
+
+    /**
+     * Returns the number of indexed agencies.
+     *
+     * @return the size of the index
+     */
+    public int size() {
+        return agencies.length;
+    }
+
+    /**
+     * Finds the agencies nearest to a location.
+     *
+     * @param latitude  the latitude of the location, in degrees
+     * @param longitude the longitude of the location, in degrees
+     * @param limit     the maximum number of agencies to return
+     * @param onlyOpen  whether to skip agencies that are not open
+     * @return up to limit agencies, nearest first
+     */
+    public List<BankAgency> findNearest(double latitude, double longitude, int limit, boolean onlyOpen) {
+        if (limit <= 0 || agencies.length == 0) {
+            return new ArrayList<>(0);
+        }
+        Search search = new Search(toUnitVector(latitude, longitude), Math.min(limit, agencies.length), onlyOpen);
+        search.visit(0, agencies.length);
+        return search.result();
+    }
+
+    /**
+     * Returns the great-circle distance between two locations.
+     *
+     * @param latitude1  the latitude of the first location, in degrees
+     * @param longitude1 the longitude of the first location, in degrees
+     * @param latitude2  the latitude of the second location, in degrees
+     * @param longitude2 the longitude of the second location, in degrees
+     * @return the distance in meters
+     */
+    public static double distanceMeters(double latitude1, double longitude1, double latitude2, double longitude2) {
+        double[] first = toUnitVector(latitude1, longitude1);
+        double[] second = toUnitVector(latitude2, longitude2);
+        double dx = first[0] - second[0];
+        double dy = first[1] - second[1];
+        double dz = first[2] - second[2];
+        return chordToMeters(dx * dx + dy * dy + dz * dz);
+    }
+
+    private static double chordToMeters(double squaredChord) {
+        return 2 * EARTH_RADIUS_METERS * Math.asin(Math.min(1, Math.sqrt(squaredChord) / 2));
+    }
+
+    private static double[] toUnitVector(double latitude, double longitude) {
+        double phi = Math.toRadians(latitude);
+        double lambda = Math.toRadians(longitude);
+        double cosPhi = Math.cos(phi);
+        return new double[]{cosPhi * Math.cos(lambda), cosPhi * Math.sin(lambda), Math.sin(phi)};
+    }
+
+    /**
+     * Arranges order[from, to) into a k-d tree: the middle slot holds the median along the widest axis,
+     * smaller points go before it and larger ones after it, recursively.
+     */
+    private void build(int[] order, double[][] points, int from, int to) {
+        if (to - from <= 1) {
+            return;
+        }
+        int axis = widestAxis(order, points, from, to);
+        int middle = (from + to) >>> 1;
+        select(order, points, axis, from, to - 1, middle);
+        splitAxes[middle] = (byte) axis;
+        build(order, points, from, middle);
+        build(order, points, middle + 1, to);
+    }
+
+    private static int widestAxis(int[] order, double[][] points, int from, int to) {
+        int widest = 0;
+        double widestSpread = -1;
+        for (int axis = 0; axis < 3; axis++) {
+            double min = Double.POSITIVE_INFINITY;
+            double max = Double.NEGATIVE_INFINITY;
+            for (int i = from; i < to; i++) {
+                double value = points[order[i]][axis];
+                min = Math.min(min, value);
+                max = Math.max(max, value);
+            }
+            if (max - min > widestSpread) {
+                widestSpread = max - min;
+                widest = axis;
+            }
+        }
+        return widest;
+    }
+
+    /**
+     * Partially sorts order[left, right] so that the element at k is the one a full sort would put there.
+     */
+    private static void select(int[] order, double[][] points, int axis, int left, int right, int k) {
+        while (left < right) {
+            double pivot = points[order[(left + right) >>> 1]][axis];
+            int i = left;
+            int j = right;
+            while (i <= j) {
+                while (points[order[i]][axis] < pivot) {
+                    i++;
+                }
+                while (points[order[j]][axis] > pivot) {
+                    j--;
+                }
+                if (i <= j) {
+                    int swap = order[i];
+                    order[i++] = order[j];
+                    order[j--] = swap;
+                }
+            }
+            if (k <= j) {
+                right = j;
+            } else if (k >= i) {
+                left = i;
+            } else {
+                return;
+            }
+        }
+    }
+
+    /**
+     * One query: a bounded max-heap of the nearest slots found so far, keyed by squared chord length.
+     */
+    private final class Search {
+        private final double[] target;
+        private final boolean onlyOpen;
+        private final int[] heapSlots;
+        private final double[] heapDistances;
+        private int heapSize;
+
+        Search(double[] target, int limit, boolean onlyOpen) {
+            this.target = target;
+            this.onlyOpen = onlyOpen;
+            this.heapSlots = new int[limit];
+            this.heapDistances = new double[limit];
+        }
+
+        void visit(int from, int to) {
+            if (from >= to) {
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            if (!onlyOpen || open[middle]) {
+                double dx = coordinates[0][middle] - target[0];
+                double dy = coordinates[1][middle] - target[1];
+                double dz = coordinates[2][middle] - target[2];
+                offer(middle, dx * dx + dy * dy + dz * dz);
+            }
+            if (to - from == 1) {
+                return;
+            }
+            int axis = splitAxes[middle];
+            double difference = target[axis] - coordinates[axis][middle];
+            if (difference < 0) {
+                visit(from, middle);
+                if (mayContainCloser(difference)) {
+                    visit(middle + 1, to);
+                }
+            } else {
+                visit(middle + 1, to);
+                if (mayContainCloser(difference)) {
+                    visit(from, middle);
+                }
+            }
+        }
+
+        private boolean mayContainCloser(double difference) {
+            return heapSize < heapSlots.length || difference * difference < heapDistances[0];
+        }
+
+        private void offer(int slot, double distance) {
+            if (heapSize < heapSlots.length) {
+                int child = heapSize++;
+                while (child > 0) {
+                    int parent = (child - 1) >>> 1;
+                    if (heapDistances[parent] >= distance) {
+                        break;
+                    }
+                    heapSlots[child] = heapSlots[parent];
+                    heapDistances[child] = heapDistances[parent];
+                    child = parent;
+                }
+                heapSlots[child] = slot;
+                heapDistances[child] = distance;
+            } else if (distance < heapDistances[0]) {
+                siftDown(slot, distance, heapSize);
+            }
+        }
+
+        private void siftDown(int slot, double distance, int size) {
+            int parent = 0;
+            while (true) {
+                int child = 2 * parent + 1;
+                if (child >= size) {
+                    break;
+                }
+                if (child + 1 < size && heapDistances[child + 1] > heapDistances[child]) {
+                    child++;
+                }
+                if (heapDistances[child] <= distance) {
+                    break;
+                }
+                heapSlots[parent] = heapSlots[child];
+                heapDistances[parent] = heapDistances[child];
+                parent = child;
+            }
+            heapSlots[parent] = slot;
+            heapDistances[parent] = distance;
+        }
+
+        List<BankAgency> result() {
+            BankAgency[] nearestFirst = new BankAgency[heapSize];
+            for (int size = heapSize; size > 0; size--) {
+                nearestFirst[size - 1] = agencies[heapSlots[0]];
+                siftDown(heapSlots[size - 1], heapDistances[size - 1], size - 1);
+            }
+            return new ArrayList<>(List.of(nearestFirst));
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.acn3to.core.utils;
+
+import org.bson.types.Decimal128;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Helpers for money amounts, which the application keeps as {@code long} counts of cents.
+ * <p>
+ * Integer cents make balance arithmetic exact and allocation-free; amounts are only turned into decimals
+ * at the edges, for display and for storage. MongoDB stores them as {@link Decimal128} values with two
+ * decimal places, so documents still read as currency units and server-side arithmetic stays exact.
+ * </p>
+ */
+public final class Money {
+    /**
+     * Stands for "no balance" where a balance is expected, e.g. for an account that does not exist
+     * or an operation that was rejected. No real balance can take this value.
+     */
+    public static final long NO_BALANCE = Long.MIN_VALUE;
+
+    private static final int SCALE = 2;
+    private static final long CENTS_PER_UNIT = 100;
+    private static final int EXPONENT_BIAS = 6176;
+    private static final long SIGN_BIT = 1L << 63;
+    private static final int EXPONENT_SHIFT = 49;
+    private static final long SCALE_2_HIGH = (long) (EXPONENT_BIAS - SCALE) << EXPONENT_SHIFT;
+    private static final long EXPONENT_MASK = 0x7FFE_0000_0000_0000L;
+    private static final long COEFFICIENT_HIGH_MASK = 0x0001_FFFF_FFFF_FFFFL;
+
+    private Money() {
+    }
+
+    /**
+     * Converts an amount in currency units to cents, rounding half up to the nearest cent.
+     *
+     * @param amount the amount, e.g. {@code 12.345}
+     * @return the amount in cents, e.g. {@code 1235}
+     */
+    public static long ofUnits(double amount) {
+        return Math.round(amount * CENTS_PER_UNIT);
+    }
+
+    /**
+     * Converts a decimal amount in currency units to cents, rounding half up to the nearest cent.
+     *
+     * @param amount the amount
+     * @return the amount in cents
+     * @throws ArithmeticException if the amount does not fit in a long number of cents
+     */
+    public static long ofUnits(BigDecimal amount) {
+        return amount.setScale(SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    /**
+     * Converts cents to a decimal amount in currency units.
+     *
+     * @param cents the amount in cents
+     * @return the amount with two decimal places
+     */
+    public static BigDecimal toUnits(long cents) {
+        return BigDecimal.valueOf(cents, SCALE);
+    }
+
+    /**
+     * Formats cents as a plain decimal amount in currency units, e.g. {@code -12.05}.
+     *
+     * @param cents the amount in cents
+     * @return the formatted amount
+     */
+    public static String format(long cents) {
+        return appendTo(new StringBuilder(24), cents).toString();
+    }
+
+    /**
+     * Appends cents as a plain decimal amount in currency units without allocating.
+     *
+     * @param out   the builder to append to
+     * @param cents the amount in cents
+     * @return the builder
+     */
+    public static StringBuilder appendTo(StringBuilder out, long cents) {
+        if (cents < 0) {
+            out.append('-');
+        }
+        long units = Math.abs(cents / CENTS_PER_UNIT);
+        int fraction = (int) Math.abs(cents % CENTS_PER_UNIT);
+        out.append(units).append('.');
+        if (fraction < 10) {
+            out.append('0');
+        }
+        return out.append(fraction);
+    }
+
+    /**
+     * Converts cents to a Decimal128 with two decimal places, without going through BigDecimal.
+     *
+     * @param cents the amount in cents
+     * @return the amount in currency units
+     */
+    public static Decimal128 toDecimal128(long cents) {
+        long high = SCALE_2_HIGH;
+        long coefficient = cents;
+        if (cents < 0) {
+            high |= SIGN_BIT;
+            coefficient = -cents;
+        }
+        if (coefficient < 0) {
+            // Long.MIN_VALUE has no positive counterpart; take the slow path.
+            return new Decimal128(toUnits(cents));
+        }
+        return Decimal128.fromIEEE754BIDEncoding(high, coefficient);
+    }
+
+    /**
+     * Converts a Decimal128 amount in currency units to cents, rounding half up to the nearest cent.
+     * Values with two decimal places, as written by {@link #toDecimal128}, convert without allocating.
+     *
+     * @param amount the amount in currency units
+     * @return the amount in cents
+     * @throws ArithmeticException if the amount is not finite or does not fit in a long number of cents
+     */
+    public static long ofUnits(Decimal128 amount) {
+        long high = amount.getHigh();
+        long low = amount.getLow();
+        boolean plainEncoding = (high & 0x6000_0000_0000_0000L) != 0x6000_0000_0000_0000L;
+        if (plainEncoding && (high & COEFFICIENT_HIGH_MASK) == 0 && low >= 0
+                && (high & EXPONENT_MASK) == SCALE_2_HIGH) {
+            return high < 0 ? -low : low;
+        }
+        if (!amount.isFinite()) {
+            throw new ArithmeticException("Not a finite amount: " + amount);
+        }
+        if (plainEncoding && (high & COEFFICIENT_HIGH_MASK) == 0 && low == 0) {
+            // Zero, possibly negative zero, which BigDecimal cannot represent.
+            return 0;
+        }
+        return ofUnits(amount.bigDecimalValue());
+    }
+}
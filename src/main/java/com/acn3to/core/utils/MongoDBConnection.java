@@ -8,12 +8,14 @@ import com.mongodb.client.MongoDatabase;
  * Manages the MongoDB connection and provides access to the MongoDB database.
  * <p>
  * This class ensures a single MongoDB connection instance and provides access to the MongoDB database used for operations.
+ * A second, non-blocking client on the reactive-streams driver is created on first use for asynchronous operations.
  * </p>
  */
 public class MongoDBConnection {
     private static final String CONNECTION_STRING = System.getenv("MONGO_URI");
     private static final String DATABASE_NAME = "bank";
     private static MongoClient mongoClient = null;
+    private static com.mongodb.reactivestreams.client.MongoClient reactiveClient = null;
 
     /**
      * Returns the MongoDatabase instance, creating the client if necessary.
@@ -21,6 +23,15 @@ public class MongoDBConnection {
      * @return the MongoDatabase instance
      */
     public static synchronized MongoDatabase getDatabase() {
+        return getClient().getDatabase(DATABASE_NAME);
+    }
+
+    /**
+     * Returns the MongoClient instance, creating it if necessary.
+     *
+     * @return the MongoClient instance
+     */
+    public static synchronized MongoClient getClient() {
         if (mongoClient == null) {
             if (CONNECTION_STRING == null || CONNECTION_STRING.isEmpty()) {
                 throw new RuntimeException("MONGO_URI environment variable not set.");
@@ -32,16 +43,49 @@ public class MongoDBConnection {
                 throw new RuntimeException("Failed to connect to MongoDB", e);
             }
         }
-        return mongoClient.getDatabase(DATABASE_NAME);
+        return mongoClient;
     }
 
     /**
-     * Closes the MongoClient connection.
+     * Returns the reactive MongoDatabase instance, creating the reactive client if necessary.
+     *
+     * @return the reactive MongoDatabase instance
+     */
+    public static synchronized com.mongodb.reactivestreams.client.MongoDatabase getReactiveDatabase() {
+        return getReactiveClient().getDatabase(DATABASE_NAME);
+    }
+
+    /**
+     * Returns the reactive MongoClient instance, creating it if necessary.
+     *
+     * @return the reactive MongoClient instance
+     */
+    public static synchronized com.mongodb.reactivestreams.client.MongoClient getReactiveClient() {
+        if (reactiveClient == null) {
+            if (CONNECTION_STRING == null || CONNECTION_STRING.isEmpty()) {
+                throw new RuntimeException("MONGO_URI environment variable not set.");
+            }
+            try {
+                reactiveClient = com.mongodb.reactivestreams.client.MongoClients.create(CONNECTION_STRING);
+            } catch (Exception e) {
+                e.printStackTrace();
+                throw new RuntimeException("Failed to connect to MongoDB", e);
+            }
+        }
+        return reactiveClient;
+    }
+
+    /**
+     * Closes the MongoClient connections.
      */
     public static synchronized void close() {
         if (mongoClient != null) {
             mongoClient.close();
             mongoClient = null;
         }
+        if (reactiveClient != null) {
+            reactiveClient.close();
+            reactiveClient = null;
+        }
     }
 }
@@ -0,0 +1,155 @@
+package com.acn3to.core.utils;
+
+import com.acn3to.core.metrics.Timer;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A fixed set of locks shared by integer keys.
+ * <p>
+ * Each key is mapped to one of a power-of-two number of stripes, so operations on the same key are
+ * always serialised while operations on keys that land on different stripes proceed in parallel.
+ * Memory use is bounded by the stripe count rather than by the number of distinct keys.
+ * </p>
+ * <p>
+ * When a wait timer is given, {@link #lockPair} records how long it waited for stripes held by other threads.
+ * Uncontended acquisitions succeed on the first try and are not timed.
+ * </p>
+ */
+public class StripedLock {
+    public static final int DEFAULT_STRIPES = 64;
+
+    private final ReentrantLock[] stripes;
+    private final int mask;
+    private final Timer waitTimer;
+
+    /**
+     * Constructs a StripedLock with {@link #DEFAULT_STRIPES} stripes.
+     */
+    public StripedLock() {
+        this(DEFAULT_STRIPES);
+    }
+
+    /**
+     * Constructs a StripedLock with at least the given number of stripes, rounded up to a power of two.
+     *
+     * @param stripeCount the minimum number of stripes
+     * @throws IllegalArgumentException if stripeCount is not positive
+     */
+    public StripedLock(int stripeCount) {
+        this(stripeCount, null);
+    }
+
+    /**
+     * Constructs a StripedLock that records contended lock waits.
+     *
+     * @param stripeCount the minimum number of stripes
+     * @param waitTimer   the timer recording how long contended acquisitions waited, or null not to record them
+     * @throws IllegalArgumentException if stripeCount is not positive
+     */
+    public StripedLock(int stripeCount, Timer waitTimer) {
+        if (stripeCount <= 0) {
+            throw new IllegalArgumentException("Stripe count must be positive: " + stripeCount);
+        }
+        int size = Integer.highestOneBit(stripeCount);
+        if (size < stripeCount) {
+            size <<= 1;
+        }
+        this.stripes = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+        this.mask = size - 1;
+        this.waitTimer = waitTimer;
+    }
+
+    /**
+     * Returns the lock guarding the given key.
+     *
+     * @param key the key to look up
+     * @return the lock for the key's stripe
+     */
+    public ReentrantLock lockFor(int key) {
+        return stripes[stripeIndex(key)];
+    }
+
+    /**
+     * Acquires the locks of two keys in ascending stripe order, so that two threads locking the same pair
+     * in opposite argument order cannot deadlock. Keys sharing a stripe acquire it once.
+     *
+     * @param firstKey  one key
+     * @param secondKey the other key
+     */
+    public void lockPair(int firstKey, int secondKey) {
+        int first = stripeIndex(firstKey);
+        int second = stripeIndex(secondKey);
+        acquire(stripes[Math.min(first, second)]);
+        if (first != second) {
+            acquire(stripes[Math.max(first, second)]);
+        }
+    }
+
+    /**
+     * Releases the locks acquired by {@link #lockPair(int, int)} with the same keys.
+     *
+     * @param firstKey  one key
+     * @param secondKey the other key
+     */
+    public void unlockPair(int firstKey, int secondKey) {
+        int first = stripeIndex(firstKey);
+        int second = stripeIndex(secondKey);
+        if (first != second) {
+            stripes[Math.max(first, second)].unlock();
+        }
+        stripes[Math.min(first, second)].unlock();
+    }
+
+    /**
+     * Acquires every stripe in ascending order, which is consistent with {@link #lockPair(int, int)}, so it cannot
+     * deadlock with pair locks. Once it returns, no other thread holds a stripe until {@link #unlockAll()}.
+     */
+    public void lockAll() {
+        for (ReentrantLock stripe : stripes) {
+            acquire(stripe);
+        }
+    }
+
+    /**
+     * Releases the locks acquired by {@link #lockAll()}.
+     */
+    public void unlockAll() {
+        for (int i = stripes.length - 1; i >= 0; i--) {
+            stripes[i].unlock();
+        }
+    }
+
+    /**
+     * Returns the stripe index the given key maps to.
+     *
+     * @param key the key to look up
+     * @return an index in the range [0, stripeCount)
+     */
+    public int stripeIndex(int key) {
+        int h = key * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & mask;
+    }
+
+    private void acquire(ReentrantLock lock) {
+        if (waitTimer == null) {
+            lock.lock();
+        } else if (!lock.tryLock()) {
+            long start = System.nanoTime();
+            lock.lock();
+            waitTimer.recordSince(start);
+        }
+    }
+
+    /**
+     * Returns the number of stripes.
+     *
+     * @return the stripe count
+     */
+    public int getStripeCount() {
+        return stripes.length;
+    }
+}
@@ -0,0 +1,139 @@
+package com.acn3to.seeding;
+
+import com.acn3to.core.entities.Account;
+import com.acn3to.core.entities.BankAgency;
+import com.acn3to.core.services.BankService;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Generates bank agencies and accounts and writes them in bulk.
+ * <p>
+ * The ID range of each entity type is split recursively on a fork-join pool until a range fits in one chunk.
+ * Each chunk is generated from its own random stream, derived from the seed and the chunk's first ID, and written
+ * with a single bulk write, so chunks are independent and the dataset does not depend on how tasks are scheduled.
+ * </p>
+ */
+public class DataSeeder {
+    private static final long ONE_YEAR_MILLIS = 31556952000L;
+    private static final long ACCOUNT_STREAM = 0x9E3779B97F4A7C15L;
+    private static final long AGENCY_STREAM = 0xC2B2AE3D27D4EB4FL;
+
+    // Coordinates range for Salvador
+    private static final double MIN_LATITUDE = -13.0500;
+    private static final double MAX_LATITUDE = -12.9500;
+    private static final double MIN_LONGITUDE = -38.6000;
+    private static final double MAX_LONGITUDE = -38.4000;
+
+    private final BankService bankService;
+
+    /**
+     * Constructs a DataSeeder writing through the given BankService.
+     *
+     * @param bankService the service used to add accounts and agencies
+     */
+    public DataSeeder(BankService bankService) {
+        this.bankService = bankService;
+    }
+
+    /**
+     * Generates and writes the dataset described by the configuration.
+     *
+     * @param config the dataset to generate
+     * @return a summary of the run
+     */
+    public SeedReport seed(SeedConfig config) {
+        long now = System.currentTimeMillis();
+        long start = System.nanoTime();
+        ForkJoinPool pool = new ForkJoinPool(config.parallelism());
+        try {
+            pool.invoke(new ChunkTask(config, now, false, 1, config.agencies() + 1));
+            pool.invoke(new ChunkTask(config, now, true, 1, config.accounts() + 1));
+        } finally {
+            pool.shutdown();
+        }
+        return new SeedReport(config.accounts(), config.agencies(), Duration.ofNanos(System.nanoTime() - start));
+    }
+
+    private static Account generateAccount(int accountId, SplittableRandom random, long now) {
+        return new Account(
+                50_000 + random.nextLong(150_001),
+                accountId,
+                "Account Holder " + accountId,
+                "Savings",
+                random.nextBoolean() ? "Active" : "Inactive",
+                randomDate(random, now)
+        );
+    }
+
+    private static BankAgency generateAgency(int number, SplittableRandom random, long now) {
+        return new BankAgency(
+                "Agency-" + number,
+                MIN_LATITUDE + random.nextDouble() * (MAX_LATITUDE - MIN_LATITUDE),
+                MIN_LONGITUDE + random.nextDouble() * (MAX_LONGITUDE - MIN_LONGITUDE),
+                "Address " + number,
+                "Phone " + number,
+                "Manager " + number,
+                randomDate(random, now),
+                random.nextBoolean() ? BankAgency.STATUS_OPEN : "Closed"
+        );
+    }
+
+    private static Date randomDate(SplittableRandom random, long now) {
+        return new Date(random.nextLong(now - ONE_YEAR_MILLIS, now));
+    }
+
+    /**
+     * Generates and writes the entities with IDs in [from, to), splitting the range while it exceeds one chunk.
+     */
+    private class ChunkTask extends RecursiveAction {
+        private final SeedConfig config;
+        private final long now;
+        private final boolean accounts;
+        private final int from;
+        private final int to;
+
+        ChunkTask(SeedConfig config, long now, boolean accounts, int from, int to) {
+            this.config = config;
+            this.now = now;
+            this.accounts = accounts;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= config.chunkSize()) {
+                writeChunk();
+                return;
+            }
+            // Split on a chunk boundary so every chunk, and its random stream, is the same however ranges are divided.
+            int chunks = (to - from + config.chunkSize() - 1) / config.chunkSize();
+            int middle = from + (chunks / 2) * config.chunkSize();
+            invokeAll(new ChunkTask(config, now, accounts, from, middle), new ChunkTask(config, now, accounts, middle, to));
+        }
+
+        private void writeChunk() {
+            SplittableRandom random = new SplittableRandom(config.seed() ^ ((accounts ? ACCOUNT_STREAM : AGENCY_STREAM) * from));
+            if (accounts) {
+                List<Account> chunk = new ArrayList<>(to - from);
+                for (int id = from; id < to; id++) {
+                    chunk.add(generateAccount(id, random, now));
+                }
+                bankService.addAccounts(chunk);
+            } else {
+                List<BankAgency> chunk = new ArrayList<>(to - from);
+                for (int number = from; number < to; number++) {
+                    chunk.add(generateAgency(number, random, now));
+                }
+                bankService.addBankAgencies(chunk);
+            }
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.acn3to.seeding;
+
+/**
+ * Describes the dataset to generate before a workload runs.
+ *
+ * @param accounts    the number of accounts to create, numbered from 1
+ * @param agencies    the number of bank agencies to create, numbered from 1
+ * @param chunkSize   the number of entities generated and written together by one task
+ * @param parallelism the number of tasks generating and writing chunks at the same time
+ * @param seed        the random seed; the same seed always produces the same dataset
+ */
+public record SeedConfig(int accounts, int agencies, int chunkSize, int parallelism, long seed) {
+
+    public SeedConfig {
+        if (accounts < 0 || agencies < 0) {
+            throw new IllegalArgumentException("Accounts and agencies must not be negative");
+        }
+        if (chunkSize <= 0 || parallelism <= 0) {
+            throw new IllegalArgumentException("Chunk size and parallelism must be positive");
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.acn3to.seeding;
+
+import java.time.Duration;
+
+/**
+ * Summarises a completed seeding run.
+ *
+ * @param accounts the number of accounts written
+ * @param agencies the number of bank agencies written
+ * @param elapsed  the wall-clock time the run took
+ */
+public record SeedReport(int accounts, int agencies, Duration elapsed) {
+
+    /**
+     * Returns the number of documents written per second.
+     *
+     * @return the write rate, or 0 if the run took no measurable time
+     */
+    public double documentsPerSecond() {
+        long nanos = elapsed.toNanos();
+        return nanos > 0 ? (accounts + agencies) * 1_000_000_000.0 / nanos : 0;
+    }
+
+    /**
+     * Formats the report as a one-line summary.
+     *
+     * @return the formatted report
+     */
+    public String format() {
+        return String.format("Seeded %d accounts and %d agencies in %d ms (%.0f documents/s)%n",
+                accounts, agencies, elapsed.toMillis(), documentsPerSecond());
+    }
+}
@@ -0,0 +1,202 @@
+package com.acn3to.threads;
+
+import com.acn3to.core.logging.EventLog;
+import com.acn3to.core.logging.Level;
+import com.acn3to.core.services.AsyncAccountService;
+
+import java.time.Duration;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs the same simulated customer workload as {@link WorkloadDriver} on the {@link AsyncAccountService},
+ * without a thread per customer.
+ * <p>
+ * Each customer is a small state machine: it submits an operation, and when the operation's future completes
+ * it records the latency and schedules its next step after the think time. A single scheduler thread starts
+ * every step and the storage driver's own threads complete the operations, so the number of customers, and of
+ * operations in flight, is bounded by memory rather than by threads.
+ * </p>
+ */
+public class AsyncWorkloadDriver {
+    private final AsyncAccountService accountService;
+    private final EventLog eventLog;
+
+    /**
+     * Constructs an AsyncWorkloadDriver logging to the shared {@link EventLog#console()}.
+     *
+     * @param accountService the service customers operate through
+     */
+    public AsyncWorkloadDriver(AsyncAccountService accountService) {
+        this(accountService, EventLog.console());
+    }
+
+    /**
+     * Constructs an AsyncWorkloadDriver.
+     *
+     * @param accountService the service customers operate through
+     * @param eventLog       where the workload and its sessions log events
+     */
+    public AsyncWorkloadDriver(AsyncAccountService accountService, EventLog eventLog) {
+        this.accountService = accountService;
+        this.eventLog = eventLog;
+    }
+
+    /**
+     * Runs the workload and waits for every customer to finish.
+     * Customer {@code i} (counting from 0) operates on account {@code (i % accounts) + 1}.
+     *
+     * @param config the workload settings
+     * @return the throughput and latency report
+     */
+    public WorkloadReport run(WorkloadConfig config) {
+        WorkloadMetrics metrics = new WorkloadMetrics();
+        eventLog.at(Level.INFO, "workload.start")
+                .with("customers", config.customers())
+                .with("accounts", config.accounts())
+                .with("operationsPerCustomer", config.operationsPerCustomer())
+                .with("mode", "async")
+                .publish();
+        long start = System.nanoTime();
+        long deadline = start + config.duration().toNanos();
+
+        CountDownLatch finished = new CountDownLatch(config.customers());
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "AsyncWorkloadScheduler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            for (int i = 0; i < config.customers(); i++) {
+                int accountId = (i % config.accounts()) + 1;
+                Session session = new Session("Customer-" + (i + 1), accountId, config, deadline, metrics, scheduler, finished);
+                scheduler.execute(session::step);
+            }
+            finished.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            scheduler.shutdownNow();
+        }
+
+        WorkloadReport report = metrics.toReport(Duration.ofNanos(System.nanoTime() - start));
+        eventLog.at(Level.INFO, "workload.end")
+                .with("operations", report.operations())
+                .with("errors", report.errors())
+                .with("elapsedMillis", report.elapsed().toMillis())
+                .publish();
+        return report;
+    }
+
+    /**
+     * One simulated customer, performing the same random deposits, withdrawals and balance inquiries as a
+     * {@link CustomerSession}. Only one of its steps is pending at a time, so its fields need no synchronisation
+     * beyond the happens-before edges of the futures and the scheduler.
+     */
+    private final class Session {
+        private final String name;
+        private final int accountId;
+        private final WorkloadConfig config;
+        private final long deadlineNanos;
+        private final WorkloadMetrics metrics;
+        private final ScheduledExecutorService scheduler;
+        private final CountDownLatch finished;
+        private int completed;
+
+        Session(String name, int accountId, WorkloadConfig config, long deadlineNanos, WorkloadMetrics metrics,
+                ScheduledExecutorService scheduler, CountDownLatch finished) {
+            this.name = name;
+            this.accountId = accountId;
+            this.config = config;
+            this.deadlineNanos = deadlineNanos;
+            this.metrics = metrics;
+            this.scheduler = scheduler;
+            this.finished = finished;
+        }
+
+        void step() {
+            if (completed >= config.operationsPerCustomer() || isExpired()) {
+                finished.countDown();
+                return;
+            }
+            Random random = ThreadLocalRandom.current();
+            long amount = random.nextLong(1, 100_001);
+            boolean deposit = random.nextDouble() < config.depositRatio();
+            boolean inquire = random.nextDouble() < config.balanceInquiryRatio();
+            String transactionType = deposit ? "Deposit" : "Withdrawal";
+            if (config.verbose()) {
+                eventLog.at(Level.INFO, "operation.attempt")
+                        .with("customer", name)
+                        .with("account", accountId)
+                        .with("type", transactionType)
+                        .withMoney("amount", amount)
+                        .publish();
+            }
+
+            long start = System.nanoTime();
+            CompletableFuture<Long> operation;
+            try {
+                operation = deposit ? accountService.deposit(accountId, amount) : accountService.withdraw(accountId, amount);
+            } catch (RuntimeException e) {
+                operation = CompletableFuture.failedFuture(e);
+            }
+            operation.whenComplete((balance, error) -> {
+                metrics.record(deposit ? WorkloadMetrics.Operation.DEPOSIT : WorkloadMetrics.Operation.WITHDRAWAL,
+                        System.nanoTime() - start);
+                if (error != null) {
+                    Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+                    metrics.recordError();
+                    eventLog.at(Level.WARN, "operation.failed")
+                            .with("customer", name)
+                            .with("account", accountId)
+                            .with("type", transactionType)
+                            .withMoney("amount", amount)
+                            .with("error", cause.getClass().getSimpleName())
+                            .publish();
+                }
+                completed++;
+                if (inquire) {
+                    inquire(transactionType, error != null);
+                } else {
+                    scheduleNext();
+                }
+            });
+        }
+
+        private void inquire(String transactionType, boolean failed) {
+            long start = System.nanoTime();
+            accountService.getAccountBalance(accountId).whenComplete((balance, error) -> {
+                metrics.record(WorkloadMetrics.Operation.BALANCE_INQUIRY, System.nanoTime() - start);
+                if (config.verbose() && !failed && error == null) {
+                    eventLog.at(Level.INFO, "operation.processed")
+                            .with("customer", name)
+                            .with("account", accountId)
+                            .with("type", transactionType)
+                            .withMoney("balance", balance)
+                            .publish();
+                }
+                scheduleNext();
+            });
+        }
+
+        // Always goes through the scheduler, so operations that complete at once do not nest on the stack.
+        private void scheduleNext() {
+            long pause = config.thinkTime().nextMillis(ThreadLocalRandom.current());
+            if (pause > 0) {
+                scheduler.schedule(this::step, pause, TimeUnit.MILLISECONDS);
+            } else {
+                scheduler.execute(this::step);
+            }
+        }
+
+        private boolean isExpired() {
+            return !config.duration().isZero() && System.nanoTime() - deadlineNanos >= 0;
+        }
+    }
+}
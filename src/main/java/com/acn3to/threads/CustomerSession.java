@@ -0,0 +1,115 @@
+package com.acn3to.threads;
+
+import com.acn3to.core.logging.EventLog;
+import com.acn3to.core.logging.Level;
+import com.acn3to.core.services.AccountService;
+
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * A simulated customer performing random deposits and withdrawals against one account.
+ * <p>
+ * The session is a plain Runnable so it can run on a platform thread, such as {@link CustomerThread},
+ * or as one of many virtual threads started by the {@link WorkloadDriver}.
+ * </p>
+ */
+public class CustomerSession implements Runnable {
+    private final String name;
+    private final int accountId;
+    private final AccountService accountService;
+    private final WorkloadConfig config;
+    private final long deadlineNanos;
+    private final WorkloadMetrics metrics;
+    private final EventLog eventLog;
+
+    /**
+     * Constructs a CustomerSession.
+     *
+     * @param name           the customer name included in logged events
+     * @param accountId      the ID of the account the customer operates on
+     * @param accountService the service used to perform operations
+     * @param config         the workload settings; only the per-customer settings are used
+     * @param deadlineNanos  the {@link System#nanoTime()} after which no new operation starts,
+     *                       ignored when the configured duration is zero
+     * @param metrics        where operation latencies are recorded
+     * @param eventLog       where operations are logged
+     */
+    public CustomerSession(String name, int accountId, AccountService accountService, WorkloadConfig config,
+                           long deadlineNanos, WorkloadMetrics metrics, EventLog eventLog) {
+        this.name = name;
+        this.accountId = accountId;
+        this.accountService = accountService;
+        this.config = config;
+        this.deadlineNanos = deadlineNanos;
+        this.metrics = metrics;
+        this.eventLog = eventLog;
+    }
+
+    @Override
+    public void run() {
+        Random random = ThreadLocalRandom.current();
+        try {
+            for (int i = 0; i < config.operationsPerCustomer() && !isExpired(); i++) {
+                long amount = random.nextLong(1, 100_001);
+                boolean deposit = random.nextDouble() < config.depositRatio();
+                String transactionType = deposit ? "Deposit" : "Withdrawal";
+                boolean error = false;
+
+                if (config.verbose()) {
+                    eventLog.at(Level.INFO, "operation.attempt")
+                            .with("customer", name)
+                            .with("account", accountId)
+                            .with("type", transactionType)
+                            .withMoney("amount", amount)
+                            .publish();
+                }
+                long start = System.nanoTime();
+                try {
+                    if (deposit) {
+                        accountService.deposit(accountId, amount);
+                    } else {
+                        accountService.withdraw(accountId, amount);
+                    }
+                } catch (Exception e) {
+                    error = true;
+                    metrics.recordError();
+                    eventLog.at(Level.WARN, "operation.failed")
+                            .with("customer", name)
+                            .with("account", accountId)
+                            .with("type", transactionType)
+                            .withMoney("amount", amount)
+                            .with("error", e.getClass().getSimpleName())
+                            .publish();
+                }
+                metrics.record(deposit ? WorkloadMetrics.Operation.DEPOSIT : WorkloadMetrics.Operation.WITHDRAWAL,
+                        System.nanoTime() - start);
+
+                if (random.nextDouble() < config.balanceInquiryRatio()) {
+                    start = System.nanoTime();
+                    long balance = accountService.getAccountBalance(accountId);
+                    metrics.record(WorkloadMetrics.Operation.BALANCE_INQUIRY, System.nanoTime() - start);
+                    if (config.verbose() && !error) {
+                        eventLog.at(Level.INFO, "operation.processed")
+                                .with("customer", name)
+                                .with("account", accountId)
+                                .with("type", transactionType)
+                                .withMoney("balance", balance)
+                                .publish();
+                    }
+                }
+
+                long pause = config.thinkTime().nextMillis(random);
+                if (pause > 0) {
+                    Thread.sleep(pause);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private boolean isExpired() {
+        return !config.duration().isZero() && System.nanoTime() - deadlineNanos >= 0;
+    }
+}
@@ -0,0 +1,52 @@
+package com.acn3to.threads;
+
+import java.util.Random;
+
+/**
+ * The pause a simulated customer takes between two operations.
+ *
+ * @param distribution how pause lengths are distributed
+ * @param millis       the fixed pause, the upper bound of a uniform pause, or the mean of an exponential pause
+ */
+public record ThinkTime(Distribution distribution, long millis) {
+
+    /**
+     * The supported pause length distributions.
+     */
+    public enum Distribution {
+        /** Always pause exactly {@code millis}. */
+        FIXED,
+        /** Pause a uniformly random time in [0, {@code millis}). */
+        UNIFORM,
+        /** Pause an exponentially distributed time with mean {@code millis}. */
+        EXPONENTIAL
+    }
+
+    /**
+     * A think time that never pauses.
+     */
+    public static final ThinkTime NONE = new ThinkTime(Distribution.FIXED, 0);
+
+    public ThinkTime {
+        if (millis < 0) {
+            throw new IllegalArgumentException("Think time must not be negative: " + millis);
+        }
+    }
+
+    /**
+     * Draws the next pause length.
+     *
+     * @param random the source of randomness
+     * @return the pause in milliseconds
+     */
+    public long nextMillis(Random random) {
+        if (millis == 0) {
+            return 0;
+        }
+        return switch (distribution) {
+            case FIXED -> millis;
+            case UNIFORM -> random.nextLong(millis);
+            case EXPONENTIAL -> (long) (-Math.log(1.0 - random.nextDouble()) * millis);
+        };
+    }
+}
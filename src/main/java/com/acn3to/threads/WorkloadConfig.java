@@ -0,0 +1,31 @@
+package com.acn3to.threads;
+
+import java.time.Duration;
+
+/**
+ * Describes a simulated customer workload.
+ *
+ * @param customers              the number of concurrent customer sessions
+ * @param accounts               the number of accounts, numbered from 1, that sessions are spread over
+ * @param operationsPerCustomer  the number of deposits or withdrawals each session performs
+ * @param duration               the longest the workload may run, or {@link Duration#ZERO} for no limit
+ * @param thinkTime              the pause between two operations of a session
+ * @param depositRatio           the probability that an operation is a deposit rather than a withdrawal
+ * @param balanceInquiryRatio    the probability that an operation is followed by a balance inquiry
+ * @param verbose                whether sessions print every operation to the console
+ */
+public record WorkloadConfig(int customers, int accounts, int operationsPerCustomer, Duration duration,
+                             ThinkTime thinkTime, double depositRatio, double balanceInquiryRatio, boolean verbose) {
+
+    public WorkloadConfig {
+        if (customers <= 0 || accounts <= 0 || operationsPerCustomer <= 0) {
+            throw new IllegalArgumentException("Customers, accounts and operations per customer must be positive");
+        }
+        if (duration.isNegative()) {
+            throw new IllegalArgumentException("Duration must not be negative: " + duration);
+        }
+        if (depositRatio < 0 || depositRatio > 1 || balanceInquiryRatio < 0 || balanceInquiryRatio > 1) {
+            throw new IllegalArgumentException("Ratios must be between 0 and 1");
+        }
+    }
+}
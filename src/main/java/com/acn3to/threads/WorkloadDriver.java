@@ -0,0 +1,75 @@
+package com.acn3to.threads;
+
+import com.acn3to.core.logging.EventLog;
+import com.acn3to.core.logging.Level;
+import com.acn3to.core.services.AccountService;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Runs a simulated customer workload with one virtual thread per customer session.
+ * <p>
+ * Sessions spend most of their time in think time or waiting on I/O, which parks a virtual thread
+ * without holding a carrier thread, so hundreds of thousands of concurrent customers are practical.
+ * </p>
+ */
+public class WorkloadDriver {
+    private final AccountService accountService;
+    private final EventLog eventLog;
+
+    /**
+     * Constructs a WorkloadDriver logging to the shared {@link EventLog#console()}.
+     *
+     * @param accountService the service customers operate through
+     */
+    public WorkloadDriver(AccountService accountService) {
+        this(accountService, EventLog.console());
+    }
+
+    /**
+     * Constructs a WorkloadDriver.
+     *
+     * @param accountService the service customers operate through
+     * @param eventLog       where the workload and its sessions log events
+     */
+    public WorkloadDriver(AccountService accountService, EventLog eventLog) {
+        this.accountService = accountService;
+        this.eventLog = eventLog;
+    }
+
+    /**
+     * Runs the workload and waits for every session to finish.
+     * Customer {@code i} (counting from 0) operates on account {@code (i % accounts) + 1}.
+     *
+     * @param config the workload settings
+     * @return the throughput and latency report
+     */
+    public WorkloadReport run(WorkloadConfig config) {
+        WorkloadMetrics metrics = new WorkloadMetrics();
+        eventLog.at(Level.INFO, "workload.start")
+                .with("customers", config.customers())
+                .with("accounts", config.accounts())
+                .with("operationsPerCustomer", config.operationsPerCustomer())
+                .publish();
+        long start = System.nanoTime();
+        long deadline = start + config.duration().toNanos();
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < config.customers(); i++) {
+                int accountId = (i % config.accounts()) + 1;
+                executor.execute(new CustomerSession("Customer-" + (i + 1), accountId, accountService, config, deadline,
+                        metrics, eventLog));
+            }
+        }
+
+        WorkloadReport report = metrics.toReport(Duration.ofNanos(System.nanoTime() - start));
+        eventLog.at(Level.INFO, "workload.end")
+                .with("operations", report.operations())
+                .with("errors", report.errors())
+                .with("elapsedMillis", report.elapsed().toMillis())
+                .publish();
+        return report;
+    }
+}
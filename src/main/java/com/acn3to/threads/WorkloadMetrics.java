@@ -0,0 +1,75 @@
+package com.acn3to.threads;
+
+import com.acn3to.core.metrics.LatencyHistogram;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Collects per-operation latencies and error counts from customer sessions.
+ */
+public class WorkloadMetrics {
+
+    /**
+     * The operations a customer session performs.
+     */
+    public enum Operation {
+        DEPOSIT,
+        WITHDRAWAL,
+        BALANCE_INQUIRY
+    }
+
+    private final LatencyHistogram[] histograms = new LatencyHistogram[Operation.values().length];
+    private final LongAdder errors = new LongAdder();
+
+    public WorkloadMetrics() {
+        for (int i = 0; i < histograms.length; i++) {
+            histograms[i] = new LatencyHistogram();
+        }
+    }
+
+    /**
+     * Records the latency of a completed operation.
+     *
+     * @param operation the operation performed
+     * @param nanos     how long it took, in nanoseconds
+     */
+    public void record(Operation operation, long nanos) {
+        histograms[operation.ordinal()].record(nanos);
+    }
+
+    /**
+     * Counts an operation that failed with an exception.
+     */
+    public void recordError() {
+        errors.increment();
+    }
+
+    /**
+     * Summarises everything recorded so far.
+     *
+     * @param elapsed the wall-clock time the workload ran for
+     * @return the report
+     */
+    public WorkloadReport toReport(Duration elapsed) {
+        List<WorkloadReport.OperationSummary> summaries = new ArrayList<>();
+        long operations = 0;
+        for (Operation operation : Operation.values()) {
+            LatencyHistogram histogram = histograms[operation.ordinal()];
+            long count = histogram.getCount();
+            operations += count;
+            summaries.add(new WorkloadReport.OperationSummary(
+                    operation,
+                    count,
+                    histogram.getValueAtPercentile(50),
+                    histogram.getValueAtPercentile(90),
+                    histogram.getValueAtPercentile(99),
+                    histogram.getValueAtPercentile(99.9),
+                    histogram.getMax()
+            ));
+        }
+        return new WorkloadReport(operations, errors.sum(), elapsed, summaries);
+    }
+}
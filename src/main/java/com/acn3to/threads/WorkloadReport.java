@@ -0,0 +1,62 @@
+package com.acn3to.threads;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * The outcome of a workload run: throughput and latency percentiles per operation.
+ *
+ * @param operations the number of operations completed
+ * @param errors     the number of operations that failed with an exception
+ * @param elapsed    the wall-clock time the workload ran for
+ * @param summaries  latency statistics for each operation type
+ */
+public record WorkloadReport(long operations, long errors, Duration elapsed, List<OperationSummary> summaries) {
+
+    /**
+     * Latency statistics for one operation type, in nanoseconds.
+     *
+     * @param operation the operation type
+     * @param count     the number of times it was performed
+     * @param p50       the median latency
+     * @param p90       the 90th percentile latency
+     * @param p99       the 99th percentile latency
+     * @param p999      the 99.9th percentile latency
+     * @param max       the maximum latency
+     */
+    public record OperationSummary(WorkloadMetrics.Operation operation, long count, long p50, long p90, long p99,
+                                   long p999, long max) {}
+
+    /**
+     * Returns the achieved throughput.
+     *
+     * @return operations per second
+     */
+    public double operationsPerSecond() {
+        double seconds = elapsed.toNanos() / 1_000_000_000.0;
+        return seconds > 0 ? operations / seconds : 0;
+    }
+
+    /**
+     * Formats the report as a human-readable table.
+     *
+     * @return the formatted report
+     */
+    public String format() {
+        StringBuilder builder = new StringBuilder();
+        builder.append(String.format("Completed %d operations (%d errors) in %.2f s: %.1f ops/sec%n",
+                operations, errors, elapsed.toNanos() / 1_000_000_000.0, operationsPerSecond()));
+        builder.append(String.format("%-16s %10s %10s %10s %10s %10s %10s%n",
+                "operation", "count", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms"));
+        for (OperationSummary summary : summaries) {
+            builder.append(String.format("%-16s %10d %10.3f %10.3f %10.3f %10.3f %10.3f%n",
+                    summary.operation(), summary.count(), millis(summary.p50()), millis(summary.p90()),
+                    millis(summary.p99()), millis(summary.p999()), millis(summary.max())));
+        }
+        return builder.toString();
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+}